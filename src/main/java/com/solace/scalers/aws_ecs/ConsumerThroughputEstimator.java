@@ -0,0 +1,72 @@
+package com.solace.scalers.aws_ecs;
+
+/**
+ * Learns the message throughput of one consumer task for an ECS service from queue observations:
+ * per-task throughput = averageTxMsgRate / running tasks, smoothed with an exponentially weighted moving average.
+ * - While the queue holds a backlog the consumers are assumed busy, so every sample updates the average
+ * - With an empty queue the tx rate is limited by the rx rate, not by the consumers; such a sample is only a lower
+ *   bound and updates the average only if it is higher
+ * Each observation is learned once, however often the service is evaluated.
+ * Messages delivered but not yet acknowledged count toward the backlog, so the estimate errs low, which sizes the
+ * service for more replicas rather than fewer.
+ */
+public class ConsumerThroughputEstimator {
+
+    // Weight of each new sample
+    public static final double  DEFAULT_SMOOTHING = 0.2;
+
+    private final double        smoothing;
+
+    // Messages per second per task; NaN until the first sample
+    private double              perTaskThroughput = Double.NaN;
+
+    private long                lastObservationTime = Long.MIN_VALUE;
+
+    public ConsumerThroughputEstimator() {
+        this( DEFAULT_SMOOTHING );
+    }
+
+    /**
+     * Constructor
+     * @param smoothing - Weight of each new sample, in (0, 1]
+     */
+    public ConsumerThroughputEstimator( double smoothing ) {
+        if ( !( smoothing > 0.0 && smoothing <= 1.0 ) ) {
+            throw new IllegalArgumentException( "smoothing must be in (0, 1]: " + smoothing );
+        }
+        this.smoothing = smoothing;
+    }
+
+    /**
+     * Learn from an observation
+     * @param observationTime - Observations at or before the last learned time are ignored
+     * @param messageCount - Queue backlog
+     * @param averageTxRate - Messages per second delivered to consumers; negative if not reported
+     * @param runningTasks - Running task count when observed; null if not known
+     */
+    public synchronized void update( long observationTime, long messageCount, long averageTxRate, Integer runningTasks ) {
+        if ( observationTime <= lastObservationTime ) {
+            return;
+        }
+        lastObservationTime = observationTime;
+        if ( averageTxRate < 0L || runningTasks == null || runningTasks < 1 ) {
+            return;
+        }
+
+        final double sample = ( double ) averageTxRate / runningTasks;
+        if ( Double.isNaN( perTaskThroughput ) ) {
+            if ( sample > 0.0 ) {
+                perTaskThroughput = sample;
+            }
+        } else if ( messageCount > 0L || sample > perTaskThroughput ) {
+            perTaskThroughput += smoothing * ( sample - perTaskThroughput );
+        }
+    }
+
+    /**
+     * @return Learned messages per second per task; null until learned
+     */
+    public synchronized Double getPerTaskThroughput() {
+        return Double.isNaN( perTaskThroughput ) || perTaskThroughput <= 0.0 ? null : perTaskThroughput;
+    }
+}
@@ -0,0 +1,92 @@
+package com.solace.scalers.aws_ecs;
+
+import java.util.Objects;
+
+import com.solace.scalers.aws_ecs.model.semp_v2.SempQueueObservation;
+
+/**
+ * Computes the message rates of one queue from the change in its cumulative counters between consecutive
+ * observations, so that rate-based scaling reacts within one polling interval rather than following the broker's
+ * averageRxMsgRate/averageTxMsgRate, which lag changes by tens of seconds.
+ * - receive rate = change in spooledMsgCount / elapsed seconds
+ * - transmit rate = messages that left the queue / elapsed seconds, where messages that left the queue are the
+ *   change in spooledMsgCount less the change in msgCount
+ * No rate is computed, and the observation becomes the new baseline, when:
+ * - there is no previous observation, or a counter is not reported
+ * - spooledMsgCount decreased: the broker statistics were cleared or the broker restarted
+ * - the observation was reported by a different broker than the baseline: the counters of the two brokers are
+ *   not comparable after a failover
+ * In those cases the broker averages are kept.
+ * Not thread-safe; called from a single pipeline ingest stage.
+ */
+public class CounterRateCalculator {
+
+    private long    lastObservationTime = 0L;
+
+    private long    lastSpooledMsgCount = SempQueueObservation.NOT_REPORTED;
+
+    private long    lastMsgCount = SempQueueObservation.NOT_REPORTED;
+
+    private String  lastBrokerSempUrl;
+
+    // Number of times the baseline was discarded because a counter decreased or the broker changed
+    private long    resetCount = 0L;
+
+    public long getResetCount() {
+        return resetCount;
+    }
+
+    /**
+     * Compute the message rates for an observation
+     * @param observationTime
+     * @param sempQueueObservation
+     * @return A copy of the observation with averageRxMsgRate and averageTxMsgRate replaced by the computed rates;
+     *         the observation itself if no rate could be computed
+     */
+    public SempQueueObservation apply( long observationTime, SempQueueObservation sempQueueObservation ) {
+        if ( SempQueueObservation.isReported( lastSpooledMsgCount ) && observationTime <= lastObservationTime ) {
+            // Out of order or repeated; keep the baseline
+            return sempQueueObservation;
+        }
+
+        final long spooledMsgCount = sempQueueObservation.getSpooledMsgCount(),
+                   msgCount = sempQueueObservation.getMsgCount();
+        final boolean baselineUsable =
+                        SempQueueObservation.isReported( lastSpooledMsgCount ) &&
+                        SempQueueObservation.isReported( lastMsgCount ) &&
+                        SempQueueObservation.isReported( spooledMsgCount ) &&
+                        SempQueueObservation.isReported( msgCount );
+        final boolean counterReset = baselineUsable &&
+                        ( spooledMsgCount < lastSpooledMsgCount ||
+                          !Objects.equals( lastBrokerSempUrl, sempQueueObservation.getBrokerSempUrl() ) );
+
+        final long lastSpooled = lastSpooledMsgCount,
+                   lastCount = lastMsgCount,
+                   lastTime = lastObservationTime;
+        lastObservationTime = observationTime;
+        lastSpooledMsgCount = spooledMsgCount;
+        lastMsgCount = msgCount;
+        lastBrokerSempUrl = sempQueueObservation.getBrokerSempUrl();
+
+        if ( !baselineUsable ) {
+            return sempQueueObservation;
+        }
+        if ( counterReset ) {
+            resetCount++;
+            return sempQueueObservation;
+        }
+
+        final double elapsedSeconds = ( observationTime - lastTime ) / 1000.0;
+        final long received = spooledMsgCount - lastSpooled,
+                   removed = Math.max( received - ( msgCount - lastCount ), 0L );
+        return new SempQueueObservation(
+                        sempQueueObservation.getQueueName(),
+                        msgCount,
+                        Math.round( received / elapsedSeconds ),
+                        Math.round( removed / elapsedSeconds ),
+                        sempQueueObservation.getMsgSpoolUsage(),
+                        sempQueueObservation.getMaxMsgSpoolUsage(),
+                        spooledMsgCount,
+                        sempQueueObservation.getBrokerSempUrl() );
+    }
+}
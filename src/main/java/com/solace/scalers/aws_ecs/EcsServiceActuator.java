@@ -0,0 +1,337 @@
+package com.solace.scalers.aws_ecs;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import com.amazonaws.SdkBaseException;
+import com.amazonaws.retry.RetryUtils;
+import com.amazonaws.services.ecs.AmazonECS;
+import com.amazonaws.services.ecs.model.UpdateServiceRequest;
+import com.amazonaws.services.ecs.model.UpdateServiceResult;
+import com.solace.scalers.aws_ecs.model.ScalerConfig.EcsServiceConfig;
+import com.solace.scalers.aws_ecs.util.LogUtils;
+
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Issues ECS UpdateService requests for all services, off the scaling decision path.
+ * - Requests for different services are sent concurrently on the executor
+ * - Only the latest target per service is sent: a target submitted while an earlier one is waiting replaces it, and
+ *   a target equal to the one in flight is dropped
+ * - A client-side token bucket shared by all services keeps the request rate within the ECS API rate limits
+ * - Throttled requests are retried up to MAX_THROTTLING_RETRIES times with exponential backoff and full jitter
+ * The caller's UpdateCallback is notified when the update succeeds or fails; superseded targets are not reported.
+ * The state kept for a service is dropped by removeService once no update for it is in flight.
+ */
+@Log4j2
+public class EcsServiceActuator {
+
+    /**
+     * Notified with the outcome of an update
+     */
+    public interface UpdateCallback {
+
+        void updated( int desiredCount );
+
+        void failed( int desiredCount, Exception exception );
+    }
+
+    // Token bucket defaults, kept below the ECS UpdateService request rate limits
+    public static final int     DEFAULT_BUCKET_CAPACITY = 10;
+
+    public static final double  DEFAULT_REFILL_PER_SECOND = 2.0;
+
+    public static final int     MAX_THROTTLING_RETRIES = 6;
+
+    public static final long    THROTTLING_BACKOFF_BASE_MILLIS = 500L,
+                                THROTTLING_BACKOFF_MAX_MILLIS = 20000L;
+
+    private final AmazonECS                 ecs;
+
+    private final ScheduledExecutorService  executor;
+
+    private final TokenBucket               tokenBucket;
+
+    // Indexed by service designation
+    private final Map<String, ServiceSlot>  serviceSlots = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor with default rate limits
+     * @param ecs
+     * @param executor - Sends the requests; its thread count bounds the requests in flight
+     */
+    public EcsServiceActuator( AmazonECS ecs, ScheduledExecutorService executor ) {
+        this( ecs, executor, DEFAULT_BUCKET_CAPACITY, DEFAULT_REFILL_PER_SECOND );
+    }
+
+    /**
+     * Constructor
+     * @param ecs
+     * @param executor - Sends the requests; its thread count bounds the requests in flight
+     * @param bucketCapacity - Requests that may be sent in a burst
+     * @param refillPerSecond - Sustained requests per second
+     */
+    public EcsServiceActuator( AmazonECS ecs, ScheduledExecutorService executor, int bucketCapacity, double refillPerSecond ) {
+        this.ecs = ecs;
+        this.executor = executor;
+        this.tokenBucket = new TokenBucket( bucketCapacity, refillPerSecond, System::nanoTime );
+    }
+
+    /**
+     * Request the desired count for a service; returns without waiting for ECS
+     * @param ecsServiceConfig
+     * @param desiredCount
+     * @param callback
+     */
+    public void updateDesiredCount( EcsServiceConfig ecsServiceConfig, int desiredCount, UpdateCallback callback ) {
+        final String serviceDesignation = LogUtils.getServiceDesignation( ecsServiceConfig );
+        ServiceSlot slot;
+        while ( true ) {
+            slot = serviceSlots.computeIfAbsent( serviceDesignation, designation -> new ServiceSlot( ecsServiceConfig ) );
+            synchronized ( slot ) {
+                if ( !slot.dropped ) {
+                    // The service was added again before the slot was dropped
+                    slot.removed = false;
+                    break;
+                }
+            }
+        }
+        synchronized ( slot ) {
+            if ( slot.inFlight && slot.pending == null && slot.inFlightCount == desiredCount ) {
+                log.debug( "Service={} -- Update to {} instances already in progress",
+                                LogUtils.getServiceDesignation( ecsServiceConfig ), desiredCount );
+                return;
+            }
+            if ( slot.pending != null ) {
+                log.info( "Service={} -- Pending update to {} instances superseded by {} instances",
+                                LogUtils.getServiceDesignation( ecsServiceConfig ), slot.pending.desiredCount, desiredCount );
+            }
+            slot.pending = new PendingUpdate( desiredCount, callback );
+            if ( slot.inFlight ) {
+                // Sent when the update in flight completes
+                return;
+            }
+            slot.inFlight = true;
+        }
+        dispatch( slot, 0, 0L );
+    }
+
+    /**
+     * Drop the state kept for a service that is no longer scaled; an update in flight is completed first
+     * @param ecsServiceConfig
+     */
+    public void removeService( EcsServiceConfig ecsServiceConfig ) {
+        final ServiceSlot slot = serviceSlots.get( LogUtils.getServiceDesignation( ecsServiceConfig ) );
+        if ( slot == null ) {
+            return;
+        }
+        synchronized ( slot ) {
+            slot.removed = true;
+            if ( !slot.inFlight ) {
+                drop( slot );
+            }
+        }
+    }
+
+    /**
+     * @return Number of services with update state kept
+     */
+    int getServiceCount() {
+        return serviceSlots.size();
+    }
+
+    private void dispatch( ServiceSlot slot, int attempt, long delayMillis ) {
+        try {
+            executor.schedule( () -> send( slot, attempt ), delayMillis, TimeUnit.MILLISECONDS );
+        } catch ( RejectedExecutionException rexc ) {
+            // Executor shut down
+            synchronized ( slot ) {
+                slot.pending = null;
+                release( slot );
+            }
+        }
+    }
+
+    /**
+     * Nothing is pending or being sent for the service; caller holds the slot's monitor
+     * @param slot
+     */
+    private void release( ServiceSlot slot ) {
+        slot.inFlight = false;
+        if ( slot.removed ) {
+            drop( slot );
+        }
+    }
+
+    private void drop( ServiceSlot slot ) {
+        slot.dropped = true;
+        serviceSlots.remove( LogUtils.getServiceDesignation( slot.ecsServiceConfig ), slot );
+    }
+
+    private void send( ServiceSlot slot, int attempt ) {
+        final long waitMillis = tokenBucket.tryAcquire();
+        if ( waitMillis > 0L ) {
+            dispatch( slot, attempt, waitMillis );
+            return;
+        }
+
+        final PendingUpdate update;
+        synchronized ( slot ) {
+            update = slot.pending;
+            slot.pending = null;
+            if ( update == null ) {
+                release( slot );
+                return;
+            }
+            slot.inFlightCount = update.desiredCount;
+        }
+
+        final String serviceDesignation = LogUtils.getServiceDesignation( slot.ecsServiceConfig );
+        Exception failure = null;
+        try {
+            UpdateServiceRequest updateServiceRequest =
+                                    new UpdateServiceRequest()
+                                            .withCluster( slot.ecsServiceConfig.getEcsCluster() )
+                                            .withService( slot.ecsServiceConfig.getEcsService() )
+                                            .withDesiredCount( update.desiredCount );
+            log.debug( "Service={} -- Update Request Body:\n{}", serviceDesignation, updateServiceRequest );
+            UpdateServiceResult updateServiceResult = ecs.updateService( updateServiceRequest );
+
+            if ( updateServiceResult.getSdkHttpMetadata() != null &&
+                    ( updateServiceResult.getSdkHttpMetadata().getHttpStatusCode() < 200 ||
+                      updateServiceResult.getSdkHttpMetadata().getHttpStatusCode() > 204 ) ) {
+                throw new IllegalStateException( "HTTP Status Code=" + updateServiceResult.getSdkHttpMetadata().getHttpStatusCode() );
+            }
+        } catch ( Exception exc ) {
+            if ( exc instanceof SdkBaseException && RetryUtils.isThrottlingException( ( SdkBaseException ) exc ) &&
+                    attempt < MAX_THROTTLING_RETRIES ) {
+                final long backoffMillis = backoffWithJitter( attempt );
+                log.warn( "Service={} -- UpdateService throttled (attempt {}) -- Retrying in {} ms",
+                                serviceDesignation, attempt + 1, backoffMillis );
+                synchronized ( slot ) {
+                    // A newer target submitted meanwhile takes precedence
+                    if ( slot.pending == null ) {
+                        slot.pending = update;
+                    }
+                }
+                dispatch( slot, attempt + 1, backoffMillis );
+                return;
+            }
+            failure = exc;
+        }
+
+        // Release the slot before notifying the caller, so that a target submitted once the caller has seen the
+        // outcome is sent rather than dropped as a duplicate of the completed request
+        final boolean hasPending;
+        synchronized ( slot ) {
+            hasPending = slot.pending != null;
+            if ( !hasPending ) {
+                release( slot );
+            }
+        }
+        try {
+            if ( failure == null ) {
+                update.callback.updated( update.desiredCount );
+            } else {
+                update.callback.failed( update.desiredCount, failure );
+            }
+        } finally {
+            if ( hasPending ) {
+                dispatch( slot, 0, 0L );
+            }
+        }
+    }
+
+    /**
+     * Full jitter: uniformly distributed between zero and the exponential backoff for the attempt
+     * @param attempt - Zero-based retry attempt
+     * @return Delay in milliseconds
+     */
+    static long backoffWithJitter( int attempt ) {
+        final long backoffMillis = Math.min( THROTTLING_BACKOFF_BASE_MILLIS << Math.min( attempt, 16 ), THROTTLING_BACKOFF_MAX_MILLIS );
+        return ThreadLocalRandom.current().nextLong( backoffMillis + 1L );
+    }
+
+    private static class PendingUpdate {
+
+        final int               desiredCount;
+
+        final UpdateCallback    callback;
+
+        PendingUpdate( int desiredCount, UpdateCallback callback ) {
+            this.desiredCount = desiredCount;
+            this.callback = callback;
+        }
+    }
+
+    /**
+     * Update state for one service; guarded by its own monitor
+     */
+    private static class ServiceSlot {
+
+        final EcsServiceConfig  ecsServiceConfig;
+
+        // Latest target not yet sent
+        PendingUpdate           pending;
+
+        // True from the first submit until no target is pending or being sent
+        boolean                 inFlight = false;
+
+        // Target of the request being sent
+        int                     inFlightCount;
+
+        // Service no longer scaled; dropped from serviceSlots once nothing is in flight
+        boolean                 removed = false;
+
+        // No longer in serviceSlots; a new slot is created for the service
+        boolean                 dropped = false;
+
+        ServiceSlot( EcsServiceConfig ecsServiceConfig ) {
+            this.ecsServiceConfig = ecsServiceConfig;
+        }
+    }
+
+    /**
+     * Token bucket refilled continuously at `refillPerSecond`, up to `capacity` tokens
+     */
+    static class TokenBucket {
+
+        private final double        capacity;
+
+        private final double        refillPerNano;
+
+        private final LongSupplier  nanoClock;
+
+        private double              tokens;
+
+        private long                lastRefillNanos;
+
+        TokenBucket( int capacity, double refillPerSecond, LongSupplier nanoClock ) {
+            this.capacity = Math.max( capacity, 1 );
+            this.refillPerNano = refillPerSecond / TimeUnit.SECONDS.toNanos( 1L );
+            this.nanoClock = nanoClock;
+            this.tokens = this.capacity;
+            this.lastRefillNanos = nanoClock.getAsLong();
+        }
+
+        /**
+         * Take a token if one is available
+         * @return 0 if a token was taken; otherwise milliseconds until one is available
+         */
+        synchronized long tryAcquire() {
+            final long now = nanoClock.getAsLong();
+            tokens = Math.min( capacity, tokens + ( now - lastRefillNanos ) * refillPerNano );
+            lastRefillNanos = now;
+            if ( tokens >= 1.0 ) {
+                tokens -= 1.0;
+                return 0L;
+            }
+            return Math.max( 1L, ( long ) Math.ceil( ( 1.0 - tokens ) / refillPerNano / 1_000_000.0 ) );
+        }
+    }
+}
@@ -1,21 +1,15 @@
 package com.solace.scalers.aws_ecs;
 
-import java.util.Calendar;
-import java.util.Date;
-import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
 
 import lombok.extern.log4j.Log4j2;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 
 import com.amazonaws.services.cloudwatch.AmazonCloudWatch;
 import com.amazonaws.services.cloudwatch.AmazonCloudWatchClientBuilder;
 import com.amazonaws.services.cloudwatch.model.Dimension;
-import com.amazonaws.services.cloudwatch.model.GetMetricDataRequest;
-import com.amazonaws.services.cloudwatch.model.GetMetricDataResult;
 import com.amazonaws.services.cloudwatch.model.Metric;
 import com.amazonaws.services.cloudwatch.model.MetricDataQuery;
-import com.amazonaws.services.cloudwatch.model.MetricDataResult;
 import com.amazonaws.services.cloudwatch.model.MetricStat;
 import com.amazonaws.services.cloudwatch.model.StandardUnit;
 import com.solace.scalers.aws_ecs.model.ScalerConfig.EcsServiceConfig;
@@ -25,6 +19,8 @@ import com.solace.scalers.aws_ecs.util.LogUtils;
 /**
  * Class designed to retrieve Desired and Running Task Counts from AWS CloudWatch
  * from ECS/ContainerInsights. Requires that these metrics are enabled
+ * Alternatively, counts are set by EcsServiceStateCollector from the ECS DescribeServices API
+ * (taskCountSource == ecs); pending task count and deployment status are only available from that source.
  * 
  * Set up to retrieve these metrics from Cloudwatch and then make availble to calling apps
  * using getter methods.
@@ -46,13 +42,28 @@ public class EcsServiceMetrics {
 
    
     // TODO - Evaluate if AmazonCloudWatch default client config is sufficient for production
-    private static final AmazonCloudWatch cw = AmazonCloudWatchClientBuilder.defaultClient();
+    // Created on first use so service metrics can be constructed without AWS configuration
+    static class CloudWatchClientHolder {
+        static final AmazonCloudWatch cw = AmazonCloudWatchClientBuilder.defaultClient();
+    }
 
     private volatile Integer desiredTaskCount;
 
     private volatile Integer runningTaskCount;
 
-    private EcsServiceConfig ecsServiceConfig;
+    private volatile Integer pendingTaskCount;
+
+    // Number of active deployments; > 1 while a deployment is in progress
+    private volatile int     deploymentCount;
+
+    // Rollout state of the primary deployment, if reported
+    private volatile String  rolloutState;
+
+    // Notified when the desired or running task count changes
+    private volatile Runnable taskCountListener;
+
+    // Replaced when the configuration is reloaded; the ECS cluster and service do not change
+    private volatile EcsServiceConfig ecsServiceConfig;
     
     /**
      * Constructor requires target ECS service configuration
@@ -70,95 +81,45 @@ public class EcsServiceMetrics {
         return runningTaskCount;
     }
 
-    /**
-     * Should make metric period a variable for general use
-     * TODO - Catch/handle exceptions
-     */
-    public void retrieveMetricsFromCloudwatch() {
-
-        // Get Timestamps to Bind Metric Range, 1 minute resolution
-        Calendar startTime = Calendar.getInstance(), endTime = Calendar.getInstance();
-        endTime.setTime( new Date() ) ;
-        endTime.set(Calendar.MILLISECOND, 0);       // Truncate seconds + milliseconds
-        endTime.set(Calendar.SECOND, 0);
-        endTime.add(Calendar.MINUTE, 1);           // Add 1 Minute to End-Time
-        startTime.setTime( endTime.getTime() );
-        startTime.add( Calendar.MINUTE, -8 );
-
-        log.debug("Service={} -- Retrieving AWS CloudWatch metrics from ECS", 
-                            LogUtils.getServiceDesignation(ecsServiceConfig));
-        log.debug("Service={} -- Metric Query: Start time={} End Time={}", 
-                            LogUtils.getServiceDesignation(ecsServiceConfig),
-                            startTime.getTime(), 
-                            endTime.getTime());
-
-        GetMetricDataRequest metricRequest = new GetMetricDataRequest()
-                        .withStartTime( startTime.getTime() )
-                        .withEndTime( endTime.getTime() )
-                        .withMetricDataQueries( formatMetricDataQuery( CW_METRIC_DESIRED_TASK_COUNT ) )
-                        .withMetricDataQueries( formatMetricDataQuery( CW_METRIC_RUNNING_TASK_COUNT ) );
-        GetMetricDataResult metricResult = cw.getMetricData( metricRequest );
-
-        if ( metricResult == null || metricResult.getSdkHttpMetadata() == null ) {
-            log.error( "Service={} -- Could not retrieve ECS metrics from CloudWatch; Credentials initialized?",
-                            LogUtils.getServiceDesignation(ecsServiceConfig) );
-        }
-
-        log.debug( "Service={} -- HTTP Status Code: {}", 
-                            LogUtils.getServiceDesignation(ecsServiceConfig),
-                            metricResult.getSdkHttpMetadata().getHttpStatusCode() );
-
-        if ( metricResult.getMetricDataResults() == null ) {
-            log.warn("Service={} -- Results returned no data",
-                            LogUtils.getServiceDesignation(ecsServiceConfig));
-            return;
-        }
-
-        Iterator<MetricDataResult> it = metricResult.getMetricDataResults().iterator();
-
-        if ( it == null || !it.hasNext() ) {
-            log.warn("Service={} -- Call to AWS Cloudwatch for ECS did not return metric data",
-                            LogUtils.getServiceDesignation(ecsServiceConfig));
-            log.warn("Service={} -- Scaling will be prevented until a successful call for the task counts is made",
-                            LogUtils.getServiceDesignation(ecsServiceConfig));
+    public Integer getPendingTaskCount() {
+        return pendingTaskCount;
+    }
 
-            // Prevent Scaling Operations
-            desiredTaskCount = null;
-            runningTaskCount = null;
+    public int getDeploymentCount() {
+        return deploymentCount;
+    }
 
-            return;
-        }
+    public String getRolloutState() {
+        return rolloutState;
+    }
 
-        // Get the ECS Service metrics from CloudWatch return
-        // Evaluate to make sure that the returned values are recent enough to by useful
-        Calendar timeBoundary = Calendar.getInstance();
-        timeBoundary.setTime( endTime.getTime() );
-        timeBoundary.add(Calendar.MINUTE, -3);          // This is ridiculous
-        Integer desired = null, running = null;
+    public EcsServiceConfig getEcsServiceConfig() {
+        return ecsServiceConfig;
+    }
 
-        while ( it.hasNext() ) {
+    public void setEcsServiceConfig( EcsServiceConfig ecsServiceConfig ) {
+        this.ecsServiceConfig = ecsServiceConfig;
+    }
 
-            MetricDataResult result = it.next();
+    public void setTaskCountListener( Runnable taskCountListener ) {
+        this.taskCountListener = taskCountListener;
+    }
 
-            log.debug( "Service={} -- Number of timestamps == {}", 
-                            LogUtils.getServiceDesignation(ecsServiceConfig),
-                            result.getTimestamps().size() );
-            log.debug("Service={} -- Most recent datapoint Time={} -- Boundary Time={}", 
-                                LogUtils.getServiceDesignation(ecsServiceConfig),
-                                ( result.getTimestamps().size() > 0 ? result.getTimestamps().get(0) : "NONE" ), 
-                                timeBoundary.getTime() );
-
-            if ( result.getTimestamps().size() > 0 ) {
-                if ( result.getTimestamps().get(0).compareTo( timeBoundary.getTime() ) >= 0 ) {
-                    if ( result.getId().toLowerCase( ).contentEquals( CW_METRIC_DESIRED_TASK_COUNT.toLowerCase() ) ) {
-                        desired = ( int )Math.round( result.getValues().get(0) );
-                    } else if ( result.getId().toLowerCase( ).contentEquals( CW_METRIC_RUNNING_TASK_COUNT.toLowerCase() ) ) {
-                        running = ( int )Math.round( result.getValues().get(0) );
-                    }
-                }
-            }
-        }
+    /**
+     * Retrieve the task counts for this service only.
+     * To retrieve task counts for many services, use one EcsServiceMetricsCollector for all of them.
+     */
+    public void retrieveMetricsFromCloudwatch() {
+        new EcsServiceMetricsCollector( List.of( this ), CloudWatchClientHolder.cw ).retrieveMetricsFromCloudwatch();
+    }
 
+    /**
+     * Set the task counts retrieved for this service. If either value is null, scaling operations are prevented
+     * until both are known.
+     * @param desired
+     * @param running
+     */
+    public void updateTaskCounts( Integer desired, Integer running ) {
         /**
          * TODO - Enable scale-to-zero instances?
          * As it is, this component should not be used to scale ECS services to zero running instances.
@@ -177,18 +138,54 @@ public class EcsServiceMetrics {
         }
 
         // Set the object variables
+        setTaskCounts( desired, running );
+    }
+
+    /**
+     * Set the service state read from the ECS DescribeServices API. If desired or running is null, scaling operations
+     * are prevented until both are known.
+     * @param desired
+     * @param running
+     * @param pending
+     * @param deployments - Number of active deployments
+     * @param primaryRolloutState - Rollout state of the primary deployment; may be null
+     */
+    public void updateServiceState( Integer desired, Integer running, Integer pending, int deployments, String primaryRolloutState ) {
+        if ( running == null || desired == null ) {
+            log.warn("Service={} -- Retrieved desiredTaskCount={}; runningTaskCount={} from ECS DescribeServices -- One or both values is NULL; Scaling operations will be prevented", 
+                                LogUtils.getServiceDesignation(ecsServiceConfig),
+                                desired, running);
+        } else {
+            log.debug("Service={} -- Retrieved desiredTaskCount={}; runningTaskCount={}; pendingTaskCount={}; deployments={}; rolloutState={} from ECS DescribeServices", 
+                                LogUtils.getServiceDesignation(ecsServiceConfig),
+                                desired, running, pending, deployments, primaryRolloutState);
+        }
+
+        pendingTaskCount = pending;
+        deploymentCount = deployments;
+        rolloutState = primaryRolloutState;
+        setTaskCounts( desired, running );
+    }
+
+    private void setTaskCounts( Integer desired, Integer running ) {
+        final boolean changed = !Objects.equals( desired, desiredTaskCount ) || !Objects.equals( running, runningTaskCount );
         desiredTaskCount = desired;
         runningTaskCount = running;
+        final Runnable listener = taskCountListener;
+        if ( changed && listener != null ) {
+            listener.run();
+        }
     }
 
     /**
      * This method makes plenty of assumptions; will need to be re-factored for general use
      * @param metricName
+     * @param queryId - Must be unique within a GetMetricDataRequest
      * @return
      */
-    private MetricDataQuery formatMetricDataQuery( String metricName ) {
+    public MetricDataQuery formatMetricDataQuery( String metricName, String queryId ) {
         MetricDataQuery metricDataQuery = new MetricDataQuery()
-        .withId( metricName.toLowerCase() )
+        .withId( queryId )
         .withMetricStat( new MetricStat()
             .withMetric( new Metric()
                     .withNamespace( CW_ECS_NAMESPACE )
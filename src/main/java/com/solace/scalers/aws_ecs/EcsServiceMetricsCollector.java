@@ -0,0 +1,192 @@
+package com.solace.scalers.aws_ecs;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import com.amazonaws.services.cloudwatch.AmazonCloudWatch;
+import com.amazonaws.services.cloudwatch.model.GetMetricDataRequest;
+import com.amazonaws.services.cloudwatch.model.GetMetricDataResult;
+import com.amazonaws.services.cloudwatch.model.MetricDataQuery;
+import com.amazonaws.services.cloudwatch.model.MetricDataResult;
+import com.solace.scalers.aws_ecs.util.LogUtils;
+
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Retrieves Desired and Running Task Counts for many ECS services from AWS CloudWatch with as few
+ * GetMetricData requests as possible:
+ * - One request holds the queries for up to MAX_QUERIES_PER_REQUEST / 2 services
+ * - Query ids encode the metric and the service index: "d<n>" for desired count, "r<n>" for running count
+ * - Result pages are followed with NextToken and demultiplexed back to each service's EcsServiceMetrics
+ * If a request fails, task counts for the services in that request are cleared so scaling is prevented until
+ * the next successful request.
+ */
+@Log4j2
+public class EcsServiceMetricsCollector {
+
+    // CloudWatch limit on MetricDataQuery entries per GetMetricData request
+    public static final int     MAX_QUERIES_PER_REQUEST = 500;
+
+    private static final char   QUERY_ID_DESIRED = 'd',
+                                QUERY_ID_RUNNING = 'r';
+
+    private final AmazonCloudWatch          cloudWatch;
+
+    private final List<EcsServiceMetrics>   ecsServiceMetrics;
+
+    // Queries for each request; built once, re-used every cycle
+    private final List<List<MetricDataQuery>> requestQueries = new ArrayList<>();
+
+    /**
+     * Constructor
+     * @param ecsServiceMetrics - Services to retrieve task counts for
+     * @param cloudWatch
+     */
+    public EcsServiceMetricsCollector( Collection<EcsServiceMetrics> ecsServiceMetrics, AmazonCloudWatch cloudWatch ) {
+        this.cloudWatch = cloudWatch;
+        this.ecsServiceMetrics = new ArrayList<>( ecsServiceMetrics );
+
+        List<MetricDataQuery> queries = new ArrayList<>( MAX_QUERIES_PER_REQUEST );
+        for ( int i = 0; i < this.ecsServiceMetrics.size(); i++ ) {
+            if ( queries.size() + 2 > MAX_QUERIES_PER_REQUEST ) {
+                requestQueries.add( queries );
+                queries = new ArrayList<>( MAX_QUERIES_PER_REQUEST );
+            }
+            EcsServiceMetrics serviceMetrics = this.ecsServiceMetrics.get( i );
+            queries.add( serviceMetrics.formatMetricDataQuery( EcsServiceMetrics.CW_METRIC_DESIRED_TASK_COUNT, queryId( QUERY_ID_DESIRED, i ) ) );
+            queries.add( serviceMetrics.formatMetricDataQuery( EcsServiceMetrics.CW_METRIC_RUNNING_TASK_COUNT, queryId( QUERY_ID_RUNNING, i ) ) );
+        }
+        if ( !queries.isEmpty() ) {
+            requestQueries.add( queries );
+        }
+    }
+
+    /**
+     * @return Number of GetMetricData requests per collection cycle, excluding NextToken pages
+     */
+    public int getRequestCount() {
+        return requestQueries.size();
+    }
+
+    /**
+     * Retrieve the task counts for all services and update each EcsServiceMetrics object
+     */
+    public void retrieveMetricsFromCloudwatch() {
+
+        // Get Timestamps to Bind Metric Range, 1 minute resolution
+        Calendar startTime = Calendar.getInstance(), endTime = Calendar.getInstance();
+        endTime.setTime( new Date() ) ;
+        endTime.set(Calendar.MILLISECOND, 0);       // Truncate seconds + milliseconds
+        endTime.set(Calendar.SECOND, 0);
+        endTime.add(Calendar.MINUTE, 1);           // Add 1 Minute to End-Time
+        startTime.setTime( endTime.getTime() );
+        startTime.add( Calendar.MINUTE, -8 );
+
+        // Evaluate to make sure that the returned values are recent enough to by useful
+        Calendar timeBoundary = Calendar.getInstance();
+        timeBoundary.setTime( endTime.getTime() );
+        timeBoundary.add(Calendar.MINUTE, -3);          // This is ridiculous
+
+        log.debug( "Retrieving AWS CloudWatch metrics for {} ECS services in {} requests -- Start time={} End Time={}",
+                            ecsServiceMetrics.size(), requestQueries.size(), startTime.getTime(), endTime.getTime() );
+
+        // Newest datapoint per query, indexed by service
+        final int serviceCount = ecsServiceMetrics.size();
+        final Date[] desiredTimes = new Date[ serviceCount ], runningTimes = new Date[ serviceCount ];
+        final Integer[] desired = new Integer[ serviceCount ], running = new Integer[ serviceCount ];
+        final boolean[] failed = new boolean[ serviceCount ];
+
+        int requestIndex = 0;
+        for ( List<MetricDataQuery> queries : requestQueries ) {
+            final int firstService = requestIndex * ( MAX_QUERIES_PER_REQUEST / 2 );
+            requestIndex++;
+            try {
+                String nextToken = null;
+                do {
+                    GetMetricDataRequest metricRequest = new GetMetricDataRequest()
+                                    .withStartTime( startTime.getTime() )
+                                    .withEndTime( endTime.getTime() )
+                                    .withMetricDataQueries( queries )
+                                    .withNextToken( nextToken );
+                    GetMetricDataResult metricResult = cloudWatch.getMetricData( metricRequest );
+
+                    if ( metricResult == null || metricResult.getMetricDataResults() == null ) {
+                        log.error( "Could not retrieve ECS metrics from CloudWatch; Credentials initialized?" );
+                        break;
+                    }
+                    for ( MetricDataResult result : metricResult.getMetricDataResults() ) {
+                        if ( result.getTimestamps() == null || result.getTimestamps().isEmpty() ) {
+                            continue;
+                        }
+                        final int serviceIndex = parseServiceIndex( result.getId() );
+                        if ( serviceIndex < 0 || serviceIndex >= serviceCount ) {
+                            log.warn( "Unexpected CloudWatch query id in GetMetricData result: {}", result.getId() );
+                            continue;
+                        }
+                        // Datapoints are returned newest first
+                        final Date timestamp = result.getTimestamps().get( 0 );
+                        final int value = ( int )Math.round( result.getValues().get( 0 ) );
+                        if ( result.getId().charAt( 0 ) == QUERY_ID_DESIRED ) {
+                            if ( desiredTimes[ serviceIndex ] == null || timestamp.after( desiredTimes[ serviceIndex ] ) ) {
+                                desiredTimes[ serviceIndex ] = timestamp;
+                                desired[ serviceIndex ] = value;
+                            }
+                        } else if ( runningTimes[ serviceIndex ] == null || timestamp.after( runningTimes[ serviceIndex ] ) ) {
+                            runningTimes[ serviceIndex ] = timestamp;
+                            running[ serviceIndex ] = value;
+                        }
+                    }
+                    nextToken = metricResult.getNextToken();
+                } while ( nextToken != null && !nextToken.isEmpty() );
+            } catch ( Exception exc ) {
+                log.error( "Error retrieving ECS metrics from CloudWatch for {} services -- Exception: {}",
+                            queries.size() / 2, exc.getMessage() );
+                for ( int i = firstService; i < firstService + queries.size() / 2; i++ ) {
+                    failed[ i ] = true;
+                }
+            }
+        }
+
+        for ( int i = 0; i < serviceCount; i++ ) {
+            EcsServiceMetrics serviceMetrics = ecsServiceMetrics.get( i );
+            if ( failed[ i ] ) {
+                // Prevent Scaling Operations
+                serviceMetrics.updateTaskCounts( null, null );
+                continue;
+            }
+            log.debug( "Service={} -- Most recent datapoints desired={} running={} -- Boundary Time={}",
+                            LogUtils.getServiceDesignation( serviceMetrics.getEcsServiceConfig() ),
+                            desiredTimes[ i ], runningTimes[ i ], timeBoundary.getTime() );
+            serviceMetrics.updateTaskCounts(
+                            isRecent( desiredTimes[ i ], timeBoundary ) ? desired[ i ] : null,
+                            isRecent( runningTimes[ i ], timeBoundary ) ? running[ i ] : null );
+        }
+    }
+
+    private static boolean isRecent( Date timestamp, Calendar timeBoundary ) {
+        return timestamp != null && timestamp.compareTo( timeBoundary.getTime() ) >= 0;
+    }
+
+    private static String queryId( char metric, int serviceIndex ) {
+        return metric + Integer.toString( serviceIndex );
+    }
+
+    /**
+     * @param queryId
+     * @return Service index encoded in the query id; -1 if the id was not created by this class
+     */
+    private static int parseServiceIndex( String queryId ) {
+        if ( queryId == null || queryId.length() < 2 ||
+                ( queryId.charAt( 0 ) != QUERY_ID_DESIRED && queryId.charAt( 0 ) != QUERY_ID_RUNNING ) ) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt( queryId.substring( 1 ) );
+        } catch ( NumberFormatException nfe ) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,461 @@
+package com.solace.scalers.aws_ecs;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.solace.scalers.aws_ecs.model.ScalerConfig.EcsServiceConfig;
+import com.solace.scalers.aws_ecs.model.ScalerConfig.ScalerBehaviorConfig;
+import com.solace.scalers.aws_ecs.model.semp_v2.SempQueueObservation;
+import com.solace.scalers.aws_ecs.util.LogUtils;
+import com.solace.scalers.aws_ecs.util.QueueAggregationUtils;
+
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Per-service scaling pipeline: observation ingest and window update, then scaling decision and actuation.
+ * Each stage is a lightweight actor on a shared executor:
+ * - A stage has its own mailbox and runs serially; stages of different services run in parallel on the executor
+ * - Ingest stage: observations from the SEMP poller are queued (bounded; the oldest is dropped when full) and added
+ *   to the service's MetricObservationBuffer, which requests a scaling evaluation. If messageRateSource is
+ *   `counter`, message rates are first computed from the queue counters by a CounterRateCalculator. A service
+ *   that scales on several queues receives one observation per queue from the same poll; they are combined into
+ *   one observation by QueueAggregationUtils, after rates are computed per queue. Each observation also updates the
+ *   scaler's forecasts and consumer throughput, so none is skipped when several arrive between evaluations
+ * - Decision stage: evaluation requests are coalesced so at most one is pending, and evaluations start at least
+ *   `minEvaluationInterval` apart. Decision and actuation run together, because the next decision depends on the
+ *   outcome of the ECS update
+ * Supervision:
+ * - An exception in a stage suspends that stage only; it is restarted after a backoff that doubles with each
+ *   consecutive failure, from RESTART_BACKOFF_INITIAL_MILLIS up to RESTART_BACKOFF_MAX_MILLIS
+ * - A failed evaluation is retried on restart; a failed observation is dropped
+ * - The pipeline reports DEGRADED while any stage is failing, or while the broker of its queues cannot be polled;
+ *   other services are not affected
+ * A changed configuration for the same queue and ECS service is applied in place by updateEcsServiceConfig(), so
+ * the service keeps its observations and scaling state
+ */
+@Log4j2
+public class EcsServicePipeline {
+
+    public enum State { STOPPED, RUNNING, DEGRADED }
+
+    /**
+     * Scaling decision and actuation for one service
+     */
+    @FunctionalInterface
+    interface ScalingDecision {
+        void decideAndScale() throws Exception;
+    }
+
+    public static final int     MAX_PENDING_OBSERVATIONS = 64;
+
+    public static final long    RESTART_BACKOFF_INITIAL_MILLIS = 1000L,
+                                RESTART_BACKOFF_MAX_MILLIS = 60000L;
+
+    private volatile EcsServiceConfig       ecsServiceConfig;
+
+    // Written by the ingest stage; replaced if a configuration update resizes the scaler's buffer
+    private volatile MetricObservationBuffer metricObservations;
+
+    // Null if the pipeline was not created for a scaler
+    private final EcsServiceScaler          ecsServiceScaler;
+
+    // Task counts when an observation is learned; null if the pipeline was not created for a scaler
+    private final EcsServiceMetrics         ecsServiceMetrics;
+
+    private final ScheduledExecutorService  executor;
+
+    private final ScalingDecision           scalingDecision;
+
+    private final IngestStage               ingestStage;
+
+    private final DecisionStage             decisionStage;
+
+    // Accepting observations
+    private volatile boolean                running = false;
+
+    // Accepting evaluation requests
+    private volatile boolean                scaling = false;
+
+    // False while the broker of the service's queues cannot be polled
+    private volatile boolean                sourceAvailable = true;
+
+    /**
+     * Constructor
+     * @param ecsServiceScaler
+     * @param ecsServiceMetrics - Task counts for the service
+     * @param executor - Runs the pipeline stages; shared by all services
+     */
+    public EcsServicePipeline( EcsServiceScaler ecsServiceScaler, EcsServiceMetrics ecsServiceMetrics, ScheduledExecutorService executor ) {
+        this( ecsServiceScaler.getEcsServiceConfig(),
+              ecsServiceScaler.getMetricObservations(),
+              executor,
+              () -> ecsServiceScaler.scalingOperation( ecsServiceMetrics.getDesiredTaskCount(), ecsServiceMetrics.getRunningTaskCount() ),
+              ecsServiceScaler,
+              ecsServiceMetrics );
+    }
+
+    EcsServicePipeline( EcsServiceConfig ecsServiceConfig, MetricObservationBuffer metricObservations,
+                        ScheduledExecutorService executor, ScalingDecision scalingDecision ) {
+        this( ecsServiceConfig, metricObservations, executor, scalingDecision, null, null );
+    }
+
+    private EcsServicePipeline( EcsServiceConfig ecsServiceConfig, MetricObservationBuffer metricObservations,
+                                ScheduledExecutorService executor, ScalingDecision scalingDecision,
+                                EcsServiceScaler ecsServiceScaler, EcsServiceMetrics ecsServiceMetrics ) {
+        this.ecsServiceConfig = ecsServiceConfig;
+        this.metricObservations = metricObservations;
+        this.ecsServiceScaler = ecsServiceScaler;
+        this.ecsServiceMetrics = ecsServiceMetrics;
+        this.executor = executor;
+        this.scalingDecision = scalingDecision;
+        this.ingestStage = new IngestStage();
+        this.decisionStage = new DecisionStage();
+    }
+
+    public EcsServiceConfig getEcsServiceConfig() {
+        return ecsServiceConfig;
+    }
+
+    public String getQueueName() {
+        return ecsServiceConfig.getQueueName();
+    }
+
+    /**
+     * @return Names of every queue the service scales on
+     */
+    public List<String> getQueueNames() {
+        return ecsServiceConfig.getQueueNames();
+    }
+
+    public State getState() {
+        if ( !running ) {
+            return State.STOPPED;
+        }
+        return !sourceAvailable || ingestStage.isFailing() || decisionStage.isFailing() ? State.DEGRADED : State.RUNNING;
+    }
+
+    /**
+     * Set by the broker poller when polling fails and when it recovers
+     * @param sourceAvailable
+     */
+    public void setSourceAvailable( boolean sourceAvailable ) {
+        this.sourceAvailable = sourceAvailable;
+    }
+
+    /**
+     * Begin accepting observations; scaling evaluations are not performed until startScaling()
+     */
+    public void start() {
+        running = true;
+        ingestStage.signal();
+    }
+
+    /**
+     * Begin accepting evaluation requests, and request an evaluation
+     */
+    public void startScaling() {
+        scaling = true;
+        requestEvaluation();
+    }
+
+    /**
+     * Stop the pipeline; queued observations and pending evaluations are not processed
+     */
+    public void stop() {
+        scaling = false;
+        running = false;
+    }
+
+    /**
+     * Queue an observation for the ingest stage; never blocks the caller
+     * @param observationTime
+     * @param sempQueueObservation
+     */
+    public void ingest( long observationTime, SempQueueObservation sempQueueObservation ) {
+        if ( !running ) {
+            return;
+        }
+        ingestStage.offer( new TimedObservation( observationTime, List.of( sempQueueObservation ) ) );
+    }
+
+    /**
+     * Queue the observations of every queue of the service, taken at the same time, for the ingest stage;
+     * never blocks the caller
+     * @param observationTime
+     * @param sempQueueObservations - One observation per queue
+     */
+    public void ingest( long observationTime, List<SempQueueObservation> sempQueueObservations ) {
+        if ( !running ) {
+            return;
+        }
+        ingestStage.offer( new TimedObservation( observationTime, sempQueueObservations ) );
+    }
+
+    /**
+     * Request a scaling evaluation; coalesced with any pending request
+     */
+    public void requestEvaluation() {
+        if ( !scaling ) {
+            return;
+        }
+        decisionStage.request();
+    }
+
+    /**
+     * Apply a changed configuration for the same queue and ECS service, keeping observations and scaling state.
+     * The update runs as a task on the pipeline executor; on a single-threaded executor, such as a pipeline shard,
+     * it does not overlap a stage. An evaluation is requested with the new configuration
+     * @param ecsServiceConfig
+     */
+    public void updateEcsServiceConfig( EcsServiceConfig ecsServiceConfig ) {
+        try {
+            executor.execute( () -> {
+                if ( ecsServiceScaler != null ) {
+                    ecsServiceScaler.updateEcsServiceConfig( ecsServiceConfig );
+                    metricObservations = ecsServiceScaler.getMetricObservations();
+                }
+                this.ecsServiceConfig = ecsServiceConfig;
+                ingestStage.updateMessageRateSource();
+                requestEvaluation();
+            } );
+        } catch ( RejectedExecutionException rexc ) {
+            // Executor shut down
+        }
+    }
+
+    private static class TimedObservation {
+
+        final long                  observationTime;
+
+        // One observation per queue of the service
+        final List<SempQueueObservation> sempQueueObservations;
+
+        TimedObservation( long observationTime, List<SempQueueObservation> sempQueueObservations ) {
+            this.observationTime = observationTime;
+            this.sempQueueObservations = sempQueueObservations;
+        }
+    }
+
+    /**
+     * Serial, supervised actor. Only one run() is scheduled or executing at a time: `scheduled` is set from
+     * signal() until run() completes, and work arriving meanwhile is picked up when run() re-checks its mailbox.
+     */
+    private abstract class Stage implements Runnable {
+
+        private final String        stageName;
+
+        private final AtomicBoolean scheduled = new AtomicBoolean( false );
+
+        private volatile int        consecutiveFailures = 0;
+
+        private volatile long       suspendedUntil = 0L;
+
+        Stage( String stageName ) {
+            this.stageName = stageName;
+        }
+
+        boolean isFailing() {
+            return consecutiveFailures > 0;
+        }
+
+        /**
+         * @return True if the mailbox holds work
+         */
+        abstract boolean hasWork();
+
+        /**
+         * @return Earliest time the stage may process its work, excluding supervision
+         */
+        long readyTime() {
+            return 0L;
+        }
+
+        abstract void process() throws Exception;
+
+        /**
+         * Called after process() throws and the stage is suspended
+         */
+        void failed() {
+        }
+
+        final void signal() {
+            if ( running && scheduled.compareAndSet( false, true ) && !submit( delayMillis() ) ) {
+                scheduled.set( false );
+            }
+        }
+
+        @Override
+        public final void run() {
+            if ( running && hasWork() ) {
+                final long delayMillis = delayMillis();
+                if ( delayMillis > 0L ) {
+                    // Not ready yet; stays scheduled
+                    if ( submit( delayMillis ) ) {
+                        return;
+                    }
+                } else {
+                    try {
+                        process();
+                        recovered();
+                    } catch ( Exception exc ) {
+                        suspend( exc );
+                    }
+                }
+            }
+            scheduled.set( false );
+            if ( running && hasWork() ) {
+                signal();
+            }
+        }
+
+        private long delayMillis() {
+            return Math.max( Math.max( suspendedUntil, readyTime() ) - System.currentTimeMillis(), 0L );
+        }
+
+        private boolean submit( long delayMillis ) {
+            try {
+                executor.schedule( this, delayMillis, TimeUnit.MILLISECONDS );
+                return true;
+            } catch ( RejectedExecutionException rexc ) {
+                // Executor shut down
+                return false;
+            }
+        }
+
+        private void suspend( Exception exc ) {
+            final int failures = consecutiveFailures + 1;
+            final long backoffMillis = Math.min( RESTART_BACKOFF_INITIAL_MILLIS << Math.min( failures - 1, 16 ), RESTART_BACKOFF_MAX_MILLIS );
+            consecutiveFailures = failures;
+            suspendedUntil = System.currentTimeMillis() + backoffMillis;
+            log.error( "Service={} -- {} stage failed ({} consecutive) -- Restarting in {} ms -- Exception: {}",
+                            LogUtils.getServiceDesignation( ecsServiceConfig ), stageName, failures, backoffMillis, exc.toString() );
+            failed();
+        }
+
+        private void recovered() {
+            if ( consecutiveFailures > 0 ) {
+                log.info( "Service={} -- {} stage recovered after {} consecutive failures",
+                            LogUtils.getServiceDesignation( ecsServiceConfig ), stageName, consecutiveFailures );
+                consecutiveFailures = 0;
+            }
+        }
+    }
+
+    private class IngestStage extends Stage {
+
+        private final ArrayBlockingQueue<TimedObservation> mailbox = new ArrayBlockingQueue<>( MAX_PENDING_OBSERVATIONS );
+
+        // Indexed by queue name; null if the broker average rates are used
+        private Map<String, CounterRateCalculator> counterRates = isCounterRateSource() ? new HashMap<>() : null;
+
+        IngestStage() {
+            super( "Ingest" );
+        }
+
+        /**
+         * Start or stop computing rates from the queue counters if messageRateSource changed
+         */
+        void updateMessageRateSource() {
+            if ( !isCounterRateSource() ) {
+                counterRates = null;
+            } else if ( counterRates == null ) {
+                counterRates = new HashMap<>();
+            }
+        }
+
+        private boolean isCounterRateSource() {
+            return ScalerBehaviorConfig.MESSAGE_RATE_SOURCE_COUNTER.equals( ecsServiceConfig.getScalerBehaviorConfig().getMessageRateSource() );
+        }
+
+        void offer( TimedObservation observation ) {
+            while ( !mailbox.offer( observation ) ) {
+                if ( mailbox.poll() != null ) {
+                    log.warn( "Service={} -- Ingest stage backlog of {} observations; dropping the oldest",
+                                LogUtils.getServiceDesignation( ecsServiceConfig ), MAX_PENDING_OBSERVATIONS );
+                }
+            }
+            signal();
+        }
+
+        @Override
+        boolean hasWork() {
+            return !mailbox.isEmpty();
+        }
+
+        @Override
+        void process() throws Exception {
+            TimedObservation observation;
+            while ( ( observation = mailbox.poll() ) != null ) {
+                final SempQueueObservation sempQueueObservation = QueueAggregationUtils.aggregate( ecsServiceConfig, applyCounterRates( observation ) );
+                metricObservations.add( observation.observationTime, sempQueueObservation );
+                if ( ecsServiceScaler != null ) {
+                    ecsServiceScaler.learn( observation.observationTime, sempQueueObservation,
+                                    ecsServiceMetrics.getDesiredTaskCount(), ecsServiceMetrics.getRunningTaskCount() );
+                }
+            }
+            requestEvaluation();
+        }
+
+        private List<SempQueueObservation> applyCounterRates( TimedObservation observation ) {
+            if ( counterRates == null ) {
+                return observation.sempQueueObservations;
+            }
+            final List<SempQueueObservation> sempQueueObservations = new ArrayList<>( observation.sempQueueObservations.size() );
+            for ( SempQueueObservation sempQueueObservation : observation.sempQueueObservations ) {
+                sempQueueObservations.add( counterRates
+                                .computeIfAbsent( sempQueueObservation.getQueueName(), queueName -> new CounterRateCalculator() )
+                                .apply( observation.observationTime, sempQueueObservation ) );
+            }
+            return sempQueueObservations;
+        }
+    }
+
+    private class DecisionStage extends Stage {
+
+        // True from request() until the evaluation starts
+        private final AtomicBoolean pending = new AtomicBoolean( false );
+
+        // Start time of the last evaluation
+        private volatile long       lastEvaluationTime = 0L;
+
+        DecisionStage() {
+            super( "Decision" );
+        }
+
+        void request() {
+            pending.set( true );
+            signal();
+        }
+
+        @Override
+        boolean hasWork() {
+            return scaling && pending.get();
+        }
+
+        @Override
+        long readyTime() {
+            return lastEvaluationTime + Math.max( ecsServiceConfig.getScalerBehaviorConfig().getMinEvaluationInterval(), 0 ) * 1000L;
+        }
+
+        @Override
+        void process() throws Exception {
+            // Requests arriving from here on trigger another evaluation
+            pending.set( false );
+            lastEvaluationTime = System.currentTimeMillis();
+            scalingDecision.decideAndScale();
+        }
+
+        @Override
+        void failed() {
+            // Retry when the stage restarts
+            pending.set( true );
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.solace.scalers.aws_ecs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Runs the stages of all service pipelines on a fixed number of shards, each a single-threaded scheduled executor.
+ * - A pipeline is assigned to the shard with the fewest pipelines when it is added, and all of its stages run on
+ *   that shard. Shards do not share a work queue, so scheduling cost does not grow with the number of threads
+ * - Periodic evaluation requests are issued per shard, for the pipelines of that shard only, and the shards are
+ *   offset within the period so that evaluations of all services are not requested at the same instant
+ * Pipeline stages must not block; ECS requests are sent by the EcsServiceActuator on its own threads.
+ */
+public class EcsServicePipelineScheduler {
+
+    private final List<ScheduledExecutorService>    shards = new ArrayList<>();
+
+    private final List<Set<EcsServicePipeline>>     shardPipelines = new ArrayList<>();
+
+    // Shard index of each pipeline
+    private final Map<EcsServicePipeline, Integer>  pipelineShards = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor
+     * @param shardCount - Number of shards, typically the number of available processors
+     */
+    public EcsServicePipelineScheduler( int shardCount ) {
+        if ( shardCount < 1 ) {
+            throw new IllegalArgumentException( "shardCount must be > 0: " + shardCount );
+        }
+        for ( int i = 0; i < shardCount; i++ ) {
+            final String threadName = "pipeline-shard-" + i;
+            shards.add( Executors.newSingleThreadScheduledExecutor( runnable -> new Thread( runnable, threadName ) ) );
+            shardPipelines.add( ConcurrentHashMap.newKeySet() );
+        }
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    /**
+     * @return Number of pipelines on each shard
+     */
+    public int[] getShardSizes() {
+        final int[] sizes = new int[ shards.size() ];
+        for ( int i = 0; i < sizes.length; i++ ) {
+            sizes[ i ] = shardPipelines.get( i ).size();
+        }
+        return sizes;
+    }
+
+    /**
+     * Create a pipeline on the least loaded shard
+     * @param pipelineFactory - Creates the pipeline to run on the given shard executor
+     * @return The pipeline
+     */
+    public synchronized EcsServicePipeline add( Function<ScheduledExecutorService, EcsServicePipeline> pipelineFactory ) {
+        int shard = 0;
+        for ( int i = 1; i < shards.size(); i++ ) {
+            if ( shardPipelines.get( i ).size() < shardPipelines.get( shard ).size() ) {
+                shard = i;
+            }
+        }
+        final EcsServicePipeline ecsServicePipeline = pipelineFactory.apply( shards.get( shard ) );
+        shardPipelines.get( shard ).add( ecsServicePipeline );
+        pipelineShards.put( ecsServicePipeline, shard );
+        return ecsServicePipeline;
+    }
+
+    /**
+     * Stop a pipeline and release its place on its shard
+     * @param ecsServicePipeline
+     */
+    public synchronized void remove( EcsServicePipeline ecsServicePipeline ) {
+        ecsServicePipeline.stop();
+        final Integer shard = pipelineShards.remove( ecsServicePipeline );
+        if ( shard != null ) {
+            shardPipelines.get( shard ).remove( ecsServicePipeline );
+        }
+    }
+
+    /**
+     * Request an evaluation of every pipeline each period, one shard at a time
+     * @param periodMillis
+     */
+    public void startPeriodicEvaluation( long periodMillis ) {
+        for ( int i = 0; i < shards.size(); i++ ) {
+            final Set<EcsServicePipeline> pipelines = shardPipelines.get( i );
+            shards.get( i ).scheduleAtFixedRate(
+                            () -> pipelines.forEach( EcsServicePipeline::requestEvaluation ),
+                            periodMillis + periodMillis * i / shards.size(), periodMillis, TimeUnit.MILLISECONDS );
+        }
+    }
+
+    /**
+     * @return Completes when the work already queued on every shard without delay has run
+     */
+    public CompletableFuture<Void> drain() {
+        final CompletableFuture<?>[] markers = new CompletableFuture<?>[ shards.size() ];
+        for ( int i = 0; i < markers.length; i++ ) {
+            markers[ i ] = CompletableFuture.runAsync( () -> { }, shards.get( i ) );
+        }
+        return CompletableFuture.allOf( markers );
+    }
+
+    /**
+     * Stop all pipelines and shut down the shards
+     */
+    public void shutdown() {
+        pipelineShards.keySet().forEach( EcsServicePipeline::stop );
+        shards.forEach( ScheduledExecutorService::shutdown );
+    }
+}
@@ -0,0 +1,631 @@
+package com.solace.scalers.aws_ecs;
+
+import java.net.MalformedURLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+import com.amazonaws.services.cloudwatch.AmazonCloudWatch;
+import com.amazonaws.services.ecs.AmazonECS;
+import com.solace.scalers.aws_ecs.model.ScalerConfig;
+import com.solace.scalers.aws_ecs.model.ScalerConfig.BrokerConfig;
+import com.solace.scalers.aws_ecs.model.ScalerConfig.DiscoveryRuleConfig;
+import com.solace.scalers.aws_ecs.model.ScalerConfig.EcsServiceConfig;
+import com.solace.scalers.aws_ecs.util.DiscoveryRuleUtils;
+import com.solace.scalers.aws_ecs.util.LogUtils;
+import com.solace.scalers.aws_ecs.util.SolaceQueueMonitorUtils;
+
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * The set of scaled services, which may change while the scaler runs. For each service: an EcsServiceScaler,
+ * EcsServiceMetrics and EcsServicePipeline, all indexed by queue designation.
+ * - One SolaceBrokerPoller per configured broker/Message VPN feeds the pipelines of the services on that broker
+ * - Services are added and removed incrementally: only the pipeline of the service is created or stopped, and the
+ *   queue is added to or removed from its broker's monitor; other services and monitors are not affected
+ * - Discovery rules list the queues matching a pattern on the poller thread of their broker, every discoveryInterval,
+ *   and add or remove services as matching queues appear and disappear. A service configured in ecsServiceConfig,
+ *   or created by an earlier rule, takes precedence over a discovered service for the same queue or ECS service
+ * - A service that scales on several queues is indexed by the designation of its queueName; none of its queues can
+ *   be scaled by another service
+ * - Task counts are collected for the current services; collectors are rebuilt after the services change
+ * - A reloaded configuration is applied by reconfigure(): only the services that changed are touched, and a
+ *   service that still scales the same ECS service is updated in place, keeping its observations and scaling state
+ */
+@Log4j2
+public class EcsServiceRegistry {
+
+    private final EcsServiceActuator                    ecsServiceActuator;
+
+    private final EcsServicePipelineScheduler           pipelineScheduler;
+
+    private final AmazonECS                             ecs;
+
+    private final Supplier<AmazonCloudWatch>            cloudWatch;
+
+    // Configuration applied last
+    private ScalerConfig                                scalerConfig;
+
+    // Configurations of the services listed in ecsServiceConfig, by queue designation
+    private final Map<String, EcsServiceConfig>         configuredServices = new LinkedHashMap<>();
+
+    // Indexed by queue designation
+    private final Map<String, EcsServiceScaler>         ecsServiceScalerMap = new ConcurrentHashMap<>();
+
+    private final Map<String, EcsServiceMetrics>        ecsServiceMetricsMap = new ConcurrentHashMap<>();
+
+    private final Map<String, EcsServicePipeline>       ecsServicePipelineMap = new ConcurrentHashMap<>();
+
+    // Service designations in use, so that two queues never scale the same ECS service
+    private final Set<String>                           serviceDesignations = new HashSet<>();
+
+    // Designations of every queue scaled, including all queues of services that scale on several queues
+    private final Set<String>                           queueDesignationsInUse = new HashSet<>();
+
+    // Indexed by brokerName; null if there is a single unnamed broker
+    private final Map<String, SolaceBrokerPoller>       solaceBrokerPollerMap = new HashMap<>();
+
+    private final List<DiscoveryRule>                   discoveryRules = new ArrayList<>();
+
+    private volatile EcsServiceStateCollector           ecsServiceStateCollector;
+
+    private volatile EcsServiceMetricsCollector         ecsServiceMetricsCollector;
+
+    private volatile boolean                            taskCountCollectorsStale = true;
+
+    private boolean                                     isStarted = false,
+                                                        isScaling = false;
+
+    /**
+     * Services discovered by one rule
+     */
+    private static class DiscoveryRule {
+
+        // Replaced when a reloaded configuration changes the rule
+        volatile DiscoveryRuleConfig discoveryRuleConfig;
+
+        final Pattern               queueNamePattern;
+
+        // Queue designations of the services created by this rule
+        final Set<String>           queueDesignations = new HashSet<>();
+
+        // Periodic discovery on the broker's poller thread; null until scheduled
+        ScheduledFuture<?>          schedule;
+
+        DiscoveryRule( DiscoveryRuleConfig discoveryRuleConfig ) {
+            this.discoveryRuleConfig = discoveryRuleConfig;
+            this.queueNamePattern = DiscoveryRuleUtils.compileQueueNamePattern( discoveryRuleConfig.getQueueNamePattern() );
+        }
+    }
+
+    /**
+     * Constructor; creates the services listed in ecsServiceConfig and a poller for each broker
+     * @param scalerConfig - Validated configuration
+     * @param ecsServiceActuator
+     * @param pipelineScheduler
+     * @param ecs - Used for task counts of services with taskCountSource == ecs
+     * @param cloudWatch - Used for task counts of services with taskCountSource == cloudwatch; only called if there are any
+     * @param brokerFailureHandler - Called when a broker becomes unavailable; its poller keeps retrying
+     */
+    public EcsServiceRegistry( ScalerConfig scalerConfig,
+                               EcsServiceActuator ecsServiceActuator,
+                               EcsServicePipelineScheduler pipelineScheduler,
+                               AmazonECS ecs,
+                               Supplier<AmazonCloudWatch> cloudWatch,
+                               Runnable brokerFailureHandler ) {
+        this( scalerConfig, ecsServiceActuator, pipelineScheduler, ecs, cloudWatch, brokerFailureHandler, brokerConfig -> {
+            try {
+                return SolaceQueueMonitorUtils.createSolaceQueuePollingMonitorWithBasicAuth( brokerConfig, List.of() );
+            } catch ( MalformedURLException exc ) {
+                throw new IllegalArgumentException( "Invalid SEMP URL for MsgVpn " + brokerConfig.getMsgVpnName(), exc );
+            }
+        } );
+    }
+
+    EcsServiceRegistry( ScalerConfig scalerConfig,
+                        EcsServiceActuator ecsServiceActuator,
+                        EcsServicePipelineScheduler pipelineScheduler,
+                        AmazonECS ecs,
+                        Supplier<AmazonCloudWatch> cloudWatch,
+                        Runnable brokerFailureHandler,
+                        Function<BrokerConfig, SolaceQueueCollectionMonitor> monitorFactory ) {
+        this.ecsServiceActuator = ecsServiceActuator;
+        this.pipelineScheduler = pipelineScheduler;
+        this.ecs = ecs;
+        this.cloudWatch = cloudWatch;
+        this.scalerConfig = scalerConfig;
+
+        for ( BrokerConfig brokerConfig : scalerConfig.getBrokerConfigs() ) {
+            solaceBrokerPollerMap.put( brokerConfig.getBrokerName(), new SolaceBrokerPoller(
+                                    brokerConfig,
+                                    monitorFactory.apply( brokerConfig ),
+                                    List.of(),
+                                    brokerFailureHandler ) );
+        }
+        addConfiguredServices( scalerConfig.getEcsServiceConfig() );
+        for ( DiscoveryRuleConfig discoveryRuleConfig : scalerConfig.getDiscoveryRules() ) {
+            discoveryRules.add( new DiscoveryRule( discoveryRuleConfig ) );
+        }
+    }
+
+    /**
+     * @return Scalers indexed by queue designation; live view
+     */
+    public Map<String, EcsServiceScaler> getEcsServiceScalerMap() {
+        return ecsServiceScalerMap;
+    }
+
+    /**
+     * @return Pipelines indexed by queue designation; live view
+     */
+    public Map<String, EcsServicePipeline> getEcsServicePipelineMap() {
+        return ecsServicePipelineMap;
+    }
+
+    public Collection<SolaceBrokerPoller> getSolaceBrokerPollers() {
+        return solaceBrokerPollerMap.values();
+    }
+
+    /**
+     * Start the pipelines, start polling each broker that has services or discovery rules, and schedule discovery.
+     * The first discovery for each rule runs before the first poll of its broker.
+     * @param initialPollingDelaySeconds
+     */
+    public synchronized void start( long initialPollingDelaySeconds ) {
+        isStarted = true;
+        ecsServicePipelineMap.values().forEach( EcsServicePipeline::start );
+
+        discoveryRules.forEach( this::scheduleDiscovery );
+        for ( SolaceBrokerPoller solaceBrokerPoller : solaceBrokerPollerMap.values() ) {
+            if ( solaceBrokerPoller.getPipelineCount() == 0 && !hasDiscoveryRule( solaceBrokerPoller.getBrokerConfig() ) ) {
+                log.warn( "MsgVpn={} -- No services configured for broker; not polled", solaceBrokerPoller.getBrokerConfig().getMsgVpnName() );
+                continue;
+            }
+            solaceBrokerPoller.start( initialPollingDelaySeconds );
+        }
+    }
+
+    /**
+     * Start scaling all services, and services added from now on; request an evaluation of every service each period
+     * @param periodMillis
+     */
+    public synchronized void startScaling( long periodMillis ) {
+        isScaling = true;
+        ecsServicePipelineMap.values().forEach( EcsServicePipeline::startScaling );
+        pipelineScheduler.startPeriodicEvaluation( periodMillis );
+    }
+
+    /**
+     * Stop polling and stop all pipelines
+     */
+    public synchronized void stop() {
+        solaceBrokerPollerMap.values().forEach( SolaceBrokerPoller::stop );
+        ecsServicePipelineMap.values().forEach( EcsServicePipeline::stop );
+    }
+
+    /**
+     * Create services and add their queues to the monitors of their brokers.
+     * A service is not added if one of its queues or its ECS service is already scaled.
+     * @param ecsServiceConfigs - Validated service configurations
+     * @return Queue designations of the services added
+     */
+    public synchronized List<String> addServices( Collection<EcsServiceConfig> ecsServiceConfigs ) {
+        final Map<SolaceBrokerPoller, List<EcsServicePipeline>> brokerPipelines = new LinkedHashMap<>();
+        final List<String> added = new ArrayList<>();
+
+        for ( EcsServiceConfig ecsServiceConfig : ecsServiceConfigs ) {
+            final String queueDesignation = LogUtils.getQueueDesignation( ecsServiceConfig );
+            final String serviceDesignation = LogUtils.getServiceDesignation( ecsServiceConfig );
+            final List<String> queueDesignations = LogUtils.getQueueDesignations( ecsServiceConfig );
+            if ( queueDesignations.stream().anyMatch( queueDesignationsInUse::contains ) || serviceDesignations.contains( serviceDesignation ) ) {
+                log.warn( "Service={} -- Queue: {} or service is already scaled; not added", serviceDesignation, queueDesignation );
+                continue;
+            }
+            final SolaceBrokerPoller solaceBrokerPoller = solaceBrokerPollerMap.get( ecsServiceConfig.getBrokerName() );
+            if ( solaceBrokerPoller == null ) {
+                log.warn( "Service={} -- brokerName == [{}] does not match a configured broker; not added",
+                                serviceDesignation, ecsServiceConfig.getBrokerName() );
+                continue;
+            }
+
+            final EcsServiceScaler ecsServiceScaler = new EcsServiceScaler(
+                                    ecsServiceConfig, solaceBrokerPoller.getBrokerConfig().getPollingInterval(), ecsServiceActuator );
+            final EcsServiceMetrics ecsServiceMetrics = new EcsServiceMetrics( ecsServiceConfig );
+            final EcsServicePipeline ecsServicePipeline = pipelineScheduler.add(
+                                    shard -> new EcsServicePipeline( ecsServiceScaler, ecsServiceMetrics, shard ) );
+            // Task count changes trigger an evaluation
+            ecsServiceMetrics.setTaskCountListener( ecsServicePipeline::requestEvaluation );
+
+            ecsServiceScalerMap.put( queueDesignation, ecsServiceScaler );
+            ecsServiceMetricsMap.put( queueDesignation, ecsServiceMetrics );
+            ecsServicePipelineMap.put( queueDesignation, ecsServicePipeline );
+            serviceDesignations.add( serviceDesignation );
+            queueDesignationsInUse.addAll( queueDesignations );
+            brokerPipelines.computeIfAbsent( solaceBrokerPoller, poller -> new ArrayList<>() ).add( ecsServicePipeline );
+            added.add( queueDesignation );
+
+            if ( isStarted ) {
+                ecsServicePipeline.start();
+            }
+            if ( isScaling ) {
+                ecsServicePipeline.startScaling();
+            }
+            log.info( "Configured Scaler for Service={} -- on Solace Queue: {}", serviceDesignation, queueDesignation );
+        }
+
+        brokerPipelines.forEach( SolaceBrokerPoller::addPipelines );
+        if ( !added.isEmpty() ) {
+            taskCountCollectorsStale = true;
+        }
+        return added;
+    }
+
+    /**
+     * Stop services and remove their queues from the monitors of their brokers
+     * @param queueDesignations
+     * @return Queue designations of the services removed
+     */
+    public synchronized List<String> removeServices( Collection<String> queueDesignations ) {
+        final Map<SolaceBrokerPoller, List<EcsServicePipeline>> brokerPipelines = new LinkedHashMap<>();
+        final List<String> removed = new ArrayList<>();
+
+        for ( String queueDesignation : queueDesignations ) {
+            final EcsServicePipeline ecsServicePipeline = ecsServicePipelineMap.remove( queueDesignation );
+            if ( ecsServicePipeline == null ) {
+                continue;
+            }
+            final EcsServiceConfig ecsServiceConfig = ecsServicePipeline.getEcsServiceConfig();
+            pipelineScheduler.remove( ecsServicePipeline );
+            ecsServiceScalerMap.remove( queueDesignation );
+            ecsServiceMetricsMap.remove( queueDesignation ).setTaskCountListener( null );
+            serviceDesignations.remove( LogUtils.getServiceDesignation( ecsServiceConfig ) );
+            ecsServiceActuator.removeService( ecsServiceConfig );
+            queueDesignationsInUse.removeAll( LogUtils.getQueueDesignations( ecsServiceConfig ) );
+            brokerPipelines.computeIfAbsent( solaceBrokerPollerMap.get( ecsServiceConfig.getBrokerName() ), poller -> new ArrayList<>() )
+                           .add( ecsServicePipeline );
+            removed.add( queueDesignation );
+            log.info( "Removed Scaler for Service={} -- on Solace Queue: {}",
+                            LogUtils.getServiceDesignation( ecsServiceConfig ), queueDesignation );
+        }
+
+        brokerPipelines.forEach( SolaceBrokerPoller::removePipelines );
+        if ( !removed.isEmpty() ) {
+            taskCountCollectorsStale = true;
+        }
+        return removed;
+    }
+
+    /**
+     * Apply a reloaded configuration; services that did not change are not touched.
+     * - Services in ecsServiceConfig are matched by queue designation. A service that still scales the same ECS
+     *   service on the same queues is updated in place and keeps its observations, cooldown timestamps and last
+     *   scaled replica count. Services no longer listed are stopped and new services are started; a queue moved to
+     *   another ECS service, or a service whose queues changed, is stopped and started again
+     * - Discovery rules are matched by brokerName and queueNamePattern. The services of a changed rule are updated
+     *   in place as above, the services of a removed rule are stopped, and a new rule runs its first discovery now
+     * - Brokers and the snapshot are not changed until restart; changes to them are logged
+     * @param newScalerConfig - Validated configuration
+     */
+    public synchronized void reconfigure( ScalerConfig newScalerConfig ) {
+        if ( !Objects.equals( scalerConfig.getBrokerConfigs(), newScalerConfig.getBrokerConfigs() ) ) {
+            log.warn( "Changes to brokerConfig or brokerConfigs take effect after restart; brokers are unchanged" );
+        }
+        if ( !Objects.equals( scalerConfig.getSnapshotConfig(), newScalerConfig.getSnapshotConfig() ) ) {
+            log.warn( "Changes to snapshotConfig take effect after restart" );
+        }
+
+        final List<String> removals = new ArrayList<>();
+        final List<EcsServiceConfig> additions = new ArrayList<>();
+        final Map<DiscoveryRule, List<EcsServiceConfig>> discoveredAdditions = new LinkedHashMap<>();
+        int updated = 0;
+
+        // Services listed in ecsServiceConfig
+        final Map<String, EcsServiceConfig> newConfiguredServices = new LinkedHashMap<>();
+        for ( EcsServiceConfig ecsServiceConfig : newScalerConfig.getEcsServiceConfig() ) {
+            newConfiguredServices.put( LogUtils.getQueueDesignation( ecsServiceConfig ), ecsServiceConfig );
+        }
+        for ( String queueDesignation : configuredServices.keySet() ) {
+            if ( !newConfiguredServices.containsKey( queueDesignation ) ) {
+                removals.add( queueDesignation );
+            }
+        }
+        for ( Map.Entry<String, EcsServiceConfig> entry : newConfiguredServices.entrySet() ) {
+            // A listed service takes over a discovered service for the same queue; discovered services on its other
+            // queues are stopped
+            for ( String queueDesignation : LogUtils.getQueueDesignations( entry.getValue() ) ) {
+                for ( DiscoveryRule discoveryRule : discoveryRules ) {
+                    if ( discoveryRule.queueDesignations.remove( queueDesignation ) && !queueDesignation.equals( entry.getKey() ) ) {
+                        removals.add( queueDesignation );
+                    }
+                }
+            }
+            if ( isSameService( entry.getKey(), entry.getValue() ) ) {
+                updated += updateService( entry.getKey(), entry.getValue() ) ? 1 : 0;
+            } else {
+                if ( ecsServicePipelineMap.containsKey( entry.getKey() ) ) {
+                    removals.add( entry.getKey() );
+                }
+                additions.add( entry.getValue() );
+            }
+        }
+
+        // Discovery rules
+        final Map<String, DiscoveryRule> previousRules = new HashMap<>();
+        for ( DiscoveryRule discoveryRule : discoveryRules ) {
+            previousRules.put( getRuleKey( discoveryRule.discoveryRuleConfig ), discoveryRule );
+        }
+        final List<DiscoveryRule> newDiscoveryRules = new ArrayList<>();
+        for ( DiscoveryRuleConfig discoveryRuleConfig : newScalerConfig.getDiscoveryRules() ) {
+            final DiscoveryRule discoveryRule = previousRules.remove( getRuleKey( discoveryRuleConfig ) );
+            if ( discoveryRule == null ) {
+                newDiscoveryRules.add( new DiscoveryRule( discoveryRuleConfig ) );
+                continue;
+            }
+            newDiscoveryRules.add( discoveryRule );
+            if ( discoveryRuleConfig.equals( discoveryRule.discoveryRuleConfig ) ) {
+                continue;
+            }
+            final boolean rescheduled = !discoveryRuleConfig.getDiscoveryInterval().equals( discoveryRule.discoveryRuleConfig.getDiscoveryInterval() );
+            discoveryRule.discoveryRuleConfig = discoveryRuleConfig;
+            for ( String queueDesignation : List.copyOf( discoveryRule.queueDesignations ) ) {
+                final String queueName = ecsServiceMetricsMap.get( queueDesignation ).getEcsServiceConfig().getQueueName();
+                EcsServiceConfig ecsServiceConfig;
+                try {
+                    ecsServiceConfig = DiscoveryRuleUtils.createEcsServiceConfig( discoveryRuleConfig, discoveryRule.queueNamePattern, queueName );
+                } catch ( IllegalArgumentException exc ) {
+                    ecsServiceConfig = null;
+                    log.warn( "{}; queue no longer scaled", exc.getMessage() );
+                }
+                if ( ecsServiceConfig != null && isSameService( queueDesignation, ecsServiceConfig ) ) {
+                    updated += updateService( queueDesignation, ecsServiceConfig ) ? 1 : 0;
+                    continue;
+                }
+                removals.add( queueDesignation );
+                discoveryRule.queueDesignations.remove( queueDesignation );
+                if ( ecsServiceConfig != null ) {
+                    discoveredAdditions.computeIfAbsent( discoveryRule, rule -> new ArrayList<>() ).add( ecsServiceConfig );
+                }
+            }
+            if ( rescheduled && discoveryRule.schedule != null ) {
+                discoveryRule.schedule.cancel( false );
+                discoveryRule.schedule = null;
+            }
+        }
+        for ( DiscoveryRule discoveryRule : previousRules.values() ) {
+            if ( discoveryRule.schedule != null ) {
+                discoveryRule.schedule.cancel( false );
+            }
+            removals.addAll( discoveryRule.queueDesignations );
+            discoveryRule.queueDesignations.clear();
+        }
+
+        // Stop services first, so that their queues and ECS services can be taken by the new services
+        final List<String> removed = removeServices( removals );
+        configuredServices.keySet().removeAll( removed );
+        int added = addConfiguredServices( additions ).size();
+        for ( Map.Entry<DiscoveryRule, List<EcsServiceConfig>> entry : discoveredAdditions.entrySet() ) {
+            final List<String> discovered = addServices( entry.getValue() );
+            entry.getKey().queueDesignations.addAll( discovered );
+            added += discovered.size();
+        }
+        for ( Map.Entry<String, EcsServiceConfig> entry : newConfiguredServices.entrySet() ) {
+            if ( ecsServicePipelineMap.containsKey( entry.getKey() ) ) {
+                configuredServices.put( entry.getKey(), entry.getValue() );
+            }
+        }
+
+        discoveryRules.clear();
+        discoveryRules.addAll( newDiscoveryRules );
+        scalerConfig = newScalerConfig;
+        if ( isStarted ) {
+            for ( DiscoveryRule discoveryRule : discoveryRules ) {
+                if ( discoveryRule.schedule == null ) {
+                    scheduleDiscovery( discoveryRule );
+                }
+            }
+            for ( SolaceBrokerPoller solaceBrokerPoller : solaceBrokerPollerMap.values() ) {
+                if ( solaceBrokerPoller.getPipelineCount() > 0 || hasDiscoveryRule( solaceBrokerPoller.getBrokerConfig() ) ) {
+                    solaceBrokerPoller.start( 0L );
+                }
+            }
+        }
+        log.info( "Configuration applied -- {} services added, {} removed, {} updated; {} discovery rules",
+                        added, removed.size(), updated, discoveryRules.size() );
+    }
+
+    /**
+     * Retrieve task counts from ECS DescribeServices for the services with taskCountSource == ecs
+     */
+    public void retrieveServiceState() {
+        refreshTaskCountCollectors();
+        final EcsServiceStateCollector collector = ecsServiceStateCollector;
+        if ( collector != null ) {
+            collector.retrieveServiceState();
+        }
+    }
+
+    /**
+     * Retrieve task counts from CloudWatch for the services with taskCountSource == cloudwatch
+     */
+    public void retrieveMetricsFromCloudwatch() {
+        refreshTaskCountCollectors();
+        final EcsServiceMetricsCollector collector = ecsServiceMetricsCollector;
+        if ( collector != null ) {
+            collector.retrieveMetricsFromCloudwatch();
+        }
+    }
+
+    /**
+     * List the queues matching a discovery rule, then add services for new queues and remove the services of
+     * queues that no longer exist. Nothing is removed if the queues could not be listed.
+     * @param discoveryRule
+     */
+    void discover( DiscoveryRule discoveryRule ) {
+        final DiscoveryRuleConfig discoveryRuleConfig = discoveryRule.discoveryRuleConfig;
+        final SolaceBrokerPoller solaceBrokerPoller = solaceBrokerPollerMap.get( discoveryRuleConfig.getBrokerName() );
+
+        Optional<Set<String>> optionalQueueNames;
+        try {
+            optionalQueueNames = solaceBrokerPoller.getSolaceQueueCollectionMonitor().listQueueNames( discoveryRuleConfig.getQueueNamePattern() );
+        } catch ( Exception exc ) {
+            optionalQueueNames = Optional.empty();
+            log.warn( "Broker={} -- Error listing queues matching {} -- Exception: {}",
+                            solaceBrokerPoller.getBrokerDesignation(), discoveryRuleConfig.getQueueNamePattern(), exc.getMessage() );
+        }
+        if ( optionalQueueNames.isEmpty() ) {
+            log.warn( "Broker={} -- Could not list queues matching {}; discovered services are unchanged",
+                            solaceBrokerPoller.getBrokerDesignation(), discoveryRuleConfig.getQueueNamePattern() );
+            return;
+        }
+
+        final Map<String, EcsServiceConfig> discovered = new LinkedHashMap<>();
+        for ( String queueName : optionalQueueNames.get() ) {
+            try {
+                final EcsServiceConfig ecsServiceConfig =
+                                DiscoveryRuleUtils.createEcsServiceConfig( discoveryRuleConfig, discoveryRule.queueNamePattern, queueName );
+                if ( ecsServiceConfig != null ) {
+                    discovered.put( LogUtils.getQueueDesignation( ecsServiceConfig ), ecsServiceConfig );
+                }
+            } catch ( IllegalArgumentException exc ) {
+                log.warn( "Broker={} -- {}; queue not scaled", solaceBrokerPoller.getBrokerDesignation(), exc.getMessage() );
+            }
+        }
+
+        synchronized ( this ) {
+            // The rule was removed or changed by reconfigure() while the queues were listed
+            if ( !discoveryRules.contains( discoveryRule ) || discoveryRule.discoveryRuleConfig != discoveryRuleConfig ) {
+                return;
+            }
+            final List<String> retired = new ArrayList<>();
+            for ( String queueDesignation : discoveryRule.queueDesignations ) {
+                if ( !discovered.containsKey( queueDesignation ) ) {
+                    retired.add( queueDesignation );
+                }
+            }
+            discoveryRule.queueDesignations.removeAll( removeServices( retired ) );
+
+            final List<EcsServiceConfig> created = new ArrayList<>();
+            for ( Map.Entry<String, EcsServiceConfig> entry : discovered.entrySet() ) {
+                if ( !discoveryRule.queueDesignations.contains( entry.getKey() ) && !queueDesignationsInUse.contains( entry.getKey() ) ) {
+                    created.add( entry.getValue() );
+                }
+            }
+            discoveryRule.queueDesignations.addAll( addServices( created ) );
+
+            if ( !retired.isEmpty() || !created.isEmpty() ) {
+                log.info( "Broker={} -- Discovered {} queues matching {}: {} services added, {} removed",
+                                solaceBrokerPoller.getBrokerDesignation(), discovered.size(),
+                                discoveryRuleConfig.getQueueNamePattern(), created.size(), retired.size() );
+            }
+        }
+    }
+
+    /**
+     * Run discovery for every rule now, on the calling thread
+     */
+    void discoverAll() {
+        final List<DiscoveryRule> rules;
+        synchronized ( this ) {
+            rules = List.copyOf( discoveryRules );
+        }
+        rules.forEach( this::discover );
+    }
+
+    private List<String> addConfiguredServices( Collection<EcsServiceConfig> ecsServiceConfigs ) {
+        final List<String> added = addServices( ecsServiceConfigs );
+        for ( EcsServiceConfig ecsServiceConfig : ecsServiceConfigs ) {
+            if ( added.contains( LogUtils.getQueueDesignation( ecsServiceConfig ) ) ) {
+                configuredServices.put( LogUtils.getQueueDesignation( ecsServiceConfig ), ecsServiceConfig );
+            }
+        }
+        return added;
+    }
+
+    /**
+     * @param queueDesignation
+     * @param ecsServiceConfig
+     * @return True if the queue is scaled and its service scales the ECS service of `ecsServiceConfig` on the same queues
+     */
+    private boolean isSameService( String queueDesignation, EcsServiceConfig ecsServiceConfig ) {
+        final EcsServiceMetrics ecsServiceMetrics = ecsServiceMetricsMap.get( queueDesignation );
+        return ecsServiceMetrics != null &&
+               LogUtils.getServiceDesignation( ecsServiceMetrics.getEcsServiceConfig() ).equals( LogUtils.getServiceDesignation( ecsServiceConfig ) ) &&
+               ecsServiceMetrics.getEcsServiceConfig().getQueueNames().equals( ecsServiceConfig.getQueueNames() );
+    }
+
+    /**
+     * Update the configuration of a service in place
+     * @param queueDesignation
+     * @param ecsServiceConfig - Configuration for the same queues and ECS service
+     * @return True if the configuration changed
+     */
+    private boolean updateService( String queueDesignation, EcsServiceConfig ecsServiceConfig ) {
+        final EcsServiceMetrics ecsServiceMetrics = ecsServiceMetricsMap.get( queueDesignation );
+        final EcsServiceConfig previous = ecsServiceMetrics.getEcsServiceConfig();
+        if ( previous.equals( ecsServiceConfig ) ) {
+            return false;
+        }
+        ecsServiceMetrics.setEcsServiceConfig( ecsServiceConfig );
+        if ( !Objects.equals( previous.getTaskCountSource(), ecsServiceConfig.getTaskCountSource() ) ) {
+            taskCountCollectorsStale = true;
+        }
+        ecsServicePipelineMap.get( queueDesignation ).updateEcsServiceConfig( ecsServiceConfig );
+        log.info( "Updated Scaler for Service={} -- on Solace Queue: {}", LogUtils.getServiceDesignation( ecsServiceConfig ), queueDesignation );
+        return true;
+    }
+
+    private void scheduleDiscovery( DiscoveryRule discoveryRule ) {
+        final DiscoveryRuleConfig discoveryRuleConfig = discoveryRule.discoveryRuleConfig;
+        final SolaceBrokerPoller solaceBrokerPoller = solaceBrokerPollerMap.get( discoveryRuleConfig.getBrokerName() );
+        if ( solaceBrokerPoller == null ) {
+            log.warn( "Discovery rule for {} -- brokerName == [{}] does not match a running broker; not scheduled",
+                            discoveryRuleConfig.getQueueNamePattern(), discoveryRuleConfig.getBrokerName() );
+            return;
+        }
+        discoveryRule.schedule = solaceBrokerPoller.schedule(
+                                    () -> discover( discoveryRule ),
+                                    0L, discoveryRuleConfig.getDiscoveryInterval() );
+    }
+
+    private static String getRuleKey( DiscoveryRuleConfig discoveryRuleConfig ) {
+        return discoveryRuleConfig.getBrokerName() + "/" + discoveryRuleConfig.getQueueNamePattern();
+    }
+
+    private boolean hasDiscoveryRule( BrokerConfig brokerConfig ) {
+        for ( DiscoveryRule discoveryRule : discoveryRules ) {
+            if ( Objects.equals( discoveryRule.discoveryRuleConfig.getBrokerName(), brokerConfig.getBrokerName() ) ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private synchronized void refreshTaskCountCollectors() {
+        if ( !taskCountCollectorsStale ) {
+            return;
+        }
+        final List<EcsServiceMetrics> cloudWatchServiceMetrics = new ArrayList<>(), ecsServiceStateMetrics = new ArrayList<>();
+        for ( EcsServiceMetrics ecsServiceMetrics : ecsServiceMetricsMap.values() ) {
+            if ( EcsServiceConfig.TASK_COUNT_SOURCE_ECS.equals( ecsServiceMetrics.getEcsServiceConfig().getTaskCountSource() ) ) {
+                ecsServiceStateMetrics.add( ecsServiceMetrics );
+            } else {
+                cloudWatchServiceMetrics.add( ecsServiceMetrics );
+            }
+        }
+        ecsServiceStateCollector = ecsServiceStateMetrics.isEmpty() ? null : new EcsServiceStateCollector( ecsServiceStateMetrics, ecs );
+        ecsServiceMetricsCollector = cloudWatchServiceMetrics.isEmpty() ? null : new EcsServiceMetricsCollector( cloudWatchServiceMetrics, cloudWatch.get() );
+        taskCountCollectorsStale = false;
+    }
+}
@@ -1,10 +1,5 @@
 package com.solace.scalers.aws_ecs;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-
 import com.solace.scalers.aws_ecs.model.util.ecs.EcsServiceScalerDesiredReplicaTargets;
 import com.solace.scalers.aws_ecs.model.util.ecs.EcsServiceScalerObservations;
 import com.solace.scalers.aws_ecs.model.util.ecs.EcsServiceScalerReplicaTarget;
@@ -12,16 +7,18 @@ import com.solace.scalers.aws_ecs.util.EcsServiceScalerUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
 import com.amazonaws.services.ecs.AmazonECS;
 import com.amazonaws.services.ecs.AmazonECSClientBuilder;
-import com.amazonaws.services.ecs.model.UpdateServiceRequest;
-import com.amazonaws.services.ecs.model.UpdateServiceResult;
 import com.solace.scalers.aws_ecs.model.ScalerConfig.EcsServiceConfig;
+import com.solace.scalers.aws_ecs.model.ScalerConfig.ScalerBehaviorConfig;
+import com.solace.scalers.aws_ecs.model.semp_v2.SempQueueObservation;
 import com.solace.scalers.aws_ecs.util.LogUtils;
 
 /**
  * Class to retain metrics and perform scaling operations.
- * TODO - Add messageSpoolUsage to active metrics
  */
 public class EcsServiceScaler {
     
@@ -30,70 +27,252 @@ public class EcsServiceScaler {
     private static final Logger     logger = LogManager.getLogger( EcsServiceScaler.class );
 
     // TODO - Evaluate if default AmazonECS client is acceptable for production
-    private static final AmazonECS  ecs = AmazonECSClientBuilder.defaultClient();
+    // Created on first use so scaler state can be constructed and restored without AWS configuration
+    // Shared with the ECS DescribeServices task count source
+    static class EcsClientHolder {
+        static final AmazonECS ecs = AmazonECSClientBuilder.defaultClient();
+    }
+
+    // Actuator for scalers constructed without one; created on first scaling request
+    static class DefaultActuatorHolder {
+        static final EcsServiceActuator actuator = new EcsServiceActuator(
+                        EcsClientHolder.ecs, Executors.newScheduledThreadPool( DEFAULT_ACTUATOR_THREADS ) );
+    }
+
+    private static final int        DEFAULT_ACTUATOR_THREADS = 2;
+
+    // Used to size the observation buffer if the polling interval is not known
+    private static final int        DEFAULT_POLLING_INTERVAL_SECONDS = 1;
+
+    // Start-up latency samples needed before the learned distribution sets the scale operation timeout
+    private static final int        MIN_LATENCY_SAMPLES = 3;
+
+    private static final long       MIN_SCALE_OPERATION_TIMEOUT_MILLIS = 60000L;
+
+    // Replaced if a configuration update changes the stabilization windows
+    private volatile MetricObservationBuffer metricObservations;
 
-    private final Map<Long, Map<String, Long>> metricObservations = new ConcurrentHashMap<>( 250, 0.75F, 3 );
+    private final int pollingIntervalSeconds;
+
+    // Per-task consumer throughput learned from averageTxMsgRate, for drain-time scaling
+    private final ConsumerThroughputEstimator consumerThroughput = new ConsumerThroughputEstimator();
+
+    // Projections of the message count and receive rate, for predictive scale-out
+    private final HoltForecaster messageCountForecaster = new HoltForecaster(),
+                                 receiveRateForecaster = new HoltForecaster();
+
+    // Sends ECS UpdateService requests; null to use the default actuator
+    private final EcsServiceActuator actuator;
 
     private volatile EcsServiceConfig ecsServiceConfig;
 
     // Used to compute cooldown periods; can be distinct for scale-in/scale-out
-    private long lastScaleOutTime = 0L;
-    private long lastScaleInTime = 0L;
+    // Volatile: read by the snapshot writer
+    private volatile long lastScaleOutTime = 0L;
+    private volatile long lastScaleInTime = 0L;
 
     // lastScaledReplicaCount is needed because replica counts returned from Cloudwatch can
     // take a while before synchronizing with the last update request to the service.
     // When lastScaledReplicaCount == running replica count, a subsequent scaling operation may proceed
     // If lastScaledReplicaCount != running replica count, then need to wait
-    private int     lastScaledReplicaCount = 0;
-    private boolean lastScaledReplicaCountInitialized = false;
+    private volatile int     lastScaledReplicaCount = 0;
+    private volatile boolean lastScaledReplicaCountInitialized = false;
+
+    // Start-up latency: timed from a successful UpdateService request until the running count converges
+    private final StartupLatencyTracker startupLatency = new StartupLatencyTracker();
+
+    // Time the scaling operation being waited on started; 0 if none
+    private volatile long    scaleOperationStartTime = 0L;
+    private volatile boolean scaleOperationIsScaleOut = false;
+
+    // Target submitted to the actuator and not yet confirmed or failed; NO_PENDING_UPDATE if none
+    // No further scaling decision is made while an update is pending, since its outcome is not reflected in the
+    // cooldown timestamps and last scaled replica count until the actuator reports it
+    private volatile int     pendingReplicaTarget = NO_PENDING_UPDATE;
+
+    private static final int NO_PENDING_UPDATE = -1;
+
+    // Set when an operation did not converge in time; until it does, scaling proceeds from the current desired count,
+    // but scale-out is held while the running count differs from the desired count
+    private volatile boolean convergenceTimedOut = false;
+
+    // Number of scale-out operations made on the surge fast path
+    private final AtomicLong surgeTriggerCount = new AtomicLong();
 
     /**
      * Constructor passing EcsServiceConfig object
      * @param ecsServiceConfig
      */
     public EcsServiceScaler( EcsServiceConfig ecsServiceConfig ) {
+        this( ecsServiceConfig, DEFAULT_POLLING_INTERVAL_SECONDS );
+    }
+
+    /**
+     * Constructor passing EcsServiceConfig object and the SEMP polling interval used to size the observation buffer
+     * @param ecsServiceConfig
+     * @param pollingIntervalSeconds
+     */
+    public EcsServiceScaler( EcsServiceConfig ecsServiceConfig, int pollingIntervalSeconds ) {
+        this( ecsServiceConfig, pollingIntervalSeconds, null );
+    }
+
+    /**
+     * Constructor passing EcsServiceConfig object, the SEMP polling interval used to size the observation buffer,
+     * and the actuator that sends scaling requests to ECS
+     * @param ecsServiceConfig
+     * @param pollingIntervalSeconds
+     * @param actuator
+     */
+    public EcsServiceScaler( EcsServiceConfig ecsServiceConfig, int pollingIntervalSeconds, EcsServiceActuator actuator ) {
         this.ecsServiceConfig = ecsServiceConfig;
+        this.actuator = actuator;
+        this.pollingIntervalSeconds = pollingIntervalSeconds;
+        this.metricObservations = createMetricObservationBuffer( ecsServiceConfig, pollingIntervalSeconds );
     }
 
-    public Map<Long, Map<String, Long>> getMetricObservations() {
-        return this.metricObservations;
+    private static MetricObservationBuffer createMetricObservationBuffer( EcsServiceConfig ecsServiceConfig, int pollingIntervalSeconds ) {
+        if ( MetricObservationBuffer.isCapacityLimited( getMetricsRetentionMillis( ecsServiceConfig ), pollingIntervalSeconds ) ) {
+            logger.warn( "Service={} -- Stabilization windows need more than {} observations at a {} second polling interval; " +
+                            "only the most recent {} observations are retained",
+                            LogUtils.getServiceDesignation( ecsServiceConfig ), MetricObservationBuffer.MAX_CAPACITY,
+                            pollingIntervalSeconds, MetricObservationBuffer.MAX_CAPACITY );
+        }
+        return new MetricObservationBuffer(
+                        MetricObservationBuffer.capacityFor( getMetricsRetentionMillis( ecsServiceConfig ), pollingIntervalSeconds ),
+                        getMetricsRetentionMillis( ecsServiceConfig ),
+                        ecsServiceConfig.getScalerBehaviorConfig().getScaleOutConfig().getStabilizationWindow() * 1000L,
+                        ecsServiceConfig.getScalerBehaviorConfig().getScaleInConfig().getStabilizationWindow() * 1000L );
     }
 
-    public EcsServiceConfig getEcsServiceConfig() {
-        return ecsServiceConfig;
+    /**
+     * Apply a changed configuration for the same queue and ECS service. Observations, cooldown timestamps and
+     * the last scaled replica count are kept; if the stabilization windows changed, the observations are copied
+     * to a buffer sized for the new windows.
+     * Must not be called while an observation is being added, i.e. call from the service pipeline's executor
+     * @param ecsServiceConfig
+     */
+    public void updateEcsServiceConfig( EcsServiceConfig ecsServiceConfig ) {
+        final ScalerBehaviorConfig previous = this.ecsServiceConfig.getScalerBehaviorConfig(),
+                                   updated = ecsServiceConfig.getScalerBehaviorConfig();
+        if ( !previous.getScaleOutConfig().getStabilizationWindow().equals( updated.getScaleOutConfig().getStabilizationWindow() ) ||
+             !previous.getScaleInConfig().getStabilizationWindow().equals( updated.getScaleInConfig().getStabilizationWindow() ) ) {
+            final MetricObservationBuffer resized = createMetricObservationBuffer( ecsServiceConfig, pollingIntervalSeconds );
+            resized.addAll( metricObservations );
+            metricObservations = resized;
+        }
+        this.ecsServiceConfig = ecsServiceConfig;
     }
 
-    /*
-     * Method purges all metrics older than 2X the larger stabilization window
+    public MetricObservationBuffer getMetricObservations() {
+        return this.metricObservations;
+    }
+
+    /**
+     * Metrics are retained for 2X the larger stabilization window
      * Or 120 seconds, whichever is greater
+     * @param ecsServiceConfig
+     * @return
      */
-    public void purgeOldMetrics() {
-
-        final long retainMetricsWindow = Math.max(
+    public static long getMetricsRetentionMillis( EcsServiceConfig ecsServiceConfig ) {
+        return Math.max(
                 Math.max(
                         ecsServiceConfig.getScalerBehaviorConfig().getScaleOutConfig().getStabilizationWindow(),
                         ecsServiceConfig.getScalerBehaviorConfig().getScaleInConfig().getStabilizationWindow() 
                         ) * 2L * 1000L,
                 120L * 1000L );                 // Retain for a minimum of 120 seconds
+    }
 
-        int  counter = 0;
-        long timeInstance = System.currentTimeMillis();
-        for ( Long key : metricObservations.keySet() ) {
-            if ( ( key + retainMetricsWindow ) < timeInstance ) {
-                metricObservations.remove( key );
-                counter++;
-            }
+    public ConsumerThroughputEstimator getConsumerThroughput() {
+        return consumerThroughput;
+    }
+
+    public HoltForecaster getMessageCountForecaster() {
+        return messageCountForecaster;
+    }
+
+    public HoltForecaster getReceiveRateForecaster() {
+        return receiveRateForecaster;
+    }
+
+    public EcsServiceConfig getEcsServiceConfig() {
+        return ecsServiceConfig;
+    }
+
+    public long getLastScaleOutTime() {
+        return lastScaleOutTime;
+    }
+
+    public long getLastScaleInTime() {
+        return lastScaleInTime;
+    }
+
+    public int getLastScaledReplicaCount() {
+        return lastScaledReplicaCount;
+    }
+
+    public boolean isLastScaledReplicaCountInitialized() {
+        return lastScaledReplicaCountInitialized;
+    }
+
+    public long getSurgeTriggerCount() {
+        return surgeTriggerCount.get();
+    }
+
+    /**
+     * @return True if an update was submitted to the actuator and its outcome is not known yet
+     */
+    public boolean isUpdatePending() {
+        return pendingReplicaTarget != NO_PENDING_UPDATE;
+    }
+
+    /**
+     * Restore scaling state saved by a previous scaler instance, so cooldown periods and in-progress
+     * scaling operations carry over a restart
+     * @param lastScaleOutTime
+     * @param lastScaleInTime
+     * @param lastScaledReplicaCount
+     * @param lastScaledReplicaCountInitialized
+     */
+    public void restoreScalingState( long lastScaleOutTime, long lastScaleInTime, int lastScaledReplicaCount, boolean lastScaledReplicaCountInitialized ) {
+        this.lastScaleOutTime = lastScaleOutTime;
+        this.lastScaleInTime = lastScaleInTime;
+        this.lastScaledReplicaCount = lastScaledReplicaCount;
+        this.lastScaledReplicaCountInitialized = lastScaledReplicaCountInitialized;
+    }
+
+    /**
+     * Learn from an observation as it is added to the observation buffer; called by the service pipeline's ingest
+     * stage for every observation, so each is learned once whether or not an evaluation follows it
+     * - The message count and receive rate forecasts follow every reported value, including while a scaling
+     *   operation is in progress
+     * - Consumer throughput is learned only in steady state, so tx rate is not attributed to tasks starting or stopping
+     * @param observationTime
+     * @param sempQueueObservation
+     * @param currentDesiredReplicas - null if not known
+     * @param currentRunningReplicas - null if not known
+     */
+    public void learn( long observationTime, SempQueueObservation sempQueueObservation, Integer currentDesiredReplicas, Integer currentRunningReplicas ) {
+        if ( SempQueueObservation.isReported( sempQueueObservation.getMsgCount() ) ) {
+            messageCountForecaster.update( observationTime, sempQueueObservation.getMsgCount() );
+        }
+        if ( SempQueueObservation.isReported( sempQueueObservation.getAverageRxMsgRate() ) ) {
+            receiveRateForecaster.update( observationTime, sempQueueObservation.getAverageRxMsgRate() );
+        }
+        if ( currentDesiredReplicas != null && currentDesiredReplicas.equals( currentRunningReplicas ) ) {
+            consumerThroughput.update(
+                            observationTime,
+                            Math.max( sempQueueObservation.getMsgCount(), 0L ),
+                            sempQueueObservation.getAverageTxMsgRate(),
+                            currentRunningReplicas );
         }
-        logger.debug( "Service={} -- Purged {} metric entries older than {} seconds", 
-                                LogUtils.getServiceDesignation(ecsServiceConfig), 
-                                counter, 
-                                ( retainMetricsWindow / 1000L ) );
     }
 
     /**
      * Method performs the following actions:
      * - Determine if the scaling is possible based on the (known) current state of the target service and the scaler
-     * - Compute the target replica count for scale-up and scale-down based upon accumulated metrics
+     * - Compute the target replica count for scale-up and scale-down based upon accumulated metrics, and projected
+     *   metrics if forecastHorizon is configured
+     * - On a backlog surge, compute the scale-out target without maxScaleStep and bypass the scale-out cooldown
      * - Call private scaleEcsService() to perform scaling operation
      * @param currentDesiredReplicas
      * @param currentRunningReplicas
@@ -101,6 +280,13 @@ public class EcsServiceScaler {
      */
     public void scalingOperation( Integer currentDesiredReplicas, Integer currentRunningReplicas ) throws Exception {
 
+        final long  evaluationTimeInstant = System.currentTimeMillis();
+
+        final long  scaleOutMetricHorizon = evaluationTimeInstant - ( ecsServiceConfig.getScalerBehaviorConfig().getScaleOutConfig().getStabilizationWindow() * 1000L ),
+                scaleInMetricHorizon = evaluationTimeInstant - ( ecsServiceConfig.getScalerBehaviorConfig().getScaleInConfig().getStabilizationWindow() * 1000L );
+
+        EcsServiceScalerObservations ecsServiceScalerObservations = EcsServiceScalerUtils.getEcsServiceScalerObservations(evaluationTimeInstant, metricObservations, scaleOutMetricHorizon, scaleInMetricHorizon);
+
         if(!determineIfScalingOperationIsPossible(currentDesiredReplicas, currentRunningReplicas)) {
             return;
         }
@@ -110,41 +296,56 @@ public class EcsServiceScaler {
             lastScaledReplicaCountInitialized = true;
         }
 
-        final long  evaluationTimeInstant = System.currentTimeMillis();
-
-        final long  scaleOutMetricHorizon = evaluationTimeInstant - ( ecsServiceConfig.getScalerBehaviorConfig().getScaleOutConfig().getStabilizationWindow() * 1000L ),
-                scaleInMetricHorizon = evaluationTimeInstant - ( ecsServiceConfig.getScalerBehaviorConfig().getScaleInConfig().getStabilizationWindow() * 1000L );
-
-        EcsServiceScalerObservations ecsServiceScalerObservations = EcsServiceScalerUtils.getEcsServiceScalerObservations(evaluationTimeInstant, metricObservations, scaleOutMetricHorizon, scaleInMetricHorizon);
-
-
         if ( !ecsServiceScalerObservations.isComputeScaleOut() && !ecsServiceScalerObservations.isComputeScaleIn()) {
             logger.warn( "Service={} -- No recent metrics to use for scaling computations, skipping this cycle",
                             LogUtils.getServiceDesignation(ecsServiceConfig) );
             return;
         }
 
-        EcsServiceScalerDesiredReplicaTargets ecsServiceScalerDesiredReplicaTargets = EcsServiceScalerUtils.getReplicaTargets(currentDesiredReplicas,ecsServiceScalerObservations,ecsServiceConfig);
+        // Predictive scale-out: size for the load expected once new tasks have started
+        // The learned start-up latency replaces the configured horizon once available
+        if ( ecsServiceConfig.getScalerBehaviorConfig().getForecastHorizon() > 0 ) {
+            final Long startupLeadTimeMillis = getStartupLeadTimeMillis();
+            final double forecastHorizon = startupLeadTimeMillis != null ?
+                            startupLeadTimeMillis / 1000.0 : ecsServiceConfig.getScalerBehaviorConfig().getForecastHorizon();
+            EcsServiceScalerUtils.applyForecast(
+                            ecsServiceScalerObservations,
+                            messageCountForecaster.forecast( forecastHorizon ),
+                            receiveRateForecaster.forecast( forecastHorizon ),
+                            ecsServiceConfig.getScalerBehaviorConfig().getMaxForecastIncreasePercent() );
+        }
+
+        // Surge fast path: the growth rate is the smoothed message count trend
+        final String surgeTrigger = ecsServiceScalerObservations.isComputeScaleOut() ?
+                        EcsServiceScalerUtils.getSurgeTrigger(
+                                        ecsServiceConfig.getScalerBehaviorConfig().getSurgeConfig(),
+                                        ecsServiceScalerObservations.getNewestMessageCountObservation(),
+                                        messageCountForecaster.getTrend() ) : null;
+
+        EcsServiceScalerDesiredReplicaTargets ecsServiceScalerDesiredReplicaTargets = EcsServiceScalerUtils.getReplicaTargets(currentDesiredReplicas,ecsServiceScalerObservations,ecsServiceConfig,consumerThroughput.getPerTaskThroughput(),surgeTrigger != null);
 
         // We have our scale-in / scale-out targets, make some decisions and scale
-        scaleEcsService(ecsServiceScalerDesiredReplicaTargets.getDesiredScaleInTarget(), ecsServiceScalerDesiredReplicaTargets.getDesiredScaleOutTarget(), currentDesiredReplicas, evaluationTimeInstant);
+        // After a convergence timeout, tasks that did not start are not compounded by more: scale-in only until the
+        // service reaches steady state
+        final boolean holdScaleOut = convergenceTimedOut && !currentDesiredReplicas.equals( currentRunningReplicas );
+
+        scaleEcsService(ecsServiceScalerDesiredReplicaTargets.getDesiredScaleInTarget(), ecsServiceScalerDesiredReplicaTargets.getDesiredScaleOutTarget(), currentDesiredReplicas, evaluationTimeInstant, surgeTrigger, holdScaleOut);
     }
 
     /**
      * Determine if a scaling operation is possible. We must know both the current desired replica count and the current replica count of the ecs service before performing a scaling operation.
-     * Additionally, a scaling operation must not already by in progress
+     * Additionally, a scaling operation must not already by in progress, or be waiting to be sent to ECS
      * @param currentDesiredReplicas
      * @param currentRunningReplicas
      * @return boolean
      */
     private boolean determineIfScalingOperationIsPossible(Integer currentDesiredReplicas, Integer currentRunningReplicas ) {
-        // Check state to see if a scaling operation is possible at the current time
-        // TODO - Need a timeout for this condition, otherwise could end up in a state where additional scaling never happens
-        if ( lastScaledReplicaCountInitialized && currentRunningReplicas != null && lastScaledReplicaCount != currentRunningReplicas ) {
-            logger.info( "Service={} -- Scaling Operation in Progress - Waiting for lastScaledReplicaCount={} == currentRunningReplicas={}",
+        final long now = System.currentTimeMillis();
+        final int pendingTarget = pendingReplicaTarget;
+        if ( pendingTarget != NO_PENDING_UPDATE ) {
+            logger.info( "Service={} -- Update to {} instances not yet confirmed by ECS; Waiting for the update to complete",
                     LogUtils.getServiceDesignation(ecsServiceConfig),
-                    lastScaledReplicaCount,
-                    currentRunningReplicas );
+                    pendingTarget );
             return false;
         }
         if ( currentDesiredReplicas == null || currentRunningReplicas == null ) {
@@ -154,30 +355,116 @@ public class EcsServiceScaler {
                     currentRunningReplicas );
             return false;
         }
-        if ( currentDesiredReplicas != currentRunningReplicas ) {
+
+        final boolean awaitingScaledCount = lastScaledReplicaCountInitialized && lastScaledReplicaCount != currentRunningReplicas,
+                      awaitingSteadyState = !currentDesiredReplicas.equals( currentRunningReplicas );
+        if ( !awaitingScaledCount && !awaitingSteadyState ) {
+            scaleOperationConverged( now );
+            return true;
+        }
+        if ( convergenceTimedOut ) {
+            // Gave up waiting on this operation; scale from the current desired count, scale-in only while not in
+            // steady state
+            return true;
+        }
+        if ( scaleOperationStartTime == 0L ) {
+            // Start not observed, e.g. after a restart or an update made outside the scaler; not a latency sample
+            scaleOperationStartTime = now;
+            scaleOperationIsScaleOut = false;
+        }
+        final long timeoutMillis = getScaleOperationTimeoutMillis();
+        if ( now - scaleOperationStartTime > timeoutMillis ) {
+            logger.warn( "Service={} -- Scaling Operation did not converge within {} seconds - lastScaledReplicaCount={} currentDesiredReplicas={} currentRunningReplicas={}; No longer waiting",
+                    LogUtils.getServiceDesignation(ecsServiceConfig),
+                    timeoutMillis / 1000L,
+                    lastScaledReplicaCount,
+                    currentDesiredReplicas,
+                    currentRunningReplicas );
+            convergenceTimedOut = true;
+            lastScaledReplicaCount = currentRunningReplicas;
+            scaleOperationStartTime = 0L;
+            return true;
+        }
+
+        if ( awaitingScaledCount ) {
+            logger.info( "Service={} -- Scaling Operation in Progress - Waiting for lastScaledReplicaCount={} == currentRunningReplicas={}",
+                    LogUtils.getServiceDesignation(ecsServiceConfig),
+                    lastScaledReplicaCount,
+                    currentRunningReplicas );
+        } else {
             logger.info( "Service={} -- Scaled Service not in steady state - currentDesiredReplcas={} currentRunningReplicas={}; Values must be equal to proceed with scaling",
                     LogUtils.getServiceDesignation(ecsServiceConfig),
                     currentDesiredReplicas,
                     currentRunningReplicas );
-            return false;
         }
-        return true;
+        return false;
+    }
+
+    /**
+     * Running count reached the scaled count; record the start-up latency of scale-out operations
+     * @param now
+     */
+    private void scaleOperationConverged( long now ) {
+        convergenceTimedOut = false;
+        if ( scaleOperationStartTime == 0L ) {
+            return;
+        }
+        if ( scaleOperationIsScaleOut ) {
+            startupLatency.record( now - scaleOperationStartTime );
+            logger.info( "Service={} -- Scale out converged in {} ms; p50={} ms p90={} ms over {} samples",
+                    LogUtils.getServiceDesignation(ecsServiceConfig),
+                    now - scaleOperationStartTime,
+                    startupLatency.getPercentile( 50.0 ),
+                    startupLatency.getPercentile( 90.0 ),
+                    startupLatency.getSampleCount() );
+        }
+        scaleOperationStartTime = 0L;
+    }
+
+    /**
+     * Time to wait for a scaling operation to converge: twice the 95th percentile start-up latency once
+     * MIN_LATENCY_SAMPLES have been recorded (at least MIN_SCALE_OPERATION_TIMEOUT_MILLIS), never more than the
+     * configured scaleOperationTimeout
+     * @return
+     */
+    public long getScaleOperationTimeoutMillis() {
+        final long configuredTimeoutMillis = ecsServiceConfig.getScalerBehaviorConfig().getScaleOperationTimeout() * 1000L;
+        if ( startupLatency.getSampleCount() < MIN_LATENCY_SAMPLES ) {
+            return configuredTimeoutMillis;
+        }
+        return Math.min( configuredTimeoutMillis, Math.max( 2L * startupLatency.getPercentile( 95.0 ), MIN_SCALE_OPERATION_TIMEOUT_MILLIS ) );
+    }
+
+    /**
+     * Lead time for predictive scaling: the 90th percentile start-up latency
+     * @return Milliseconds; null until a scale out has been timed
+     */
+    public Long getStartupLeadTimeMillis() {
+        return startupLatency.getPercentile( 90.0 );
+    }
+
+    public StartupLatencyTracker getStartupLatency() {
+        return startupLatency;
     }
 
     /**
      * Method tests for conditions that should prevent a scaling operation
-     * If none exit, then scale out/in. Calls AWS ECS API to update the desired task count directly
+     * If none exit, then scale out/in. The desired task count is sent to ECS by the actuator; the update is pending
+     * until it completes or fails, and scaler state is updated when it completes
      * @param desiredScaleInTarget
      * @param desiredScaleOutTarget
      * @param currentDesiredReplicas
      * @param evaluationTimeInstant
-     * @throws Exception
+     * @param surgeTrigger - Description of the backlog surge trigger; null if there is no surge
+     * @param holdScaleOut - True if a scale-out decision must not be acted on
      */
     private void scaleEcsService( 
                         Integer desiredScaleInTarget, 
                         Integer desiredScaleOutTarget, 
                         Integer currentDesiredReplicas,
-                        long    evaluationTimeInstant ) throws Exception {
+                        long    evaluationTimeInstant,
+                        String  surgeTrigger,
+                        boolean holdScaleOut ) {
 
         EcsServiceScalerReplicaTarget replicaTarget = EcsServiceScalerUtils.getReplicaTarget(
                 desiredScaleInTarget,
@@ -186,68 +473,68 @@ public class EcsServiceScaler {
                 evaluationTimeInstant,
                 lastScaleOutTime,
                 lastScaleInTime,
-                ecsServiceConfig);
+                ecsServiceConfig,
+                surgeTrigger != null);
 
         if(!replicaTarget.isScaleInDecision() && !replicaTarget.isScaleOutDecision()) {
             return;
         }
 
+        if ( holdScaleOut && replicaTarget.isScaleOutDecision() ) {
+            logger.warn( "Service={} -- Scaling Operation did not converge - currentDesiredReplicas={}; Not scaling out to {} instances until the service reaches steady state",
+                            LogUtils.getServiceDesignation(ecsServiceConfig),
+                            currentDesiredReplicas,
+                            replicaTarget.getReplicaTarget() );
+            return;
+        }
+
+        if ( surgeTrigger != null && replicaTarget.isScaleOutDecision() ) {
+            logger.warn( "Service={} -- Backlog surge: {}; Scaling out to {} instances without cooldown or step limits (surge count={})",
+                            LogUtils.getServiceDesignation(ecsServiceConfig),
+                            surgeTrigger,
+                            replicaTarget.getReplicaTarget(),
+                            surgeTriggerCount.incrementAndGet() );
+        }
+
         logger.info("Service={} -- Preparing to scale from {} to {} instances",
                             LogUtils.getServiceDesignation(ecsServiceConfig),
                             currentDesiredReplicas,
                             replicaTarget.getReplicaTarget() );
 
         // If we're here, we're scaling something
-        try {
-            UpdateServiceRequest updateServiceRequest = 
-                                    new UpdateServiceRequest()
-                                            .withCluster(ecsServiceConfig.getEcsCluster())
-                                            .withService(ecsServiceConfig.getEcsService())
-                                            .withDesiredCount(replicaTarget.getReplicaTarget());
-
-            logger.debug( "Service={} -- Update Request Body:\n" + updateServiceRequest.toString(),
-                                LogUtils.getServiceDesignation(ecsServiceConfig) );
-            UpdateServiceResult updateServiceResult = ecs.updateService(updateServiceRequest);
-
-            // TODO - Keep a running count of failures and exit the scaler if > threshold
-            // TODO - Verify that 200 <= result <= 204 are all success
-            if (    updateServiceResult.getSdkHttpMetadata().getHttpStatusCode() < 200 &&
-                    updateServiceResult.getSdkHttpMetadata().getHttpStatusCode() > 204 ) {
-                logger.error( "Service={} -- HTTP Status Code={}", 
-                                LogUtils.getServiceDesignation(ecsServiceConfig),
-                                updateServiceResult.getSdkHttpMetadata().getHttpStatusCode() );
-                logger.error( "Service={} -- Scaling Operation FAILED to update ECS Service to {} instances",
-                                LogUtils.getServiceDesignation(ecsServiceConfig),
-                                replicaTarget );
-                return;
+        final EcsServiceActuator serviceActuator = actuator != null ? actuator : DefaultActuatorHolder.actuator;
+        pendingReplicaTarget = replicaTarget.getReplicaTarget();
+        serviceActuator.updateDesiredCount( ecsServiceConfig, replicaTarget.getReplicaTarget(), new EcsServiceActuator.UpdateCallback() {
+
+            @Override
+            public void updated( int desiredCount ) {
+                lastScaledReplicaCount = desiredCount;
+                scaleOperationStartTime = System.currentTimeMillis();
+                scaleOperationIsScaleOut = replicaTarget.isScaleOutDecision();
+                convergenceTimedOut = false;
+                if ( replicaTarget.isScaleOutDecision() ) {
+                    lastScaleOutTime = System.currentTimeMillis();
+                }
+                if ( replicaTarget.isScaleInDecision() ) {
+                    lastScaleInTime = System.currentTimeMillis();
+                }
+                logger.info("Service={} -- Successfully scaled to {} instances",
+                                        LogUtils.getServiceDesignation(ecsServiceConfig), 
+                                        desiredCount );
+                pendingReplicaTarget = NO_PENDING_UPDATE;
             }
 
-            lastScaledReplicaCount = replicaTarget.getReplicaTarget();
-        } catch ( Exception exc ) {
-            logger.error( "Service={} -- Exception attempting to update from {} to {} instances",
-                                LogUtils.getServiceDesignation(ecsServiceConfig),
-                                currentDesiredReplicas,
-                                replicaTarget );
-            logger.error( "Service={} -- Exception Type: {}",
-                                LogUtils.getServiceDesignation(ecsServiceConfig), 
-                                exc.getClass() );
-            logger.error( "Service={} -- Exception Message: {}", 
-                                LogUtils.getServiceDesignation(ecsServiceConfig), 
-                                exc.getMessage() );
-            logger.error( exc.getStackTrace() );
-            throw exc;
-        }
-
-        logger.info("Service={} -- Successfully scaled to {} instances",
-                                LogUtils.getServiceDesignation(ecsServiceConfig), 
-                                replicaTarget );
-
-        if ( replicaTarget.isScaleOutDecision() ) {
-            lastScaleOutTime = System.currentTimeMillis();
-        }
-        if ( replicaTarget.isScaleInDecision() ) {
-            lastScaleInTime = System.currentTimeMillis();
-        }
+            @Override
+            public void failed( int desiredCount, Exception exc ) {
+                logger.error( "Service={} -- Scaling Operation FAILED to update from {} to {} instances -- Exception Type: {} Message: {}",
+                                    LogUtils.getServiceDesignation(ecsServiceConfig),
+                                    currentDesiredReplicas,
+                                    desiredCount,
+                                    exc.getClass(),
+                                    exc.getMessage() );
+                pendingReplicaTarget = NO_PENDING_UPDATE;
+            }
+        } );
     }
 
 
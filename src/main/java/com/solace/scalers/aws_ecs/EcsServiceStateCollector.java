@@ -0,0 +1,134 @@
+package com.solace.scalers.aws_ecs;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.amazonaws.services.ecs.AmazonECS;
+import com.amazonaws.services.ecs.model.Deployment;
+import com.amazonaws.services.ecs.model.DescribeServicesRequest;
+import com.amazonaws.services.ecs.model.DescribeServicesResult;
+import com.amazonaws.services.ecs.model.Failure;
+import com.amazonaws.services.ecs.model.Service;
+import com.solace.scalers.aws_ecs.util.LogUtils;
+
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Retrieves desired, running and pending task counts and deployment status for ECS services directly from the
+ * ECS DescribeServices API. Unlike ECS/ContainerInsights metrics in CloudWatch, which have 1-minute resolution,
+ * these values reflect the service state within seconds.
+ * - Services are grouped by cluster; each request describes up to MAX_SERVICES_PER_REQUEST services
+ * - Services reported as failures (e.g. MISSING) or in a failed request have their task counts cleared, so scaling
+ *   is prevented until the next successful request
+ */
+@Log4j2
+public class EcsServiceStateCollector {
+
+    // ECS limit on services per DescribeServices request
+    public static final int     MAX_SERVICES_PER_REQUEST = 10;
+
+    private static final String DEPLOYMENT_STATUS_PRIMARY = "PRIMARY";
+
+    private final AmazonECS     ecs;
+
+    // One entry per request: cluster, and ecsService (name or ARN) --> EcsServiceMetrics for the services in the request
+    private final List<Map.Entry<String, Map<String, EcsServiceMetrics>>> requestBatches = new ArrayList<>();
+
+    /**
+     * Constructor
+     * @param ecsServiceMetrics - Services to retrieve state for
+     * @param ecs
+     */
+    public EcsServiceStateCollector( Collection<EcsServiceMetrics> ecsServiceMetrics, AmazonECS ecs ) {
+        this.ecs = ecs;
+
+        Map<String, List<EcsServiceMetrics>> servicesByCluster = new LinkedHashMap<>();
+        for ( EcsServiceMetrics serviceMetrics : ecsServiceMetrics ) {
+            servicesByCluster.computeIfAbsent( serviceMetrics.getEcsServiceConfig().getEcsCluster(), cluster -> new ArrayList<>() )
+                             .add( serviceMetrics );
+        }
+        for ( Map.Entry<String, List<EcsServiceMetrics>> cluster : servicesByCluster.entrySet() ) {
+            Map<String, EcsServiceMetrics> batch = null;
+            for ( EcsServiceMetrics serviceMetrics : cluster.getValue() ) {
+                if ( batch == null || batch.size() == MAX_SERVICES_PER_REQUEST ) {
+                    batch = new LinkedHashMap<>();
+                    requestBatches.add( Map.entry( cluster.getKey(), batch ) );
+                }
+                batch.put( serviceMetrics.getEcsServiceConfig().getEcsService(), serviceMetrics );
+            }
+        }
+    }
+
+    /**
+     * @return Number of DescribeServices requests per collection cycle
+     */
+    public int getRequestCount() {
+        return requestBatches.size();
+    }
+
+    /**
+     * Retrieve the state of all services and update each EcsServiceMetrics object
+     */
+    public void retrieveServiceState() {
+        for ( Map.Entry<String, Map<String, EcsServiceMetrics>> batch : requestBatches ) {
+            final String cluster = batch.getKey();
+            final Map<String, EcsServiceMetrics> services = batch.getValue();
+
+            DescribeServicesResult result;
+            try {
+                result = ecs.describeServices( new DescribeServicesRequest()
+                                    .withCluster( cluster )
+                                    .withServices( services.keySet() ) );
+            } catch ( Exception exc ) {
+                log.error( "Cluster={} -- Error describing {} ECS services -- Exception: {}", cluster, services.size(), exc.getMessage() );
+                services.values().forEach( serviceMetrics -> serviceMetrics.updateServiceState( null, null, null, 0, null ) );
+                continue;
+            }
+
+            Map<String, EcsServiceMetrics> notReported = new HashMap<>( services );
+            if ( result != null && result.getServices() != null ) {
+                for ( Service service : result.getServices() ) {
+                    // ecsService may be configured as a service name or a service ARN
+                    EcsServiceMetrics serviceMetrics = notReported.remove( service.getServiceName() );
+                    if ( serviceMetrics == null && service.getServiceArn() != null ) {
+                        serviceMetrics = notReported.remove( service.getServiceArn() );
+                    }
+                    if ( serviceMetrics == null ) {
+                        continue;
+                    }
+                    serviceMetrics.updateServiceState(
+                                    service.getDesiredCount(),
+                                    service.getRunningCount(),
+                                    service.getPendingCount(),
+                                    service.getDeployments() == null ? 0 : service.getDeployments().size(),
+                                    getPrimaryRolloutState( service ) );
+                }
+            }
+            if ( result != null && result.getFailures() != null ) {
+                for ( Failure failure : result.getFailures() ) {
+                    log.warn( "Cluster={} -- DescribeServices failure for {}: {}", cluster, failure.getArn(), failure.getReason() );
+                }
+            }
+            for ( EcsServiceMetrics serviceMetrics : notReported.values() ) {
+                log.warn( "Service={} -- Not returned by ECS DescribeServices", LogUtils.getServiceDesignation( serviceMetrics.getEcsServiceConfig() ) );
+                serviceMetrics.updateServiceState( null, null, null, 0, null );
+            }
+        }
+    }
+
+    private static String getPrimaryRolloutState( Service service ) {
+        if ( service.getDeployments() == null ) {
+            return null;
+        }
+        for ( Deployment deployment : service.getDeployments() ) {
+            if ( DEPLOYMENT_STATUS_PRIMARY.equals( deployment.getStatus() ) ) {
+                return deployment.getRolloutState();
+            }
+        }
+        return null;
+    }
+}
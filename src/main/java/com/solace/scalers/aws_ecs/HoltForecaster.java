@@ -0,0 +1,95 @@
+package com.solace.scalers.aws_ecs;
+
+/**
+ * Holt's linear trend (double exponential smoothing) forecast of one metric series, for predictive scale-out.
+ * Observations may arrive at irregular intervals, so the trend is kept per second and each update advances the
+ * model by the time since the previous observation.
+ * - level: smoothed current value
+ * - trend: smoothed change per second
+ * - forecast(h) = level + trend * h
+ * Each observation time is applied once; older or repeated observations are ignored.
+ */
+public class HoltForecaster {
+
+    public static final double  DEFAULT_LEVEL_SMOOTHING = 0.5,
+                                DEFAULT_TREND_SMOOTHING = 0.3;
+
+    private final double        levelSmoothing;
+
+    private final double        trendSmoothing;
+
+    private double              level;
+
+    // Change per second
+    private double              trend;
+
+    private long                lastObservationTime;
+
+    // Forecasts need two observations to establish a trend
+    private int                 observationCount = 0;
+
+    public HoltForecaster() {
+        this( DEFAULT_LEVEL_SMOOTHING, DEFAULT_TREND_SMOOTHING );
+    }
+
+    /**
+     * Constructor
+     * @param levelSmoothing - Weight of each new observation in the level, in (0, 1]
+     * @param trendSmoothing - Weight of each new level change in the trend, in (0, 1]
+     */
+    public HoltForecaster( double levelSmoothing, double trendSmoothing ) {
+        if ( !( levelSmoothing > 0.0 && levelSmoothing <= 1.0 ) || !( trendSmoothing > 0.0 && trendSmoothing <= 1.0 ) ) {
+            throw new IllegalArgumentException( "Smoothing factors must be in (0, 1]: " + levelSmoothing + ", " + trendSmoothing );
+        }
+        this.levelSmoothing = levelSmoothing;
+        this.trendSmoothing = trendSmoothing;
+    }
+
+    /**
+     * Add an observation
+     * @param observationTime - Milliseconds
+     * @param value
+     */
+    public synchronized void update( long observationTime, double value ) {
+        if ( observationCount > 0 && observationTime <= lastObservationTime ) {
+            return;
+        }
+        if ( observationCount == 0 ) {
+            level = value;
+            trend = 0.0;
+        } else {
+            final double elapsedSeconds = ( observationTime - lastObservationTime ) / 1000.0;
+            if ( observationCount == 1 ) {
+                trend = ( value - level ) / elapsedSeconds;
+                level = value;
+            } else {
+                final double previousLevel = level;
+                level = levelSmoothing * value + ( 1.0 - levelSmoothing ) * ( level + trend * elapsedSeconds );
+                trend = trendSmoothing * ( level - previousLevel ) / elapsedSeconds + ( 1.0 - trendSmoothing ) * trend;
+            }
+        }
+        lastObservationTime = observationTime;
+        observationCount++;
+    }
+
+    /**
+     * @return Smoothed change per second; null until two observations have been added
+     */
+    public synchronized Double getTrend() {
+        if ( observationCount < 2 ) {
+            return null;
+        }
+        return trend;
+    }
+
+    /**
+     * @param horizonSeconds - Time past the newest observation
+     * @return Projected value; null until two observations have been added
+     */
+    public synchronized Double forecast( double horizonSeconds ) {
+        if ( observationCount < 2 ) {
+            return null;
+        }
+        return level + trend * horizonSeconds;
+    }
+}
@@ -0,0 +1,159 @@
+package com.solace.scalers.aws_ecs;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.Map;
+import java.util.Optional;
+
+import com.solace.scalers.aws_ecs.model.ScalerConfig;
+import com.solace.scalers.aws_ecs.model.semp_v2.SempMessageVpnStateResponse;
+
+import lombok.extern.log4j.Log4j2;
+
+import static com.solace.scalers.aws_ecs.SolaceQueueMonitor.ACTIVE_SEMP_CONFIG;
+import static com.solace.scalers.aws_ecs.SolaceQueueMonitor.STANDBY_SEMP_CONFIG;
+
+/**
+ * Class MessageVpnStateTracker decides which broker in an active/standby pair is currently serving
+ * a Message VPN. Each broker's poller owns one tracker, shared by the queue monitors polling that broker, so that
+ * - the `msgVpns/{vpn}?select=state` check is made once per TTL instead of once per queue per poll
+ * - all monitors switch to the standby broker at the same time
+ * The cached decision is refreshed when the TTL expires or immediately when a monitor reports a failed
+ * queue request by calling invalidate()
+ */
+@Log4j2
+public class MessageVpnStateTracker {
+
+    private static final String SEMP_VPN_STATE_UP = "up";
+
+    private volatile Map<String, ScalerConfig.SempConfig> sempConfigMap;
+
+    private final String messageVpnName;
+
+    private final long cacheTtlMillis;
+
+    // Time of the last VPN state check; 0 forces a check on the next request
+    private volatile long lastStateCheckTime = 0L;
+
+    /**
+     * Constructor
+     * @param sempConfigMap - Map containing ACTIVE_SEMP_CONFIG and optionally STANDBY_SEMP_CONFIG; updated in place on failover
+     * @param messageVpnName
+     * @param cacheTtlMillis - Time to cache the active/standby decision; 0 checks the VPN state on every request
+     */
+    public MessageVpnStateTracker(Map<String, ScalerConfig.SempConfig> sempConfigMap, String messageVpnName, long cacheTtlMillis) {
+        this.sempConfigMap = sempConfigMap;
+        this.messageVpnName = messageVpnName;
+        this.cacheTtlMillis = Math.max(cacheTtlMillis, 0L);
+    }
+
+    public Map<String, ScalerConfig.SempConfig> getSempConfigMap() {
+        return sempConfigMap;
+    }
+
+    public void setSempConfigMap(Map<String, ScalerConfig.SempConfig> sempConfigMap) {
+        this.sempConfigMap = sempConfigMap;
+        invalidate();
+    }
+
+    public String getMessageVpnName() {
+        return messageVpnName;
+    }
+
+    public long getCacheTtlMillis() {
+        return cacheTtlMillis;
+    }
+
+    /**
+     * Get the SEMP configuration for the broker currently believed to be active
+     * @return
+     */
+    public ScalerConfig.SempConfig getActiveSempConfig() {
+        return sempConfigMap.get(ACTIVE_SEMP_CONFIG);
+    }
+
+    /**
+     * Discard the cached VPN state so that the next call to updateActiveVpn() queries SEMP
+     */
+    public void invalidate() {
+        lastStateCheckTime = 0L;
+    }
+
+    /**
+     * Determine if the cached active/standby decision has expired
+     * @param timeInstant
+     * @return
+     */
+    public boolean isExpired(long timeInstant) {
+        return lastStateCheckTime == 0L || timeInstant >= lastStateCheckTime + cacheTtlMillis;
+    }
+
+    /**
+     * Updates the Active Message VPN if the cached state has expired. The VPN state requests are issued
+     * using the calling monitor's HTTP configuration.
+     * If the active broker cannot be reached, the standby is checked before giving up; a state where no broker
+     * is up is not cached
+     * @param requestingMonitor - monitor used to execute the VPN state requests
+     * @return true if the active SEMP config changed
+     * @throws URISyntaxException
+     * @throws IOException - if the active broker cannot be reached and the standby is not up
+     */
+    public synchronized boolean updateActiveVpn(SolaceQueueMonitor requestingMonitor) throws URISyntaxException, IOException {
+        final long timeInstant = System.currentTimeMillis();
+        if (!isExpired(timeInstant)) {
+            return false;
+        }
+        lastStateCheckTime = timeInstant;
+
+        boolean activeVpnChanged = false;
+        IOException activeFailure = null;
+        Optional<SempMessageVpnStateResponse> optionalMessageVpnStateResponse;
+        try {
+            optionalMessageVpnStateResponse = requestingMonitor.getVpnStateForSempConfig(sempConfigMap.get(ACTIVE_SEMP_CONFIG));
+        } catch (IOException exc) {
+            log.warn("SempUrl={} -- Message VPN State request to Active SEMP Config failed -- Exception: {}", sempConfigMap.get(ACTIVE_SEMP_CONFIG).getBrokerSempUrl(), exc.getMessage());
+            activeFailure = exc;
+            optionalMessageVpnStateResponse = Optional.empty();
+        }
+        if(!isVpnUp(optionalMessageVpnStateResponse)) {
+            log.info("SempUrl={} -- Unable to fetch Message VPN State from Active SEMP Config. Trying Standby", sempConfigMap.get(ACTIVE_SEMP_CONFIG).getBrokerSempUrl());
+            if(sempConfigMap.get(STANDBY_SEMP_CONFIG) != null) {
+                try {
+                    optionalMessageVpnStateResponse = requestingMonitor.getVpnStateForSempConfig(sempConfigMap.get(STANDBY_SEMP_CONFIG));
+                } catch (IOException exc) {
+                    // Neither broker can be reached; check both again on the next request
+                    invalidate();
+                    if (activeFailure != null) {
+                        exc.addSuppressed(activeFailure);
+                    }
+                    throw exc;
+                }
+                if(isVpnUp(optionalMessageVpnStateResponse)) {
+                    // Update active vpn so that we check it first on the next interval
+                    ScalerConfig.SempConfig prevActiveVpn = sempConfigMap.get(ACTIVE_SEMP_CONFIG);
+                    sempConfigMap.put(ACTIVE_SEMP_CONFIG, sempConfigMap.get(STANDBY_SEMP_CONFIG));
+                    sempConfigMap.put(STANDBY_SEMP_CONFIG, prevActiveVpn);
+                    activeVpnChanged = true;
+                    log.info("MessageVPN={} -- Switched active SEMP config to SempUrl={}", messageVpnName, sempConfigMap.get(ACTIVE_SEMP_CONFIG).getBrokerSempUrl());
+                } else {
+                    // TODO: update to fail after X number of failed attempts in a row
+                    log.error("MessageVPN={} -- Neither Message VPN is currently up. Skipping retrieval of Queue Metrics", messageVpnName);
+                    // Do not cache a state where neither VPN is up
+                    invalidate();
+                }
+            } else {
+                invalidate();
+            }
+        }
+        if (activeFailure != null && !activeVpnChanged) {
+            throw activeFailure;
+        }
+        return activeVpnChanged;
+    }
+
+    private static boolean isVpnUp(Optional<SempMessageVpnStateResponse> optionalMessageVpnStateResponse) {
+        return optionalMessageVpnStateResponse.isPresent() &&
+                optionalMessageVpnStateResponse.get().getData() != null &&
+                SEMP_VPN_STATE_UP.equals(optionalMessageVpnStateResponse.get().getData().getState());
+    }
+}
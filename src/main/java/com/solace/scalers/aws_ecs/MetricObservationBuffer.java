@@ -0,0 +1,474 @@
+package com.solace.scalers.aws_ecs;
+
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+
+import com.solace.scalers.aws_ecs.model.semp_v2.SempQueueObservation;
+import com.solace.scalers.aws_ecs.model.util.ecs.EcsServiceScalerObservations;
+
+/**
+ * Fixed-capacity ring buffer of queue metric observations for one ECS service.
+ * Observations are stored in parallel primitive arrays; adding an observation does not allocate, and the oldest
+ * observation is overwritten once the buffer is full.
+ * Retention is enforced on insert: adding an observation evicts observations older than the retention period
+ * relative to the new observation, so no separate purge is needed and memory per service is fixed at construction.
+ * Concurrency:
+ * - Writers (the SEMP poller) are serialized on the buffer's monitor
+ * - Readers (scaling operations) read under a sequence lock and retry if a write was in progress; the only lock they
+ *   take is the writer lock held briefly by aggregate() to expire window entries
+ * Values not reported by SEMP are stored as SempQueueObservation.NOT_REPORTED
+ * Window maximums:
+ * - For each stabilization window (scale-out, scale-in) and metric (message count, receive rate, spool usage), a monotonic deque
+ *   holds the positions of observations that may still be the window maximum, with values decreasing from front to back
+ * - Deques are updated as observations are added, and entries expire from the front when they leave the window
+ *   relative to the newest observation, or relative to the horizon of an aggregate() call, so windows keep narrowing
+ *   when observations stop. Each entry expires once, and reading a window maximum is a single lookup of the front entry
+ * - Observation times are expected to be non-decreasing in the order they are added
+ * The queue spool quota is configuration rather than a time series; only the newest reported value is kept
+ */
+public class MetricObservationBuffer {
+
+    // Minimum number of observations retained, regardless of configuration
+    public static final int MIN_CAPACITY = 8;
+
+    // Maximum number of observations retained, regardless of configuration; bounds the memory used per service to
+    // about 90 KB (11 longs per observation, including the window maximum rings)
+    public static final int MAX_CAPACITY = 1024;
+
+    // Serialized size: observation count, then time + 4 metrics per observation
+    private static final int  SERIALIZED_HEADER_BYTES = Integer.BYTES,
+                              SERIALIZED_OBSERVATION_BYTES = 5 * Long.BYTES;
+
+    // Returned by WindowMax.max() when no observation is in the window
+    private static final long NOT_IN_WINDOW = Long.MIN_VALUE;
+
+    private final int       capacity;
+
+    private final long      retentionMillis;
+
+    private final long[]    observationTimes,
+                            messageCounts,
+                            averageRxRates,
+                            averageTxRates,
+                            spoolUsages;
+
+    // Odd while a write is in progress; readers retry if the value is odd or changes while reading
+    private volatile long   sequence = 0L;
+
+    // Total number of observations added; the next observation is written at index (head % capacity)
+    private long            head = 0L;
+
+    // Position of the oldest retained observation; head - tail <= capacity
+    private long            tail = 0L;
+
+    private final WindowMax scaleOutMessageCountMax,
+                            scaleOutAverageRxRateMax,
+                            scaleOutSpoolUsageMax,
+                            scaleInMessageCountMax,
+                            scaleInAverageRxRateMax,
+                            scaleInSpoolUsageMax;
+
+    // Newest queue spool quota in megabytes; not part of the serialized observations
+    private volatile long   spoolQuota = SempQueueObservation.NOT_REPORTED;
+
+    /**
+     * Constructor; observations are retained until overwritten and window maximums are maintained over all
+     * retained observations
+     * @param capacity - Maximum number of observations retained
+     */
+    public MetricObservationBuffer( int capacity ) {
+        this( capacity, Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE );
+    }
+
+    /**
+     * Constructor
+     * @param capacity - Maximum number of observations retained
+     * @param retentionMillis - Observations older than this relative to the newest observation are evicted
+     * @param scaleOutWindowMillis - Scale-out stabilization window
+     * @param scaleInWindowMillis - Scale-in stabilization window
+     */
+    public MetricObservationBuffer( int capacity, long retentionMillis, long scaleOutWindowMillis, long scaleInWindowMillis ) {
+        this.capacity = Math.max( capacity, MIN_CAPACITY );
+        this.retentionMillis = Math.max( retentionMillis, 0L );
+        this.observationTimes = new long[ this.capacity ];
+        this.messageCounts = new long[ this.capacity ];
+        this.averageRxRates = new long[ this.capacity ];
+        this.averageTxRates = new long[ this.capacity ];
+        this.spoolUsages = new long[ this.capacity ];
+        this.scaleOutMessageCountMax = new WindowMax( scaleOutWindowMillis, messageCounts );
+        this.scaleOutAverageRxRateMax = new WindowMax( scaleOutWindowMillis, averageRxRates );
+        this.scaleOutSpoolUsageMax = new WindowMax( scaleOutWindowMillis, spoolUsages );
+        this.scaleInMessageCountMax = new WindowMax( scaleInWindowMillis, messageCounts );
+        this.scaleInAverageRxRateMax = new WindowMax( scaleInWindowMillis, averageRxRates );
+        this.scaleInSpoolUsageMax = new WindowMax( scaleInWindowMillis, spoolUsages );
+    }
+
+    /**
+     * Compute the buffer capacity needed to retain observations for `retentionMillis` when polling every
+     * `pollingIntervalSeconds`, with headroom for scheduling jitter
+     * @param retentionMillis
+     * @param pollingIntervalSeconds
+     * @return Capacity between MIN_CAPACITY and MAX_CAPACITY
+     */
+    public static int capacityFor( long retentionMillis, int pollingIntervalSeconds ) {
+        return (int) Math.max( Math.min( requiredCapacity( retentionMillis, pollingIntervalSeconds ), MAX_CAPACITY ), MIN_CAPACITY );
+    }
+
+    /**
+     * @param retentionMillis
+     * @param pollingIntervalSeconds
+     * @return True if capacityFor() cannot retain observations for all of `retentionMillis`
+     */
+    public static boolean isCapacityLimited( long retentionMillis, int pollingIntervalSeconds ) {
+        return requiredCapacity( retentionMillis, pollingIntervalSeconds ) > MAX_CAPACITY;
+    }
+
+    private static long requiredCapacity( long retentionMillis, int pollingIntervalSeconds ) {
+        long pollingIntervalMillis = Math.max( pollingIntervalSeconds, 1 ) * 1000L;
+        return ( retentionMillis + pollingIntervalMillis - 1L ) / pollingIntervalMillis + 2L;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getRetentionMillis() {
+        return retentionMillis;
+    }
+
+    /**
+     * Add an observation read from SEMP
+     * @param observationTime
+     * @param sempQueueObservation
+     */
+    public void add( long observationTime, SempQueueObservation sempQueueObservation ) {
+        if ( SempQueueObservation.isReported( sempQueueObservation.getMaxMsgSpoolUsage() ) ) {
+            spoolQuota = sempQueueObservation.getMaxMsgSpoolUsage();
+        }
+        add( observationTime,
+                sempQueueObservation.getMsgCount(),
+                sempQueueObservation.getAverageRxMsgRate(),
+                sempQueueObservation.getAverageTxMsgRate(),
+                sempQueueObservation.getMsgSpoolUsage() );
+    }
+
+    /**
+     * Add an observation, overwriting the oldest observation if the buffer is full and evicting observations
+     * older than the retention period
+     * @param observationTime
+     * @param messageCount
+     * @param averageRxRate
+     * @param averageTxRate
+     * @param spoolUsage
+     */
+    public synchronized void add( long observationTime, long messageCount, long averageRxRate, long averageTxRate, long spoolUsage ) {
+        beginWrite();
+        try {
+            final int index = (int) ( head % capacity );
+            observationTimes[ index ] = observationTime;
+            messageCounts[ index ] = messageCount;
+            averageRxRates[ index ] = averageRxRate;
+            averageTxRates[ index ] = averageTxRate;
+            spoolUsages[ index ] = spoolUsage;
+            final long position = head++;
+            if ( head - tail > capacity ) {
+                tail = head - capacity;
+            }
+            final long retentionHorizon = observationTime - retentionMillis;
+            while ( tail < position && observationTimes[ index( tail ) ] <= retentionHorizon ) {
+                tail++;
+            }
+            scaleOutMessageCountMax.add( position, observationTime );
+            scaleOutAverageRxRateMax.add( position, observationTime );
+            scaleOutSpoolUsageMax.add( position, observationTime );
+            scaleInMessageCountMax.add( position, observationTime );
+            scaleInAverageRxRateMax.add( position, observationTime );
+            scaleInSpoolUsageMax.add( position, observationTime );
+        } finally {
+            endWrite();
+        }
+    }
+
+    /**
+     * Discard observations with observationTime <= horizon, ahead of the eviction on insert
+     * @param horizon
+     * @return Number of observations discarded
+     */
+    public synchronized int evictOlderThan( long horizon ) {
+        int evicted = 0;
+        beginWrite();
+        try {
+            while ( tail < head && observationTimes[ (int) ( tail % capacity ) ] <= horizon ) {
+                tail++;
+                evicted++;
+            }
+            if ( evicted > 0 ) {
+                scaleOutMessageCountMax.removeBefore( tail );
+                scaleOutAverageRxRateMax.removeBefore( tail );
+                scaleOutSpoolUsageMax.removeBefore( tail );
+                scaleInMessageCountMax.removeBefore( tail );
+                scaleInAverageRxRateMax.removeBefore( tail );
+                scaleInSpoolUsageMax.removeBefore( tail );
+            }
+        } finally {
+            endWrite();
+        }
+        return evicted;
+    }
+
+    /**
+     * @return Maximum number of bytes written by writeTo()
+     */
+    public int getSerializedCapacity() {
+        return SERIALIZED_HEADER_BYTES + capacity * SERIALIZED_OBSERVATION_BYTES;
+    }
+
+    /**
+     * Write the retained observations, oldest first, to `target`.
+     * Holds the writer lock while copying; readers are not blocked.
+     * @param target - Must have getSerializedCapacity() bytes remaining
+     */
+    public synchronized void writeTo( ByteBuffer target ) {
+        target.putInt( (int) ( head - tail ) );
+        for ( long position = tail; position < head; position++ ) {
+            final int index = index( position );
+            target.putLong( observationTimes[ index ] )
+                  .putLong( messageCounts[ index ] )
+                  .putLong( averageRxRates[ index ] )
+                  .putLong( averageTxRates[ index ] )
+                  .putLong( spoolUsages[ index ] );
+        }
+    }
+
+    /**
+     * Add observations written by writeTo(), subject to this buffer's capacity and retention
+     * @param source
+     * @return Number of observations read
+     */
+    public int readFrom( ByteBuffer source ) {
+        final int count = readSerializedCount( source );
+        for ( int i = 0; i < count; i++ ) {
+            add( source.getLong(), source.getLong(), source.getLong(), source.getLong(), source.getLong() );
+        }
+        return count;
+    }
+
+    /**
+     * Add the retained observations of another buffer, oldest first, subject to this buffer's capacity and
+     * retention; also takes its spool quota
+     * @param source
+     * @return Number of observations read from `source`
+     */
+    public int addAll( MetricObservationBuffer source ) {
+        final ByteBuffer serialized = ByteBuffer.allocate( source.getSerializedCapacity() );
+        source.writeTo( serialized );
+        serialized.flip();
+        spoolQuota = source.spoolQuota;
+        return readFrom( serialized );
+    }
+
+    /**
+     * Advance `source` past observations written by writeTo()
+     * @param source
+     */
+    public static void skipSerialized( ByteBuffer source ) {
+        final int count = readSerializedCount( source );
+        source.position( source.position() + count * SERIALIZED_OBSERVATION_BYTES );
+    }
+
+    private static int readSerializedCount( ByteBuffer source ) {
+        final int count = source.getInt();
+        if ( count < 0 || (long) count * SERIALIZED_OBSERVATION_BYTES > source.remaining() ) {
+            throw new IllegalArgumentException( "Invalid serialized observation count: " + count );
+        }
+        return count;
+    }
+
+    /**
+     * @return Newest queue spool quota in megabytes; SempQueueObservation.NOT_REPORTED if not known
+     */
+    public long getSpoolQuota() {
+        return spoolQuota;
+    }
+
+    /**
+     * @return Number of observations currently retained
+     */
+    public int size() {
+        while ( true ) {
+            final long startSequence = sequence;
+            final long size = head - tail;
+            VarHandle.loadLoadFence();
+            if ( ( startSequence & 1L ) == 0L && startSequence == sequence ) {
+                return (int) size;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Get the newest observation and the maximum message count, receive rate and spool usage for observations
+     * newer than each horizon. Results are written to `ecsServiceScalerObservations`.
+     * Each horizon must be no earlier than the newest observation time minus the corresponding stabilization window,
+     * nor earlier than the horizon of a previous call; observations older than that have already expired from the
+     * window maximums.
+     * @param scaleOutMetricHorizon - Observations with observationTime > horizon are in the scale-out window
+     * @param scaleInMetricHorizon - Observations with observationTime > horizon are in the scale-in window
+     * @param ecsServiceScalerObservations
+     */
+    public void aggregate( final long scaleOutMetricHorizon, final long scaleInMetricHorizon, EcsServiceScalerObservations ecsServiceScalerObservations ) {
+        expireWindows( scaleOutMetricHorizon, scaleInMetricHorizon );
+        while ( true ) {
+            final long startSequence = sequence;
+            if ( ( startSequence & 1L ) != 0L ) {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            final boolean foundNew = head > tail;
+            final int newestIndex = index( head - 1L );
+            final long newestObservationTime = foundNew ? observationTimes[ newestIndex ] : 0L;
+            final long newestMessageCount = foundNew ? messageCounts[ newestIndex ] : 0L;
+            final long newestAverageRxRate = foundNew ? averageRxRates[ newestIndex ] : 0L;
+            final long newestAverageTxRate = foundNew ? averageTxRates[ newestIndex ] : SempQueueObservation.NOT_REPORTED;
+            final long newestSpoolUsage = foundNew ? spoolUsages[ newestIndex ] : 0L;
+
+            final long maxMessageCountUp = scaleOutMessageCountMax.max( scaleOutMetricHorizon );
+            final long maxAverageRxRateUp = scaleOutAverageRxRateMax.max( scaleOutMetricHorizon );
+            final long maxSpoolUsageUp = scaleOutSpoolUsageMax.max( scaleOutMetricHorizon );
+            final long maxMessageCountDown = scaleInMessageCountMax.max( scaleInMetricHorizon );
+            final long maxAverageRxRateDown = scaleInAverageRxRateMax.max( scaleInMetricHorizon );
+            final long maxSpoolUsageDown = scaleInSpoolUsageMax.max( scaleInMetricHorizon );
+
+            VarHandle.loadLoadFence();
+            if ( startSequence != sequence ) {
+                // A write happened while reading; values may be torn
+                continue;
+            }
+
+            ecsServiceScalerObservations.setNewestObservationTime( newestObservationTime );
+            ecsServiceScalerObservations.setNewestMessageCountObservation( Math.max( newestMessageCount, 0L ) );
+            ecsServiceScalerObservations.setNewestAverageMessageRateObservation( Math.max( newestAverageRxRate, 0L ) );
+            ecsServiceScalerObservations.setNewestAverageTxRateObservation( newestAverageTxRate );
+            ecsServiceScalerObservations.setNewestSpoolUsageObservation( Math.max( newestSpoolUsage, 0L ) );
+            ecsServiceScalerObservations.setSpoolQuota( spoolQuota );
+            ecsServiceScalerObservations.setFoundNewObservation( foundNew );
+            ecsServiceScalerObservations.setMaxMessageCountObservationUp( Math.max( maxMessageCountUp, 0L ) );
+            ecsServiceScalerObservations.setMaxAverageMessageRateObservationUp( Math.max( maxAverageRxRateUp, 0L ) );
+            ecsServiceScalerObservations.setMaxSpoolUsageObservationUp( Math.max( maxSpoolUsageUp, 0L ) );
+            ecsServiceScalerObservations.setFoundWindowObservationUp( maxMessageCountUp != NOT_IN_WINDOW );
+            ecsServiceScalerObservations.setMaxMessageCountObservationDown( Math.max( maxMessageCountDown, 0L ) );
+            ecsServiceScalerObservations.setMaxAverageMessageRateObservationDown( Math.max( maxAverageRxRateDown, 0L ) );
+            ecsServiceScalerObservations.setMaxSpoolUsageObservationDown( Math.max( maxSpoolUsageDown, 0L ) );
+            ecsServiceScalerObservations.setFoundWindowObservationDown( maxMessageCountDown != NOT_IN_WINDOW );
+            return;
+        }
+    }
+
+    /**
+     * Expire window entries with observationTime <= horizon; needed when evaluations continue without new observations
+     * @param scaleOutMetricHorizon
+     * @param scaleInMetricHorizon
+     */
+    private synchronized void expireWindows( long scaleOutMetricHorizon, long scaleInMetricHorizon ) {
+        if ( !scaleOutMessageCountMax.hasExpired( scaleOutMetricHorizon ) && !scaleOutAverageRxRateMax.hasExpired( scaleOutMetricHorizon ) &&
+             !scaleOutSpoolUsageMax.hasExpired( scaleOutMetricHorizon ) && !scaleInMessageCountMax.hasExpired( scaleInMetricHorizon ) &&
+             !scaleInAverageRxRateMax.hasExpired( scaleInMetricHorizon ) && !scaleInSpoolUsageMax.hasExpired( scaleInMetricHorizon ) ) {
+            return;
+        }
+        beginWrite();
+        try {
+            scaleOutMessageCountMax.expire( scaleOutMetricHorizon );
+            scaleOutAverageRxRateMax.expire( scaleOutMetricHorizon );
+            scaleOutSpoolUsageMax.expire( scaleOutMetricHorizon );
+            scaleInMessageCountMax.expire( scaleInMetricHorizon );
+            scaleInAverageRxRateMax.expire( scaleInMetricHorizon );
+            scaleInSpoolUsageMax.expire( scaleInMetricHorizon );
+        } finally {
+            endWrite();
+        }
+    }
+
+    private int index( long position ) {
+        // floorMod: positions read during a torn read may be arbitrary
+        return (int) Math.floorMod( position, (long) capacity );
+    }
+
+    private void beginWrite() {
+        sequence = sequence + 1L;
+        // Sequence must be visibly odd before any array element changes
+        VarHandle.storeStoreFence();
+    }
+
+    private void endWrite() {
+        // Volatile write publishes the array updates to readers
+        sequence = sequence + 1L;
+    }
+
+    /**
+     * Monotonic deque of ring positions for one metric and one stabilization window.
+     * Values at the positions decrease from front to back, so the front entry in the window is the window maximum.
+     * Modified only by writers; read under the buffer's sequence lock.
+     */
+    private final class WindowMax {
+
+        private final long      windowMillis;
+
+        private final long[]    values;
+
+        // Ring of observation positions; at most one entry per retained observation
+        private final long[]    positions = new long[ capacity ];
+
+        private long            first = 0L,
+                                last = 0L;
+
+        WindowMax( long windowMillis, long[] values ) {
+            this.windowMillis = Math.max( windowMillis, 0L );
+            this.values = values;
+        }
+
+        void add( long position, long observationTime ) {
+            // Drop positions overwritten in the observation ring
+            removeBefore( tail );
+            // Observations with a value <= the new one can no longer be the maximum of any window that includes them
+            final long value = values[ index( position ) ];
+            while ( last > first && values[ index( positions[ index( last - 1L ) ] ) ] <= value ) {
+                last--;
+            }
+            positions[ index( last++ ) ] = position;
+            // Expire observations that have left the window relative to the new observation
+            expire( observationTime - windowMillis );
+        }
+
+        boolean hasExpired( long horizon ) {
+            return last > first && observationTimes[ index( positions[ index( first ) ] ) ] <= horizon;
+        }
+
+        void expire( long horizon ) {
+            while ( hasExpired( horizon ) ) {
+                first++;
+            }
+        }
+
+        void removeBefore( long position ) {
+            while ( last > first && positions[ index( first ) ] < position ) {
+                first++;
+            }
+        }
+
+        /**
+         * Entries with observationTime <= horizon must have been expired; only the front entry is read
+         * @param horizon
+         * @return Maximum value for observations with observationTime > horizon; NOT_IN_WINDOW if there are none
+         */
+        long max( long horizon ) {
+            if ( last > first ) {
+                final int observationIndex = index( positions[ index( first ) ] );
+                if ( observationTimes[ observationIndex ] > horizon ) {
+                    return values[ observationIndex ];
+                }
+            }
+            return NOT_IN_WINDOW;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.solace.scalers.aws_ecs;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import com.solace.scalers.aws_ecs.model.ScalerConfig;
+import com.solace.scalers.aws_ecs.model.ScalerConfigParser;
+
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Reloads the scaler configuration file while the scaler runs
+ * - checkForChanges() reloads the file if its content changed since it was last read
+ * - The file is parsed and validated as at startup. An invalid configuration is rejected and logged, and the
+ *   running configuration is not changed
+ * - A valid configuration is applied by EcsServiceRegistry.reconfigure(), which only touches the services that changed
+ */
+@Log4j2
+public class ScalerConfigReloader {
+
+    private final Path                  configFile;
+
+    private final EcsServiceRegistry    ecsServiceRegistry;
+
+    // Content of the file when it was last read; a rejected configuration is not retried until the file changes again
+    private byte[]                      lastContent;
+
+    /**
+     * Constructor
+     * @param configFile - Configuration file the scaler was started with
+     * @param ecsServiceRegistry - Services created from that configuration
+     */
+    public ScalerConfigReloader( Path configFile, EcsServiceRegistry ecsServiceRegistry ) {
+        this.configFile = configFile;
+        this.ecsServiceRegistry = ecsServiceRegistry;
+        this.lastContent = readContent();
+    }
+
+    public Path getConfigFile() {
+        return configFile;
+    }
+
+    /**
+     * Reload the configuration if the file content changed
+     * @return True if a changed configuration was applied
+     */
+    public synchronized boolean checkForChanges() {
+        final byte[] content = readContent();
+        if ( content == null || Arrays.equals( content, lastContent ) ) {
+            return false;
+        }
+        log.info( "Scaler config at: {} has changed -- Reloading", configFile );
+        return reload();
+    }
+
+    /**
+     * Parse, validate and apply the configuration file
+     * @return True if the configuration was applied
+     */
+    private boolean reload() {
+        lastContent = readContent();
+        final ScalerConfig scalerConfig;
+        try {
+            scalerConfig = ScalerConfigParser.validateScalerConfig(
+                                ScalerConfigParser.parseScalerConfig( configFile.toString() ) );
+        } catch ( Exception exc ) {
+            log.error( "Could not parse scaler config at: {} -- Running configuration unchanged -- Exception: {}",
+                            configFile, exc.getMessage() );
+            return false;
+        }
+        if ( scalerConfig == null ) {
+            log.error( "Scaler config at: {} is not valid -- Running configuration unchanged", configFile );
+            return false;
+        }
+        ecsServiceRegistry.reconfigure( scalerConfig );
+        return true;
+    }
+
+    private byte[] readContent() {
+        try {
+            return Files.readAllBytes( configFile );
+        } catch ( IOException exc ) {
+            log.warn( "Could not read scaler config at: {} -- Exception: {}", configFile, exc.getMessage() );
+            return null;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.solace.scalers.aws_ecs;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import com.solace.scalers.aws_ecs.util.LogUtils;
+
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Memory-mapped snapshot of the observation window and scaling state for each ECS service, used to warm start the
+ * scaler after a restart.
+ * File layout (big-endian):
+ * - Header: magic (int), version (int), payload length (int), CRC32 (int), written time (long), service count (int),
+ *   reserved (int)
+ * - Payload, per service: queue designation, service designation (length-prefixed UTF-8), lastScaleOutTime (long),
+ *   lastScaleInTime (long), lastScaledReplicaCount (int), lastScaledReplicaCountInitialized (byte), observations
+ *   as written by MetricObservationBuffer.writeTo()
+ * The CRC covers the header from the written time onward and the payload; a snapshot torn by a crash mid-write fails
+ * the check and is ignored.
+ * The file is sized from the services and buffer capacities, rewritten in place, and enlarged if services are added.
+ */
+@Log4j2
+public class ScalerStateSnapshot {
+
+    private static final int    MAGIC = 0x53454353,         // "SECS"
+                                VERSION = 1,
+                                HEADER_BYTES = 32,
+                                OFFSET_PAYLOAD_LENGTH = 8,
+                                OFFSET_CRC = 12,
+                                OFFSET_CHECKED = 16,
+                                MAX_STRING_BYTES = Short.MAX_VALUE;
+
+    private final Path                              snapshotFile;
+
+    private final Map<String, EcsServiceScaler>     ecsServiceScalerMap;
+
+    private MappedByteBuffer                        mappedSnapshot;
+
+    /**
+     * Constructor; the file is not created or modified until the first write()
+     * @param snapshotFile
+     * @param ecsServiceScalerMap - Scalers to save, indexed by queue designation
+     */
+    public ScalerStateSnapshot( Path snapshotFile, Map<String, EcsServiceScaler> ecsServiceScalerMap ) {
+        this.snapshotFile = snapshotFile;
+        this.ecsServiceScalerMap = ecsServiceScalerMap;
+        snapshotSize( List.copyOf( ecsServiceScalerMap.entrySet() ) );
+    }
+
+    public Path getSnapshotFile() {
+        return snapshotFile;
+    }
+
+    /**
+     * Write the current state of every scaler to the snapshot file
+     * @throws IOException
+     */
+    public synchronized void write() throws IOException {
+        // Services may be added and removed while the scaler runs; write the services present now
+        final List<Map.Entry<String, EcsServiceScaler>> entries = List.copyOf( ecsServiceScalerMap.entrySet() );
+        final int snapshotSize = snapshotSize( entries );
+        if ( mappedSnapshot == null || mappedSnapshot.capacity() < snapshotSize ) {
+            try ( FileChannel channel = FileChannel.open( snapshotFile,
+                            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE ) ) {
+                mappedSnapshot = channel.map( FileChannel.MapMode.READ_WRITE, 0L, snapshotSize );
+            }
+        }
+
+        final ByteBuffer snapshot = mappedSnapshot.duplicate().clear();
+        snapshot.position( HEADER_BYTES );
+        for ( Map.Entry<String, EcsServiceScaler> entry : entries ) {
+            final EcsServiceScaler ecsServiceScaler = entry.getValue();
+            putString( snapshot, entry.getKey() );
+            putString( snapshot, LogUtils.getServiceDesignation( ecsServiceScaler.getEcsServiceConfig() ) );
+            snapshot.putLong( ecsServiceScaler.getLastScaleOutTime() )
+                    .putLong( ecsServiceScaler.getLastScaleInTime() )
+                    .putInt( ecsServiceScaler.getLastScaledReplicaCount() )
+                    .put( (byte) ( ecsServiceScaler.isLastScaledReplicaCountInitialized() ? 1 : 0 ) );
+            ecsServiceScaler.getMetricObservations().writeTo( snapshot );
+        }
+        final int payloadLength = snapshot.position() - HEADER_BYTES;
+
+        snapshot.putLong( OFFSET_CHECKED, System.currentTimeMillis() )
+                .putInt( OFFSET_CHECKED + Long.BYTES, entries.size() )
+                .putInt( OFFSET_CHECKED + Long.BYTES + Integer.BYTES, 0 );
+        snapshot.putInt( 0, MAGIC )
+                .putInt( 4, VERSION )
+                .putInt( OFFSET_PAYLOAD_LENGTH, payloadLength )
+                .putInt( OFFSET_CRC, checksum( snapshot, payloadLength ) );
+        mappedSnapshot.force();
+    }
+
+    /**
+     * @param entries
+     * @return Bytes required to write the given services
+     * @throws IllegalArgumentException If the snapshot would exceed 2 GB
+     */
+    private static int snapshotSize( List<Map.Entry<String, EcsServiceScaler>> entries ) {
+        long size = HEADER_BYTES;
+        for ( Map.Entry<String, EcsServiceScaler> entry : entries ) {
+            size += stringSize( entry.getKey() ) +
+                    stringSize( LogUtils.getServiceDesignation( entry.getValue().getEcsServiceConfig() ) ) +
+                    2 * Long.BYTES + Integer.BYTES + 1 +
+                    entry.getValue().getMetricObservations().getSerializedCapacity();
+        }
+        if ( size > Integer.MAX_VALUE ) {
+            throw new IllegalArgumentException( "Snapshot would exceed 2 GB: " + size + " bytes" );
+        }
+        return (int) size;
+    }
+
+    /**
+     * Restore scaler state from a snapshot file written by a previous scaler instance.
+     * Services in the snapshot that are no longer configured, or whose queue is now bound to a different
+     * ECS service, are skipped.
+     * @param snapshotFile
+     * @param maxAgeMillis - Snapshots older than this are ignored
+     * @param ecsServiceScalerMap - Scalers to restore, indexed by queue designation
+     * @return Number of configured services restored; 0 if the snapshot is missing, stale or invalid
+     */
+    public static int restore( Path snapshotFile, long maxAgeMillis, Map<String, EcsServiceScaler> ecsServiceScalerMap ) {
+        if ( !Files.isRegularFile( snapshotFile ) ) {
+            log.info( "No scaler snapshot found at {} -- Cold start", snapshotFile );
+            return 0;
+        }
+        final ByteBuffer snapshot;
+        try ( FileChannel channel = FileChannel.open( snapshotFile, StandardOpenOption.READ ) ) {
+            if ( channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE ) {
+                log.warn( "Scaler snapshot {} has invalid size {} -- Ignoring", snapshotFile, channel.size() );
+                return 0;
+            }
+            snapshot = channel.map( FileChannel.MapMode.READ_ONLY, 0L, channel.size() );
+        } catch ( IOException ioexc ) {
+            log.warn( "Could not read scaler snapshot {} -- Exception: {}", snapshotFile, ioexc.getMessage() );
+            return 0;
+        }
+
+        final int payloadLength = snapshot.getInt( OFFSET_PAYLOAD_LENGTH );
+        if ( snapshot.getInt( 0 ) != MAGIC || snapshot.getInt( 4 ) != VERSION ||
+                payloadLength < 0 || payloadLength > snapshot.capacity() - HEADER_BYTES ) {
+            log.warn( "Scaler snapshot {} has an unrecognized header -- Ignoring", snapshotFile );
+            return 0;
+        }
+        if ( snapshot.getInt( OFFSET_CRC ) != checksum( snapshot, payloadLength ) ) {
+            log.warn( "Scaler snapshot {} failed checksum validation; the last write may have been interrupted -- Ignoring", snapshotFile );
+            return 0;
+        }
+        final long snapshotAge = System.currentTimeMillis() - snapshot.getLong( OFFSET_CHECKED );
+        if ( snapshotAge > maxAgeMillis ) {
+            log.info( "Scaler snapshot {} is {} seconds old -- Cold start", snapshotFile, snapshotAge / 1000L );
+            return 0;
+        }
+
+        final int serviceCount = snapshot.getInt( OFFSET_CHECKED + Long.BYTES );
+        int restored = 0;
+        try {
+            snapshot.position( HEADER_BYTES ).limit( HEADER_BYTES + payloadLength );
+            for ( int i = 0; i < serviceCount; i++ ) {
+                final String queueDesignation = getString( snapshot );
+                final String serviceDesignation = getString( snapshot );
+                final long lastScaleOutTime = snapshot.getLong(),
+                           lastScaleInTime = snapshot.getLong();
+                final int lastScaledReplicaCount = snapshot.getInt();
+                final boolean lastScaledReplicaCountInitialized = snapshot.get() != 0;
+
+                final EcsServiceScaler ecsServiceScaler = ecsServiceScalerMap.get( queueDesignation );
+                if ( ecsServiceScaler == null ||
+                        !serviceDesignation.equals( LogUtils.getServiceDesignation( ecsServiceScaler.getEcsServiceConfig() ) ) ) {
+                    // Not configured any longer; read past the observations
+                    MetricObservationBuffer.skipSerialized( snapshot );
+                    continue;
+                }
+                ecsServiceScaler.restoreScalingState( lastScaleOutTime, lastScaleInTime, lastScaledReplicaCount, lastScaledReplicaCountInitialized );
+                final int observations = ecsServiceScaler.getMetricObservations().readFrom( snapshot );
+                log.info( "Service={} -- Restored {} metric observations and scaling state from snapshot", serviceDesignation, observations );
+                restored++;
+            }
+        } catch ( BufferUnderflowException | IllegalArgumentException exc ) {
+            // Checksum passed, so this indicates a snapshot written by an incompatible scaler
+            log.warn( "Scaler snapshot {} could not be decoded -- Exception: {}", snapshotFile, exc.toString() );
+        }
+        return restored;
+    }
+
+    private static int checksum( ByteBuffer snapshot, int payloadLength ) {
+        final CRC32 crc32 = new CRC32();
+        crc32.update( snapshot.duplicate().limit( HEADER_BYTES + payloadLength ).position( OFFSET_CHECKED ) );
+        return (int) crc32.getValue();
+    }
+
+    private static int stringSize( String value ) {
+        return Short.BYTES + Math.min( value.getBytes( StandardCharsets.UTF_8 ).length, MAX_STRING_BYTES );
+    }
+
+    private static void putString( ByteBuffer target, String value ) {
+        final byte[] bytes = value.getBytes( StandardCharsets.UTF_8 );
+        final int length = Math.min( bytes.length, MAX_STRING_BYTES );
+        target.putShort( (short) length ).put( bytes, 0, length );
+    }
+
+    private static String getString( ByteBuffer source ) {
+        final int length = source.getShort();
+        if ( length < 0 ) {
+            throw new IllegalArgumentException( "Invalid string length: " + length );
+        }
+        final byte[] bytes = new byte[ length ];
+        source.get( bytes );
+        return new String( bytes, StandardCharsets.UTF_8 );
+    }
+}
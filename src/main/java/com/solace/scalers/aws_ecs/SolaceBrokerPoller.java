@@ -0,0 +1,295 @@
+package com.solace.scalers.aws_ecs;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.solace.scalers.aws_ecs.model.ScalerConfig.BrokerConfig;
+import com.solace.scalers.aws_ecs.model.semp_v2.SempQueueObservation;
+import com.solace.scalers.aws_ecs.util.EcsServiceScalerUtils;
+import com.solace.scalers.aws_ecs.util.LogUtils;
+
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Polls the queues of one broker/Message VPN every polling interval and fans the observations out to the pipelines
+ * of the services bound to those queues.
+ * - Each poller has its own polling thread, so a slow or unreachable broker delays only the services on that broker
+ * - Each poller has its own queue monitor; active/standby VPN state is tracked per broker/VPN
+ * - Pipelines may be added and removed while polling; the monitor retrieves the queues of the current pipelines
+ * - A service that scales on several queues receives the observations of all its queues from the same poll, so
+ *   they are time-aligned and no request is made per queue
+ * - Other periodic tasks for the broker, such as queue discovery, can run on the polling thread between polls
+ * If the monitor reports that the broker could not be reached for several polling intervals, the broker is marked
+ * unavailable: the pipelines of its services report DEGRADED and the failure handler is called. Polling continues
+ * with a backoff that doubles with each consecutive failure, from one polling interval up to
+ * RETRY_BACKOFF_MAX_MILLIS, and the services recover with the next successful poll. Other brokers are not affected.
+ */
+@Log4j2
+public class SolaceBrokerPoller {
+
+    public static final long                            RETRY_BACKOFF_MAX_MILLIS = 300000L;
+
+    private final BrokerConfig                          brokerConfig;
+
+    private final SolaceQueueCollectionMonitor          solaceQueueCollectionMonitor;
+
+    // Pipelines of the services on this broker, indexed by queueName of the service
+    private final Map<String, EcsServicePipeline>       ecsServicePipelineMap = new ConcurrentHashMap<>();
+
+    private final Runnable                              failureHandler;
+
+    private final ScheduledExecutorService              pollingThread;
+
+    private volatile boolean                            isRunning = true;
+
+    private boolean                                     isStarted = false;
+
+    // False from a failed poll until the next successful poll
+    private volatile boolean                            isAvailable = true;
+
+    // Written by the polling thread only
+    private int                                         consecutiveFailures = 0;
+
+    private long                                        retryAfter = 0L;
+
+    /**
+     * Constructor
+     * @param brokerConfig
+     * @param solaceQueueCollectionMonitor - Monitor for the queues of every pipeline
+     * @param ecsServicePipelines - Pipelines of the services on this broker
+     * @param failureHandler - Called when the broker becomes unavailable; polling is retried
+     */
+    public SolaceBrokerPoller( BrokerConfig brokerConfig,
+                               SolaceQueueCollectionMonitor solaceQueueCollectionMonitor,
+                               Collection<EcsServicePipeline> ecsServicePipelines,
+                               Runnable failureHandler ) {
+        this.brokerConfig = brokerConfig;
+        this.solaceQueueCollectionMonitor = solaceQueueCollectionMonitor;
+        for ( EcsServicePipeline ecsServicePipeline : ecsServicePipelines ) {
+            ecsServicePipelineMap.put( ecsServicePipeline.getQueueName(), ecsServicePipeline );
+        }
+        updateMonitoredQueueNames();
+        this.failureHandler = failureHandler;
+        this.pollingThread = Executors.newSingleThreadScheduledExecutor(
+                        runnable -> new Thread( runnable, "semp-poller-" + getBrokerDesignation() ) );
+    }
+
+    public BrokerConfig getBrokerConfig() {
+        return brokerConfig;
+    }
+
+    /**
+     * @return brokerName, or the Message VPN name if the broker is not named
+     */
+    public String getBrokerDesignation() {
+        return brokerConfig.getBrokerName() != null ? brokerConfig.getBrokerName() : brokerConfig.getMsgVpnName();
+    }
+
+    public SolaceQueueCollectionMonitor getSolaceQueueCollectionMonitor() {
+        return solaceQueueCollectionMonitor;
+    }
+
+    /**
+     * @return Number of pipelines receiving observations from this poller
+     */
+    public int getPipelineCount() {
+        return ecsServicePipelineMap.size();
+    }
+
+    /**
+     * @return False if the last poll failed; the services of the broker are not receiving observations
+     */
+    public boolean isAvailable() {
+        return isAvailable;
+    }
+
+    /**
+     * Add pipelines; their queues are retrieved from the next poll
+     * @param ecsServicePipelines
+     */
+    public synchronized void addPipelines( Collection<EcsServicePipeline> ecsServicePipelines ) {
+        for ( EcsServicePipeline ecsServicePipeline : ecsServicePipelines ) {
+            ecsServicePipelineMap.put( ecsServicePipeline.getQueueName(), ecsServicePipeline );
+            ecsServicePipeline.setSourceAvailable( isAvailable );
+        }
+        updateMonitoredQueueNames();
+    }
+
+    /**
+     * Remove pipelines; a poll in progress may still pass them an observation
+     * @param ecsServicePipelines
+     */
+    public synchronized void removePipelines( Collection<EcsServicePipeline> ecsServicePipelines ) {
+        for ( EcsServicePipeline ecsServicePipeline : ecsServicePipelines ) {
+            ecsServicePipelineMap.remove( ecsServicePipeline.getQueueName(), ecsServicePipeline );
+        }
+        updateMonitoredQueueNames();
+    }
+
+    /**
+     * Monitor every queue of the current pipelines
+     */
+    private void updateMonitoredQueueNames() {
+        final Set<String> queueNames = new LinkedHashSet<>();
+        for ( EcsServicePipeline ecsServicePipeline : ecsServicePipelineMap.values() ) {
+            queueNames.addAll( ecsServicePipeline.getQueueNames() );
+        }
+        solaceQueueCollectionMonitor.setMonitoredQueueNames( new ArrayList<>( queueNames ) );
+    }
+
+    /**
+     * Run a periodic task on the polling thread, so that it does not overlap a poll.
+     * Exceptions are logged and do not cancel later runs.
+     * @param task
+     * @param initialDelaySeconds
+     * @param periodSeconds
+     * @return Cancels the task
+     */
+    public ScheduledFuture<?> schedule( Runnable task, long initialDelaySeconds, long periodSeconds ) {
+        return pollingThread.scheduleAtFixedRate( () -> {
+            if ( !isRunning ) return;
+            try {
+                task.run();
+            } catch ( Exception exc ) {
+                log.error( "Broker={} -- Error in periodic task -- Exception: {}", getBrokerDesignation(), exc.getMessage() );
+            }
+        }, initialDelaySeconds, periodSeconds, TimeUnit.SECONDS );
+    }
+
+    /**
+     * Start polling; has no effect if polling has started
+     * @param initialDelaySeconds
+     */
+    public synchronized void start( long initialDelaySeconds ) {
+        if ( isStarted ) {
+            return;
+        }
+        isStarted = true;
+        pollingThread.scheduleAtFixedRate( this::poll,
+                        initialDelaySeconds, ( long ) brokerConfig.getPollingInterval(), TimeUnit.SECONDS );
+    }
+
+    public synchronized boolean isStarted() {
+        return isStarted;
+    }
+
+    /**
+     * Stop polling; a poll in progress is allowed to complete
+     */
+    public void stop() {
+        isRunning = false;
+        if ( !pollingThread.isShutdown() ) {
+            pollingThread.shutdown();
+        }
+    }
+
+    /**
+     * Retrieve the queues from the broker and pass each observation to the pipeline for its queue; a pipeline
+     * for several queues receives their observations together, and none if any of them was not returned
+     */
+    void poll() {
+
+        if ( !isRunning || ecsServicePipelineMap.isEmpty() ) return;
+
+        // Backing off after a failed poll
+        if ( System.currentTimeMillis() < retryAfter ) return;
+
+        Map<String, SempQueueObservation> queueObservations;
+        try {
+            queueObservations = solaceQueueCollectionMonitor.getQueueObservations();
+        } catch ( Exception exc ) {
+            pollFailed( exc );
+            return;
+        }
+        if ( !isAvailable ) {
+            log.info( "Broker={} MsgVpn={} -- Queue Metrics available again after {} failed polls",
+                        getBrokerDesignation(), solaceQueueCollectionMonitor.getMessageVpnName(), consecutiveFailures );
+            setAvailable( true );
+        }
+        consecutiveFailures = 0;
+        retryAfter = 0L;
+        if ( queueObservations.isEmpty() ) {
+            return;
+        }
+
+        // Fan out the results to the pipeline for each service
+        final long observationTime = System.currentTimeMillis();
+        for ( EcsServicePipeline ecsServicePipeline : ecsServicePipelineMap.values() ) {
+
+            if ( !isRunning ) return;
+
+            if ( ecsServicePipeline.getEcsServiceConfig().isAggregated() ) {
+                fanOutAggregated( ecsServicePipeline, observationTime, queueObservations );
+                continue;
+            }
+
+            SempQueueObservation sempQueueObservation = queueObservations.get( ecsServicePipeline.getQueueName() );
+            if ( sempQueueObservation == null ) {
+                log.warn( "Service={} -- Queue: {} was not returned by SEMP; no metrics stored this cycle",
+                            LogUtils.getServiceDesignation( ecsServicePipeline.getEcsServiceConfig() ),
+                            LogUtils.getQueueDesignation( ecsServicePipeline.getEcsServiceConfig() ) );
+                continue;
+            }
+
+            ecsServicePipeline.ingest( observationTime, sempQueueObservation );
+            log.info( "Service={} -- Received Metrics: {}: {}, {}: {}, {}: {}",
+                        LogUtils.getServiceDesignation( ecsServicePipeline.getEcsServiceConfig() ),
+                        EcsServiceScalerUtils.METRIC_MSG_COUNT, sempQueueObservation.getMsgCount(),
+                        EcsServiceScalerUtils.METRIC_AVG_RX_RATE, sempQueueObservation.getAverageRxMsgRate(),
+                        EcsServiceScalerUtils.METRIC_SPOOL_USAGE, sempQueueObservation.getMsgSpoolUsage() );
+        }
+    }
+
+    private void pollFailed( Exception exc ) {
+        consecutiveFailures++;
+        final long backoffMillis = Math.min( brokerConfig.getPollingInterval() * 1000L << Math.min( consecutiveFailures - 1, 16 ),
+                                             RETRY_BACKOFF_MAX_MILLIS );
+        retryAfter = System.currentTimeMillis() + backoffMillis;
+        log.error( "Broker={} MsgVpn={} -- Error Obtaining Queue Metrics ({} consecutive) -- Retrying in {} ms -- Exception: {}",
+                    getBrokerDesignation(),
+                    solaceQueueCollectionMonitor.getMessageVpnName(),
+                    consecutiveFailures, backoffMillis,
+                    exc.getMessage() );
+        if ( isAvailable ) {
+            setAvailable( false );
+            failureHandler.run();
+        }
+    }
+
+    private synchronized void setAvailable( boolean available ) {
+        isAvailable = available;
+        for ( EcsServicePipeline ecsServicePipeline : ecsServicePipelineMap.values() ) {
+            ecsServicePipeline.setSourceAvailable( available );
+        }
+    }
+
+    private void fanOutAggregated( EcsServicePipeline ecsServicePipeline, long observationTime,
+                                   Map<String, SempQueueObservation> queueObservations ) {
+        final List<String> queueNames = ecsServicePipeline.getQueueNames();
+        final List<SempQueueObservation> sempQueueObservations = new ArrayList<>( queueNames.size() );
+        for ( String queueName : queueNames ) {
+            SempQueueObservation sempQueueObservation = queueObservations.get( queueName );
+            if ( sempQueueObservation == null ) {
+                log.warn( "Service={} -- Queue: {} was not returned by SEMP; no metrics stored this cycle",
+                            LogUtils.getServiceDesignation( ecsServicePipeline.getEcsServiceConfig() ),
+                            LogUtils.getQueueDesignation( ecsServicePipeline.getEcsServiceConfig(), queueName ) );
+                return;
+            }
+            sempQueueObservations.add( sempQueueObservation );
+        }
+
+        ecsServicePipeline.ingest( observationTime, sempQueueObservations );
+        log.info( "Service={} -- Received Metrics for {} queues ({})",
+                    LogUtils.getServiceDesignation( ecsServicePipeline.getEcsServiceConfig() ),
+                    sempQueueObservations.size(), ecsServicePipeline.getEcsServiceConfig().getQueueAggregation() );
+    }
+}
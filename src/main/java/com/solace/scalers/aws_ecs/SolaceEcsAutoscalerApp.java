@@ -2,21 +2,17 @@ package com.solace.scalers.aws_ecs;
 
 import java.io.IOException;
 import java.net.MalformedURLException;
-import java.util.List;
+import java.nio.file.Path;
 import java.util.Map;
-import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import com.solace.scalers.aws_ecs.model.ScalerConfig;
 import com.solace.scalers.aws_ecs.model.ScalerConfigParser;
-import com.solace.scalers.aws_ecs.model.ScalerConfig.EcsServiceConfig;
-import com.solace.scalers.aws_ecs.util.EcsServiceScalerUtils;
+import com.solace.scalers.aws_ecs.model.ScalerConfig.BrokerConfig;
+import com.solace.scalers.aws_ecs.model.ScalerConfig.SnapshotConfig;
 import com.solace.scalers.aws_ecs.util.HealthUtil;
-import com.solace.scalers.aws_ecs.util.LogUtils;
-import com.solace.scalers.aws_ecs.util.SolaceQueueMonitorUtils;
 
 import lombok.extern.log4j.Log4j2;
 
@@ -30,17 +26,27 @@ import lombok.extern.log4j.Log4j2;
 public class SolaceEcsAutoscalerApp
 {
     private static final long       INIT_POLLING_DELAY_SEMP = 5L,
-                                    INIT_POLLING_DELAY_PURGE = 10L,
-                                    INIT_POLLING_DELAY_ECS_METRICS = 2L;
+                                    INIT_POLLING_DELAY_ECS_METRICS = 2L,
+                                    INIT_POLLING_DELAY_ECS_SERVICES = 2L,
+                                    INIT_DELAY_SNAPSHOT = 5L,
+                                    INIT_DELAY_CONFIG_RELOAD = 10L;
 
-    private static final long       POLLING_INTERVAL_PURGE = 120L,
-                                    POLLING_INTERVAL_ECS_METRICS = 20L,
+    private static final long       POLLING_INTERVAL_ECS_METRICS = 20L,
+                                    POLLING_INTERVAL_ECS_SERVICES = 5L,
+                                    CONFIG_RELOAD_CHECK_INTERVAL = 10L,
                                     SCALING_OPERATION_INTERVAL_MILLIS = 10000L,
+                                    HEALTH_CHECK_INTERVAL_MILLIS = 1000L,
                                     SHUTDOWN_THREAD_DELAY_MILLIS = 5000L;
 
     // configuration file arg
     public static final String		ARG_SCALER_CONFIG = "--config-file=";
 
+    // Shards running the service pipelines, one thread each; pipelines on different shards run in parallel
+    private static final int        PIPELINE_SHARDS = Math.max( 2, Runtime.getRuntime().availableProcessors() );
+
+    // Threads sending ECS UpdateService requests; bounds the requests in flight
+    private static final int        ACTUATOR_THREADS = 4;
+
     // shutdown if set to false
     private static volatile boolean isRunning = true;
 
@@ -73,41 +79,62 @@ public class SolaceEcsAutoscalerApp
             System.exit(1);
         }
 
-        log.info("Starting Solace/ECS Scaler -- Monitoring Solace Messaging Service at URL: {} / MsgVpn: {}",
-                scalerConfig.getBrokerConfig().getActiveMsgVpnSempConfig().getBrokerSempUrl(),
-                scalerConfig.getBrokerConfig().getMsgVpnName());
+        for ( BrokerConfig brokerConfig : scalerConfig.getBrokerConfigs() ) {
+            log.info("Starting Solace/ECS Scaler -- Monitoring Solace Messaging Service at URL: {} / MsgVpn: {}",
+                    brokerConfig.getActiveMsgVpnSempConfig().getBrokerSempUrl(),
+                    brokerConfig.getMsgVpnName());
+        }
 
-        // Create Scaler Object maps indexed by queueName: SolaceQueueMonitor, EcsServiceScaler, and EcsServiceMetrics
-        final Map<String, SolaceQueueMonitor>   solaceQueueMonitorMap   = new ConcurrentHashMap<>( scalerConfig.getEcsServiceConfig().size(), 0.75F, 2 );
-        final Map<String, EcsServiceScaler>     ecsServiceScalerMap     = new ConcurrentHashMap<>( scalerConfig.getEcsServiceConfig().size(), 0.75F, 3 );
-        final Map<String, EcsServiceMetrics>    ecsServiceMetricsMap    = new ConcurrentHashMap<>( scalerConfig.getEcsServiceConfig().size(), 0.75F, 3 );
+        // One actuator sends the scaling requests for all services, concurrently and within ECS API rate limits
+        final ScheduledExecutorService actuatorThreads = Executors.newScheduledThreadPool( ACTUATOR_THREADS );
+        final EcsServiceActuator ecsServiceActuator = new EcsServiceActuator( EcsServiceScaler.EcsClientHolder.ecs, actuatorThreads );
 
-        // Load up the maps with one entry for each ECS Service/Queue in the configuration file
-        // Entries execute tasks and track scaler state for corresponding services
-        for ( EcsServiceConfig ecsServiceConfig : scalerConfig.getEcsServiceConfig() ) {
-            try {
-                solaceQueueMonitorMap.put( 
-                                ecsServiceConfig.getQueueName(), 
-                                SolaceQueueMonitorUtils.createSolaceQueueMonitorWithBasicAuth( 
-                                    scalerConfig.getBrokerConfig(), 
-                                    ecsServiceConfig)
-                                );
-                ecsServiceScalerMap.put(
-                                    ecsServiceConfig.getQueueName(), 
-                                    new EcsServiceScaler( ecsServiceConfig )
-                                );
-                ecsServiceMetricsMap.put(
-                                    ecsServiceConfig.getQueueName(), 
-                                    new EcsServiceMetrics(ecsServiceConfig)
-                                );
-                log.info( "Configured Scaler for Service={} -- on Solace Queue: {}",
-                                LogUtils.getServiceDesignation(ecsServiceConfig), ecsServiceConfig.getQueueName() );
-            } catch ( Exception exc ) {
-                log.error("Error configuring Scaler for Service={} on Solace Queue: {}",
-                                LogUtils.getServiceDesignation(ecsServiceConfig), ecsServiceConfig.getQueueName());
-                log.error("Exiting Program");
-                throw exc;
-            }
+        // One pipeline per service ingests observations and makes scaling decisions; pipelines are spread over the
+        // pipeline shards. A failing service is suspended and restarted by its pipeline without affecting others
+        final EcsServicePipelineScheduler pipelineScheduler = new EcsServicePipelineScheduler( PIPELINE_SHARDS );
+
+        // The registry holds an EcsServiceScaler, EcsServiceMetrics and EcsServicePipeline for each service, indexed
+        // by queue designation (queueName, prefixed by brokerName if named), and one poller per broker/Message VPN.
+        // Each poller runs on its own thread, so a slow broker does not delay the others, and its monitor retrieves
+        // the queues for all services on the broker each polling interval:
+        //      collection mode -- as few SEMP collection requests as possible
+        //      queue mode      -- one SEMP request per queue, all in flight concurrently
+        // Services in ecsServiceConfig are created now; services for discoveryRules as matching queues are found
+        final EcsServiceRegistry ecsServiceRegistry;
+        try {
+            ecsServiceRegistry = new EcsServiceRegistry(
+                                    scalerConfig,
+                                    ecsServiceActuator,
+                                    pipelineScheduler,
+                                    EcsServiceScaler.EcsClientHolder.ecs,
+                                    () -> EcsServiceMetrics.CloudWatchClientHolder.cw,
+                                    // The poller retries; services on other brokers are still scaled
+                                    () -> log.warn( "Broker unavailable -- Services on the broker are DEGRADED until polling recovers" ) );
+        } catch ( Exception exc ) {
+            log.error( "Error configuring Scalers -- Exception: {}", exc.getMessage() );
+            log.error( "Exiting Program" );
+            throw exc;
+        }
+        final Map<String, EcsServiceScaler> ecsServiceScalerMap = ecsServiceRegistry.getEcsServiceScalerMap();
+
+        // Restore observations and scaling state saved by the previous scaler instance, if recent
+        // Must complete before the SEMP poller starts adding observations
+        // Discovered services are not known yet and start without restored state, so a warm start requires that
+        // there are no discovery rules
+        final SnapshotConfig snapshotConfig = scalerConfig.getSnapshotConfig();
+        boolean warmStart = false;
+        final ScalerStateSnapshot scalerStateSnapshot;
+        if ( snapshotConfig != null ) {
+            final Path snapshotFile = Path.of( snapshotConfig.getSnapshotFile() );
+            final int restoredServices = ScalerStateSnapshot.restore(
+                                    snapshotFile,
+                                    snapshotConfig.getSnapshotMaxAge() * 1000L,
+                                    ecsServiceScalerMap );
+            warmStart = restoredServices == ecsServiceScalerMap.size() && scalerConfig.getDiscoveryRules().isEmpty();
+            log.info( "Restored {} of {} services from scaler snapshot {}", restoredServices, ecsServiceScalerMap.size(), snapshotFile );
+            scalerStateSnapshot = new ScalerStateSnapshot( snapshotFile, ecsServiceScalerMap );
+        } else {
+            scalerStateSnapshot = null;
         }
 
         /**
@@ -115,54 +142,56 @@ public class SolaceEcsAutoscalerApp
          * Start up the scaler processes!
          */
         
-        // CREATE THREAD -- Monitor Solace Service using SEMP
-        // Configure and start thread to get Queue Metrics from SEMP
-        ScheduledExecutorService solaceSempQueryThread = Executors.newSingleThreadScheduledExecutor();
-        solaceSempQueryThread.scheduleAtFixedRate(() -> {
-
-            for ( Map.Entry<String, SolaceQueueMonitor> entry : solaceQueueMonitorMap.entrySet() ) {
+        // Pipelines accept observations from the start; scaling begins after initialization
+        // CREATE THREADS -- Monitor Solace Services using SEMP
+        // Each poller gets Queue Metrics for its broker from SEMP and passes them to the service pipelines, and runs
+        // the discovery rules for its broker
+        ecsServiceRegistry.start( INIT_POLLING_DELAY_SEMP );
 
+        // CREATE THREAD -- Save scaler state for warm start
+        ScheduledExecutorService snapshotThread = Executors.newSingleThreadScheduledExecutor();
+        if ( scalerStateSnapshot != null ) {
+            snapshotThread.scheduleAtFixedRate(() -> {
                 if ( !isRunning ) return;
-
                 try {
-                    Map<String, Long> metricsEntry = SolaceQueueMonitorUtils.getQueueMetricsFromQueueResponse( entry.getValue().getSempMonitorForQueue() );
-                    ecsServiceScalerMap.get( entry.getValue().getQueueName() ).getMetricObservations().put( System.currentTimeMillis(), metricsEntry );
-                    log.info( "Service={} -- Stored Metrics: {}: {}, {}: {}, {}: {}",
-                                LogUtils.getServiceDesignation( ecsServiceScalerMap.get( entry.getValue().getQueueName() ).getEcsServiceConfig() ),
-                                EcsServiceScalerUtils.METRIC_MSG_COUNT, metricsEntry.get(EcsServiceScalerUtils.METRIC_MSG_COUNT),
-                                EcsServiceScalerUtils.METRIC_AVG_RX_RATE, metricsEntry.get(EcsServiceScalerUtils.METRIC_AVG_RX_RATE),
-                            EcsServiceScalerUtils.METRIC_SPOOL_USAGE, metricsEntry.get(EcsServiceScalerUtils.METRIC_SPOOL_USAGE) );
+                    scalerStateSnapshot.write();
                 } catch ( Exception exc ) {
-                    log.error( "Service={} -- Error Obtaining/Storing Metrics -- Exception: {}",
-                                LogUtils.getServiceDesignation( ecsServiceScalerMap.get( entry.getValue().getQueueName() ).getEcsServiceConfig() ),
-                                exc.getMessage() );
-                    log.error( "Exiting" );
-                    isRunning = false;
+                    log.warn( "Error writing scaler snapshot {} -- Exception: {}",
+                                scalerStateSnapshot.getSnapshotFile(), exc.getMessage() );
                 }
-            }
-
-        }, INIT_POLLING_DELAY_SEMP, ( long )scalerConfig.getBrokerConfig().getPollingInterval(), TimeUnit.SECONDS);
-
-        // CREATE THREAD -- Purge Old Metrics
-        // Configure+Exec thread to purge old metrics so they don't get out of hand
-        ScheduledExecutorService purgeMetricsThread = Executors.newSingleThreadScheduledExecutor();
-        purgeMetricsThread.scheduleAtFixedRate(() -> {
-            for ( Map.Entry<String, EcsServiceScaler> ecsScalerEntry : ecsServiceScalerMap.entrySet() ) {
-                if ( !isRunning ) return;
-                ecsScalerEntry.getValue().purgeOldMetrics();
-            }
-        }, INIT_POLLING_DELAY_PURGE, POLLING_INTERVAL_PURGE, TimeUnit.SECONDS);
+            }, INIT_DELAY_SNAPSHOT, ( long )snapshotConfig.getSnapshotInterval(), TimeUnit.SECONDS);
+        }
 
+        // Task counts are read from CloudWatch or ECS DescribeServices, per service configuration
         // CREATE THREAD -- Monitor ECS Metrics from Cloudwatch
+        // One collector retrieves the task counts for all services in as few requests as possible
         // TODO - Make ECS Metrics Monitor polling interval configurable
         ScheduledExecutorService getEcsMetricsThread = Executors.newSingleThreadScheduledExecutor();
         getEcsMetricsThread.scheduleAtFixedRate(() -> {
-            for ( Map.Entry<String, EcsServiceMetrics> ecsServiceMetricsEntry : ecsServiceMetricsMap.entrySet() ) {
-                if ( !isRunning ) return;
-                ecsServiceMetricsEntry.getValue().retrieveMetricsFromCloudwatch();
-            }
+            if ( !isRunning ) return;
+            ecsServiceRegistry.retrieveMetricsFromCloudwatch();
         }, INIT_POLLING_DELAY_ECS_METRICS, POLLING_INTERVAL_ECS_METRICS, TimeUnit.SECONDS);
 
+        // CREATE THREAD -- Monitor ECS Service state from DescribeServices
+        ScheduledExecutorService getEcsServiceStateThread = Executors.newSingleThreadScheduledExecutor();
+        getEcsServiceStateThread.scheduleAtFixedRate(() -> {
+            if ( !isRunning ) return;
+            ecsServiceRegistry.retrieveServiceState();
+        }, INIT_POLLING_DELAY_ECS_SERVICES, POLLING_INTERVAL_ECS_SERVICES, TimeUnit.SECONDS);
+
+        // CREATE THREAD -- Reload the configuration file when it changes
+        // Changed services are updated in place and keep their metrics; an invalid file is rejected and logged
+        final ScalerConfigReloader scalerConfigReloader = new ScalerConfigReloader( Path.of( configFile ), ecsServiceRegistry );
+        ScheduledExecutorService configReloadThread = Executors.newSingleThreadScheduledExecutor();
+        configReloadThread.scheduleAtFixedRate(() -> {
+            if ( !isRunning ) return;
+            try {
+                scalerConfigReloader.checkForChanges();
+            } catch ( Exception exc ) {
+                log.error( "Error reloading scaler config at: {} -- Exception: {}", scalerConfigReloader.getConfigFile(), exc.getMessage() );
+            }
+        }, INIT_DELAY_CONFIG_RELOAD, CONFIG_RELOAD_CHECK_INTERVAL, TimeUnit.SECONDS);
+
         // Intercept SIGTERM and SIGINT for graceful shutdown
         var shutdownListener = new Thread() {
             public void run() {
@@ -170,29 +199,49 @@ public class SolaceEcsAutoscalerApp
                 try {
                     log.info("*** Shutdown Signal Detected -- Shutting Down Scaler ***");
                     Thread.sleep(SHUTDOWN_THREAD_DELAY_MILLIS);
-                    if (!purgeMetricsThread.isShutdown()) {
-                        purgeMetricsThread.shutdown();
-                    }
-                    if (!solaceSempQueryThread.isShutdown()) {
-                        solaceSempQueryThread.shutdown();
-                    }
+                    ecsServiceRegistry.stop();
                     if (!getEcsMetricsThread.isShutdown()) {
                         getEcsMetricsThread.shutdown();
                     }
+                    if (!getEcsServiceStateThread.isShutdown()) {
+                        getEcsServiceStateThread.shutdown();
+                    }
+                    pipelineScheduler.shutdown();
+                    if (!actuatorThreads.isShutdown()) {
+                        actuatorThreads.shutdown();
+                    }
+                    if (!snapshotThread.isShutdown()) {
+                        snapshotThread.shutdown();
+                    }
+                    if (!configReloadThread.isShutdown()) {
+                        configReloadThread.shutdown();
+                    }
+                    // Final snapshot so a replacement scaler can start warm
+                    if (scalerStateSnapshot != null) {
+                        try {
+                            scalerStateSnapshot.write();
+                        } catch (IOException ioexc) {
+                            log.warn("Error writing scaler snapshot on shutdown -- Exception: {}", ioexc.getMessage());
+                        }
+                    }
                 } catch (InterruptedException e) { }
             }
         };
         Runtime.getRuntime().addShutdownHook(shutdownListener);
 
         // Delay main thread (and scaling operations) for the greater of: 
-        //          60 seconds OR the SEMP Polling period
+        //          60 seconds OR the longest SEMP Polling period
         //          + INIT_POLLING_DELAY_SEMP + 5 Seconds
         // Should ensure that SEMP metrics have been acquired
+        // Skipped when every service was restored from a fresh snapshot
         final long initializationDelay = 
                             System.currentTimeMillis() + 
                             ( INIT_POLLING_DELAY_SEMP + 5L ) * 1000L +
-                            Math.max( ( long )scalerConfig.getBrokerConfig().getPollingInterval(), 60L ) * 1000L;
-        boolean isScaling = false;
+                            Math.max( ( long )maxPollingInterval( scalerConfig ), 60L ) * 1000L;
+        boolean isScaling = warmStart;
+        if ( warmStart ) {
+            log.info( "Metrics restored from snapshot -- Going Active!" );
+        }
         while ( !isScaling && isRunning ) {
             if ( System.currentTimeMillis() < initializationDelay ) {
                 log.info( "Metrics are initializing, no scaling operations will be performed" );
@@ -204,35 +253,33 @@ public class SolaceEcsAutoscalerApp
             Thread.sleep(SCALING_OPERATION_INTERVAL_MILLIS);
         }
 
-        // MAIN THREAD -- Scaling Operations
-        // TODO - Make scaling operation cycle configurable (currently 10 seconds)
+        // Scaling operations are event-driven from here: each new observation or task count change requests an
+        // evaluation for its service. The periodic pass covers time-based conditions such as cooldown expiry.
+        ecsServiceRegistry.startScaling( SCALING_OPERATION_INTERVAL_MILLIS );
+
+        // MAIN THREAD -- Health check
+        // Failing services are suspended and restarted by their pipelines and do not stop the scaler
         while ( isRunning ) {
             // Creates tmp healthcheck file
             HealthUtil.updateHealthStatus(isRunning);
-
-            for ( Map.Entry<String, EcsServiceScaler> ecsServiceScalerEntry : ecsServiceScalerMap.entrySet() ) {
-                try {
-                    if ( !isRunning ) break;
-                    ecsServiceScalerEntry.getValue().scalingOperation(
-                            ecsServiceMetricsMap.get(ecsServiceScalerEntry.getKey()).getDesiredTaskCount(), 
-                            ecsServiceMetricsMap.get(ecsServiceScalerEntry.getKey()).getRunningTaskCount() );
-                } catch ( Exception exc ) {
-                    log.warn( "Service={} -- Caught exception from ECS Service Scaler -- Shutting down", LogUtils.getServiceDesignation(ecsServiceScalerEntry.getValue().getEcsServiceConfig()) );
-                    isRunning = false;
-                }
-            }
-
-            // Exit before thread sleep if done
-            if ( !isRunning ) {
-                // Delete tmp healthcheck file
-                HealthUtil.updateHealthStatus(isRunning);
-                break;
-            }
-
-            // TODO - make this value configurable -- scaler interval
-            Thread.sleep(SCALING_OPERATION_INTERVAL_MILLIS);
+            Thread.sleep(HEALTH_CHECK_INTERVAL_MILLIS);
         }
+        ecsServiceRegistry.stop();
+        // Delete tmp healthcheck file
+        HealthUtil.updateHealthStatus(isRunning);
 
         System.exit(0);
     }
+
+    /**
+     * @param scalerConfig
+     * @return Longest SEMP polling interval of the configured brokers, in seconds
+     */
+    private static int maxPollingInterval( ScalerConfig scalerConfig ) {
+        int maxPollingInterval = 0;
+        for ( BrokerConfig brokerConfig : scalerConfig.getBrokerConfigs() ) {
+            maxPollingInterval = Math.max( maxPollingInterval, brokerConfig.getPollingInterval() );
+        }
+        return maxPollingInterval;
+    }
 }
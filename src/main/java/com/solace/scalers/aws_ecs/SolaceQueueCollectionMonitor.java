@@ -0,0 +1,263 @@
+package com.solace.scalers.aws_ecs;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import com.solace.scalers.aws_ecs.http.SempHttpTransport;
+import com.solace.scalers.aws_ecs.http.URLConnectionFactory;
+import com.solace.scalers.aws_ecs.http.URLConnectionSempHttpTransport;
+import com.solace.scalers.aws_ecs.model.ScalerConfig;
+import com.solace.scalers.aws_ecs.model.semp_v2.SempQueueObservation;
+import com.solace.scalers.aws_ecs.util.SempResponseParser;
+
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Class SolaceQueueCollectionMonitor retrieves monitoring records for many queues at once
+ * using the SEMPv2 queue collection endpoint. A single polling cycle issues one GET per page
+ * of results (up to SEMP_PAGE_SIZE queues per page) instead of one GET per queue.
+ * - Queue names are narrowed on the broker with a `where=queueName==prefix*` filter
+ *   derived from the common prefix of the monitored queue names
+ * - Only the fields used by the scaler are requested with `select=`
+ * - Additional pages are followed using `meta.paging.nextPageUri`
+ * The monitored queues may be changed between polls, and the names of the queues matching a wildcard pattern can be
+ * listed through the same connection and VPN state, for queue discovery.
+ */
+@Log4j2
+public class SolaceQueueCollectionMonitor extends SolaceQueueMonitor {
+
+    private static final String SEMP_COLLECTION_URL_FORMAT      = "%s/SEMP/v2/monitor/msgVpns/%s/queues?count=%d&select=%s%s",
+                                SEMP_COLLECTION_SELECT_FIELDS   = "queueName,msgs.count,msgSpoolUsage,maxMsgSpoolUsage,spooledMsgCount,averageRxMsgRate,averageTxMsgRate",
+                                SEMP_QUEUE_NAME_SELECT_FIELDS   = "queueName",
+                                SEMP_COLLECTION_WHERE_FORMAT    = "&where=%s",
+                                SEMP_WHERE_QUEUE_NAME_FORMAT    = "queueName==%s";
+
+    // Maximum number of objects returned per page by SEMPv2 monitor collections
+    public static final int     SEMP_PAGE_SIZE = 100;
+
+    // Guard against a broker returning a paging cursor that never terminates
+    private static final int    MAX_PAGES_PER_POLL = 1000;
+
+    private volatile Set<String> monitoredQueueNames;
+
+    /**
+     * Constructor for a monitor covering all of the queues in `queueNames`
+     * @param sempConfigMap
+     * @param messageVpnName
+     * @param queueNames - Names of the queues to retrieve on each poll
+     * @param connectionFactory
+     * @throws MalformedURLException
+     */
+    public SolaceQueueCollectionMonitor(Map<String, ScalerConfig.SempConfig> sempConfigMap, String messageVpnName, Collection<String> queueNames, URLConnectionFactory connectionFactory) throws MalformedURLException {
+        this(new MessageVpnStateTracker(sempConfigMap, messageVpnName, 0L), queueNames, connectionFactory);
+    }
+
+    /**
+     * Constructor for a monitor sharing the active/standby decision of the given MessageVpnStateTracker
+     * @param messageVpnStateTracker
+     * @param queueNames - Names of the queues to retrieve on each poll
+     * @param connectionFactory
+     * @throws MalformedURLException
+     */
+    public SolaceQueueCollectionMonitor(MessageVpnStateTracker messageVpnStateTracker, Collection<String> queueNames, URLConnectionFactory connectionFactory) throws MalformedURLException {
+        this(messageVpnStateTracker, queueNames, new URLConnectionSempHttpTransport(connectionFactory));
+    }
+
+    /**
+     * Constructor for a monitor sharing the active/standby decision of the given MessageVpnStateTracker
+     * and issuing SEMP requests through the given transport
+     * @param messageVpnStateTracker
+     * @param queueNames - Names of the queues to retrieve on each poll
+     * @param sempHttpTransport
+     */
+    public SolaceQueueCollectionMonitor(MessageVpnStateTracker messageVpnStateTracker, Collection<String> queueNames, SempHttpTransport sempHttpTransport) {
+        super(messageVpnStateTracker, formatQueueNameFilter(queueNames), sempHttpTransport);
+        this.monitoredQueueNames = Collections.unmodifiableSet(new LinkedHashSet<>(queueNames));
+    }
+
+    public Set<String> getMonitoredQueueNames() {
+        return monitoredQueueNames;
+    }
+
+    /**
+     * Replace the queues retrieved on each poll; takes effect from the next poll
+     * @param queueNames
+     */
+    public synchronized void setMonitoredQueueNames(Collection<String> queueNames) {
+        setQueueName(formatQueueNameFilter(queueNames));
+        this.monitoredQueueNames = Collections.unmodifiableSet(new LinkedHashSet<>(queueNames));
+    }
+
+    /**
+     * Format the URL for the first page of the queue collection query.
+     * @param brokerSempUrl
+     * @param msgVpnName
+     * @param queueNameFilter - SEMP wildcard expression for queueName; empty or null to match all queues in the VPN
+     * @return
+     */
+    public static String formatQueueCollectionUrl(String brokerSempUrl, String msgVpnName, String queueNameFilter) {
+        return formatCollectionUrl(brokerSempUrl, msgVpnName, SEMP_COLLECTION_SELECT_FIELDS, queueNameFilter);
+    }
+
+    /**
+     * Format the URL for the first page of a queue collection query returning only queue names
+     * @param brokerSempUrl
+     * @param msgVpnName
+     * @param queueNameFilter - SEMP wildcard expression for queueName; empty or null to match all queues in the VPN
+     * @return
+     */
+    public static String formatQueueNameCollectionUrl(String brokerSempUrl, String msgVpnName, String queueNameFilter) {
+        return formatCollectionUrl(brokerSempUrl, msgVpnName, SEMP_QUEUE_NAME_SELECT_FIELDS, queueNameFilter);
+    }
+
+    private static String formatCollectionUrl(String brokerSempUrl, String msgVpnName, String selectFields, String queueNameFilter) {
+        String whereClause = "";
+        if (queueNameFilter != null && !queueNameFilter.isEmpty()) {
+            whereClause = String.format(SEMP_COLLECTION_WHERE_FORMAT,
+                    URLEncoder.encode(String.format(SEMP_WHERE_QUEUE_NAME_FORMAT, queueNameFilter), StandardCharsets.UTF_8));
+        }
+        return String.format(SEMP_COLLECTION_URL_FORMAT, brokerSempUrl, msgVpnName, SEMP_PAGE_SIZE, selectFields, whereClause);
+    }
+
+    /**
+     * Derive a SEMP queueName filter that matches every queue in the list.
+     * - A single queue is matched exactly
+     * - Multiple queues are matched with the longest common prefix followed by the `*` wildcard
+     * - If the queues have no common prefix, an empty string is returned and no filter is applied
+     * @param queueNames
+     * @return
+     */
+    public static String formatQueueNameFilter(Collection<String> queueNames) {
+        if (queueNames == null || queueNames.isEmpty()) {
+            return "";
+        }
+        Set<String> distinctQueueNames = new LinkedHashSet<>(queueNames);
+        String prefix = distinctQueueNames.iterator().next();
+        if (distinctQueueNames.size() == 1) {
+            return prefix;
+        }
+        for (String queueName : distinctQueueNames) {
+            int i = 0;
+            int maxLength = Math.min(prefix.length(), queueName.length());
+            while (i < maxLength && prefix.charAt(i) == queueName.charAt(i)) {
+                i++;
+            }
+            prefix = prefix.substring(0, i);
+            if (prefix.isEmpty()) {
+                return "";
+            }
+        }
+        return prefix + "*";
+    }
+
+    /**
+     * Determines the active message vpn, then retrieves statistics for all monitored queues
+     * from the SEMPv2 queue collection, following paging cursors until every monitored queue has been
+     * found or there are no more pages. Each page is parsed as it is read from the response stream.
+     * @return Map of queueName --> SempQueueObservation; queues not found on the broker are absent
+     * @throws IOException
+     * @throws URISyntaxException
+     */
+    public synchronized Map<String, SempQueueObservation> getQueueObservations() throws IOException, URISyntaxException {
+        updateActiveVpnForForQueueMonitor();
+
+        ScalerConfig.SempConfig activeSempConfig = getMessageVpnStateTracker().getActiveSempConfig();
+        Map<String, SempQueueObservation> observations = new HashMap<>(monitoredQueueNames.size() * 2);
+
+        String pageUrl = formatQueueCollectionUrl(activeSempConfig.getBrokerSempUrl(), getMessageVpnName(), getQueueName());
+        int pageCount = 0;
+        while (pageUrl != null && observations.size() < monitoredQueueNames.size()) {
+
+            if (++pageCount > MAX_PAGES_PER_POLL) {
+                log.warn("MsgVpn={} -- Stopped reading queue collection after {} pages", getMessageVpnName(), MAX_PAGES_PER_POLL);
+                break;
+            }
+
+            Optional<String> optionalNextPageUri = readQueueCollectionPage(pageUrl, activeSempConfig, observations);
+            if (optionalNextPageUri.isEmpty() && observations.isEmpty() && refreshActiveVpnAfterFailure()) {
+                // The active broker changed; restart the collection query on the new active broker
+                activeSempConfig = getMessageVpnStateTracker().getActiveSempConfig();
+                pageUrl = formatQueueCollectionUrl(activeSempConfig.getBrokerSempUrl(), getMessageVpnName(), getQueueName());
+                optionalNextPageUri = readQueueCollectionPage(pageUrl, activeSempConfig, observations);
+            }
+            if (optionalNextPageUri.isEmpty()) {
+                numFailedRequestsInARow++;
+                // TODO: Make number of requests in a row configurable
+                if (numFailedRequestsInARow > 5) {
+                    throw new IOException("Failed to fetch queue statistics from active broker for 5 separate intervals. Please confirm Broker Semp Configuration.");
+                }
+                return Collections.emptyMap();
+            }
+
+            pageUrl = optionalNextPageUri.get().isEmpty() ? null : optionalNextPageUri.get();
+        }
+        numFailedRequestsInARow = 0;
+        for (SempQueueObservation observation : observations.values()) {
+            observation.setBrokerSempUrl(activeSempConfig.getBrokerSempUrl());
+        }
+
+        log.debug("MsgVpn={} -- Retrieved {} of {} monitored queues in {} SEMP request(s)",
+                getMessageVpnName(), observations.size(), monitoredQueueNames.size(), pageCount);
+
+        return observations;
+    }
+
+    /**
+     * List the names of all queues in the message VPN matching a SEMP wildcard pattern, from the active broker.
+     * Does not affect the monitored queues or the count of failed polls.
+     * @param queueNamePattern - SEMP wildcard expression for queueName (`*` and `?`)
+     * @return Queue names; empty if any page could not be retrieved, so that a partial list is never returned
+     * @throws IOException
+     * @throws URISyntaxException
+     */
+    public synchronized Optional<Set<String>> listQueueNames(String queueNamePattern) throws IOException, URISyntaxException {
+        updateActiveVpnForForQueueMonitor();
+
+        ScalerConfig.SempConfig activeSempConfig = getMessageVpnStateTracker().getActiveSempConfig();
+        Set<String> queueNames = new LinkedHashSet<>();
+
+        String pageUrl = formatQueueNameCollectionUrl(activeSempConfig.getBrokerSempUrl(), getMessageVpnName(), queueNamePattern);
+        int pageCount = 0;
+        while (pageUrl != null) {
+            if (++pageCount > MAX_PAGES_PER_POLL) {
+                log.warn("MsgVpn={} -- Stopped listing queues matching {} after {} pages", getMessageVpnName(), queueNamePattern, MAX_PAGES_PER_POLL);
+                return Optional.empty();
+            }
+            Optional<String> optionalNextPageUri = readSempResponse(pageUrl, activeSempConfig.getUsername(), activeSempConfig.getPassword(), body -> {
+                String nextPageUri = SempResponseParser.parseQueueNamePage(body, queueNames);
+                return nextPageUri == null ? "" : nextPageUri;
+            });
+            if (optionalNextPageUri.isEmpty()) {
+                return Optional.empty();
+            }
+            pageUrl = optionalNextPageUri.get().isEmpty() ? null : optionalNextPageUri.get();
+        }
+        return Optional.of(queueNames);
+    }
+
+    /**
+     * Request one page of the queue collection and add the monitored queues in the page to `observations`
+     * @param pageUrl
+     * @param sempConfig
+     * @param observations
+     * @return nextPageUri, or an empty string if this is the last page; empty if the request failed
+     * @throws IOException
+     * @throws URISyntaxException
+     */
+    private Optional<String> readQueueCollectionPage(String pageUrl, ScalerConfig.SempConfig sempConfig, Map<String, SempQueueObservation> observations) throws IOException, URISyntaxException {
+        return readSempResponse(pageUrl, sempConfig.getUsername(), sempConfig.getPassword(), body -> {
+            String nextPageUri = SempResponseParser.parseQueueCollectionPage(body, monitoredQueueNames, observations);
+            return nextPageUri == null ? "" : nextPageUri;
+        });
+    }
+}
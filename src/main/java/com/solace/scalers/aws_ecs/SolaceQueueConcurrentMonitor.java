@@ -0,0 +1,204 @@
+package com.solace.scalers.aws_ecs;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.solace.scalers.aws_ecs.http.SempHttpResponse;
+import com.solace.scalers.aws_ecs.http.SempHttpTransport;
+import com.solace.scalers.aws_ecs.model.ScalerConfig;
+import com.solace.scalers.aws_ecs.model.semp_v2.SempQueueObservation;
+import com.solace.scalers.aws_ecs.util.SempResponseParser;
+
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Class SolaceQueueConcurrentMonitor retrieves monitoring records for many queues by issuing one SEMPv2
+ * request per queue, with requests for all queues in flight at the same time.
+ * - At most `maxConcurrentRequests` requests are outstanding at once, including requests from an earlier polling
+ *   cycle that are still in flight
+ * - Each request must complete within `requestTimeout`; the timeout is applied to the request by the transport
+ * - All requests in a polling cycle must complete within `cycleDeadline`; queues that have not responded
+ *   by the deadline are absent from the results for that cycle
+ * A slow response for one queue does not delay the results for the others, and a poll of N queues completes
+ * in roughly one request's latency when N <= maxConcurrentRequests.
+ */
+@Log4j2
+public class SolaceQueueConcurrentMonitor extends SolaceQueueCollectionMonitor {
+
+    private final int maxConcurrentRequests;
+
+    private final Duration requestTimeout;
+
+    private final Duration cycleDeadline;
+
+    // Held from sending a request until the transport completes it, which may be after the polling cycle has ended
+    private final Semaphore inFlightRequests;
+
+    /**
+     * Constructor
+     * @param messageVpnStateTracker
+     * @param queueNames - Names of the queues to retrieve on each poll
+     * @param sempHttpTransport - Transport used for all requests; should implement a non-blocking getAsync()
+     * @param maxConcurrentRequests - Maximum number of queue requests in flight at once
+     * @param requestTimeout - Maximum time to wait for each queue response
+     * @param cycleDeadline - Maximum time to wait for all queue responses in a polling cycle
+     */
+    public SolaceQueueConcurrentMonitor(MessageVpnStateTracker messageVpnStateTracker, Collection<String> queueNames, SempHttpTransport sempHttpTransport,
+                                        int maxConcurrentRequests, Duration requestTimeout, Duration cycleDeadline) {
+        super(messageVpnStateTracker, queueNames, sempHttpTransport);
+        this.maxConcurrentRequests = Math.max(maxConcurrentRequests, 1);
+        this.requestTimeout = requestTimeout;
+        this.cycleDeadline = cycleDeadline;
+        this.inFlightRequests = new Semaphore(this.maxConcurrentRequests);
+    }
+
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    public Duration getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    public Duration getCycleDeadline() {
+        return cycleDeadline;
+    }
+
+    /**
+     * Determines the active message vpn, then requests the monitoring record for every monitored queue concurrently.
+     * If no queue could be retrieved, the VPN state is checked immediately and the poll is repeated once if the active
+     * broker changed.
+     * @return Map of queueName --> SempQueueObservation; queues that failed, timed out or were not found are absent
+     * @throws IOException
+     * @throws URISyntaxException
+     */
+    @Override
+    public synchronized Map<String, SempQueueObservation> getQueueObservations() throws IOException, URISyntaxException {
+        updateActiveVpnForForQueueMonitor();
+
+        Map<String, SempQueueObservation> queueResponses = pollMonitoredQueues(getMessageVpnStateTracker().getActiveSempConfig());
+        if (queueResponses.isEmpty() && refreshActiveVpnAfterFailure()) {
+            // The active broker changed; poll the new active broker in this cycle
+            queueResponses = pollMonitoredQueues(getMessageVpnStateTracker().getActiveSempConfig());
+        }
+
+        if (queueResponses.isEmpty()) {
+            numFailedRequestsInARow++;
+            // TODO: Make number of requests in a row configurable
+            if (numFailedRequestsInARow > 5) {
+                throw new IOException("Failed to fetch queue statistics from active broker for 5 separate intervals. Please confirm Broker Semp Configuration.");
+            }
+            return Collections.emptyMap();
+        }
+        numFailedRequestsInARow = 0;
+        return queueResponses;
+    }
+
+    /**
+     * Issue one request per monitored queue against the given broker and collect the responses that complete
+     * before the cycle deadline
+     * @param sempConfig
+     * @return
+     * @throws IOException
+     */
+    private Map<String, SempQueueObservation> pollMonitoredQueues(ScalerConfig.SempConfig sempConfig) throws IOException {
+        final long startTime = System.nanoTime();
+        final long deadline = startTime + cycleDeadline.toNanos();
+        final String authHeader = formatHttpBasicAuthHeader(sempConfig.getUsername(), sempConfig.getPassword());
+
+        Map<String, CompletableFuture<SempQueueObservation>> pendingResponses = new LinkedHashMap<>(getMonitoredQueueNames().size() * 2);
+        try {
+            for (String queueName : getMonitoredQueueNames()) {
+                if (!inFlightRequests.tryAcquire(Math.max(deadline - System.nanoTime(), 0L), TimeUnit.NANOSECONDS)) {
+                    log.warn("MsgVpn={} -- Polling deadline of {} ms reached before all queue requests were sent",
+                            getMessageVpnName(), cycleDeadline.toMillis());
+                    break;
+                }
+                CompletableFuture<SempHttpResponse> exchange;
+                try {
+                    exchange = getSempHttpTransport()
+                            .getAsync(formatQueueMonitorUrl(sempConfig.getBrokerSempUrl(), getMessageVpnName(), queueName), authHeader, requestTimeout);
+                } catch (RuntimeException exc) {
+                    exchange = CompletableFuture.failedFuture(exc);
+                }
+                // Released when the exchange completes, not when the response is abandoned at the cycle deadline
+                exchange.whenComplete((response, exc) -> inFlightRequests.release());
+                pendingResponses.put(queueName, exchange.thenApply(response -> parseQueueResponse(queueName, response)));
+            }
+
+            CompletableFuture.allOf(pendingResponses.values().toArray(new CompletableFuture<?>[0]))
+                    .get(Math.max(deadline - System.nanoTime(), 0L), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            pendingResponses.values().forEach(pendingResponse -> pendingResponse.cancel(true));
+            throw new IOException("Interrupted while polling queue statistics", interruptedException);
+        } catch (ExecutionException | TimeoutException exc) {
+            // Individual failures and timeouts are reported below
+        }
+
+        Map<String, SempQueueObservation> queueResponses = new HashMap<>(pendingResponses.size() * 2);
+        int failedRequests = 0;
+        for (Map.Entry<String, CompletableFuture<SempQueueObservation>> entry : pendingResponses.entrySet()) {
+            CompletableFuture<SempQueueObservation> pendingResponse = entry.getValue();
+            if (!pendingResponse.isDone()) {
+                pendingResponse.cancel(true);
+                failedRequests++;
+                log.warn("MsgVpn={} -- Queue: {} did not respond before the polling deadline", getMessageVpnName(), entry.getKey());
+                continue;
+            }
+            SempQueueObservation sempQueueResponse = null;
+            try {
+                sempQueueResponse = pendingResponse.getNow(null);
+            } catch (RuntimeException exc) {
+                log.warn("MsgVpn={} -- Queue: {} request failed -- Exception: {}", getMessageVpnName(), entry.getKey(),
+                        exc.getCause() != null ? exc.getCause().toString() : exc.toString());
+            }
+            if (sempQueueResponse == null) {
+                failedRequests++;
+                continue;
+            }
+            sempQueueResponse.setBrokerSempUrl(sempConfig.getBrokerSempUrl());
+            queueResponses.put(entry.getKey(), sempQueueResponse);
+        }
+
+        log.debug("MsgVpn={} -- Retrieved {} of {} monitored queues in {} ms; {} failed or timed out",
+                getMessageVpnName(), queueResponses.size(), getMonitoredQueueNames().size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime), failedRequests);
+
+        return queueResponses;
+    }
+
+    /**
+     * Read and parse a queue response
+     * @param queueName
+     * @param response
+     * @return Parsed response; null if the request was not successful
+     */
+    private SempQueueObservation parseQueueResponse(String queueName, SempHttpResponse response) {
+        try (response) {
+            if (!response.isSuccess()) {
+                log.error("MsgVpn={} -- Queue: {} -- Call to SEMP responseCode = {}", getMessageVpnName(), queueName, response.getStatusCode());
+                return null;
+            }
+            SempQueueObservation observation = SempResponseParser.parseQueueResponse(response.getBody(), new SempQueueObservation());
+            if (observation.getQueueName() == null) {
+                observation.setQueueName(queueName);
+            }
+            return observation;
+        } catch (IOException exc) {
+            log.warn("MsgVpn={} -- Queue: {} -- Error reading SEMP response -- Exception: {}", getMessageVpnName(), queueName, exc.getMessage());
+            return null;
+        }
+    }
+}
@@ -1,16 +1,19 @@
 package com.solace.scalers.aws_ecs;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.net.*;
+import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 import java.util.Map;
 import java.util.Optional;
 
 import com.solace.scalers.aws_ecs.model.ScalerConfig;
 import com.solace.scalers.aws_ecs.model.semp_v2.SempMessageVpnStateResponse;
+import com.solace.scalers.aws_ecs.http.SempHttpResponse;
+import com.solace.scalers.aws_ecs.http.SempResponseReader;
+import com.solace.scalers.aws_ecs.http.SempHttpTransport;
 import com.solace.scalers.aws_ecs.http.URLConnectionFactory;
+import com.solace.scalers.aws_ecs.http.URLConnectionSempHttpTransport;
 import lombok.extern.log4j.Log4j2;
 import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
@@ -26,22 +29,24 @@ import com.solace.scalers.aws_ecs.model.semp_v2.SempQueueResponse;
  */
 @Log4j2
 public class SolaceQueueMonitor {
-    private static final String SEMP_URL_QUERY_STRING = "?select=msgs.count,msgVpnName,queueName,msgSpoolUsage,averageRxMsgRate,averageTxMsgRate",
+    private static final String SEMP_URL_QUERY_STRING = "?select=msgs.count,msgVpnName,queueName,msgSpoolUsage,maxMsgSpoolUsage,spooledMsgCount,averageRxMsgRate,averageTxMsgRate",
                                 SEMP_URL_FORMAT       = "%s/SEMP/v2/monitor/msgVpns/%s/queues/%s%s",
-                                SEMP_VPN_STATE_FORMAT = "%s/SEMP/v2/monitor/msgVpns/%s?select=state",
-                                SEMP_VPN_STATE_UP = "up";
+                                SEMP_VPN_STATE_FORMAT = "%s/SEMP/v2/monitor/msgVpns/%s?select=state";
     public static final String ACTIVE_SEMP_CONFIG = "active",
                                 STANDBY_SEMP_CONFIG = "standby";
 
-    private Map<String,ScalerConfig.SempConfig> sempConfigMap;
+    // Gson instances are thread-safe; one is shared by all monitors
+    protected static final Gson GSON = new Gson();
+
+    private final MessageVpnStateTracker messageVpnStateTracker;
 
     private String messageVpnName = "";
 
     private String queueName = "";
 
-    private int numFailedRequestsInARow = 0;
+    protected int numFailedRequestsInARow = 0;
 
-    private final URLConnectionFactory connectionFactory;
+    private final SempHttpTransport sempHttpTransport;
 
     /**
      * Get queueName associated with this object
@@ -61,11 +66,15 @@ public class SolaceQueueMonitor {
 
 
     public Map<String, ScalerConfig.SempConfig> getSempConfigMap() {
-        return sempConfigMap;
+        return messageVpnStateTracker.getSempConfigMap();
     }
 
     public void setSempConfigMap(Map<String, ScalerConfig.SempConfig> sempConfigMap) {
-        this.sempConfigMap = sempConfigMap;
+        messageVpnStateTracker.setSempConfigMap(sempConfigMap);
+    }
+
+    public MessageVpnStateTracker getMessageVpnStateTracker() {
+        return messageVpnStateTracker;
     }
 
     public String getMessageVpnName() {
@@ -92,14 +101,42 @@ public class SolaceQueueMonitor {
     
     /**
      * Constructor can be used to pass a URL as string to the object. 
+     * The Message VPN state is checked on every request; use the constructor accepting a
+     * MessageVpnStateTracker to share a cached VPN state between monitors
      * @param sempConfigMap
      * @throws MalformedURLException
      */
     public SolaceQueueMonitor(Map<String, ScalerConfig.SempConfig> sempConfigMap, String messageVpnName, String queueName, URLConnectionFactory connectionFactory ) throws MalformedURLException {
-        this.sempConfigMap = sempConfigMap;
-        this.messageVpnName = messageVpnName;
+        this(new MessageVpnStateTracker(sempConfigMap, messageVpnName, 0L), queueName, connectionFactory);
+    }
+
+    /**
+     * Constructor for a monitor sharing the active/standby decision of the given MessageVpnStateTracker
+     * @param messageVpnStateTracker
+     * @param queueName
+     * @param connectionFactory
+     * @throws MalformedURLException
+     */
+    public SolaceQueueMonitor(MessageVpnStateTracker messageVpnStateTracker, String queueName, URLConnectionFactory connectionFactory ) throws MalformedURLException {
+        this(messageVpnStateTracker, queueName, new URLConnectionSempHttpTransport(connectionFactory));
+    }
+
+    /**
+     * Constructor for a monitor sharing the active/standby decision of the given MessageVpnStateTracker
+     * and issuing SEMP requests through the given transport
+     * @param messageVpnStateTracker
+     * @param queueName
+     * @param sempHttpTransport
+     */
+    public SolaceQueueMonitor(MessageVpnStateTracker messageVpnStateTracker, String queueName, SempHttpTransport sempHttpTransport ) {
+        this.messageVpnStateTracker = messageVpnStateTracker;
+        this.messageVpnName = messageVpnStateTracker.getMessageVpnName();
         this.queueName = queueName;
-        this.connectionFactory = connectionFactory;
+        this.sempHttpTransport = sempHttpTransport;
+    }
+
+    public SempHttpTransport getSempHttpTransport() {
+        return sempHttpTransport;
     }
 
     /**
@@ -114,14 +151,17 @@ public class SolaceQueueMonitor {
     public synchronized SempQueueResponse getSempMonitorForQueue() throws IOException, JsonSyntaxException, URISyntaxException {
         updateActiveVpnForForQueueMonitor();
 
-        Optional<String> optionalQueueMonitorResponse = getSempResponse(formatQueueMonitorUrl(sempConfigMap.get(ACTIVE_SEMP_CONFIG).getBrokerSempUrl(), messageVpnName, queueName), sempConfigMap.get(ACTIVE_SEMP_CONFIG).getUsername(), sempConfigMap.get(ACTIVE_SEMP_CONFIG).getPassword());
+        Optional<String> optionalQueueMonitorResponse = getQueueMonitorResponse();
+        if(optionalQueueMonitorResponse.isEmpty() && refreshActiveVpnAfterFailure()) {
+            // The active broker changed; retry against the new active broker in this cycle
+            optionalQueueMonitorResponse = getQueueMonitorResponse();
+        }
 
         if(optionalQueueMonitorResponse.isPresent()) {
             numFailedRequestsInARow = 0;
             // Parse the result and return as object
             // TODO - Define customer object instead of using SEMPv2 generated classes?
-            Gson gson = new Gson();
-            return gson.fromJson(optionalQueueMonitorResponse.get(), SempQueueResponse.class);
+            return GSON.fromJson(optionalQueueMonitorResponse.get(), SempQueueResponse.class);
         } else {
             numFailedRequestsInARow++;
             // TODO: Make number of requests in a row configurable
@@ -133,27 +173,35 @@ public class SolaceQueueMonitor {
     }
 
     /**
-     * Updates the Active Message VPN to use when fetching queue monitoring statistics
+     * Executes the SEMP request for this queue against the active broker
+     * @return
+     * @throws IOException
+     * @throws URISyntaxException
+     */
+    private Optional<String> getQueueMonitorResponse() throws IOException, URISyntaxException {
+        ScalerConfig.SempConfig activeSempConfig = messageVpnStateTracker.getActiveSempConfig();
+        return getSempResponse(formatQueueMonitorUrl(activeSempConfig.getBrokerSempUrl(), messageVpnName, queueName), activeSempConfig.getUsername(), activeSempConfig.getPassword());
+    }
+
+    /**
+     * Updates the Active Message VPN to use when fetching queue monitoring statistics.
+     * The VPN state is only queried if the shared MessageVpnStateTracker cache has expired
      * @throws URISyntaxException
      * @throws IOException
      */
-    public synchronized void updateActiveVpnForForQueueMonitor() throws URISyntaxException, IOException {
-        Optional<SempMessageVpnStateResponse> optionalMessageVpnStateResponse = getVpnStateForSempConfig(sempConfigMap.get(ACTIVE_SEMP_CONFIG));
-        if(optionalMessageVpnStateResponse.isEmpty() || !optionalMessageVpnStateResponse.get().getData().getState().equals(SEMP_VPN_STATE_UP)) {
-            log.info("SempUrl={} -- Unable to fetch Message VPN State from Active SEMP Config. Trying Standby", sempConfigMap.get(ACTIVE_SEMP_CONFIG).getBrokerSempUrl());
-            if(sempConfigMap.get(STANDBY_SEMP_CONFIG) != null) {
-                optionalMessageVpnStateResponse = getVpnStateForSempConfig(sempConfigMap.get(STANDBY_SEMP_CONFIG));
-                if(optionalMessageVpnStateResponse.isPresent() && optionalMessageVpnStateResponse.get().getData().getState().equals(SEMP_VPN_STATE_UP)) {
-                    // Update active vpn so that we check it first on the next interval
-                    ScalerConfig.SempConfig prevActiveVpn = sempConfigMap.get(ACTIVE_SEMP_CONFIG);
-                    sempConfigMap.put(ACTIVE_SEMP_CONFIG, sempConfigMap.get(STANDBY_SEMP_CONFIG));
-                    sempConfigMap.put(STANDBY_SEMP_CONFIG, prevActiveVpn);
-                } else {
-                    // TODO: update to fail after X number of failed attempts in a row
-                    log.error("MessageVPN={} -- Neither Message VPN is currently up. Skipping retrieval of Queue Metrics", messageVpnName);
-                }
-            }
-        }
+    public void updateActiveVpnForForQueueMonitor() throws URISyntaxException, IOException {
+        messageVpnStateTracker.updateActiveVpn(this);
+    }
+
+    /**
+     * Discards the cached VPN state after a failed queue request and checks the VPN state immediately
+     * @return true if the active broker changed
+     * @throws URISyntaxException
+     * @throws IOException
+     */
+    protected boolean refreshActiveVpnAfterFailure() throws URISyntaxException, IOException {
+        messageVpnStateTracker.invalidate();
+        return messageVpnStateTracker.updateActiveVpn(this);
     }
 
     /**
@@ -163,64 +211,56 @@ public class SolaceQueueMonitor {
      * @throws URISyntaxException
      * @throws IOException
      */
-    public synchronized Optional<SempMessageVpnStateResponse> getVpnStateForSempConfig(ScalerConfig.SempConfig sempConfig) throws URISyntaxException, IOException {
+    public Optional<SempMessageVpnStateResponse> getVpnStateForSempConfig(ScalerConfig.SempConfig sempConfig) throws URISyntaxException, IOException {
         Optional<String> optionalVpnStateResponse = getSempResponse(formatVpnStateUrl(sempConfig.getBrokerSempUrl(), messageVpnName), sempConfig.getUsername(), sempConfig.getPassword());
 
         if(optionalVpnStateResponse.isPresent()) {
             // Parse the result and return as object
-            Gson gson = new Gson();
-            return Optional.of(gson.fromJson(optionalVpnStateResponse.get(), SempMessageVpnStateResponse.class));
+            return Optional.ofNullable(GSON.fromJson(optionalVpnStateResponse.get(), SempMessageVpnStateResponse.class));
         } else {
             return Optional.empty();
         }
     }
 
     /**
-     * Executes Http GET request for the given url and basic auth params
+     * Executes Http GET request for the given url and basic auth params.
+     * Not synchronized: the transport is thread-safe and requests for many queues may be in flight at once
      * @param urlString
      * @param username
      * @param password
-     * @return
+     * @return Response body; empty if the request was not successful
      * @throws IOException
      * @throws URISyntaxException
      */
-    public synchronized Optional<String> getSempResponse(String urlString, String username, String password) throws IOException, URISyntaxException {
-        HttpURLConnection connection = connectionFactory.createConnection(urlString);
-
-        connection.setRequestMethod("GET");
-        connection.setRequestProperty("Content-Type", "application/json");
+    public Optional<String> getSempResponse(String urlString, String username, String password) throws IOException, URISyntaxException {
+        return readSempResponse(urlString, username, password, body -> new String(body.readAllBytes(), StandardCharsets.UTF_8));
+    }
 
-        String authHeader = formatHttpBasicAuthHeader(username, password);
-        if(authHeader != null ) {
-            connection.setRequestProperty("Authorization", authHeader);
-        }
-        connection.setConnectTimeout(2500);
-
-        int responseCode = connection.getResponseCode();
-        if (responseCode < 200 || responseCode > 204 ) {
-            // Issue with configuration or the broker service, throw exception to stop execution.
-            log.error( "MsgVpn={} -- Call to SEMP responseCode = {}",
-                    messageVpnName, responseCode );
-            log.error( "MsgVpn={} -- SEMP Response Message: {}",
-                    messageVpnName, connection.getResponseMessage() );
-            connection.disconnect();
-            return Optional.empty();
-        }
+    /**
+     * Executes Http GET request for the given url and basic auth params and passes the response stream
+     * to `reader` without buffering the body
+     * @param urlString
+     * @param username
+     * @param password
+     * @param reader - Reads the body of a successful response
+     * @return Value produced by `reader`; empty if the request was not successful
+     * @throws IOException
+     * @throws URISyntaxException
+     */
+    public <T> Optional<T> readSempResponse(String urlString, String username, String password, SempResponseReader<T> reader) throws IOException, URISyntaxException {
+        try (SempHttpResponse response = sempHttpTransport.get(urlString, formatHttpBasicAuthHeader(username, password))) {
+
+            if ( !response.isSuccess() ) {
+                // Issue with configuration or the broker service, throw exception to stop execution.
+                log.error( "MsgVpn={} -- Call to SEMP responseCode = {}",
+                        messageVpnName, response.getStatusCode() );
+                log.error( "MsgVpn={} -- SEMP Response Message: {}",
+                        messageVpnName, response.getStatusMessage() );
+                return Optional.empty();
+            }
 
-        // Get data from the input stream
-        BufferedReader in = new BufferedReader(
-                new InputStreamReader(connection.getInputStream()));
-        String inputLine;
-        StringBuffer content = new StringBuffer();
-        while ((inputLine = in.readLine()) != null) {
-            content.append(inputLine);
+            return Optional.ofNullable(reader.read(response.getBody()));
         }
-        in.close();
-
-        // Close the connection
-        connection.disconnect();
-
-        return Optional.of(content.toString());
     }
 
     /**
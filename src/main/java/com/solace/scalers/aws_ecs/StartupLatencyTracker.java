@@ -0,0 +1,60 @@
+package com.solace.scalers.aws_ecs;
+
+import java.util.Arrays;
+
+/**
+ * Distribution of task start-up latency for one ECS service: the time from a scale-out UpdateService request until
+ * the running task count reaches the requested count.
+ * The most recent `capacity` samples are kept; percentiles use the nearest-rank method over those samples.
+ */
+public class StartupLatencyTracker {
+
+    public static final int DEFAULT_CAPACITY = 32;
+
+    private final long[]    samples;
+
+    private int             count = 0;
+
+    // Index of the next sample to write
+    private int             next = 0;
+
+    public StartupLatencyTracker() {
+        this( DEFAULT_CAPACITY );
+    }
+
+    /**
+     * Constructor
+     * @param capacity - Number of recent samples kept
+     */
+    public StartupLatencyTracker( int capacity ) {
+        this.samples = new long[ Math.max( capacity, 1 ) ];
+    }
+
+    /**
+     * Record a start-up latency
+     * @param latencyMillis
+     */
+    public synchronized void record( long latencyMillis ) {
+        samples[ next ] = Math.max( latencyMillis, 0L );
+        next = ( next + 1 ) % samples.length;
+        count = Math.min( count + 1, samples.length );
+    }
+
+    public synchronized int getSampleCount() {
+        return count;
+    }
+
+    /**
+     * @param percentile - In (0, 100]
+     * @return Latency in milliseconds at the percentile; null if no samples have been recorded
+     */
+    public synchronized Long getPercentile( double percentile ) {
+        if ( count == 0 ) {
+            return null;
+        }
+        final long[] sorted = Arrays.copyOf( samples, count );
+        Arrays.sort( sorted );
+        final int rank = (int) Math.ceil( Math.min( Math.max( percentile, 0.0 ), 100.0 ) / 100.0 * count );
+        return sorted[ Math.max( rank, 1 ) - 1 ];
+    }
+}
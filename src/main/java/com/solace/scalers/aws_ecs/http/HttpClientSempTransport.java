@@ -0,0 +1,123 @@
+package com.solace.scalers.aws_ecs.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import javax.net.ssl.SSLContext;
+
+/**
+ * SempHttpTransport built on java.net.http.HttpClient.
+ * - One client (and one SSLContext) is shared by every request made through the transport
+ * - Connections are kept alive and re-used between requests, so TCP and TLS handshakes
+ *   are not repeated on every SEMP poll
+ * - HTTP/2 is negotiated with ALPN for https endpoints that offer it; plain http endpoints use HTTP/1.1
+ */
+public class HttpClientSempTransport implements SempHttpTransport {
+
+    public static final Duration    DEFAULT_CONNECT_TIMEOUT = Duration.ofMillis(2500L),
+                                    DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(10L);
+
+    private static final String     HTTPS_SCHEME = "https";
+
+    private final HttpClient httpClient;
+
+    private final Duration requestTimeout;
+
+    /**
+     * Create a transport using the JVM default SSLContext and default timeouts
+     * @throws NoSuchAlgorithmException
+     */
+    public HttpClientSempTransport() throws NoSuchAlgorithmException {
+        this(SSLContext.getDefault(), DEFAULT_CONNECT_TIMEOUT, DEFAULT_REQUEST_TIMEOUT);
+    }
+
+    /**
+     * Create a transport
+     * @param sslContext - SSLContext used for all https connections
+     * @param connectTimeout
+     * @param requestTimeout - Maximum time to wait for a response to each request
+     */
+    public HttpClientSempTransport(SSLContext sslContext, Duration connectTimeout, Duration requestTimeout) {
+        this(HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_2)
+                    .sslContext(sslContext)
+                    .connectTimeout(connectTimeout)
+                    .followRedirects(HttpClient.Redirect.NEVER)
+                    .build(),
+             requestTimeout);
+    }
+
+    /**
+     * Create a transport using an existing HttpClient
+     * @param httpClient
+     * @param requestTimeout
+     */
+    public HttpClientSempTransport(HttpClient httpClient, Duration requestTimeout) {
+        this.httpClient = httpClient;
+        this.requestTimeout = requestTimeout;
+    }
+
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    @Override
+    public SempHttpResponse get(String urlString, String authHeader) throws IOException, URISyntaxException {
+        try {
+            HttpResponse<InputStream> response = httpClient.send(buildRequest(urlString, authHeader, requestTimeout), HttpResponse.BodyHandlers.ofInputStream());
+            return new SempHttpResponse(response.statusCode(), null, response.body());
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for SEMP response", interruptedException);
+        }
+    }
+
+    /**
+     * Send the request on the HttpClient without blocking the caller. The body is read completely
+     * before the returned future completes.
+     */
+    @Override
+    public CompletableFuture<SempHttpResponse> getAsync(String urlString, String authHeader, Duration timeout) {
+        final HttpRequest request;
+        try {
+            request = buildRequest(urlString, authHeader, timeout);
+        } catch (URISyntaxException | IllegalArgumentException exc) {
+            return CompletableFuture.failedFuture(exc);
+        }
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                    .thenApply(response -> new SempHttpResponse(response.statusCode(), null, new ByteArrayInputStream(response.body())));
+    }
+
+    /**
+     * Build a GET request for the url. HTTP/2 is only requested for https; h2c upgrade is not attempted
+     * against plain http endpoints
+     * @param urlString
+     * @param authHeader
+     * @param timeout
+     * @return
+     * @throws URISyntaxException
+     */
+    protected HttpRequest buildRequest(String urlString, String authHeader, Duration timeout) throws URISyntaxException {
+        URI uri = new URI(urlString);
+        HttpRequest.Builder requestBuilder = HttpRequest.newBuilder(uri)
+                                                .GET()
+                                                .timeout(timeout)
+                                                .header("Content-Type", "application/json");
+        if (!HTTPS_SCHEME.equalsIgnoreCase(uri.getScheme())) {
+            requestBuilder.version(HttpClient.Version.HTTP_1_1);
+        }
+        if (authHeader != null) {
+            requestBuilder.header("Authorization", authHeader);
+        }
+        return requestBuilder.build();
+    }
+}
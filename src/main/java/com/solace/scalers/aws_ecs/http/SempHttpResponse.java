@@ -0,0 +1,50 @@
+package com.solace.scalers.aws_ecs.http;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Response returned by a SempHttpTransport.
+ * Closing the response releases the body stream and any resources held by the transport.
+ */
+@Getter
+@AllArgsConstructor
+public class SempHttpResponse implements Closeable {
+
+    private final int statusCode;
+
+    private final String statusMessage;
+
+    // null if there is no response body
+    private final InputStream body;
+
+    private final Closeable onClose;
+
+    public SempHttpResponse(int statusCode, String statusMessage, InputStream body) {
+        this(statusCode, statusMessage, body, null);
+    }
+
+    /**
+     * @return true for HTTP 200-204
+     */
+    public boolean isSuccess() {
+        return statusCode >= 200 && statusCode <= 204;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (body != null) {
+                body.close();
+            }
+        } finally {
+            if (onClose != null) {
+                onClose.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.solace.scalers.aws_ecs.http;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Transport used to execute SEMPv2 GET requests.
+ * Implementations are injected into SolaceQueueMonitor so that tests can replace the HTTP layer.
+ */
+public interface SempHttpTransport {
+
+    /**
+     * Execute an HTTP GET for the given url
+     * @param urlString
+     * @param authHeader - Value of the Authorization header; null to omit the header
+     * @return Response; the caller must close the response after reading the body
+     * @throws IOException
+     * @throws URISyntaxException
+     */
+    SempHttpResponse get(String urlString, String authHeader) throws IOException, URISyntaxException;
+
+    /**
+     * Execute an HTTP GET for the given url without blocking the caller.
+     * The default implementation runs the blocking get() on the common fork-join pool and ignores `timeout`;
+     * transports with a non-blocking client should override it.
+     * @param urlString
+     * @param authHeader - Value of the Authorization header; null to omit the header
+     * @param timeout - Maximum time to wait for the response
+     * @return Future completed with the response, or exceptionally with the IOException/URISyntaxException
+     */
+    default CompletableFuture<SempHttpResponse> getAsync(String urlString, String authHeader, Duration timeout) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return get(urlString, authHeader);
+            } catch (IOException | URISyntaxException exc) {
+                throw new CompletionException(exc);
+            }
+        });
+    }
+}
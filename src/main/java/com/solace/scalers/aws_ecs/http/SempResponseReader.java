@@ -0,0 +1,19 @@
+package com.solace.scalers.aws_ecs.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the body of a successful SEMP response
+ * @param <T> Type produced from the response body
+ */
+@FunctionalInterface
+public interface SempResponseReader<T> {
+
+    /**
+     * @param body - Response body; closed by the caller
+     * @return
+     * @throws IOException
+     */
+    T read(InputStream body) throws IOException;
+}
@@ -0,0 +1,38 @@
+package com.solace.scalers.aws_ecs.http;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URISyntaxException;
+
+/**
+ * SempHttpTransport that opens a new HttpURLConnection from a URLConnectionFactory for every request
+ * and disconnects it when the response is closed.
+ */
+public class URLConnectionSempHttpTransport implements SempHttpTransport {
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 2500;
+
+    private final URLConnectionFactory connectionFactory;
+
+    public URLConnectionSempHttpTransport(URLConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+
+    @Override
+    public SempHttpResponse get(String urlString, String authHeader) throws IOException, URISyntaxException {
+        HttpURLConnection connection = connectionFactory.createConnection(urlString);
+
+        connection.setRequestMethod("GET");
+        connection.setRequestProperty("Content-Type", "application/json");
+        if (authHeader != null) {
+            connection.setRequestProperty("Authorization", authHeader);
+        }
+        connection.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+
+        int responseCode = connection.getResponseCode();
+        if (responseCode < 200 || responseCode > 204) {
+            return new SempHttpResponse(responseCode, connection.getResponseMessage(), null, connection::disconnect);
+        }
+        return new SempHttpResponse(responseCode, connection.getResponseMessage(), connection.getInputStream(), connection::disconnect);
+    }
+}
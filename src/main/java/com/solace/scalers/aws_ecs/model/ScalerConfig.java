@@ -1,7 +1,10 @@
 package com.solace.scalers.aws_ecs.model;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import lombok.AllArgsConstructor;
@@ -20,20 +23,67 @@ import lombok.Builder.Default;
 @NoArgsConstructor
 public class ScalerConfig {
     
+    // Single broker/Message VPN; either brokerConfig or brokerConfigs is required
     @JsonProperty
-    @NonNull
     protected BrokerConfig              brokerConfig;
 
+    // Several brokers/Message VPNs monitored by one scaler; each must have a unique brokerName
+    // If only brokerConfig is configured, it is added to this list during validation
+    @JsonProperty
+    protected List<BrokerConfig>        brokerConfigs;
+
+    // Services listed individually; may be empty if discoveryRules are configured
     @JsonProperty
-    @NonNull
     protected List<EcsServiceConfig>    ecsServiceConfig;
 
+    // Services created and retired as queues matching a pattern appear on and disappear from a broker
+    @JsonProperty
+    protected List<DiscoveryRuleConfig> discoveryRules;
+
+    // Optional; if not configured, scaler state is not saved across restarts
+    @JsonProperty
+    protected SnapshotConfig            snapshotConfig;
+
+    /**
+     * Find the broker/Message VPN a service's queue is hosted on, after validation
+     * @param ecsServiceConfig
+     * @return Matching entry of brokerConfigs; null if not found
+     */
+    public BrokerConfig findBrokerConfig( EcsServiceConfig ecsServiceConfig ) {
+        return findBrokerConfig( ecsServiceConfig.getBrokerName() );
+    }
+
+    /**
+     * Find the broker/Message VPN a discovery rule lists queues from, after validation
+     * @param discoveryRuleConfig
+     * @return Matching entry of brokerConfigs; null if not found
+     */
+    public BrokerConfig findBrokerConfig( DiscoveryRuleConfig discoveryRuleConfig ) {
+        return findBrokerConfig( discoveryRuleConfig.getBrokerName() );
+    }
+
+    private BrokerConfig findBrokerConfig( String brokerName ) {
+        if ( brokerConfigs == null ) {
+            return null;
+        }
+        for ( BrokerConfig candidate : brokerConfigs ) {
+            if ( Objects.equals( candidate.getBrokerName(), brokerName ) ) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
     @Data
     @Builder
     @AllArgsConstructor
     @NoArgsConstructor
     public static class BrokerConfig {
 
+        // Identifies the broker/Message VPN for ecsServiceConfig.brokerName; required in brokerConfigs
+        @JsonProperty
+        protected String  brokerName;
+
         @JsonProperty
         @NonNull
         protected SempConfig activeMsgVpnSempConfig;
@@ -48,6 +98,55 @@ public class ScalerConfig {
         @JsonProperty
         @NonNull
         protected Integer pollingInterval;
+
+        // Seconds to cache the active/standby Message VPN state shared by all queue monitors
+        @JsonProperty
+        @Default
+        protected Integer vpnStateCacheTtl = 30;
+
+        // How queue statistics are requested each polling interval: SEMP_POLLING_MODE_COLLECTION or SEMP_POLLING_MODE_QUEUE
+        @JsonProperty
+        @Default
+        protected String  sempPollingMode = SEMP_POLLING_MODE_COLLECTION;
+
+        // Maximum number of SEMP requests in flight at once (queue polling mode)
+        @JsonProperty
+        @Default
+        protected Integer sempMaxConcurrentRequests = 16;
+
+        // Seconds to wait for each SEMP response (queue polling mode)
+        @JsonProperty
+        @Default
+        protected Integer sempRequestTimeout = 5;
+
+        // Seconds allowed for all requests in one polling cycle (queue polling mode); defaults to pollingInterval
+        @JsonProperty
+        protected Integer sempPollingDeadline;
+
+        public static final String SEMP_POLLING_MODE_COLLECTION = "collection",
+                                   SEMP_POLLING_MODE_QUEUE = "queue";
+    }
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class SnapshotConfig {
+
+        // Path of the memory-mapped snapshot file
+        @JsonProperty
+        @NonNull
+        protected String  snapshotFile;
+
+        // Seconds between snapshots
+        @JsonProperty
+        @Default
+        protected Integer snapshotInterval = 5;
+
+        // Seconds a snapshot remains usable for a warm start
+        @JsonProperty
+        @Default
+        protected Integer snapshotMaxAge = 30;
     }
 
     @Data
@@ -80,13 +179,119 @@ public class ScalerConfig {
         @NonNull
         protected String ecsService;
 
+        // Queue that identifies the service; required unless queues is configured, in which case it defaults to the
+        // first entry of queues
+        @JsonProperty
+        protected String queueName;
+
+        // Scale on several queues of the same broker/Message VPN, combined with queueAggregation; optional
+        @JsonProperty
+        protected List<QueueConfig> queues;
+
+        // How the observations of the queues are combined: QUEUE_AGGREGATION_SUM, QUEUE_AGGREGATION_MAX or
+        // QUEUE_AGGREGATION_WEIGHTED
+        @JsonProperty
+        @Default
+        protected String queueAggregation = QUEUE_AGGREGATION_SUM;
+
+        // brokerName of the broker/Message VPN hosting the queue; optional if only one broker is configured
+        @JsonProperty
+        protected String brokerName;
+
+        @JsonProperty
+        @NonNull
+        protected ScalerBehaviorConfig scalerBehaviorConfig;
+
+        // Where desired/running task counts are read from: TASK_COUNT_SOURCE_CLOUDWATCH or TASK_COUNT_SOURCE_ECS
+        @JsonProperty
+        @Default
+        protected String taskCountSource = TASK_COUNT_SOURCE_CLOUDWATCH;
+
+        public static final String TASK_COUNT_SOURCE_CLOUDWATCH = "cloudwatch",
+                                   TASK_COUNT_SOURCE_ECS = "ecs";
+
+        public static final String QUEUE_AGGREGATION_SUM = "sum",
+                                   QUEUE_AGGREGATION_MAX = "max",
+                                   QUEUE_AGGREGATION_WEIGHTED = "weighted";
+
+        /**
+         * @return True if the service scales on several queues
+         */
+        @JsonIgnore
+        public boolean isAggregated() {
+            return queues != null && !queues.isEmpty();
+        }
+
+        /**
+         * @return Names of the queues the service scales on; queueName alone unless queues is configured
+         */
+        @JsonIgnore
+        public List<String> getQueueNames() {
+            if ( !isAggregated() ) {
+                return List.of( queueName );
+            }
+            final List<String> queueNames = new ArrayList<>( queues.size() );
+            for ( QueueConfig queueConfig : queues ) {
+                queueNames.add( queueConfig.getQueueName() );
+            }
+            return queueNames;
+        }
+    }
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class QueueConfig {
+
         @JsonProperty
         @NonNull
         protected String queueName;
 
+        // Multiplies the observations of the queue if queueAggregation is QUEUE_AGGREGATION_WEIGHTED
+        @JsonProperty
+        @Default
+        protected Double weight = 1.0;
+    }
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class DiscoveryRuleConfig {
+
+        // brokerName of the broker/Message VPN to list queues from; optional if only one broker is configured
+        @JsonProperty
+        protected String brokerName;
+
+        // SEMP wildcard expression for queueName: `*` matches any characters, `?` matches one character
+        @JsonProperty
+        @NonNull
+        protected String queueNamePattern;
+
+        // ECS cluster and service name for each matching queue: `${queueName}` is replaced by the queue name, and
+        // `${1}`, `${2}`, ... by the characters matched by the first, second, ... wildcard in queueNamePattern
+        @JsonProperty
+        @NonNull
+        protected String ecsClusterTemplate;
+
+        @JsonProperty
+        @NonNull
+        protected String ecsServiceTemplate;
+
+        // Seconds between listings of the matching queues
+        @JsonProperty
+        @Default
+        protected Integer discoveryInterval = 300;
+
+        // Shared by every service created by this rule
         @JsonProperty
         @NonNull
         protected ScalerBehaviorConfig scalerBehaviorConfig;
+
+        @JsonProperty
+        @Default
+        protected String taskCountSource = EcsServiceConfig.TASK_COUNT_SOURCE_CLOUDWATCH;
     }
 
     @Data
@@ -111,16 +316,61 @@ public class ScalerConfig {
         @Default
         protected Integer messageReceiveRateTarget = 0;
 
+        // Where message rates are taken from: MESSAGE_RATE_SOURCE_AVERAGE or MESSAGE_RATE_SOURCE_COUNTER
+        @JsonProperty
+        @Default
+        protected String messageRateSource = MESSAGE_RATE_SOURCE_AVERAGE;
+
+        // Spool usage target per replica, in megabytes
         @JsonProperty
         @Default
         protected Integer messageSpoolUsageTarget = 0;
+
+        // Percentage of the queue spool quota above which the spool usage target is reduced, escalating scale-out
+        // as the quota is approached; 0 to disable
+        @JsonProperty
+        @Default
+        protected Integer spoolQuotaEscalationPercent = 0;
+
+        // Drain-time scaling: seconds allowed to drain the backlog at the learned per-task consumer throughput; 0 to disable
+        @JsonProperty
+        @Default
+        protected Integer maxDrainSeconds = 0;
+
+        // Predictive scale-out: seconds ahead to project message count and receive rate; 0 to disable
+        @JsonProperty
+        @Default
+        protected Integer forecastHorizon = 0;
+
+        // Maximum percentage by which a projected value may exceed the newest observation
+        @JsonProperty
+        @Default
+        protected Integer maxForecastIncreasePercent = 100;
     
+        // Maximum seconds to wait for the running task count to converge after scaling; shortened once start-up
+        // latency has been learned
+        @JsonProperty
+        @Default
+        protected Integer scaleOperationTimeout = 600;
+
+        // Minimum seconds between scaling evaluations; evaluations are triggered by new observations and task counts
+        @JsonProperty
+        @Default
+        protected Integer minEvaluationInterval = 1;
+
         @JsonProperty
         protected ScalerOperation scaleOutConfig;
 
         @JsonProperty
         protected ScalerOperation scaleInConfig;
 
+        // Emergency scale-out on backlog surges; disabled if not configured
+        @JsonProperty
+        protected SurgeConfig surgeConfig;
+
+        // Broker averageRxMsgRate/averageTxMsgRate, or rates computed from the change in queue counters between polls
+        public static final String MESSAGE_RATE_SOURCE_AVERAGE = "average",
+                                   MESSAGE_RATE_SOURCE_COUNTER = "counter";
     }
 
     @Data
@@ -141,4 +391,21 @@ public class ScalerConfig {
         @Default
         protected Integer stabilizationWindow = 0;
     }
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class SurgeConfig {
+
+        // Backlog growth in messages per second, from the smoothed message count trend; 0 to disable
+        @JsonProperty
+        @Default
+        protected Integer backlogGrowthRate = 0;
+
+        // Message count; 0 to disable
+        @JsonProperty
+        @Default
+        protected Integer backlogCeiling = 0;
+    }
 }
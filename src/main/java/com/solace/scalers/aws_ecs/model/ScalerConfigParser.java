@@ -3,19 +3,25 @@ package com.solace.scalers.aws_ecs.model;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.core.exc.StreamReadException;
 import com.fasterxml.jackson.databind.DatabindException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.fasterxml.jackson.dataformat.yaml.YAMLGenerator;
+import com.solace.scalers.aws_ecs.model.ScalerConfig.BrokerConfig;
+import com.solace.scalers.aws_ecs.model.ScalerConfig.DiscoveryRuleConfig;
 import com.solace.scalers.aws_ecs.model.ScalerConfig.EcsServiceConfig;
+import com.solace.scalers.aws_ecs.model.ScalerConfig.QueueConfig;
 import com.solace.scalers.aws_ecs.model.ScalerConfig.ScalerBehaviorConfig;
 import com.solace.scalers.aws_ecs.model.ScalerConfig.ScalerOperation;
+import com.solace.scalers.aws_ecs.model.ScalerConfig.SnapshotConfig;
+import com.solace.scalers.aws_ecs.model.ScalerConfig.SurgeConfig;
+import com.solace.scalers.aws_ecs.util.DiscoveryRuleUtils;
 import com.solace.scalers.aws_ecs.util.LogUtils;
 
 import lombok.extern.log4j.Log4j2;
@@ -68,37 +74,107 @@ public class ScalerConfigParser {
 
         int errorCount = 0;
 
-        if (scalerConfig.getEcsServiceConfig().isEmpty()) {
-            log.error("At least one [ecsServiceConfig] entry is required");
-            return null;
+        if (scalerConfig.getEcsServiceConfig() == null) {
+            scalerConfig.setEcsServiceConfig(new ArrayList<>());
+        }
+        if (scalerConfig.getDiscoveryRules() == null) {
+            scalerConfig.setDiscoveryRules(new ArrayList<>());
         }
-        if ( scalerConfig.getEcsServiceConfig().size() > 100 ) {
-            log.error("Too many scaled apps in the configuration: {}. " + 
-                            "Maximum number of scaled applications for the Scaler is 100.",
-                            scalerConfig.getEcsServiceConfig().size() );
+        if (scalerConfig.getEcsServiceConfig().isEmpty() && scalerConfig.getDiscoveryRules().isEmpty()) {
+            log.error("At least one [ecsServiceConfig] or [discoveryRules] entry is required");
             return null;
         }
         validateBrokerConfig(scalerConfig);
+        validateSnapshotConfig(scalerConfig);
         validateEcsScalerConfig(scalerConfig);
+        validateDiscoveryRules(scalerConfig);
 
         return scalerConfig;
     }
 
     /**
-     * Validate parsed brokerConfig and detect invalid configuration.
-     * Explicit checks required due to conflicts with Lombok and Jackson functionality
+     * Validate parsed brokerConfig/brokerConfigs and detect invalid configuration.
+     * A single brokerConfig is added to brokerConfigs, so that brokerConfigs lists every broker after validation
      * @param scalerConfig
      * @throws NullPointerException
+     * @throws IllegalArgumentException
      */
-    public static void validateBrokerConfig(ScalerConfig scalerConfig) throws NullPointerException {
-        if(scalerConfig.getBrokerConfig().activeMsgVpnSempConfig == null || scalerConfig.getBrokerConfig().getActiveMsgVpnSempConfig().getBrokerSempUrl() == null) {
+    public static void validateBrokerConfig(ScalerConfig scalerConfig) throws NullPointerException, IllegalArgumentException {
+        if(scalerConfig.getBrokerConfigs() == null || scalerConfig.getBrokerConfigs().isEmpty()) {
+            if(scalerConfig.getBrokerConfig() == null) {
+                log.error("brokerConfig or brokerConfigs is required");
+                throw new NullPointerException("brokerConfig or brokerConfigs is required");
+            }
+            scalerConfig.setBrokerConfigs(new ArrayList<>(List.of(scalerConfig.getBrokerConfig())));
+        } else if(scalerConfig.getBrokerConfig() != null) {
+            log.error("Configure either brokerConfig or brokerConfigs, not both");
+            throw new IllegalArgumentException("Configure either brokerConfig or brokerConfigs, not both");
+        } else {
+            Set<String> brokerNames = new HashSet<>();
+            for(BrokerConfig brokerConfig : scalerConfig.getBrokerConfigs()) {
+                if(brokerConfig.getBrokerName() == null || brokerConfig.getBrokerName().isBlank()) {
+                    log.error("brokerName is required for each entry in brokerConfigs");
+                    throw new NullPointerException("brokerName is required for each entry in brokerConfigs");
+                }
+                if(!brokerNames.add(brokerConfig.getBrokerName())) {
+                    log.error("Found duplicate brokerName == [{}] in configuration", brokerConfig.getBrokerName());
+                    throw new IllegalArgumentException("Duplicate brokerName: " + brokerConfig.getBrokerName());
+                }
+            }
+        }
+        for(BrokerConfig brokerConfig : scalerConfig.getBrokerConfigs()) {
+            validateBrokerConfig(brokerConfig);
+        }
+    }
+
+    /**
+     * Validate one parsed broker/Message VPN configuration
+     * Explicit checks required due to conflicts with Lombok and Jackson functionality
+     * @param brokerConfig
+     * @throws NullPointerException
+     * @throws IllegalArgumentException
+     */
+    private static void validateBrokerConfig(BrokerConfig brokerConfig) throws NullPointerException, IllegalArgumentException {
+        if(brokerConfig.activeMsgVpnSempConfig == null || brokerConfig.getActiveMsgVpnSempConfig().getBrokerSempUrl() == null) {
             log.error("ActiveMsgVpnSempConfig is required");
             throw new NullPointerException("ActiveMsgVpnSempConfig is required");
         }
-        if(scalerConfig.getBrokerConfig().getMsgVpnName() == null) {
+        if(brokerConfig.getMsgVpnName() == null) {
             log.error("MsgVpnName is required");
             throw new NullPointerException("ActiveMsgVpnSempConfig is required");
         }
+        if(!BrokerConfig.SEMP_POLLING_MODE_COLLECTION.equals(brokerConfig.getSempPollingMode()) &&
+            !BrokerConfig.SEMP_POLLING_MODE_QUEUE.equals(brokerConfig.getSempPollingMode())) {
+            log.error("sempPollingMode must be one of: {}, {}", BrokerConfig.SEMP_POLLING_MODE_COLLECTION, BrokerConfig.SEMP_POLLING_MODE_QUEUE);
+            throw new IllegalArgumentException("Invalid sempPollingMode: " + brokerConfig.getSempPollingMode());
+        }
+        if(brokerConfig.getSempMaxConcurrentRequests() == null || brokerConfig.getSempMaxConcurrentRequests() < 1 ||
+            brokerConfig.getSempRequestTimeout() == null || brokerConfig.getSempRequestTimeout() < 1 ||
+            (brokerConfig.getSempPollingDeadline() != null && brokerConfig.getSempPollingDeadline() < 1)) {
+            log.error("sempMaxConcurrentRequests, sempRequestTimeout, and sempPollingDeadline must be > 0");
+            throw new IllegalArgumentException("sempMaxConcurrentRequests, sempRequestTimeout, and sempPollingDeadline must be > 0");
+        }
+    }
+
+    /**
+     * Validate parsed snapshotConfig, if present
+     * @param scalerConfig
+     * @throws IllegalArgumentException
+     */
+    public static void validateSnapshotConfig(ScalerConfig scalerConfig) throws IllegalArgumentException {
+        SnapshotConfig snapshotConfig = scalerConfig.getSnapshotConfig();
+        if(snapshotConfig == null) {
+            return;
+        }
+        if(snapshotConfig.getSnapshotFile() == null || snapshotConfig.getSnapshotFile().isBlank()) {
+            log.error("snapshotFile is required when snapshotConfig is present");
+            throw new IllegalArgumentException("snapshotFile is required when snapshotConfig is present");
+        }
+        if(snapshotConfig.getSnapshotInterval() == null || snapshotConfig.getSnapshotInterval() < 1 ||
+            snapshotConfig.getSnapshotMaxAge() == null || snapshotConfig.getSnapshotMaxAge() < 1) {
+            log.error("snapshotInterval and snapshotMaxAge must be > 0");
+            throw new IllegalArgumentException("snapshotInterval and snapshotMaxAge must be > 0");
+        }
     }
 
     /**
@@ -114,64 +190,25 @@ public class ScalerConfigParser {
 
         for ( EcsServiceConfig ecsServiceConfig : scalerConfig.getEcsServiceConfig() ) {
 
-            ScalerBehaviorConfig scalerBehaviorConfig = ecsServiceConfig.getScalerBehaviorConfig();
+            errorCount += validateScalerBehaviorConfig( "service=" + LogUtils.getServiceDesignation(ecsServiceConfig), ecsServiceConfig.getScalerBehaviorConfig() );
+            errorCount += validateTaskCountSource( "service=" + LogUtils.getServiceDesignation(ecsServiceConfig), ecsServiceConfig.getTaskCountSource() );
+            errorCount += validateQueues( "service=" + LogUtils.getServiceDesignation(ecsServiceConfig), ecsServiceConfig );
 
-            // Min replicas >= 1
-            if ( scalerBehaviorConfig.getMinReplicaCount() < 1 ) {
-                errorCount++;
-                log.error("service={} minReplicaCount must be > 0", 
-                                LogUtils.getServiceDesignation(ecsServiceConfig));
+            // Resolve the broker hosting the queue; may be omitted if there is only one
+            if ( ecsServiceConfig.getBrokerName() == null && scalerConfig.getBrokerConfigs().size() == 1 ) {
+                ecsServiceConfig.setBrokerName( scalerConfig.getBrokerConfigs().get( 0 ).getBrokerName() );
             }
-
-            // Max Replicas > min replicas
-            if ( scalerBehaviorConfig.getMaxReplicaCount() <= scalerBehaviorConfig.getMinReplicaCount() ) {
+            if ( scalerConfig.findBrokerConfig( ecsServiceConfig ) == null ) {
                 errorCount++;
-                log.error("service={} maxReplicatCount must be > minReplicaCount", 
-                                LogUtils.getServiceDesignation(ecsServiceConfig));
-            }
-
-            // Validate that metrics values are >= 0
-            // If not specified in the config, metric values will default to 0
-            if ( scalerBehaviorConfig.getMessageCountTarget() < 0 ||
-                scalerBehaviorConfig.getMessageReceiveRateTarget() < 0 ||
-                scalerBehaviorConfig.getMessageSpoolUsageTarget() < 0 ) {
-                    log.error("service={} Metric values must be >= 0", 
-                                LogUtils.getServiceDesignation(ecsServiceConfig) );
-                    errorCount++;
-            }
-
-            // Validate that at least one metric values > 0
-            if ( scalerBehaviorConfig.getMessageCountTarget() == 0 &&
-                scalerBehaviorConfig.getMessageReceiveRateTarget() == 0 
-                // Uncomment if implementing messageSpoolUsageTarget:
-                // && scalerBehaviorConfig.getMessageSpoolUsageTarget() == 0
-                ) {
-                    log.error("service={} At least one metric value must be > 0 for each service", 
-                                    LogUtils.getServiceDesignation(ecsServiceConfig) );
-                    errorCount++;
-            }
-
-            // Create default scaler operation configuration if not specified in the input file -- for bothe scale-in and scale-out
-            if ( scalerBehaviorConfig.getScaleInConfig() == null ) {
-                scalerBehaviorConfig.setScaleInConfig( new ScalerOperation( 0, 0, 0 ) );
-            }
-            if ( scalerBehaviorConfig.getScaleOutConfig() == null ) {
-                scalerBehaviorConfig.setScaleOutConfig( new ScalerOperation(0, 0, 0) );
+                log.error( "service={} brokerName == [{}] does not match a configured broker; " +
+                                "brokerName is required when more than one broker is configured",
+                                    LogUtils.getServiceDesignation(ecsServiceConfig), ecsServiceConfig.getBrokerName() );
             }
 
-            // Validate that scaler operations are >= 0
-            if ( !validateScalerOperation( scalerBehaviorConfig.getScaleInConfig() ) ) {
-                errorCount++;
-                log.error( "service={} ScaleIn Config: cooldownPeriod, maxScaleStep, stabilizationWindow values must be >= 0", 
-                                    LogUtils.getServiceDesignation(ecsServiceConfig) );
+            // Queue names are unique per broker, including every queue of a service that scales on several queues
+            if ( ecsServiceConfig.getQueueName() != null ) {
+                queues.addAll( LogUtils.getQueueDesignations( ecsServiceConfig ) );
             }
-            if ( !validateScalerOperation( scalerBehaviorConfig.getScaleOutConfig() ) ) {
-                errorCount++;
-                log.error( "service={} ScaleOut Config: cooldownPeriod, maxScaleStep, stabilizationWindow values must be >= 0", 
-                                    LogUtils.getServiceDesignation(ecsServiceConfig) );
-            }
-
-            queues.add( ecsServiceConfig.getQueueName() );
             services.add( LogUtils.getServiceDesignation(ecsServiceConfig) );
         }
 
@@ -195,17 +232,253 @@ public class ScalerConfigParser {
     }
 
     /**
-     * Simple method to report duplicate string values in a list
+     * Validate the scaling behavior of a service or discovery rule; missing scale-in, scale-out and surge
+     * configurations are created with default values
+     * @param designation - Identifies the service or rule in log entries
+     * @param scalerBehaviorConfig
+     * @return Number of validation errors
+     */
+    private static int validateScalerBehaviorConfig( String designation, ScalerBehaviorConfig scalerBehaviorConfig ) {
+        int errorCount = 0;
+
+        // Min replicas >= 1
+        if ( scalerBehaviorConfig.getMinReplicaCount() < 1 ) {
+            errorCount++;
+            log.error("{} minReplicaCount must be > 0", 
+                            designation);
+        }
+
+        // Max Replicas > min replicas
+        if ( scalerBehaviorConfig.getMaxReplicaCount() <= scalerBehaviorConfig.getMinReplicaCount() ) {
+            errorCount++;
+            log.error("{} maxReplicatCount must be > minReplicaCount", 
+                            designation);
+        }
+
+        // Validate that metrics values are >= 0
+        // If not specified in the config, metric values will default to 0
+        if ( scalerBehaviorConfig.getMessageCountTarget() < 0 ||
+            scalerBehaviorConfig.getMessageReceiveRateTarget() < 0 ||
+            scalerBehaviorConfig.getMessageSpoolUsageTarget() < 0 ||
+            scalerBehaviorConfig.getMaxDrainSeconds() < 0 ) {
+                log.error("{} Metric values must be >= 0", 
+                            designation );
+                errorCount++;
+        }
+
+        // Validate that at least one metric values > 0
+        if ( scalerBehaviorConfig.getMessageCountTarget() == 0 &&
+            scalerBehaviorConfig.getMessageReceiveRateTarget() == 0 &&
+            scalerBehaviorConfig.getMaxDrainSeconds() == 0 &&
+            scalerBehaviorConfig.getMessageSpoolUsageTarget() == 0 ) {
+                log.error("{} At least one metric value must be > 0 for each service", 
+                                designation );
+                errorCount++;
+        }
+
+        if ( scalerBehaviorConfig.getSpoolQuotaEscalationPercent() == null ||
+            scalerBehaviorConfig.getSpoolQuotaEscalationPercent() < 0 ||
+            scalerBehaviorConfig.getSpoolQuotaEscalationPercent() > 99 ) {
+                log.error("{} spoolQuotaEscalationPercent must be >= 0 and < 100",
+                            designation );
+                errorCount++;
+        }
+
+        if ( scalerBehaviorConfig.getForecastHorizon() < 0 || scalerBehaviorConfig.getMaxForecastIncreasePercent() < 0 ) {
+                log.error("{} forecastHorizon and maxForecastIncreasePercent must be >= 0",
+                            designation );
+                errorCount++;
+        }
+
+        if ( scalerBehaviorConfig.getScaleOperationTimeout() == null || scalerBehaviorConfig.getScaleOperationTimeout() < 1 ) {
+                log.error("{} scaleOperationTimeout must be > 0",
+                            designation );
+                errorCount++;
+        }
+
+        if ( scalerBehaviorConfig.getMinEvaluationInterval() == null || scalerBehaviorConfig.getMinEvaluationInterval() < 0 ) {
+                log.error("{} minEvaluationInterval must be >= 0",
+                            designation );
+                errorCount++;
+        }
+
+        if ( !ScalerBehaviorConfig.MESSAGE_RATE_SOURCE_AVERAGE.equals( scalerBehaviorConfig.getMessageRateSource() ) &&
+            !ScalerBehaviorConfig.MESSAGE_RATE_SOURCE_COUNTER.equals( scalerBehaviorConfig.getMessageRateSource() ) ) {
+                log.error("{} messageRateSource must be one of: {}, {}",
+                            designation,
+                            ScalerBehaviorConfig.MESSAGE_RATE_SOURCE_AVERAGE, ScalerBehaviorConfig.MESSAGE_RATE_SOURCE_COUNTER );
+                errorCount++;
+        }
+
+        // Create default scaler operation configuration if not specified in the input file -- for bothe scale-in and scale-out
+        if ( scalerBehaviorConfig.getScaleInConfig() == null ) {
+            scalerBehaviorConfig.setScaleInConfig( new ScalerOperation( 0, 0, 0 ) );
+        }
+        if ( scalerBehaviorConfig.getScaleOutConfig() == null ) {
+            scalerBehaviorConfig.setScaleOutConfig( new ScalerOperation(0, 0, 0) );
+        }
+        if ( scalerBehaviorConfig.getSurgeConfig() == null ) {
+            scalerBehaviorConfig.setSurgeConfig( new SurgeConfig( 0, 0 ) );
+        }
+        if ( scalerBehaviorConfig.getSurgeConfig().getBacklogGrowthRate() == null ||
+            scalerBehaviorConfig.getSurgeConfig().getBacklogGrowthRate() < 0 ||
+            scalerBehaviorConfig.getSurgeConfig().getBacklogCeiling() == null ||
+            scalerBehaviorConfig.getSurgeConfig().getBacklogCeiling() < 0 ) {
+            errorCount++;
+            log.error( "{} Surge Config: backlogGrowthRate, backlogCeiling values must be >= 0",
+                                designation );
+        }
+
+        // Validate that scaler operations are >= 0
+        if ( !validateScalerOperation( scalerBehaviorConfig.getScaleInConfig() ) ) {
+            errorCount++;
+            log.error( "{} ScaleIn Config: cooldownPeriod, maxScaleStep, stabilizationWindow values must be >= 0", 
+                                designation );
+        }
+        if ( !validateScalerOperation( scalerBehaviorConfig.getScaleOutConfig() ) ) {
+            errorCount++;
+            log.error( "{} ScaleOut Config: cooldownPeriod, maxScaleStep, stabilizationWindow values must be >= 0", 
+                                designation );
+        }
+
+        return errorCount;
+    }
+
+    private static int validateTaskCountSource( String designation, String taskCountSource ) {
+        if ( !EcsServiceConfig.TASK_COUNT_SOURCE_CLOUDWATCH.equals( taskCountSource ) &&
+            !EcsServiceConfig.TASK_COUNT_SOURCE_ECS.equals( taskCountSource ) ) {
+                log.error("{} taskCountSource must be one of: {}, {}",
+                            designation,
+                            EcsServiceConfig.TASK_COUNT_SOURCE_CLOUDWATCH, EcsServiceConfig.TASK_COUNT_SOURCE_ECS );
+                return 1;
+        }
+        return 0;
+    }
+
+    /**
+     * Validate the queues of a service; if queues is configured, queueName defaults to its first entry
+     * @param designation - Identifies the service in log entries
+     * @param ecsServiceConfig
+     * @return Number of validation errors
+     */
+    private static int validateQueues( String designation, EcsServiceConfig ecsServiceConfig ) {
+        if ( !ecsServiceConfig.isAggregated() ) {
+            if ( ecsServiceConfig.getQueueName() == null ) {
+                log.error( "{} queueName or queues is required", designation );
+                return 1;
+            }
+            return 0;
+        }
+
+        int errorCount = 0;
+        for ( QueueConfig queueConfig : ecsServiceConfig.getQueues() ) {
+            if ( queueConfig == null || queueConfig.getQueueName() == null ) {
+                log.error( "{} queues entries require queueName", designation );
+                return errorCount + 1;
+            }
+            if ( queueConfig.getWeight() == null || queueConfig.getWeight() < 0.0 ) {
+                errorCount++;
+                log.error( "{} queue={} weight must be >= 0", designation, queueConfig.getQueueName() );
+            }
+        }
+        if ( ecsServiceConfig.getQueueName() == null ) {
+            ecsServiceConfig.setQueueName( ecsServiceConfig.getQueues().get( 0 ).getQueueName() );
+        } else if ( !ecsServiceConfig.getQueueNames().contains( ecsServiceConfig.getQueueName() ) ) {
+            errorCount++;
+            log.error( "{} queueName == [{}] must be one of the queues", designation, ecsServiceConfig.getQueueName() );
+        }
+        if ( !EcsServiceConfig.QUEUE_AGGREGATION_SUM.equals( ecsServiceConfig.getQueueAggregation() ) &&
+            !EcsServiceConfig.QUEUE_AGGREGATION_MAX.equals( ecsServiceConfig.getQueueAggregation() ) &&
+            !EcsServiceConfig.QUEUE_AGGREGATION_WEIGHTED.equals( ecsServiceConfig.getQueueAggregation() ) ) {
+                errorCount++;
+                log.error( "{} queueAggregation must be one of: {}, {}, {}",
+                            designation,
+                            EcsServiceConfig.QUEUE_AGGREGATION_SUM, EcsServiceConfig.QUEUE_AGGREGATION_MAX,
+                            EcsServiceConfig.QUEUE_AGGREGATION_WEIGHTED );
+        }
+        return errorCount;
+    }
+
+    /**
+     * Validate parsed discoveryRules
+     * @param scalerConfig
+     * @throws Exception If one or more validation errors
+     */
+    public static void validateDiscoveryRules(ScalerConfig scalerConfig) throws Exception {
+        int errorCount = 0;
+        // For duplicate detection
+        List<String> rules = new ArrayList<>();
+
+        for ( DiscoveryRuleConfig discoveryRuleConfig : scalerConfig.getDiscoveryRules() ) {
+            final String designation = "discoveryRule=" + discoveryRuleConfig.getQueueNamePattern();
+
+            if ( discoveryRuleConfig.getQueueNamePattern() == null ) {
+                // Templates are checked against the wildcards in the pattern, so are not checked without one
+                errorCount++;
+                log.error( "{} queueNamePattern is required", designation );
+            } else {
+                if ( discoveryRuleConfig.getQueueNamePattern().isBlank() ) {
+                    errorCount++;
+                    log.error( "{} queueNamePattern must not be blank", designation );
+                }
+                final int wildcardCount = DiscoveryRuleUtils.countWildcards( discoveryRuleConfig.getQueueNamePattern() );
+                if ( !DiscoveryRuleUtils.isValidTemplate( discoveryRuleConfig.getEcsClusterTemplate(), wildcardCount ) ||
+                    !DiscoveryRuleUtils.isValidTemplate( discoveryRuleConfig.getEcsServiceTemplate(), wildcardCount ) ) {
+                    errorCount++;
+                    log.error( "{} ecsClusterTemplate and ecsServiceTemplate placeholders must be {} or a wildcard number from 1 to {}",
+                                    designation, DiscoveryRuleUtils.PLACEHOLDER_QUEUE_NAME, wildcardCount );
+                }
+            }
+            if ( discoveryRuleConfig.getDiscoveryInterval() == null || discoveryRuleConfig.getDiscoveryInterval() < 1 ) {
+                errorCount++;
+                log.error( "{} discoveryInterval must be > 0", designation );
+            }
+            if ( discoveryRuleConfig.getScalerBehaviorConfig() == null ) {
+                errorCount++;
+                log.error( "{} scalerBehaviorConfig is required", designation );
+            } else {
+                errorCount += validateScalerBehaviorConfig( designation, discoveryRuleConfig.getScalerBehaviorConfig() );
+            }
+            errorCount += validateTaskCountSource( designation, discoveryRuleConfig.getTaskCountSource() );
+
+            // Resolve the broker to list queues from; may be omitted if there is only one
+            if ( discoveryRuleConfig.getBrokerName() == null && scalerConfig.getBrokerConfigs().size() == 1 ) {
+                discoveryRuleConfig.setBrokerName( scalerConfig.getBrokerConfigs().get( 0 ).getBrokerName() );
+            }
+            if ( scalerConfig.findBrokerConfig( discoveryRuleConfig ) == null ) {
+                errorCount++;
+                log.error( "{} brokerName == [{}] does not match a configured broker; " +
+                                "brokerName is required when more than one broker is configured",
+                                    designation, discoveryRuleConfig.getBrokerName() );
+            }
+            rules.add( discoveryRuleConfig.getBrokerName() + "/" + discoveryRuleConfig.getQueueNamePattern() );
+        }
+
+        for ( String s : findDuplicatesInList( rules ) ) {
+            log.error( "Found duplicate discovery rule == [{}] in configuration", s );
+            errorCount++;
+        }
+
+        if ( errorCount > 0 ) {
+            log.error( "There were {} validation errors detected in the discovery rules", errorCount );
+            throw new Exception(String.format("There were %d validation errors detected in the discovery rules", errorCount));
+        }
+    }
+
+    /**
+     * Simple method to report duplicate string values in a list, in linear time
      * @param list of strings to check for duplicates
-     * @return list of duplicates
+     * @return list of duplicates, each reported once in order of first duplication
      */
     public static List<String> findDuplicatesInList( List<String> list ) {
-        List<String> duplicates = new ArrayList<>();
-        Set<String> set = list.stream()
-                                .filter(i -> Collections.frequency(list, i) > 1)
-                                .collect(Collectors.toSet());
-        duplicates.addAll(set);
-        return duplicates;
+        Set<String> seen = new HashSet<>( list.size() * 2 );
+        Set<String> duplicates = new LinkedHashSet<>();
+        for ( String value : list ) {
+            if ( !seen.add( value ) ) {
+                duplicates.add( value );
+            }
+        }
+        return new ArrayList<>( duplicates );
     }
 
     /**
@@ -0,0 +1,62 @@
+package com.solace.scalers.aws_ecs.model.semp_v2;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Queue statistics extracted from a SEMPv2 queue monitoring response.
+ * Populated directly by SempResponseParser without building the full response object graph.
+ * Values that were not present in the response are set to NOT_REPORTED.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SempQueueObservation {
+
+    public static final long NOT_REPORTED = -1L;
+
+    protected String queueName;
+
+    protected long msgCount = NOT_REPORTED;
+
+    protected long averageRxMsgRate = NOT_REPORTED;
+
+    protected long averageTxMsgRate = NOT_REPORTED;
+
+    protected long msgSpoolUsage = NOT_REPORTED;
+
+    // Spool quota configured for the queue, in megabytes
+    protected long maxMsgSpoolUsage = NOT_REPORTED;
+
+    // Cumulative number of messages spooled to the queue; reset when the broker statistics are cleared
+    protected long spooledMsgCount = NOT_REPORTED;
+
+    // SEMP URL of the broker that reported the observation; counters are only comparable for the same broker
+    protected String brokerSempUrl;
+
+    /**
+     * Constructor for observations without a spool quota, counters or source broker
+     */
+    public SempQueueObservation( String queueName, long msgCount, long averageRxMsgRate, long averageTxMsgRate, long msgSpoolUsage ) {
+        this( queueName, msgCount, averageRxMsgRate, averageTxMsgRate, msgSpoolUsage, NOT_REPORTED, NOT_REPORTED, null );
+    }
+
+    /**
+     * Clear all values so that the object can be re-used for another response
+     */
+    public void reset() {
+        queueName = null;
+        msgCount = NOT_REPORTED;
+        averageRxMsgRate = NOT_REPORTED;
+        averageTxMsgRate = NOT_REPORTED;
+        msgSpoolUsage = NOT_REPORTED;
+        maxMsgSpoolUsage = NOT_REPORTED;
+        spooledMsgCount = NOT_REPORTED;
+        brokerSempUrl = null;
+    }
+
+    public static boolean isReported(long value) {
+        return value != NOT_REPORTED;
+    }
+}
@@ -41,6 +41,12 @@ public class SempQueueResponse {
         @JsonProperty
         protected Long msgSpoolUsage;
 
+        @JsonProperty
+        protected Long maxMsgSpoolUsage;
+
+        @JsonProperty
+        protected Long spooledMsgCount;
+
         @JsonProperty
         protected String msgVpnName;
 
@@ -12,9 +12,17 @@ public class EcsServiceScalerObservations {
     private long maxAverageMessageRateObservationUp = 0L;
     private long maxMessageCountObservationDown = 0L;
     private long maxAverageMessageRateObservationDown = 0L;
+    // Spool usage in bytes
+    private long maxSpoolUsageObservationUp = 0L;
+    private long maxSpoolUsageObservationDown = 0L;
     private long newestObservationTime = 0L;
     private long newestMessageCountObservation = 0L;
     private long newestAverageMessageRateObservation = 0L;
+    // Negative if not reported
+    private long newestAverageTxRateObservation = -1L;
+    private long newestSpoolUsageObservation = 0L;
+    // Queue spool quota in megabytes; negative if not reported
+    private long spoolQuota = -1L;
 
     private boolean foundWindowObservationUp = false;
     private boolean foundWindowObservationDown = false;
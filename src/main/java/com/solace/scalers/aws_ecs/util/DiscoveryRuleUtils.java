@@ -0,0 +1,136 @@
+package com.solace.scalers.aws_ecs.util;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.solace.scalers.aws_ecs.model.ScalerConfig.DiscoveryRuleConfig;
+import com.solace.scalers.aws_ecs.model.ScalerConfig.EcsServiceConfig;
+
+/**
+ * Helper class to derive service configurations from discovery rules
+ * - queueNamePattern uses SEMP wildcards: `*` matches any characters, `?` matches one character
+ * - Cluster and service name templates may contain `${queueName}`, and `${1}`, `${2}`, ... for the characters
+ *   matched by each wildcard, in order
+ */
+public class DiscoveryRuleUtils {
+
+    public static final String  PLACEHOLDER_QUEUE_NAME = "queueName";
+
+    private static final Pattern PLACEHOLDER = Pattern.compile( "\\$\\{([^}]*)\\}" );
+
+    // ECS cluster and service names: letters, numbers, hyphens and underscores
+    private static final Pattern ECS_NAME = Pattern.compile( "[A-Za-z0-9_-]{1,255}" );
+
+    /**
+     * Convert a SEMP wildcard expression to a regular expression with one capturing group per wildcard
+     * @param queueNamePattern
+     * @return
+     */
+    public static Pattern compileQueueNamePattern( String queueNamePattern ) {
+        StringBuilder regex = new StringBuilder( queueNamePattern.length() + 16 );
+        int literalStart = 0;
+        for ( int i = 0; i < queueNamePattern.length(); i++ ) {
+            char c = queueNamePattern.charAt( i );
+            if ( c == '*' || c == '?' ) {
+                if ( i > literalStart ) {
+                    regex.append( Pattern.quote( queueNamePattern.substring( literalStart, i ) ) );
+                }
+                regex.append( c == '*' ? "(.*)" : "(.)" );
+                literalStart = i + 1;
+            }
+        }
+        if ( literalStart < queueNamePattern.length() ) {
+            regex.append( Pattern.quote( queueNamePattern.substring( literalStart ) ) );
+        }
+        return Pattern.compile( regex.toString() );
+    }
+
+    /**
+     * @param queueNamePattern
+     * @return Number of wildcards in the pattern
+     */
+    public static int countWildcards( String queueNamePattern ) {
+        int count = 0;
+        for ( int i = 0; i < queueNamePattern.length(); i++ ) {
+            if ( queueNamePattern.charAt( i ) == '*' || queueNamePattern.charAt( i ) == '?' ) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Check that every placeholder in the template is `${queueName}` or refers to a wildcard of the pattern
+     * @param template
+     * @param wildcardCount
+     * @return
+     */
+    public static boolean isValidTemplate( String template, int wildcardCount ) {
+        Matcher placeholder = PLACEHOLDER.matcher( template );
+        while ( placeholder.find() ) {
+            String name = placeholder.group( 1 );
+            if ( PLACEHOLDER_QUEUE_NAME.equals( name ) ) {
+                continue;
+            }
+            if ( !name.matches( "[1-9][0-9]{0,2}" ) || Integer.parseInt( name ) > wildcardCount ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Replace the placeholders of a template for one queue
+     * @param template
+     * @param queueName
+     * @param queueNameMatch - Match of the queue name against the compiled queueNamePattern
+     * @return
+     */
+    public static String formatTemplate( String template, String queueName, Matcher queueNameMatch ) {
+        Matcher placeholder = PLACEHOLDER.matcher( template );
+        StringBuilder formatted = new StringBuilder();
+        while ( placeholder.find() ) {
+            String name = placeholder.group( 1 );
+            String value = PLACEHOLDER_QUEUE_NAME.equals( name ) ? queueName : queueNameMatch.group( Integer.parseInt( name ) );
+            placeholder.appendReplacement( formatted, Matcher.quoteReplacement( value ) );
+        }
+        placeholder.appendTail( formatted );
+        return formatted.toString();
+    }
+
+    /**
+     * @param name
+     * @return True if `name` is a valid ECS cluster or service name
+     */
+    public static boolean isValidEcsName( String name ) {
+        return ECS_NAME.matcher( name ).matches();
+    }
+
+    /**
+     * Create the configuration of the service for a discovered queue
+     * @param discoveryRuleConfig
+     * @param queueNamePattern - discoveryRuleConfig.queueNamePattern, compiled with compileQueueNamePattern()
+     * @param queueName
+     * @return Service configuration; null if the queue does not match the pattern
+     * @throws IllegalArgumentException If the cluster or service name derived for the queue is not a valid ECS name
+     */
+    public static EcsServiceConfig createEcsServiceConfig( DiscoveryRuleConfig discoveryRuleConfig, Pattern queueNamePattern, String queueName ) {
+        Matcher queueNameMatch = queueNamePattern.matcher( queueName );
+        if ( !queueNameMatch.matches() ) {
+            return null;
+        }
+        String ecsCluster = formatTemplate( discoveryRuleConfig.getEcsClusterTemplate(), queueName, queueNameMatch );
+        String ecsService = formatTemplate( discoveryRuleConfig.getEcsServiceTemplate(), queueName, queueNameMatch );
+        if ( !isValidEcsName( ecsCluster ) || !isValidEcsName( ecsService ) ) {
+            throw new IllegalArgumentException( "Invalid ECS cluster/service name for queue " + queueName + ": " + ecsCluster + "/" + ecsService );
+        }
+        return EcsServiceConfig.builder()
+                        .ecsCluster( ecsCluster )
+                        .ecsService( ecsService )
+                        .queueName( queueName )
+                        .brokerName( discoveryRuleConfig.getBrokerName() )
+                        .scalerBehaviorConfig( discoveryRuleConfig.getScalerBehaviorConfig() )
+                        .taskCountSource( discoveryRuleConfig.getTaskCountSource() )
+                        .build();
+    }
+}
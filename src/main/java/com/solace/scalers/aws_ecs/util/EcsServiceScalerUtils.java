@@ -1,5 +1,6 @@
 package com.solace.scalers.aws_ecs.util;
 
+import com.solace.scalers.aws_ecs.MetricObservationBuffer;
 import com.solace.scalers.aws_ecs.model.ScalerConfig;
 import com.solace.scalers.aws_ecs.model.util.ecs.EcsServiceScalerDesiredReplicaTargets;
 import com.solace.scalers.aws_ecs.model.util.ecs.EcsServiceScalerObservations;
@@ -13,38 +14,38 @@ public class EcsServiceScalerUtils {
     // String values used to identify metric types
     public static final String METRIC_MSG_COUNT = "messageCount",
             METRIC_AVG_RX_RATE = "messageReceiveRate",
+            METRIC_AVG_TX_RATE = "messageTransmitRate",
             METRIC_SPOOL_USAGE = "messageSpoolUsage";
 
+    // messageSpoolUsageTarget and the queue spool quota are in megabytes; SEMP reports spool usage in bytes
+    private static final long BYTES_PER_MEGABYTE = 1024L * 1024L;
+
     /**
      * Get the Max metric value in the stabilization window for each scale-out/in operations
      * and get the newest metric in case there are none in the window (e.g. stabilization window == 0)
      *
-     * @param metricObservations
+     * @param evaluationTimeInstant
+     * @param metricObservationBuffer
      * @param scaleOutMetricHorizon
      * @param scaleInMetricHorizon
      * @return
      */
-    public static EcsServiceScalerObservations getEcsServiceScalerObservations(long evaluationTimeInstant, final Map<Long, Map<String, Long>> metricObservations, final long scaleOutMetricHorizon, final long scaleInMetricHorizon) {
+    public static EcsServiceScalerObservations getEcsServiceScalerObservations(long evaluationTimeInstant, final MetricObservationBuffer metricObservationBuffer, final long scaleOutMetricHorizon, final long scaleInMetricHorizon) {
         EcsServiceScalerObservations ecsServiceScalerObservations = new EcsServiceScalerObservations();
-        for (Map.Entry<Long, Map<String, Long>> entry : metricObservations.entrySet()) {
-            if (entry.getKey() > ecsServiceScalerObservations.getNewestObservationTime()) {
-                ecsServiceScalerObservations.setNewestObservationTime(entry.getKey());
-                ecsServiceScalerObservations.setNewestMessageCountObservation(entry.getValue().get(METRIC_MSG_COUNT));
-                ecsServiceScalerObservations.setNewestAverageMessageRateObservation(entry.getValue().get(METRIC_AVG_RX_RATE));
-                ecsServiceScalerObservations.setFoundNewObservation(true);
-            }
-            if (entry.getKey() > scaleOutMetricHorizon) {
-                ecsServiceScalerObservations.setMaxMessageCountObservationUp(Math.max(ecsServiceScalerObservations.getMaxMessageCountObservationUp(), entry.getValue().get(METRIC_MSG_COUNT)));
-                ecsServiceScalerObservations.setMaxAverageMessageRateObservationUp(Math.max(ecsServiceScalerObservations.getMaxAverageMessageRateObservationUp(), entry.getValue().get(METRIC_AVG_RX_RATE)));
-                ecsServiceScalerObservations.setFoundWindowObservationUp(true);
-            }
-            if (entry.getKey() > scaleInMetricHorizon) {
-                ecsServiceScalerObservations.setMaxMessageCountObservationDown(Math.max(ecsServiceScalerObservations.getMaxMessageCountObservationDown(), entry.getValue().get(METRIC_MSG_COUNT)));
-                ecsServiceScalerObservations.setMaxAverageMessageRateObservationDown(Math.max(ecsServiceScalerObservations.getMaxAverageMessageRateObservationDown(), entry.getValue().get(METRIC_AVG_RX_RATE)));
-                ecsServiceScalerObservations.setFoundWindowObservationDown(true);
-            }
-        }
+        metricObservationBuffer.aggregate(scaleOutMetricHorizon, scaleInMetricHorizon, ecsServiceScalerObservations);
+
+        applyNewestObservationFallback(evaluationTimeInstant, ecsServiceScalerObservations);
+
+        return ecsServiceScalerObservations;
+    }
 
+    /**
+     * If there are no observations in a stabilization window, use the newest observation instead if it is recent;
+     * otherwise disable the scale-out/in computation for the window
+     * @param evaluationTimeInstant
+     * @param ecsServiceScalerObservations
+     */
+    static void applyNewestObservationFallback(long evaluationTimeInstant, EcsServiceScalerObservations ecsServiceScalerObservations) {
         // Nothing found in the scaling window, use newest metric observation if it's < 5 minutes old
         // This is to account for users who may set very short stabilization windows or very long metric poll cycles
         // TODO - Make time window for "new" observations configurable, currently coded to 5 minutes
@@ -53,6 +54,7 @@ public class EcsServiceScalerUtils {
                     ecsServiceScalerObservations.getNewestObservationTime() > (evaluationTimeInstant - (5L * 60L * 1000L))) {
                 ecsServiceScalerObservations.setMaxMessageCountObservationUp(ecsServiceScalerObservations.getNewestMessageCountObservation());
                 ecsServiceScalerObservations.setMaxAverageMessageRateObservationUp(ecsServiceScalerObservations.getNewestAverageMessageRateObservation());
+                ecsServiceScalerObservations.setMaxSpoolUsageObservationUp(ecsServiceScalerObservations.getNewestSpoolUsageObservation());
             } else {
                 ecsServiceScalerObservations.setComputeScaleOut(false);
             }
@@ -61,12 +63,45 @@ public class EcsServiceScalerUtils {
             if (ecsServiceScalerObservations.isFoundNewObservation() && ecsServiceScalerObservations.getNewestObservationTime() > (evaluationTimeInstant - (5L * 60L * 1000L))) {
                 ecsServiceScalerObservations.setMaxMessageCountObservationDown(ecsServiceScalerObservations.getNewestMessageCountObservation());
                 ecsServiceScalerObservations.setMaxAverageMessageRateObservationDown(ecsServiceScalerObservations.getNewestAverageMessageRateObservation());
+                ecsServiceScalerObservations.setMaxSpoolUsageObservationDown(ecsServiceScalerObservations.getNewestSpoolUsageObservation());
             } else {
                 ecsServiceScalerObservations.setComputeScaleIn(false);
             }
         }
+    }
 
-        return ecsServiceScalerObservations;
+    /**
+     * Raise the scale-out observations to the projected message count and receive rate, so that replicas are
+     * requested before the backlog builds. Projections never lower an observation, and are capped at
+     * maxForecastIncreasePercent above the newest observation.
+     *
+     * @param ecsServiceScalerObservations
+     * @param messageCountForecast       - projected message count; null if not available
+     * @param receiveRateForecast        - projected receive rate; null if not available
+     * @param maxForecastIncreasePercent
+     */
+    public static void applyForecast(EcsServiceScalerObservations ecsServiceScalerObservations, Double messageCountForecast, Double receiveRateForecast, int maxForecastIncreasePercent) {
+        if (!ecsServiceScalerObservations.isComputeScaleOut()) {
+            return;
+        }
+        ecsServiceScalerObservations.setMaxMessageCountObservationUp(boundedForecast(
+                ecsServiceScalerObservations.getMaxMessageCountObservationUp(),
+                ecsServiceScalerObservations.getNewestMessageCountObservation(),
+                messageCountForecast,
+                maxForecastIncreasePercent));
+        ecsServiceScalerObservations.setMaxAverageMessageRateObservationUp(boundedForecast(
+                ecsServiceScalerObservations.getMaxAverageMessageRateObservationUp(),
+                ecsServiceScalerObservations.getNewestAverageMessageRateObservation(),
+                receiveRateForecast,
+                maxForecastIncreasePercent));
+    }
+
+    private static long boundedForecast(long windowObservation, long newestObservation, Double forecast, int maxForecastIncreasePercent) {
+        if (forecast == null || forecast.isNaN()) {
+            return windowObservation;
+        }
+        final double limit = newestObservation * (1.0 + maxForecastIncreasePercent / 100.0);
+        return Math.max(windowObservation, (long) Math.ceil(Math.min(forecast, limit)));
     }
 
     /**
@@ -78,6 +113,37 @@ public class EcsServiceScalerUtils {
      * @return
      */
     public static EcsServiceScalerDesiredReplicaTargets getReplicaTargets(Integer currentDesiredReplicas, EcsServiceScalerObservations ecsServiceScalerObservations, ScalerConfig.EcsServiceConfig ecsServiceConfig) {
+        return getReplicaTargets(currentDesiredReplicas, ecsServiceScalerObservations, ecsServiceConfig, null);
+    }
+
+    /**
+     * Helper method to compute the desired replica count based on the most recent observations, including the
+     * drain-time target if maxDrainSeconds is configured
+     *
+     * @param currentDesiredReplicas
+     * @param ecsServiceScalerObservations
+     * @param ecsServiceConfig
+     * @param perTaskThroughput - Learned messages per second per task; null if not known
+     * @return
+     */
+    public static EcsServiceScalerDesiredReplicaTargets getReplicaTargets(Integer currentDesiredReplicas, EcsServiceScalerObservations ecsServiceScalerObservations, ScalerConfig.EcsServiceConfig ecsServiceConfig, Double perTaskThroughput) {
+        return getReplicaTargets(currentDesiredReplicas, ecsServiceScalerObservations, ecsServiceConfig, perTaskThroughput, false);
+    }
+
+    /**
+     * Helper method to compute the desired replica count based on the most recent observations, including the
+     * drain-time target if maxDrainSeconds is configured. During a backlog surge the scale-out maxScaleStep is not
+     * applied, so the scale-out target is bounded only by maxReplicaCount
+     *
+     * @param currentDesiredReplicas
+     * @param ecsServiceScalerObservations
+     * @param ecsServiceConfig
+     * @param perTaskThroughput - Learned messages per second per task; null if not known
+     * @param surge - True if a backlog surge was detected
+     * @return
+     */
+    public static EcsServiceScalerDesiredReplicaTargets getReplicaTargets(Integer currentDesiredReplicas, EcsServiceScalerObservations ecsServiceScalerObservations, ScalerConfig.EcsServiceConfig ecsServiceConfig, Double perTaskThroughput, boolean surge) {
+        final Integer scaleOutStep = surge ? 0 : ecsServiceConfig.getScalerBehaviorConfig().getScaleOutConfig().getMaxScaleStep();
         List<Integer> scaleOutReplicaTargets = new ArrayList<>();
         List<Integer> scaleInReplicaTargets = new ArrayList<>();
 
@@ -85,7 +151,7 @@ public class EcsServiceScalerUtils {
                 ecsServiceConfig.getScalerBehaviorConfig().getMessageCountTarget(),
                 ecsServiceScalerObservations.getMaxMessageCountObservationUp(),
                 ecsServiceConfig.getScalerBehaviorConfig().getMaxReplicaCount(),
-                ecsServiceConfig.getScalerBehaviorConfig().getScaleOutConfig().getMaxScaleStep(),
+                scaleOutStep,
                 true,
                 currentDesiredReplicas
         ));
@@ -93,7 +159,7 @@ public class EcsServiceScalerUtils {
                 ecsServiceConfig.getScalerBehaviorConfig().getMessageReceiveRateTarget(),
                 ecsServiceScalerObservations.getMaxAverageMessageRateObservationUp(),
                 ecsServiceConfig.getScalerBehaviorConfig().getMaxReplicaCount(),
-                ecsServiceConfig.getScalerBehaviorConfig().getScaleOutConfig().getMaxScaleStep(),
+                scaleOutStep,
                 true,
                 currentDesiredReplicas
         ));
@@ -115,10 +181,56 @@ public class EcsServiceScalerUtils {
                 currentDesiredReplicas
         ));
 
+        if (ecsServiceConfig.getScalerBehaviorConfig().getMessageSpoolUsageTarget() > 0) {
+            scaleOutReplicaTargets.add(computeSpoolUsageReplicas(
+                    ecsServiceConfig.getScalerBehaviorConfig().getMessageSpoolUsageTarget(),
+                    ecsServiceScalerObservations.getMaxSpoolUsageObservationUp(),
+                    ecsServiceScalerObservations.getSpoolQuota(),
+                    ecsServiceConfig.getScalerBehaviorConfig().getSpoolQuotaEscalationPercent(),
+                    ecsServiceConfig.getScalerBehaviorConfig().getMaxReplicaCount(),
+                    scaleOutStep,
+                    true,
+                    currentDesiredReplicas
+            ));
+            scaleInReplicaTargets.add(computeSpoolUsageReplicas(
+                    ecsServiceConfig.getScalerBehaviorConfig().getMessageSpoolUsageTarget(),
+                    ecsServiceScalerObservations.getMaxSpoolUsageObservationDown(),
+                    ecsServiceScalerObservations.getSpoolQuota(),
+                    ecsServiceConfig.getScalerBehaviorConfig().getSpoolQuotaEscalationPercent(),
+                    ecsServiceConfig.getScalerBehaviorConfig().getMinReplicaCount(),
+                    ecsServiceConfig.getScalerBehaviorConfig().getScaleInConfig().getMaxScaleStep(),
+                    false,
+                    currentDesiredReplicas
+            ));
+        }
+
+        if (ecsServiceConfig.getScalerBehaviorConfig().getMaxDrainSeconds() > 0) {
+            scaleOutReplicaTargets.add(computeDrainTimeReplicas(
+                    ecsServiceConfig.getScalerBehaviorConfig().getMaxDrainSeconds(),
+                    perTaskThroughput,
+                    ecsServiceScalerObservations.getMaxMessageCountObservationUp(),
+                    ecsServiceScalerObservations.getMaxAverageMessageRateObservationUp(),
+                    ecsServiceConfig.getScalerBehaviorConfig().getMaxReplicaCount(),
+                    scaleOutStep,
+                    true,
+                    currentDesiredReplicas
+            ));
+            scaleInReplicaTargets.add(computeDrainTimeReplicas(
+                    ecsServiceConfig.getScalerBehaviorConfig().getMaxDrainSeconds(),
+                    perTaskThroughput,
+                    ecsServiceScalerObservations.getMaxMessageCountObservationDown(),
+                    ecsServiceScalerObservations.getMaxAverageMessageRateObservationDown(),
+                    ecsServiceConfig.getScalerBehaviorConfig().getMinReplicaCount(),
+                    ecsServiceConfig.getScalerBehaviorConfig().getScaleInConfig().getMaxScaleStep(),
+                    false,
+                    currentDesiredReplicas
+            ));
+        }
+
         EcsServiceScalerDesiredReplicaTargets desiredReplicaTargets = new EcsServiceScalerDesiredReplicaTargets();
 
-        scaleInReplicaTargets.stream().max(Integer::compare).ifPresent(desiredReplicaTargets::setDesiredScaleInTarget);
-        scaleOutReplicaTargets.stream().max(Integer::compare).ifPresent(desiredReplicaTargets::setDesiredScaleOutTarget);
+        scaleInReplicaTargets.stream().filter(Objects::nonNull).max(Integer::compare).ifPresent(desiredReplicaTargets::setDesiredScaleInTarget);
+        scaleOutReplicaTargets.stream().filter(Objects::nonNull).max(Integer::compare).ifPresent(desiredReplicaTargets::setDesiredScaleOutTarget);
 
         return desiredReplicaTargets;
 
@@ -142,6 +254,30 @@ public class EcsServiceScalerUtils {
                                                                            long lastScaleOutTime,
                                                                            long lastScaleInTime,
                                                                            ScalerConfig.EcsServiceConfig ecsServiceConfig
+    ) {
+        return getReplicaTarget(desiredScaleInTarget, desiredScaleOutTarget, currentDesiredReplicas, evaluationTimeInstant, lastScaleOutTime, lastScaleInTime, ecsServiceConfig, false);
+    }
+
+    /**
+     * Test for conditions to prevent scaling operation; during a backlog surge the scale-out cooldown is not applied
+     * @param desiredScaleInTarget
+     * @param desiredScaleOutTarget
+     * @param currentDesiredReplicas
+     * @param evaluationTimeInstant
+     * @param lastScaleOutTime
+     * @param lastScaleInTime
+     * @param ecsServiceConfig
+     * @param surge - True if a backlog surge was detected
+     * @return
+     */
+    public static EcsServiceScalerReplicaTarget getReplicaTarget(Integer desiredScaleInTarget,
+                                                                           Integer desiredScaleOutTarget,
+                                                                           Integer currentDesiredReplicas,
+                                                                           long evaluationTimeInstant,
+                                                                           long lastScaleOutTime,
+                                                                           long lastScaleInTime,
+                                                                           ScalerConfig.EcsServiceConfig ecsServiceConfig,
+                                                                           boolean surge
     ) {
         EcsServiceScalerReplicaTarget ecsServiceScalerReplicaTarget = new EcsServiceScalerReplicaTarget();
 
@@ -158,7 +294,7 @@ public class EcsServiceScalerUtils {
                     LogUtils.getServiceDesignation(ecsServiceConfig),
                     desiredScaleOutTarget,
                     currentDesiredReplicas);
-            if (lastScaleOutTime < (evaluationTimeInstant - (ecsServiceConfig.getScalerBehaviorConfig().getScaleOutConfig().getCooldownPeriod() * 1000L))) {
+            if (surge || lastScaleOutTime < (evaluationTimeInstant - (ecsServiceConfig.getScalerBehaviorConfig().getScaleOutConfig().getCooldownPeriod() * 1000L))) {
                 ecsServiceScalerReplicaTarget.setScaleOutDecision(true);
                 ecsServiceScalerReplicaTarget.setReplicaTarget(desiredScaleOutTarget);
             } else {
@@ -190,6 +326,28 @@ public class EcsServiceScalerUtils {
 
     }
 
+    /**
+     * Detect a backlog surge: the message count at or above backlogCeiling, or growing at backlogGrowthRate or faster
+     *
+     * @param surgeConfig
+     * @param messageCount      - newest message count observation
+     * @param backlogGrowthRate - smoothed change in message count per second; null if not known
+     * @return Description of the trigger; null if there is no surge
+     */
+    public static String getSurgeTrigger(ScalerConfig.SurgeConfig surgeConfig, long messageCount, Double backlogGrowthRate) {
+        if (surgeConfig == null) {
+            return null;
+        }
+        if (surgeConfig.getBacklogCeiling() != null && surgeConfig.getBacklogCeiling() > 0 && messageCount >= surgeConfig.getBacklogCeiling()) {
+            return String.format("messageCount=%d >= backlogCeiling=%d", messageCount, surgeConfig.getBacklogCeiling());
+        }
+        if (surgeConfig.getBacklogGrowthRate() != null && surgeConfig.getBacklogGrowthRate() > 0 &&
+                backlogGrowthRate != null && backlogGrowthRate >= surgeConfig.getBacklogGrowthRate()) {
+            return String.format("backlogGrowthRate=%.1f/s >= %d/s", backlogGrowthRate, surgeConfig.getBacklogGrowthRate());
+        }
+        return null;
+    }
+
     /**
      * This method computes the desired target for a given metric
      * The method takes into account min/max replicas and max step size
@@ -211,8 +369,21 @@ public class EcsServiceScalerUtils {
             Integer currentDesired) {
 
         if (target == null ||
-                target < 1 ||
-                observation == null ||
+                target < 1) {
+            return null;
+        }
+        return computeDesiredReplicasForTarget((double) target, observation, boundary, step, ScaleOut, currentDesired);
+    }
+
+    private static Integer computeDesiredReplicasForTarget(
+            double target,
+            Long observation,
+            Integer boundary,
+            Integer step,
+            boolean ScaleOut,
+            Integer currentDesired) {
+
+        if (observation == null ||
                 observation < 0L ||
                 currentDesired == null ||
                 currentDesired < 0 ||
@@ -224,13 +395,135 @@ public class EcsServiceScalerUtils {
             step = 0;
         }
 
-        // TODO - adjustmentFactor is to moderate scale-down operations; should make value a config item
-        double adjustmentFactor = (ScaleOut ? 1.0 : 0.9);
+        double adjustmentFactor = getAdjustmentFactor(ScaleOut);
+
+        double rawNewDesired = (double) observation / (target * adjustmentFactor);
+
+        return applyStepAndBoundary((int) Math.ceil(rawNewDesired), boundary, step, ScaleOut, currentDesired);
+    }
+
+    /**
+     * This method computes the desired target for spool usage, in bytes, against a target in megabytes per replica.
+     * When the spool usage exceeds spoolQuotaEscalationPercent of the queue spool quota, the target per replica is
+     * reduced in proportion to the remaining headroom, reaching zero (the min/max replica boundary) at the quota:
+     *      effectiveTarget = target * ( 1 - usage / quota ) / ( 1 - spoolQuotaEscalationPercent / 100 )
+     * The method takes into account min/max replicas and max step size
+     *
+     * @param target                      - target spool usage per replica, in megabytes
+     * @param spoolUsage                  - spool usage observation reduced to a scalar, in bytes
+     * @param spoolQuota                  - queue spool quota in megabytes; <= 0 if not known
+     * @param spoolQuotaEscalationPercent - percentage of the quota above which scaling escalates; 0 to disable
+     * @param boundary                    - min or max replicas for scale down/up
+     * @param step                        - max replica adjustment permitted
+     * @param ScaleOut                    - Set true for scale up computation; Set false for scale down
+     * @param currentDesired              - required to account for step size
+     * @return
+     */
+    static Integer computeSpoolUsageReplicas(
+            Integer target,
+            Long spoolUsage,
+            long spoolQuota,
+            Integer spoolQuotaEscalationPercent,
+            Integer boundary,
+            Integer step,
+            boolean ScaleOut,
+            Integer currentDesired) {
+
+        if (target == null ||
+                target < 1 ||
+                spoolUsage == null ||
+                spoolUsage < 0L ||
+                currentDesired == null ||
+                currentDesired < 0 ||
+                boundary == null ||
+                boundary < 0) {
+            return null;
+        }
+        if (step == null || step < 0) {
+            step = 0;
+        }
+
+        double targetBytes = (double) target * BYTES_PER_MEGABYTE;
+        if (spoolQuotaEscalationPercent != null && spoolQuotaEscalationPercent > 0 && spoolQuota > 0L) {
+            final double usedFraction = (double) spoolUsage / ((double) spoolQuota * BYTES_PER_MEGABYTE),
+                         escalationFraction = spoolQuotaEscalationPercent / 100.0;
+            if (usedFraction >= 1.0) {
+                // At the quota, further messages are discarded: scale out to the boundary and never scale in
+                return ScaleOut ? applyStepAndBoundary(boundary, boundary, step, true, currentDesired) : Math.max(currentDesired, boundary);
+            }
+            if (usedFraction > escalationFraction) {
+                targetBytes *= (1.0 - usedFraction) / (1.0 - escalationFraction);
+            }
+        }
 
-        double rawNewDesired = (double) observation / ((double) target * adjustmentFactor);
+        return computeDesiredReplicasForTarget(targetBytes, spoolUsage, boundary, step, ScaleOut, currentDesired);
+    }
 
-        Integer newDesired = (int) Math.ceil(rawNewDesired);
+    /**
+     * This method computes the replicas needed to drain the backlog within maxDrainSeconds while keeping up with
+     * the receive rate, at the learned per-task consumer throughput:
+     *      replicas = ( receiveRate + messageCount / maxDrainSeconds ) / perTaskThroughput
+     * The method takes into account min/max replicas and max step size
+     *
+     * @param maxDrainSeconds   - time allowed to drain the backlog
+     * @param perTaskThroughput - learned messages per second per task; null if not known
+     * @param messageCount      - backlog observation reduced to a scalar
+     * @param receiveRate       - receive rate observation (messages per second) reduced to a scalar
+     * @param boundary          - min or max replicas for scale down/up
+     * @param step              - max replica adjustment permitted
+     * @param ScaleOut          - Set true for scale up computation; Set false for scale down
+     * @param currentDesired    - required to account for step size
+     * @return
+     */
+    static Integer computeDrainTimeReplicas(
+            Integer maxDrainSeconds,
+            Double perTaskThroughput,
+            Long messageCount,
+            Long receiveRate,
+            Integer boundary,
+            Integer step,
+            boolean ScaleOut,
+            Integer currentDesired) {
+
+        if (maxDrainSeconds == null ||
+                maxDrainSeconds < 1 ||
+                messageCount == null ||
+                messageCount < 0L ||
+                receiveRate == null ||
+                receiveRate < 0L ||
+                currentDesired == null ||
+                currentDesired < 0 ||
+                boundary == null ||
+                boundary < 0) {
+            return null;
+        }
+        if (step == null || step < 0) {
+            step = 0;
+        }
+
+        final boolean hasDemand = messageCount > 0L || receiveRate > 0L;
+        if (perTaskThroughput == null || perTaskThroughput <= 0.0) {
+            // Nothing learned without running tasks; start one task if there is work, otherwise no opinion
+            return ScaleOut && hasDemand && currentDesired == 0 ? applyStepAndBoundary(1, boundary, step, true, currentDesired) : null;
+        }
+
+        double adjustmentFactor = getAdjustmentFactor(ScaleOut);
+
+        double requiredThroughput = (double) receiveRate + (double) messageCount / maxDrainSeconds;
+        int newDesired = (int) Math.ceil(requiredThroughput / (perTaskThroughput * adjustmentFactor));
+        if (hasDemand) {
+            newDesired = Math.max(newDesired, 1);
+        }
+
+        return applyStepAndBoundary(newDesired, boundary, step, ScaleOut, currentDesired);
+    }
+
+    private static double getAdjustmentFactor(boolean ScaleOut) {
+        // TODO - adjustmentFactor is to moderate scale-down operations; should make value a config item
+        return ScaleOut ? 1.0 : 0.9;
+    }
 
+    private static Integer applyStepAndBoundary(Integer newDesired, Integer boundary, Integer step, boolean ScaleOut, Integer currentDesired) {
         if (ScaleOut) {
             // apply step (up)
             if (step > 0) {
@@ -1,5 +1,8 @@
 package com.solace.scalers.aws_ecs.util;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import com.solace.scalers.aws_ecs.model.ScalerConfig.EcsServiceConfig;
 
 /**
@@ -15,4 +18,39 @@ public class LogUtils {
     public static String getServiceDesignation( EcsServiceConfig ecsServiceConfig ) {
         return ecsServiceConfig.getEcsCluster() + "/" + ecsServiceConfig.getEcsService();
     }
+
+    /**
+     * Return Queue designation = BrokerName/QueueName, or QueueName if the broker is not named
+     * Unique across the brokers of one scaler; also used to index scaler state
+     * @param ecsServiceConfig
+     * @return String with queue identifier to use in logging entries
+     */
+    public static String getQueueDesignation( EcsServiceConfig ecsServiceConfig ) {
+        return getQueueDesignation( ecsServiceConfig, ecsServiceConfig.getQueueName() );
+    }
+
+    /**
+     * Return Queue designation for one of the queues of a service
+     * @param ecsServiceConfig
+     * @param queueName
+     * @return String with queue identifier to use in logging entries
+     */
+    public static String getQueueDesignation( EcsServiceConfig ecsServiceConfig, String queueName ) {
+        return ecsServiceConfig.getBrokerName() == null ?
+                        queueName :
+                        ecsServiceConfig.getBrokerName() + "/" + queueName;
+    }
+
+    /**
+     * Return Queue designations of every queue the service scales on
+     * @param ecsServiceConfig
+     * @return
+     */
+    public static List<String> getQueueDesignations( EcsServiceConfig ecsServiceConfig ) {
+        final List<String> queueDesignations = new ArrayList<>();
+        for ( String queueName : ecsServiceConfig.getQueueNames() ) {
+            queueDesignations.add( getQueueDesignation( ecsServiceConfig, queueName ) );
+        }
+        return queueDesignations;
+    }
 }
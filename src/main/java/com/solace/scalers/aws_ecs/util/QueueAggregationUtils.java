@@ -0,0 +1,89 @@
+package com.solace.scalers.aws_ecs.util;
+
+import java.util.List;
+
+import com.solace.scalers.aws_ecs.model.ScalerConfig.EcsServiceConfig;
+import com.solace.scalers.aws_ecs.model.ScalerConfig.QueueConfig;
+import com.solace.scalers.aws_ecs.model.semp_v2.SempQueueObservation;
+
+/**
+ * Helper class to combine the observations of the queues of a service that scales on several queues into one
+ * observation, according to queueAggregation:
+ * - sum: message count, rates, spool usage and spool quota are added
+ * - max: the largest message count, rates and spool usage are kept; the spool quota is that of the queue with the
+ *   largest spool usage
+ * - weighted: as sum, with the values of each queue multiplied by its weight
+ * A value is not reported if any queue did not report it. The combined observation has the name of the service's
+ * queueName and no spooledMsgCount; rates from counters are computed per queue, before aggregation.
+ */
+public class QueueAggregationUtils {
+
+    /**
+     * Combine the observations of the queues of a service, all taken at the same time
+     * @param ecsServiceConfig
+     * @param sempQueueObservations - One observation per queue of the service
+     * @return Combined observation; the observation itself if there is only one
+     */
+    public static SempQueueObservation aggregate( EcsServiceConfig ecsServiceConfig, List<SempQueueObservation> sempQueueObservations ) {
+        if ( sempQueueObservations.size() == 1 ) {
+            return sempQueueObservations.get( 0 );
+        }
+        final boolean max = EcsServiceConfig.QUEUE_AGGREGATION_MAX.equals( ecsServiceConfig.getQueueAggregation() );
+        final boolean weighted = EcsServiceConfig.QUEUE_AGGREGATION_WEIGHTED.equals( ecsServiceConfig.getQueueAggregation() );
+
+        final SempQueueObservation aggregated = new SempQueueObservation(
+                        ecsServiceConfig.getQueueName(), 0L, 0L, 0L, 0L, 0L,
+                        SempQueueObservation.NOT_REPORTED,
+                        sempQueueObservations.get( 0 ).getBrokerSempUrl() );
+        double msgCount = 0.0, averageRxMsgRate = 0.0, averageTxMsgRate = 0.0, msgSpoolUsage = 0.0, maxMsgSpoolUsage = 0.0;
+        long largestSpoolUsage = Long.MIN_VALUE;
+
+        for ( SempQueueObservation observation : sempQueueObservations ) {
+            final double weight = weighted ? getWeight( ecsServiceConfig, observation.getQueueName() ) : 1.0;
+            if ( max ) {
+                msgCount = Math.max( msgCount, observation.getMsgCount() );
+                averageRxMsgRate = Math.max( averageRxMsgRate, observation.getAverageRxMsgRate() );
+                averageTxMsgRate = Math.max( averageTxMsgRate, observation.getAverageTxMsgRate() );
+                msgSpoolUsage = Math.max( msgSpoolUsage, observation.getMsgSpoolUsage() );
+                if ( observation.getMsgSpoolUsage() > largestSpoolUsage ) {
+                    largestSpoolUsage = observation.getMsgSpoolUsage();
+                    maxMsgSpoolUsage = observation.getMaxMsgSpoolUsage();
+                }
+            } else {
+                msgCount += weight * observation.getMsgCount();
+                averageRxMsgRate += weight * observation.getAverageRxMsgRate();
+                averageTxMsgRate += weight * observation.getAverageTxMsgRate();
+                msgSpoolUsage += weight * observation.getMsgSpoolUsage();
+                maxMsgSpoolUsage += weight * observation.getMaxMsgSpoolUsage();
+            }
+            if ( !SempQueueObservation.isReported( observation.getMsgCount() ) ) aggregated.setMsgCount( SempQueueObservation.NOT_REPORTED );
+            if ( !SempQueueObservation.isReported( observation.getAverageRxMsgRate() ) ) aggregated.setAverageRxMsgRate( SempQueueObservation.NOT_REPORTED );
+            if ( !SempQueueObservation.isReported( observation.getAverageTxMsgRate() ) ) aggregated.setAverageTxMsgRate( SempQueueObservation.NOT_REPORTED );
+            if ( !SempQueueObservation.isReported( observation.getMsgSpoolUsage() ) ) aggregated.setMsgSpoolUsage( SempQueueObservation.NOT_REPORTED );
+            if ( !SempQueueObservation.isReported( observation.getMaxMsgSpoolUsage() ) ) aggregated.setMaxMsgSpoolUsage( SempQueueObservation.NOT_REPORTED );
+        }
+
+        if ( SempQueueObservation.isReported( aggregated.getMsgCount() ) ) aggregated.setMsgCount( Math.round( msgCount ) );
+        if ( SempQueueObservation.isReported( aggregated.getAverageRxMsgRate() ) ) aggregated.setAverageRxMsgRate( Math.round( averageRxMsgRate ) );
+        if ( SempQueueObservation.isReported( aggregated.getAverageTxMsgRate() ) ) aggregated.setAverageTxMsgRate( Math.round( averageTxMsgRate ) );
+        if ( SempQueueObservation.isReported( aggregated.getMsgSpoolUsage() ) ) aggregated.setMsgSpoolUsage( Math.round( msgSpoolUsage ) );
+        if ( SempQueueObservation.isReported( aggregated.getMaxMsgSpoolUsage() ) ) aggregated.setMaxMsgSpoolUsage( Math.round( maxMsgSpoolUsage ) );
+        return aggregated;
+    }
+
+    /**
+     * @param ecsServiceConfig
+     * @param queueName
+     * @return Weight of the queue; 1 if the queue is not listed in queues
+     */
+    public static double getWeight( EcsServiceConfig ecsServiceConfig, String queueName ) {
+        if ( ecsServiceConfig.getQueues() != null ) {
+            for ( QueueConfig queueConfig : ecsServiceConfig.getQueues() ) {
+                if ( queueConfig.getQueueName().equals( queueName ) ) {
+                    return queueConfig.getWeight();
+                }
+            }
+        }
+        return 1.0;
+    }
+}
@@ -0,0 +1,275 @@
+package com.solace.scalers.aws_ecs.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.solace.scalers.aws_ecs.model.semp_v2.SempQueueObservation;
+
+/**
+ * Streaming parser for SEMPv2 queue monitoring responses.
+ * Reads the fields used by the scaler directly from the response stream into SempQueueObservation objects;
+ * all other fields are skipped without being materialized.
+ * The JsonFactory is thread-safe and shared by all callers.
+ */
+public class SempResponseParser {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final String FIELD_COLLECTIONS       = "collections",
+                                FIELD_DATA              = "data",
+                                FIELD_META              = "meta",
+                                FIELD_PAGING            = "paging",
+                                FIELD_NEXT_PAGE_URI     = "nextPageUri",
+                                FIELD_MSGS              = "msgs",
+                                FIELD_COUNT             = "count",
+                                FIELD_QUEUE_NAME        = "queueName",
+                                FIELD_AVG_RX_RATE       = "averageRxMsgRate",
+                                FIELD_AVG_TX_RATE       = "averageTxMsgRate",
+                                FIELD_MSG_SPOOL_USAGE   = "msgSpoolUsage",
+                                FIELD_MAX_MSG_SPOOL_USAGE = "maxMsgSpoolUsage",
+                                FIELD_SPOOLED_MSG_COUNT = "spooledMsgCount";
+
+    private static final int    INITIAL_PAGE_CAPACITY = 100;
+
+    /**
+     * Parse a single queue response: /SEMP/v2/monitor/msgVpns/{vpn}/queues/{queue}
+     * @param body
+     * @param observation - Object to populate; reset before parsing
+     * @return observation
+     * @throws IOException If the body is not a valid SEMP response
+     */
+    public static SempQueueObservation parseQueueResponse( InputStream body, SempQueueObservation observation ) throws IOException {
+        observation.reset();
+        try ( JsonParser parser = JSON_FACTORY.createParser( body ) ) {
+            expectToken( parser, parser.nextToken(), JsonToken.START_OBJECT );
+            while ( parser.nextToken() == JsonToken.FIELD_NAME ) {
+                String fieldName = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if ( FIELD_COLLECTIONS.equals( fieldName ) ) {
+                    observation.setMsgCount( readMessageCount( parser, token ) );
+                } else if ( FIELD_DATA.equals( fieldName ) ) {
+                    readQueueData( parser, token, observation );
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return observation;
+    }
+
+    /**
+     * Parse one page of the queue collection response: /SEMP/v2/monitor/msgVpns/{vpn}/queues
+     * Entry i of `collections` belongs to entry i of `data`; the arrays may appear in either order.
+     * @param body
+     * @param monitoredQueueNames - Only these queues are added to `observations`
+     * @param observations - Map of queueName --> observation to add the monitored queues in this page to
+     * @return nextPageUri from the paging metadata; null if this is the last page
+     * @throws IOException If the body is not a valid SEMP response
+     */
+    public static String parseQueueCollectionPage( InputStream body, Set<String> monitoredQueueNames, Map<String, SempQueueObservation> observations ) throws IOException {
+        long[] msgCounts = new long[ INITIAL_PAGE_CAPACITY ];
+        int msgCountsSize = 0;
+        SempQueueObservation[] pageObservations = new SempQueueObservation[ INITIAL_PAGE_CAPACITY ];
+        int pageObservationsSize = 0;
+        String nextPageUri = null;
+
+        try ( JsonParser parser = JSON_FACTORY.createParser( body ) ) {
+            expectToken( parser, parser.nextToken(), JsonToken.START_OBJECT );
+            while ( parser.nextToken() == JsonToken.FIELD_NAME ) {
+                String fieldName = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if ( FIELD_COLLECTIONS.equals( fieldName ) && token == JsonToken.START_ARRAY ) {
+                    while ( ( token = parser.nextToken() ) != JsonToken.END_ARRAY ) {
+                        if ( msgCountsSize == msgCounts.length ) {
+                            msgCounts = Arrays.copyOf( msgCounts, msgCountsSize * 2 );
+                        }
+                        msgCounts[ msgCountsSize++ ] = readMessageCount( parser, token );
+                    }
+                } else if ( FIELD_DATA.equals( fieldName ) && token == JsonToken.START_ARRAY ) {
+                    SempQueueObservation observation = new SempQueueObservation();
+                    while ( ( token = parser.nextToken() ) != JsonToken.END_ARRAY ) {
+                        if ( pageObservationsSize == pageObservations.length ) {
+                            pageObservations = Arrays.copyOf( pageObservations, pageObservationsSize * 2 );
+                        }
+                        readQueueData( parser, token, observation );
+                        if ( observation.getQueueName() != null && monitoredQueueNames.contains( observation.getQueueName() ) ) {
+                            pageObservations[ pageObservationsSize++ ] = observation;
+                            observation = new SempQueueObservation();
+                        } else {
+                            // Keep the position so that collections[i] still lines up with data[i]
+                            pageObservations[ pageObservationsSize++ ] = null;
+                            observation.reset();
+                        }
+                    }
+                } else if ( FIELD_META.equals( fieldName ) ) {
+                    nextPageUri = readNextPageUri( parser, token );
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        for ( int i = 0; i < pageObservationsSize; i++ ) {
+            SempQueueObservation observation = pageObservations[ i ];
+            if ( observation == null ) {
+                continue;
+            }
+            if ( i < msgCountsSize ) {
+                observation.setMsgCount( msgCounts[ i ] );
+            }
+            observations.put( observation.getQueueName(), observation );
+        }
+        return ( nextPageUri == null || nextPageUri.isEmpty() ) ? null : nextPageUri;
+    }
+
+    /**
+     * Parse one page of the queue collection requested with `select=queueName`:
+     * /SEMP/v2/monitor/msgVpns/{vpn}/queues?select=queueName
+     * @param body
+     * @param queueNames - Queue names in the page are added to this collection
+     * @return meta.paging.nextPageUri; null if this is the last page
+     * @throws IOException If the body is not a valid SEMP response
+     */
+    public static String parseQueueNamePage( InputStream body, Collection<String> queueNames ) throws IOException {
+        String nextPageUri = null;
+
+        try ( JsonParser parser = JSON_FACTORY.createParser( body ) ) {
+            expectToken( parser, parser.nextToken(), JsonToken.START_OBJECT );
+            while ( parser.nextToken() == JsonToken.FIELD_NAME ) {
+                String fieldName = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if ( FIELD_DATA.equals( fieldName ) && token == JsonToken.START_ARRAY ) {
+                    SempQueueObservation observation = new SempQueueObservation();
+                    while ( ( token = parser.nextToken() ) != JsonToken.END_ARRAY ) {
+                        readQueueData( parser, token, observation );
+                        if ( observation.getQueueName() != null ) {
+                            queueNames.add( observation.getQueueName() );
+                        }
+                        observation.reset();
+                    }
+                } else if ( FIELD_META.equals( fieldName ) ) {
+                    nextPageUri = readNextPageUri( parser, token );
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return ( nextPageUri == null || nextPageUri.isEmpty() ) ? null : nextPageUri;
+    }
+
+    /**
+     * Read `{"msgs":{"count":N}}`; parser is positioned on the value token
+     */
+    private static long readMessageCount( JsonParser parser, JsonToken token ) throws IOException {
+        long msgCount = SempQueueObservation.NOT_REPORTED;
+        if ( token != JsonToken.START_OBJECT ) {
+            parser.skipChildren();
+            return msgCount;
+        }
+        while ( parser.nextToken() == JsonToken.FIELD_NAME ) {
+            String fieldName = parser.getCurrentName();
+            token = parser.nextToken();
+            if ( FIELD_MSGS.equals( fieldName ) && token == JsonToken.START_OBJECT ) {
+                while ( parser.nextToken() == JsonToken.FIELD_NAME ) {
+                    String msgsFieldName = parser.getCurrentName();
+                    token = parser.nextToken();
+                    if ( FIELD_COUNT.equals( msgsFieldName ) ) {
+                        msgCount = readLong( parser, token );
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return msgCount;
+    }
+
+    /**
+     * Read the queue `data` object into observation; parser is positioned on the value token
+     */
+    private static void readQueueData( JsonParser parser, JsonToken token, SempQueueObservation observation ) throws IOException {
+        if ( token != JsonToken.START_OBJECT ) {
+            parser.skipChildren();
+            return;
+        }
+        while ( parser.nextToken() == JsonToken.FIELD_NAME ) {
+            String fieldName = parser.getCurrentName();
+            token = parser.nextToken();
+            switch ( fieldName ) {
+                case FIELD_QUEUE_NAME:
+                    observation.setQueueName( token == JsonToken.VALUE_STRING ? parser.getText() : null );
+                    break;
+                case FIELD_AVG_RX_RATE:
+                    observation.setAverageRxMsgRate( readLong( parser, token ) );
+                    break;
+                case FIELD_AVG_TX_RATE:
+                    observation.setAverageTxMsgRate( readLong( parser, token ) );
+                    break;
+                case FIELD_MSG_SPOOL_USAGE:
+                    observation.setMsgSpoolUsage( readLong( parser, token ) );
+                    break;
+                case FIELD_MAX_MSG_SPOOL_USAGE:
+                    observation.setMaxMsgSpoolUsage( readLong( parser, token ) );
+                    break;
+                case FIELD_SPOOLED_MSG_COUNT:
+                    observation.setSpooledMsgCount( readLong( parser, token ) );
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Read `{"paging":{"nextPageUri":"..."}}` from the meta object; parser is positioned on the value token
+     */
+    private static String readNextPageUri( JsonParser parser, JsonToken token ) throws IOException {
+        String nextPageUri = null;
+        if ( token != JsonToken.START_OBJECT ) {
+            parser.skipChildren();
+            return nextPageUri;
+        }
+        while ( parser.nextToken() == JsonToken.FIELD_NAME ) {
+            String fieldName = parser.getCurrentName();
+            token = parser.nextToken();
+            if ( FIELD_PAGING.equals( fieldName ) && token == JsonToken.START_OBJECT ) {
+                while ( parser.nextToken() == JsonToken.FIELD_NAME ) {
+                    String pagingFieldName = parser.getCurrentName();
+                    token = parser.nextToken();
+                    if ( FIELD_NEXT_PAGE_URI.equals( pagingFieldName ) && token == JsonToken.VALUE_STRING ) {
+                        nextPageUri = parser.getText();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return nextPageUri;
+    }
+
+    private static long readLong( JsonParser parser, JsonToken token ) throws IOException {
+        if ( token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT ) {
+            return parser.getValueAsLong();
+        }
+        parser.skipChildren();
+        return SempQueueObservation.NOT_REPORTED;
+    }
+
+    private static void expectToken( JsonParser parser, JsonToken actual, JsonToken expected ) throws JsonParseException {
+        if ( actual != expected ) {
+            throw new JsonParseException( parser, "Unexpected SEMP response: expected " + expected + " but found " + actual );
+        }
+    }
+}
@@ -1,13 +1,19 @@
 package com.solace.scalers.aws_ecs.util;
 
 import java.net.MalformedURLException;
-import java.util.HashMap;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import com.solace.scalers.aws_ecs.EcsServiceScaler;
+import com.solace.scalers.aws_ecs.MessageVpnStateTracker;
+import com.solace.scalers.aws_ecs.SolaceQueueCollectionMonitor;
+import com.solace.scalers.aws_ecs.SolaceQueueConcurrentMonitor;
 import com.solace.scalers.aws_ecs.SolaceQueueMonitor;
-import com.solace.scalers.aws_ecs.http.DefaultURLConnectionFactory;
+import com.solace.scalers.aws_ecs.http.HttpClientSempTransport;
+import com.solace.scalers.aws_ecs.http.SempHttpTransport;
 import com.solace.scalers.aws_ecs.model.ScalerConfig;
 import com.solace.scalers.aws_ecs.model.ScalerConfig.BrokerConfig;
 import com.solace.scalers.aws_ecs.model.ScalerConfig.EcsServiceConfig;
@@ -20,6 +26,9 @@ import static com.solace.scalers.aws_ecs.SolaceQueueMonitor.STANDBY_SEMP_CONFIG;
  * Helper class to support Solace Queue Monitoring via SEMPv2
  */
 public class SolaceQueueMonitorUtils {
+
+    // Keep-alive HTTP transport shared by all monitors; one connection pool and SSLContext per process
+    private static volatile SempHttpTransport sempHttpTransport;
     
     /**
      * Factory method to create SolaceQueueMonitor Object from ScalerConfig objects
@@ -32,31 +41,121 @@ public class SolaceQueueMonitorUtils {
                                             BrokerConfig brokerConfig, 
                                             EcsServiceConfig ecsServiceConfig ) throws MalformedURLException
     {
+        return createSolaceQueueMonitorWithBasicAuth(createMessageVpnStateTracker(brokerConfig), ecsServiceConfig);
+    }
 
-        Map<String, ScalerConfig.SempConfig> sempConfigMap = new ConcurrentHashMap<>(2,0.75F, 2);
-        sempConfigMap.put(ACTIVE_SEMP_CONFIG, brokerConfig.getActiveMsgVpnSempConfig());
-        if(brokerConfig.getStandbyMsgVpnSempConfig() != null) {
-            sempConfigMap.put(STANDBY_SEMP_CONFIG, brokerConfig.getStandbyMsgVpnSempConfig());
-        }
+    /**
+     * Factory method to create a SolaceQueueMonitor sharing the active/standby decision of the given tracker
+     * @param messageVpnStateTracker - Created by createMessageVpnStateTracker() for the queue's broker
+     * @param ecsServiceConfig
+     * @return
+     */
+    public static SolaceQueueMonitor createSolaceQueueMonitorWithBasicAuth(
+                                            MessageVpnStateTracker messageVpnStateTracker,
+                                            EcsServiceConfig ecsServiceConfig )
+    {
+        return new SolaceQueueMonitor(messageVpnStateTracker, ecsServiceConfig.getQueueName(), getSempHttpTransport());
+    }
 
+    /**
+     * Factory method to create a SolaceQueueCollectionMonitor covering the queues of all configured services
+     * @param brokerConfig
+     * @param ecsServiceConfigs
+     * @return
+     * @throws MalformedURLException
+     */
+    public static SolaceQueueCollectionMonitor createSolaceQueueCollectionMonitorWithBasicAuth(
+                                            BrokerConfig brokerConfig,
+                                            List<EcsServiceConfig> ecsServiceConfigs ) throws MalformedURLException
+    {
+        List<String> queueNames = ecsServiceConfigs.stream().map(EcsServiceConfig::getQueueName).toList();
+        return new SolaceQueueCollectionMonitor(createMessageVpnStateTracker(brokerConfig), queueNames, getSempHttpTransport());
+    }
 
-        return new SolaceQueueMonitor(sempConfigMap, brokerConfig.getMsgVpnName(), ecsServiceConfig.getQueueName(), new DefaultURLConnectionFactory());
+    /**
+     * Factory method to create a SolaceQueueConcurrentMonitor that requests the queues of all configured services
+     * concurrently, one request per queue
+     * @param brokerConfig
+     * @param ecsServiceConfigs
+     * @return
+     */
+    public static SolaceQueueConcurrentMonitor createSolaceQueueConcurrentMonitorWithBasicAuth(
+                                            BrokerConfig brokerConfig,
+                                            List<EcsServiceConfig> ecsServiceConfigs )
+    {
+        List<String> queueNames = ecsServiceConfigs.stream().map(EcsServiceConfig::getQueueName).toList();
+        Integer pollingDeadline = brokerConfig.getSempPollingDeadline() != null ? brokerConfig.getSempPollingDeadline() : brokerConfig.getPollingInterval();
+        return new SolaceQueueConcurrentMonitor(
+                        createMessageVpnStateTracker(brokerConfig),
+                        queueNames,
+                        getSempHttpTransport(),
+                        brokerConfig.getSempMaxConcurrentRequests(),
+                        Duration.ofSeconds(brokerConfig.getSempRequestTimeout()),
+                        Duration.ofSeconds(pollingDeadline) );
     }
 
     /**
-     * Consolidated method to take the SEMPv2 response from queue monitoring operation and store
-     * to corresponding EcsServiceScaler object as a Map 
-     * @param msgVpnQueueResponse
+     * Factory method to create the monitor for the queues of all configured services using the
+     * polling mode set by brokerConfig.sempPollingMode
+     * @param brokerConfig
+     * @param ecsServiceConfigs
+     * @return
+     * @throws MalformedURLException
+     */
+    public static SolaceQueueCollectionMonitor createSolaceQueuePollingMonitorWithBasicAuth(
+                                            BrokerConfig brokerConfig,
+                                            List<EcsServiceConfig> ecsServiceConfigs ) throws MalformedURLException
+    {
+        if ( BrokerConfig.SEMP_POLLING_MODE_QUEUE.equals( brokerConfig.getSempPollingMode() ) ) {
+            return createSolaceQueueConcurrentMonitorWithBasicAuth( brokerConfig, ecsServiceConfigs );
+        }
+        return createSolaceQueueCollectionMonitorWithBasicAuth( brokerConfig, ecsServiceConfigs );
+    }
+
+    /**
+     * Get the SempHttpTransport shared by all monitors created by this class, creating it if necessary
+     * @return
+     */
+    public static SempHttpTransport getSempHttpTransport() {
+        if ( sempHttpTransport == null ) {
+            synchronized ( SolaceQueueMonitorUtils.class ) {
+                if ( sempHttpTransport == null ) {
+                    try {
+                        sempHttpTransport = new HttpClientSempTransport();
+                    } catch ( NoSuchAlgorithmException exc ) {
+                        throw new IllegalStateException( "Unable to create default SSLContext for SEMP requests", exc );
+                    }
+                }
+            }
+        }
+        return sempHttpTransport;
+    }
+
+    /**
+     * Create a MessageVpnStateTracker for the broker/VPN pair in brokerConfig. The tracker is owned by the caller;
+     * the polling monitor created for a broker's poller has its own, which is discarded with the poller
+     * @param brokerConfig
      * @return
      */
-    public static Map<String, Long> getQueueMetricsFromQueueResponse( SempQueueResponse sempQueueResponse ) {
+    public static MessageVpnStateTracker createMessageVpnStateTracker( BrokerConfig brokerConfig ) {
+        return new MessageVpnStateTracker(
+                        createSempConfigMap(brokerConfig),
+                        brokerConfig.getMsgVpnName(),
+                        ( brokerConfig.getVpnStateCacheTtl() == null ? 0L : brokerConfig.getVpnStateCacheTtl() ) * 1000L );
+    }
 
-        Map<String, Long> metrics = new HashMap<>( 3 );
-        metrics.put( EcsServiceScalerUtils.METRIC_MSG_COUNT, getMessageCountFromQueueResponse(sempQueueResponse) );
-        metrics.put( EcsServiceScalerUtils.METRIC_AVG_RX_RATE, getMessageReceiveRateFromQueueResponse(sempQueueResponse) );
-        metrics.put( EcsServiceScalerUtils.METRIC_SPOOL_USAGE, getMessageSpoolUsageFromQueueResponse(sempQueueResponse ));
-        
-        return metrics;
+    /**
+     * Create the active/standby SEMP configuration map used by queue monitors
+     * @param brokerConfig
+     * @return
+     */
+    private static Map<String, ScalerConfig.SempConfig> createSempConfigMap( BrokerConfig brokerConfig ) {
+        Map<String, ScalerConfig.SempConfig> sempConfigMap = new ConcurrentHashMap<>(2,0.75F, 2);
+        sempConfigMap.put(ACTIVE_SEMP_CONFIG, brokerConfig.getActiveMsgVpnSempConfig());
+        if(brokerConfig.getStandbyMsgVpnSempConfig() != null) {
+            sempConfigMap.put(STANDBY_SEMP_CONFIG, brokerConfig.getStandbyMsgVpnSempConfig());
+        }
+        return sempConfigMap;
     }
 
     /**
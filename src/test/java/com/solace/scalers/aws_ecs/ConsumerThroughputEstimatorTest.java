@@ -0,0 +1,61 @@
+package com.solace.scalers.aws_ecs;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ConsumerThroughputEstimatorTest {
+
+    private static final double DELTA = 0.0001;
+
+    @Test
+    public void learnsPerTaskThroughput() {
+        ConsumerThroughputEstimator estimator = new ConsumerThroughputEstimator(0.5);
+        assertNull(estimator.getPerTaskThroughput());
+
+        // First sample is taken as-is
+        estimator.update(1000L, 500L, 100L, 4);
+        assertEquals(25.0, estimator.getPerTaskThroughput(), DELTA);
+
+        // Backlog present: samples are smoothed in either direction
+        estimator.update(2000L, 500L, 60L, 4);
+        assertEquals(20.0, estimator.getPerTaskThroughput(), DELTA);
+        estimator.update(3000L, 500L, 120L, 4);
+        assertEquals(25.0, estimator.getPerTaskThroughput(), DELTA);
+    }
+
+    @Test
+    public void emptyQueueSampleIsLowerBound() {
+        ConsumerThroughputEstimator estimator = new ConsumerThroughputEstimator(0.5);
+        estimator.update(1000L, 500L, 100L, 4);
+
+        // Consumers are starved, so a lower rate says nothing about their capacity
+        estimator.update(2000L, 0L, 20L, 4);
+        assertEquals(25.0, estimator.getPerTaskThroughput(), DELTA);
+
+        // A higher rate does
+        estimator.update(3000L, 0L, 140L, 4);
+        assertEquals(30.0, estimator.getPerTaskThroughput(), DELTA);
+    }
+
+    @Test
+    public void ignoresUnusableObservations() {
+        ConsumerThroughputEstimator estimator = new ConsumerThroughputEstimator(0.5);
+        estimator.update(1000L, 500L, -1L, 4);
+        estimator.update(2000L, 500L, 100L, null);
+        estimator.update(3000L, 500L, 100L, 0);
+        estimator.update(4000L, 500L, 0L, 4);
+        assertNull(estimator.getPerTaskThroughput());
+
+        estimator.update(5000L, 500L, 100L, 4);
+        // Same observation evaluated again is not learned twice
+        estimator.update(5000L, 500L, 300L, 4);
+        estimator.update(4500L, 500L, 300L, 4);
+        assertEquals(25.0, estimator.getPerTaskThroughput(), DELTA);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidSmoothing() {
+        new ConsumerThroughputEstimator(0.0);
+    }
+}
@@ -0,0 +1,101 @@
+package com.solace.scalers.aws_ecs;
+
+import com.solace.scalers.aws_ecs.model.semp_v2.SempQueueObservation;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CounterRateCalculatorTest {
+
+    private static final String BROKER_1 = "http://broker-1:8080";
+    private static final String BROKER_2 = "http://broker-2:8080";
+
+    private static SempQueueObservation observation(long msgCount, long spooledMsgCount, String brokerSempUrl) {
+        return new SempQueueObservation("q", msgCount, 5L, 4L, 1024L, SempQueueObservation.NOT_REPORTED, spooledMsgCount, brokerSempUrl);
+    }
+
+    @Test
+    public void ratesFromCounterDeltas() {
+        CounterRateCalculator calculator = new CounterRateCalculator();
+
+        // First sample: broker averages are kept
+        SempQueueObservation first = observation(100L, 1000L, BROKER_1);
+        assertSame(first, calculator.apply(1000L, first));
+
+        // 200 received in 2s, backlog grew by 50: 150 removed
+        SempQueueObservation second = calculator.apply(3000L, observation(150L, 1200L, BROKER_1));
+        assertEquals(100L, second.getAverageRxMsgRate());
+        assertEquals(75L, second.getAverageTxMsgRate());
+        assertEquals(150L, second.getMsgCount());
+        assertEquals(1024L, second.getMsgSpoolUsage());
+        assertEquals(1200L, second.getSpooledMsgCount());
+
+        // Nothing received, backlog drained by 100 in 1s
+        SempQueueObservation third = calculator.apply(4000L, observation(50L, 1200L, BROKER_1));
+        assertEquals(0L, third.getAverageRxMsgRate());
+        assertEquals(100L, third.getAverageTxMsgRate());
+    }
+
+    @Test
+    public void counterResetStartsNewBaseline() {
+        CounterRateCalculator calculator = new CounterRateCalculator();
+        calculator.apply(1000L, observation(100L, 1000L, BROKER_1));
+
+        SempQueueObservation reset = observation(100L, 10L, BROKER_1);
+        assertSame(reset, calculator.apply(2000L, reset));
+        assertEquals(1L, calculator.getResetCount());
+
+        SempQueueObservation next = calculator.apply(3000L, observation(100L, 40L, BROKER_1));
+        assertEquals(30L, next.getAverageRxMsgRate());
+        assertEquals(30L, next.getAverageTxMsgRate());
+    }
+
+    @Test
+    public void brokerChangeStartsNewBaseline() {
+        CounterRateCalculator calculator = new CounterRateCalculator();
+        calculator.apply(1000L, observation(100L, 1000L, BROKER_1));
+
+        // Standby counters are higher but not comparable
+        SempQueueObservation failover = observation(100L, 5000L, BROKER_2);
+        assertSame(failover, calculator.apply(2000L, failover));
+        assertEquals(1L, calculator.getResetCount());
+
+        SempQueueObservation next = calculator.apply(3000L, observation(100L, 5010L, BROKER_2));
+        assertEquals(10L, next.getAverageRxMsgRate());
+    }
+
+    @Test
+    public void unreportedAndOutOfOrderObservationsKeepAverages() {
+        CounterRateCalculator calculator = new CounterRateCalculator();
+        calculator.apply(1000L, observation(100L, 1000L, BROKER_1));
+
+        SempQueueObservation repeated = observation(100L, 1100L, BROKER_1);
+        assertSame(repeated, calculator.apply(1000L, repeated));
+
+        SempQueueObservation unreported = observation(100L, SempQueueObservation.NOT_REPORTED, BROKER_1);
+        assertSame(unreported, calculator.apply(2000L, unreported));
+
+        // Baseline was discarded with the unreported sample
+        SempQueueObservation next = observation(100L, 1300L, BROKER_1);
+        assertSame(next, calculator.apply(3000L, next));
+        assertEquals(100L, calculator.apply(4000L, observation(100L, 1400L, BROKER_1)).getAverageRxMsgRate());
+        assertEquals(0L, calculator.getResetCount());
+    }
+
+    @Test
+    public void unreportedMessageCountDiscardsBaseline() {
+        CounterRateCalculator calculator = new CounterRateCalculator();
+        calculator.apply(1000L, observation(100L, 1000L, BROKER_1));
+
+        SempQueueObservation unreported = observation(SempQueueObservation.NOT_REPORTED, 1100L, BROKER_1);
+        assertSame(unreported, calculator.apply(2000L, unreported));
+
+        // No rate from a baseline without a message count
+        SempQueueObservation next = observation(100L, 1200L, BROKER_1);
+        assertSame(next, calculator.apply(3000L, next));
+        SempQueueObservation after = calculator.apply(4000L, observation(50L, 1300L, BROKER_1));
+        assertEquals(100L, after.getAverageRxMsgRate());
+        assertEquals(150L, after.getAverageTxMsgRate());
+        assertEquals(0L, calculator.getResetCount());
+    }
+}
@@ -0,0 +1,277 @@
+package com.solace.scalers.aws_ecs;
+
+import com.amazonaws.services.ecs.AbstractAmazonECS;
+import com.amazonaws.services.ecs.model.AmazonECSException;
+import com.amazonaws.services.ecs.model.UpdateServiceRequest;
+import com.amazonaws.services.ecs.model.UpdateServiceResult;
+import com.solace.scalers.aws_ecs.model.ScalerConfig;
+import com.solace.scalers.aws_ecs.model.ScalerConfig.EcsServiceConfig;
+import com.solace.scalers.aws_ecs.model.ScalerConfigParser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class EcsServiceActuatorTest {
+
+    ScheduledExecutorService executor;
+
+    FakeEcs ecs;
+
+    List<String> outcomes;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newScheduledThreadPool(4);
+        ecs = new FakeEcs();
+        outcomes = new CopyOnWriteArrayList<>();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void onlyLatestTargetIsSent() throws Exception {
+        EcsServiceActuator actuator = new EcsServiceActuator(ecs, executor);
+        EcsServiceConfig service = serviceConfig("service-1");
+        ecs.block = new CountDownLatch(1);
+
+        actuator.updateDesiredCount(service, 3, callback("service-1"));
+        waitFor(() -> ecs.requests.size() == 1);
+        // First update is in flight; 4 is replaced by 5, and 3 is already being sent
+        actuator.updateDesiredCount(service, 4, callback("service-1"));
+        actuator.updateDesiredCount(service, 5, callback("service-1"));
+        actuator.updateDesiredCount(service, 3, callback("service-1"));
+        actuator.updateDesiredCount(service, 5, callback("service-1"));
+        ecs.block.countDown();
+
+        waitFor(() -> outcomes.size() == 2);
+        assertEquals(List.of("service-1:updated:3", "service-1:updated:5"), outcomes);
+        assertEquals(List.of(3, 5), ecs.desiredCounts());
+    }
+
+    @Test
+    public void updatesForDifferentServicesAreConcurrent() throws Exception {
+        EcsServiceActuator actuator = new EcsServiceActuator(ecs, executor);
+        ecs.block = new CountDownLatch(1);
+        ecs.blockedService = "service-1";
+
+        actuator.updateDesiredCount(serviceConfig("service-1"), 3, callback("service-1"));
+        actuator.updateDesiredCount(serviceConfig("service-2"), 7, callback("service-2"));
+
+        // service-2 is not held up by the slow service-1 request
+        waitFor(() -> outcomes.contains("service-2:updated:7"));
+        assertEquals(1, outcomes.size());
+        ecs.block.countDown();
+        waitFor(() -> outcomes.size() == 2);
+    }
+
+    @Test
+    public void throttledUpdateIsRetried() throws Exception {
+        EcsServiceActuator actuator = new EcsServiceActuator(ecs, executor);
+        ecs.failures.add(throttlingException());
+        ecs.failures.add(throttlingException());
+
+        actuator.updateDesiredCount(serviceConfig("service-1"), 4, callback("service-1"));
+
+        waitFor(() -> outcomes.size() == 1);
+        assertEquals("service-1:updated:4", outcomes.get(0));
+        assertEquals(3, ecs.requests.size());
+    }
+
+    @Test
+    public void otherFailuresAreReported() throws Exception {
+        EcsServiceActuator actuator = new EcsServiceActuator(ecs, executor);
+        ecs.failures.add(new AmazonECSException("Service not found"));
+
+        actuator.updateDesiredCount(serviceConfig("service-1"), 4, callback("service-1"));
+
+        waitFor(() -> outcomes.size() == 1);
+        assertEquals("service-1:failed:4", outcomes.get(0));
+        assertEquals(1, ecs.requests.size());
+
+        // The service is not blocked by the failure
+        actuator.updateDesiredCount(serviceConfig("service-1"), 4, callback("service-1"));
+        waitFor(() -> outcomes.size() == 2);
+        assertEquals("service-1:updated:4", outcomes.get(1));
+    }
+
+    @Test
+    public void requestRateIsLimited() throws Exception {
+        EcsServiceActuator actuator = new EcsServiceActuator(ecs, executor, 2, 5.0);
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < 4; i++) {
+            actuator.updateDesiredCount(serviceConfig("service-" + i), 2, callback("service-" + i));
+        }
+        waitFor(() -> outcomes.size() == 4);
+        // 2 immediately, then 5 per second
+        assertTrue(System.currentTimeMillis() - start >= 350L);
+    }
+
+    @Test
+    public void scalerWaitsForPendingUpdate() throws Exception {
+        EcsServiceActuator actuator = new EcsServiceActuator(ecs, executor);
+        EcsServiceConfig service = ScalerConfigParser.validateScalerConfig(ScalerConfigParser.parseScalerConfig("src/test/resources/configs/valid-config.yaml"))
+                .getEcsServiceConfig().get(0);
+        EcsServiceScaler scaler = new EcsServiceScaler(service, 10, actuator);
+        ecs.block = new CountDownLatch(1);
+
+        long now = System.currentTimeMillis();
+        scaler.getMetricObservations().add(now - 1000L, 100L, 0L, 0L, 0L);
+        scaler.scalingOperation(1, 1);
+        waitFor(() -> ecs.requests.size() == 1);
+        assertTrue(scaler.isUpdatePending());
+
+        // The first update is still being sent; a higher target is not submitted within the cooldown period
+        scaler.getMetricObservations().add(now, 200L, 0L, 0L, 0L);
+        scaler.scalingOperation(1, 1);
+        ecs.block.countDown();
+
+        waitFor(() -> !scaler.isUpdatePending());
+        scaler.scalingOperation(2, 1);
+        Thread.sleep(50L);
+        assertEquals(List.of(2), ecs.desiredCounts());
+        assertEquals(2, scaler.getLastScaledReplicaCount());
+        assertTrue(scaler.getLastScaleOutTime() >= now);
+    }
+
+    @Test
+    public void removedServiceIsDroppedWhenIdle() throws Exception {
+        EcsServiceActuator actuator = new EcsServiceActuator(ecs, executor);
+        EcsServiceConfig idle = serviceConfig("service-1"), busy = serviceConfig("service-2");
+        actuator.updateDesiredCount(idle, 2, callback("service-1"));
+        waitFor(() -> outcomes.size() == 1);
+
+        ecs.block = new CountDownLatch(1);
+        actuator.updateDesiredCount(busy, 3, callback("service-2"));
+        waitFor(() -> ecs.requests.size() == 2);
+        assertEquals(2, actuator.getServiceCount());
+
+        actuator.removeService(idle);
+        actuator.removeService(busy);
+        // The update in flight is completed before its service is dropped
+        assertEquals(1, actuator.getServiceCount());
+        ecs.block.countDown();
+        waitFor(() -> outcomes.size() == 2);
+        waitFor(() -> actuator.getServiceCount() == 0);
+        assertEquals(List.of("service-1:updated:2", "service-2:updated:3"), outcomes);
+    }
+
+    @Test
+    public void tokenBucket() {
+        AtomicLong nanos = new AtomicLong(0L);
+        EcsServiceActuator.TokenBucket bucket = new EcsServiceActuator.TokenBucket(2, 1.0, nanos::get);
+
+        assertEquals(0L, bucket.tryAcquire());
+        assertEquals(0L, bucket.tryAcquire());
+        assertEquals(1000L, bucket.tryAcquire());
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(500L));
+        assertEquals(500L, bucket.tryAcquire());
+
+        // Refill is capped at capacity
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(60L));
+        assertEquals(0L, bucket.tryAcquire());
+        assertEquals(0L, bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire() > 0L);
+    }
+
+    @Test
+    public void backoffWithJitter() {
+        for (int attempt = 0; attempt < 20; attempt++) {
+            long backoff = EcsServiceActuator.backoffWithJitter(attempt);
+            assertTrue(backoff >= 0L);
+            assertTrue(backoff <= Math.min(EcsServiceActuator.THROTTLING_BACKOFF_BASE_MILLIS << attempt, EcsServiceActuator.THROTTLING_BACKOFF_MAX_MILLIS));
+        }
+    }
+
+    private EcsServiceActuator.UpdateCallback callback(String service) {
+        return new EcsServiceActuator.UpdateCallback() {
+            @Override
+            public void updated(int desiredCount) {
+                outcomes.add(service + ":updated:" + desiredCount);
+            }
+
+            @Override
+            public void failed(int desiredCount, Exception exception) {
+                outcomes.add(service + ":failed:" + desiredCount);
+            }
+        };
+    }
+
+    private static EcsServiceConfig serviceConfig(String service) {
+        return EcsServiceConfig.builder()
+                .ecsCluster("cluster").ecsService(service).queueName("queue-" + service)
+                .scalerBehaviorConfig(new ScalerConfig.ScalerBehaviorConfig())
+                .build();
+    }
+
+    private static AmazonECSException throttlingException() {
+        AmazonECSException exception = new AmazonECSException("Rate exceeded");
+        exception.setErrorCode("ThrottlingException");
+        return exception;
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue("Timed out waiting for condition", System.currentTimeMillis() < deadline);
+            Thread.sleep(5L);
+        }
+    }
+
+    /**
+     * Records requests; throws queued failures first, and blocks requests for `blockedService` (all services if
+     * null) until `block` is released
+     */
+    static class FakeEcs extends AbstractAmazonECS {
+
+        final List<UpdateServiceRequest> requests = new CopyOnWriteArrayList<>();
+
+        final Deque<RuntimeException> failures = new ArrayDeque<>();
+
+        volatile CountDownLatch block;
+
+        volatile String blockedService;
+
+        @Override
+        public UpdateServiceResult updateService(UpdateServiceRequest request) {
+            requests.add(request);
+            RuntimeException failure;
+            synchronized (failures) {
+                failure = failures.poll();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            CountDownLatch latch = block;
+            if (latch != null && (blockedService == null || blockedService.equals(request.getService()))) {
+                try {
+                    latch.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return new UpdateServiceResult();
+        }
+
+        List<Integer> desiredCounts() {
+            return requests.stream().map(UpdateServiceRequest::getDesiredCount).collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.solace.scalers.aws_ecs;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.cloudwatch.AbstractAmazonCloudWatch;
+import com.amazonaws.services.cloudwatch.model.GetMetricDataRequest;
+import com.amazonaws.services.cloudwatch.model.GetMetricDataResult;
+import com.amazonaws.services.cloudwatch.model.MetricDataQuery;
+import com.amazonaws.services.cloudwatch.model.MetricDataResult;
+import com.solace.scalers.aws_ecs.model.ScalerConfig;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class EcsServiceMetricsCollectorTest {
+
+    @Test
+    public void retrieveMetrics_batchesAllServices() {
+        List<EcsServiceMetrics> ecsServiceMetrics = createServiceMetrics(300);
+        FakeCloudWatch cloudWatch = new FakeCloudWatch(new Date(), false);
+        EcsServiceMetricsCollector collector = new EcsServiceMetricsCollector(ecsServiceMetrics, cloudWatch);
+
+        collector.retrieveMetricsFromCloudwatch();
+
+        // 600 queries --> 2 requests, each returned in 2 pages
+        assertEquals(2, collector.getRequestCount());
+        assertEquals(4, cloudWatch.requests.size());
+        Set<String> queryIds = new HashSet<>();
+        for (GetMetricDataRequest request : cloudWatch.requests) {
+            assertTrue(request.getMetricDataQueries().size() <= EcsServiceMetricsCollector.MAX_QUERIES_PER_REQUEST);
+            if (request.getNextToken() == null) {
+                request.getMetricDataQueries().forEach(query -> assertTrue(queryIds.add(query.getId())));
+            }
+        }
+        assertEquals(600, queryIds.size());
+
+        for (EcsServiceMetrics serviceMetrics : ecsServiceMetrics) {
+            int serviceNumber = serviceNumber(serviceMetrics.getEcsServiceConfig().getEcsService());
+            assertEquals(Integer.valueOf(serviceNumber + 1), serviceMetrics.getDesiredTaskCount());
+            assertEquals(Integer.valueOf(serviceNumber + 2), serviceMetrics.getRunningTaskCount());
+        }
+    }
+
+    @Test
+    public void retrieveMetrics_staleDatapointsIgnored() {
+        List<EcsServiceMetrics> ecsServiceMetrics = createServiceMetrics(3);
+        new EcsServiceMetricsCollector(ecsServiceMetrics, new FakeCloudWatch(new Date(System.currentTimeMillis() - 10L * 60L * 1000L), false))
+                .retrieveMetricsFromCloudwatch();
+
+        assertNull(ecsServiceMetrics.get(0).getDesiredTaskCount());
+        assertNull(ecsServiceMetrics.get(0).getRunningTaskCount());
+    }
+
+    @Test
+    public void retrieveMetrics_failedRequestPreventsScaling() {
+        List<EcsServiceMetrics> ecsServiceMetrics = createServiceMetrics(3);
+        new EcsServiceMetricsCollector(ecsServiceMetrics, new FakeCloudWatch(new Date(), false)).retrieveMetricsFromCloudwatch();
+        assertNotNull(ecsServiceMetrics.get(1).getDesiredTaskCount());
+
+        new EcsServiceMetricsCollector(ecsServiceMetrics, new FakeCloudWatch(new Date(), true)).retrieveMetricsFromCloudwatch();
+        assertNull(ecsServiceMetrics.get(1).getDesiredTaskCount());
+        assertNull(ecsServiceMetrics.get(1).getRunningTaskCount());
+    }
+
+    private static List<EcsServiceMetrics> createServiceMetrics(int count) {
+        List<EcsServiceMetrics> ecsServiceMetrics = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ecsServiceMetrics.add(new EcsServiceMetrics(ScalerConfig.EcsServiceConfig.builder()
+                    .ecsCluster("cluster").ecsService("service-" + i).queueName("queue-" + i)
+                    .scalerBehaviorConfig(new ScalerConfig.ScalerBehaviorConfig()).build()));
+        }
+        return ecsServiceMetrics;
+    }
+
+    private static int serviceNumber(String serviceName) {
+        return Integer.parseInt(serviceName.substring(serviceName.indexOf('-') + 1));
+    }
+
+    /**
+     * Returns desired = n + 1 and running = n + 2 for service-n; the first page of each request holds the
+     * desired counts and the NextToken page holds the running counts
+     */
+    static class FakeCloudWatch extends AbstractAmazonCloudWatch {
+
+        final List<GetMetricDataRequest> requests = new ArrayList<>();
+        final Date timestamp;
+        final boolean fail;
+
+        FakeCloudWatch(Date timestamp, boolean fail) {
+            this.timestamp = timestamp;
+            this.fail = fail;
+        }
+
+        @Override
+        public GetMetricDataResult getMetricData(GetMetricDataRequest request) {
+            requests.add(request);
+            if (fail) {
+                throw new AmazonServiceException("Rate exceeded");
+            }
+            boolean firstPage = request.getNextToken() == null;
+            List<MetricDataResult> results = new ArrayList<>();
+            for (MetricDataQuery query : request.getMetricDataQueries()) {
+                boolean desired = query.getMetricStat().getMetric().getMetricName().equals(EcsServiceMetrics.CW_METRIC_DESIRED_TASK_COUNT);
+                if (desired != firstPage) {
+                    continue;
+                }
+                String serviceName = query.getMetricStat().getMetric().getDimensions().get(1).getValue();
+                results.add(new MetricDataResult().withId(query.getId())
+                        .withTimestamps(timestamp)
+                        .withValues((double) (serviceNumber(serviceName) + (desired ? 1 : 2))));
+            }
+            return new GetMetricDataResult().withMetricDataResults(results).withNextToken(firstPage ? "page2" : null);
+        }
+    }
+}
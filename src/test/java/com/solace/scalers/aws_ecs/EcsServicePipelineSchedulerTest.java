@@ -0,0 +1,104 @@
+package com.solace.scalers.aws_ecs;
+
+import com.solace.scalers.aws_ecs.model.ScalerConfig;
+import com.solace.scalers.aws_ecs.model.ScalerConfigParser;
+import com.solace.scalers.aws_ecs.model.semp_v2.SempQueueObservation;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.*;
+
+public class EcsServicePipelineSchedulerTest {
+
+    ScalerConfig scalerConfig;
+
+    EcsServicePipelineScheduler scheduler;
+
+    @Before
+    public void setUp() throws Exception {
+        scalerConfig = ScalerConfigParser.validateScalerConfig(ScalerConfigParser.parseScalerConfig("src/test/resources/configs/valid-config.yaml"));
+        scalerConfig.getEcsServiceConfig().forEach(serviceConfig -> serviceConfig.getScalerBehaviorConfig().setMinEvaluationInterval(0));
+        scheduler = new EcsServicePipelineScheduler(2);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void pipelinesAreBalancedAcrossShards() {
+        List<EcsServicePipeline> pipelines = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            pipelines.add(addPipeline(new MetricObservationBuffer(16), new AtomicInteger()));
+        }
+        assertArrayEquals(new int[] { 3, 2 }, scheduler.getShardSizes());
+
+        // Freed places are re-used
+        scheduler.remove(pipelines.get(0));
+        scheduler.remove(pipelines.get(2));
+        assertArrayEquals(new int[] { 1, 2 }, scheduler.getShardSizes());
+        assertEquals(EcsServicePipeline.State.STOPPED, pipelines.get(0).getState());
+        addPipeline(new MetricObservationBuffer(16), new AtomicInteger());
+        assertArrayEquals(new int[] { 2, 2 }, scheduler.getShardSizes());
+    }
+
+    @Test
+    public void drainWaitsForIngestAndEvaluation() throws Exception {
+        List<MetricObservationBuffer> buffers = new ArrayList<>();
+        AtomicInteger evaluations = new AtomicInteger();
+        List<EcsServicePipeline> pipelines = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            MetricObservationBuffer buffer = new MetricObservationBuffer(16);
+            buffers.add(buffer);
+            EcsServicePipeline pipeline = addPipeline(buffer, evaluations);
+            pipeline.start();
+            pipeline.startScaling();
+            pipelines.add(pipeline);
+        }
+        scheduler.drain().get(5, TimeUnit.SECONDS);
+        evaluations.set(0);
+
+        pipelines.forEach(pipeline -> pipeline.ingest(1000L, new SempQueueObservation("service-queue-1", 10L, 100L, 0L, 1024L)));
+        // First drain covers the ingest stages, the second the evaluations they requested
+        scheduler.drain().get(5, TimeUnit.SECONDS);
+        buffers.forEach(buffer -> assertEquals(1, buffer.size()));
+        scheduler.drain().get(5, TimeUnit.SECONDS);
+        assertEquals(4, evaluations.get());
+    }
+
+    @Test
+    public void periodicEvaluationCoversEveryShard() throws Exception {
+        AtomicInteger evaluations = new AtomicInteger();
+        for (int i = 0; i < 4; i++) {
+            EcsServicePipeline pipeline = addPipeline(new MetricObservationBuffer(16), evaluations);
+            pipeline.start();
+            pipeline.startScaling();
+        }
+        scheduler.drain().get(5, TimeUnit.SECONDS);
+        scheduler.drain().get(5, TimeUnit.SECONDS);
+        evaluations.set(0);
+
+        scheduler.startPeriodicEvaluation(50L);
+        waitFor(() -> evaluations.get() >= 8);
+    }
+
+    private EcsServicePipeline addPipeline(MetricObservationBuffer buffer, AtomicInteger evaluations) {
+        return scheduler.add(shard -> new EcsServicePipeline(scalerConfig.getEcsServiceConfig().get(0), buffer, shard, evaluations::incrementAndGet));
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue("Timed out waiting for condition", System.currentTimeMillis() < deadline);
+            Thread.sleep(5L);
+        }
+    }
+}
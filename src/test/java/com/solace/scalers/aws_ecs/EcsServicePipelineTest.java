@@ -0,0 +1,164 @@
+package com.solace.scalers.aws_ecs;
+
+import com.solace.scalers.aws_ecs.model.ScalerConfig;
+import com.solace.scalers.aws_ecs.model.ScalerConfig.EcsServiceConfig;
+import com.solace.scalers.aws_ecs.model.ScalerConfigParser;
+import com.solace.scalers.aws_ecs.model.semp_v2.SempQueueObservation;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.*;
+
+public class EcsServicePipelineTest {
+
+    ScalerConfig scalerConfig;
+
+    ScheduledExecutorService executor;
+
+    @Before
+    public void setUp() throws Exception {
+        scalerConfig = ScalerConfigParser.validateScalerConfig(ScalerConfigParser.parseScalerConfig("src/test/resources/configs/valid-config.yaml"));
+        executor = Executors.newScheduledThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void ingestStoresObservationsAndRequestsEvaluation() throws Exception {
+        EcsServiceConfig serviceConfig = serviceConfig(0, 0);
+        MetricObservationBuffer observations = new MetricObservationBuffer(16);
+        AtomicInteger evaluations = new AtomicInteger();
+        EcsServicePipeline pipeline = new EcsServicePipeline(serviceConfig, observations, executor, evaluations::incrementAndGet);
+
+        // Observations are stored before scaling starts, but not evaluated
+        pipeline.start();
+        pipeline.ingest(1000L, new SempQueueObservation("service-queue-1", 10L, 100L, 0L, 1024L));
+        waitFor(() -> observations.size() == 1);
+        Thread.sleep(50L);
+        assertEquals(0, evaluations.get());
+
+        pipeline.startScaling();
+        waitFor(() -> evaluations.get() == 1);
+        pipeline.ingest(2000L, new SempQueueObservation("service-queue-1", 20L, 200L, 0L, 2048L));
+        waitFor(() -> evaluations.get() == 2);
+        assertEquals(2, observations.size());
+        assertEquals(EcsServicePipeline.State.RUNNING, pipeline.getState());
+    }
+
+    @Test
+    public void evaluationRequestsAreCoalesced() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger evaluations = new AtomicInteger(), concurrent = new AtomicInteger(), maxConcurrent = new AtomicInteger();
+        EcsServicePipeline pipeline = new EcsServicePipeline(serviceConfig(0, 0), new MetricObservationBuffer(16), executor, () -> {
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            evaluations.incrementAndGet();
+            release.await(5, TimeUnit.SECONDS);
+            concurrent.decrementAndGet();
+        });
+        pipeline.start();
+        pipeline.startScaling();
+        waitFor(() -> evaluations.get() == 1);
+
+        // First evaluation is blocked; all of these collapse into one pending evaluation
+        for (int i = 0; i < 1000; i++) {
+            pipeline.requestEvaluation();
+        }
+        release.countDown();
+        waitFor(() -> evaluations.get() == 2);
+        Thread.sleep(100L);
+        assertEquals(2, evaluations.get());
+        assertEquals(1, maxConcurrent.get());
+    }
+
+    @Test
+    public void evaluationsRespectMinimumInterval() throws Exception {
+        List<Long> evaluationTimes = new CopyOnWriteArrayList<>();
+        EcsServicePipeline pipeline = new EcsServicePipeline(serviceConfig(0, 1), new MetricObservationBuffer(16), executor,
+                        () -> evaluationTimes.add(System.currentTimeMillis()));
+        pipeline.start();
+        pipeline.startScaling();
+        waitFor(() -> evaluationTimes.size() == 1);
+
+        pipeline.requestEvaluation();
+        waitFor(() -> evaluationTimes.size() == 2);
+        assertTrue(evaluationTimes.get(1) - evaluationTimes.get(0) >= 1000L);
+    }
+
+    @Test
+    public void failingServiceIsRestartedWithoutAffectingOthers() throws Exception {
+        AtomicInteger failingAttempts = new AtomicInteger(), healthyEvaluations = new AtomicInteger();
+        EcsServicePipeline failing = new EcsServicePipeline(serviceConfig(0, 0), new MetricObservationBuffer(16), executor, () -> {
+            if (failingAttempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("ECS update rejected");
+            }
+        });
+        EcsServicePipeline healthy = new EcsServicePipeline(serviceConfig(1, 0), new MetricObservationBuffer(16), executor,
+                        healthyEvaluations::incrementAndGet);
+        failing.start();
+        healthy.start();
+        failing.startScaling();
+        healthy.startScaling();
+
+        waitFor(() -> failingAttempts.get() == 1);
+        assertEquals(EcsServicePipeline.State.DEGRADED, failing.getState());
+
+        // The healthy service keeps evaluating while the failing one is suspended
+        waitFor(() -> healthyEvaluations.get() == 1);
+        healthy.requestEvaluation();
+        waitFor(() -> healthyEvaluations.get() == 2);
+        assertEquals(1, failingAttempts.get());
+        assertEquals(EcsServicePipeline.State.RUNNING, healthy.getState());
+
+        // Failed evaluation is retried after the restart backoff
+        waitFor(() -> failingAttempts.get() == 2);
+        waitFor(() -> failing.getState() == EcsServicePipeline.State.RUNNING);
+    }
+
+    @Test
+    public void stoppedPipelineIgnoresInput() throws Exception {
+        MetricObservationBuffer observations = new MetricObservationBuffer(16);
+        AtomicInteger evaluations = new AtomicInteger();
+        EcsServicePipeline pipeline = new EcsServicePipeline(serviceConfig(0, 0), observations, executor, evaluations::incrementAndGet);
+
+        pipeline.ingest(1000L, new SempQueueObservation("service-queue-1", 10L, 100L, 0L, 1024L));
+        pipeline.requestEvaluation();
+        assertEquals(EcsServicePipeline.State.STOPPED, pipeline.getState());
+
+        pipeline.start();
+        pipeline.startScaling();
+        waitFor(() -> evaluations.get() == 1);
+        pipeline.stop();
+        pipeline.ingest(2000L, new SempQueueObservation("service-queue-1", 20L, 200L, 0L, 2048L));
+        pipeline.requestEvaluation();
+        Thread.sleep(100L);
+        assertEquals(0, observations.size());
+        assertEquals(1, evaluations.get());
+    }
+
+    private EcsServiceConfig serviceConfig(int index, int minEvaluationInterval) {
+        EcsServiceConfig serviceConfig = scalerConfig.getEcsServiceConfig().get(index);
+        serviceConfig.getScalerBehaviorConfig().setMinEvaluationInterval(minEvaluationInterval);
+        return serviceConfig;
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue("Timed out waiting for condition", System.currentTimeMillis() < deadline);
+            Thread.sleep(5L);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.solace.scalers.aws_ecs;
+
+import com.solace.scalers.aws_ecs.http.SempHttpTransport;
+import com.solace.scalers.aws_ecs.model.ScalerConfig;
+import com.solace.scalers.aws_ecs.model.ScalerConfigParser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class EcsServiceRegistryTest {
+
+    ScalerConfig scalerConfig;
+
+    ScheduledExecutorService executor;
+
+    EcsServicePipelineScheduler scheduler;
+
+    // Queues listed by the stub monitor; null if listing fails
+    volatile Set<String> brokerQueues;
+
+    SolaceQueueCollectionMonitor monitor;
+
+    EcsServiceRegistry registry;
+
+    @Before
+    public void setUp() throws Exception {
+        scalerConfig = ScalerConfigParser.validateScalerConfig(ScalerConfigParser.parseScalerConfig("src/test/resources/configs/valid-discovery-config.yaml"));
+        executor = Executors.newSingleThreadScheduledExecutor();
+        scheduler = new EcsServicePipelineScheduler(2);
+        brokerQueues = new LinkedHashSet<>(List.of("orders/eu/static", "orders/eu/retail", "orders/us/retail", "payments/eu"));
+        monitor = stubMonitor();
+        registry = new EcsServiceRegistry(scalerConfig, new EcsServiceActuator(null, executor), scheduler, null, () -> null,
+                        () -> fail(), brokerConfig -> monitor);
+    }
+
+    @After
+    public void tearDown() {
+        registry.stop();
+        scheduler.shutdown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void discoveryAddsServicesForMatchingQueues() {
+        assertEquals(Set.of("orders/eu/static"), registry.getEcsServicePipelineMap().keySet());
+
+        registry.discoverAll();
+
+        // The configured service keeps its queue; payments/eu does not match
+        assertEquals(Set.of("orders/eu/static", "orders/eu/retail", "orders/us/retail"), registry.getEcsServicePipelineMap().keySet());
+        assertEquals("ecsService1", registry.getEcsServicePipelineMap().get("orders/eu/static").getEcsServiceConfig().getEcsService());
+        assertEquals("cluster-us", registry.getEcsServicePipelineMap().get("orders/us/retail").getEcsServiceConfig().getEcsCluster());
+        assertEquals("orders-us-retail", registry.getEcsServicePipelineMap().get("orders/us/retail").getEcsServiceConfig().getEcsService());
+        assertEquals(registry.getEcsServicePipelineMap().keySet(), monitor.getMonitoredQueueNames());
+        assertEquals(3, scheduler.getShardSizes()[0] + scheduler.getShardSizes()[1]);
+    }
+
+    @Test
+    public void discoveryRemovesServicesOfDeletedQueues() {
+        registry.discoverAll();
+        EcsServicePipeline retired = registry.getEcsServicePipelineMap().get("orders/us/retail");
+
+        brokerQueues = new LinkedHashSet<>(List.of("orders/eu/retail", "orders/eu/wholesale"));
+        registry.discoverAll();
+
+        // Configured services are never removed by discovery
+        assertEquals(Set.of("orders/eu/static", "orders/eu/retail", "orders/eu/wholesale"), registry.getEcsServicePipelineMap().keySet());
+        assertEquals(EcsServicePipeline.State.STOPPED, retired.getState());
+        assertFalse(registry.getEcsServiceScalerMap().containsKey("orders/us/retail"));
+        assertEquals(registry.getEcsServicePipelineMap().keySet(), monitor.getMonitoredQueueNames());
+    }
+
+    @Test
+    public void listingFailureKeepsDiscoveredServices() {
+        registry.discoverAll();
+
+        brokerQueues = null;
+        registry.discoverAll();
+
+        assertEquals(3, registry.getEcsServicePipelineMap().size());
+    }
+
+    @Test
+    public void reconfigureUpdatesServiceInPlace() throws Exception {
+        registry.start(3600L);
+        EcsServiceScaler scaler = registry.getEcsServiceScalerMap().get("orders/eu/static");
+        EcsServicePipeline pipeline = registry.getEcsServicePipelineMap().get("orders/eu/static");
+        long now = System.currentTimeMillis();
+        scaler.getMetricObservations().add(now - 2000L, 40L, 400L, 0L, 0L);
+        scaler.getMetricObservations().add(now - 1000L, 30L, 300L, 0L, 0L);
+        scaler.restoreScalingState(now - 5000L, now - 60000L, 4, true);
+
+        ScalerConfig reloaded = reloadedConfig();
+        reloaded.getEcsServiceConfig().get(0).getScalerBehaviorConfig().setMessageCountTarget(25);
+        reloaded.getEcsServiceConfig().get(0).getScalerBehaviorConfig().getScaleInConfig().setStabilizationWindow(300);
+        registry.reconfigure(reloaded);
+        scheduler.drain().get(5, TimeUnit.SECONDS);
+
+        // Same scaler and pipeline; observations copied to a buffer sized for the wider window
+        assertSame(scaler, registry.getEcsServiceScalerMap().get("orders/eu/static"));
+        assertSame(pipeline, registry.getEcsServicePipelineMap().get("orders/eu/static"));
+        assertEquals(25, scaler.getEcsServiceConfig().getScalerBehaviorConfig().getMessageCountTarget().intValue());
+        assertEquals(25, pipeline.getEcsServiceConfig().getScalerBehaviorConfig().getMessageCountTarget().intValue());
+        assertEquals(2, scaler.getMetricObservations().size());
+        assertEquals(EcsServiceScaler.getMetricsRetentionMillis(scaler.getEcsServiceConfig()), scaler.getMetricObservations().getRetentionMillis());
+        assertEquals(now - 5000L, scaler.getLastScaleOutTime());
+        assertEquals(4, scaler.getLastScaledReplicaCount());
+    }
+
+    @Test
+    public void reconfigureAddsAndRemovesServices() throws Exception {
+        registry.discoverAll();
+        EcsServicePipeline discovered = registry.getEcsServicePipelineMap().get("orders/us/retail");
+
+        // Static service moved to another queue; the rule's queue orders/eu/retail is now listed explicitly
+        ScalerConfig reloaded = reloadedConfig();
+        reloaded.getEcsServiceConfig().get(0).setQueueName("orders/apac/static");
+        ScalerConfig.EcsServiceConfig listed = ScalerConfig.EcsServiceConfig.builder()
+                        .ecsCluster("cluster-eu").ecsService("orders-eu-retail").queueName("orders/eu/retail")
+                        .scalerBehaviorConfig(reloaded.getEcsServiceConfig().get(0).getScalerBehaviorConfig())
+                        .build();
+        reloaded.getEcsServiceConfig().add(listed);
+        registry.reconfigure(reloaded);
+
+        assertEquals(Set.of("orders/apac/static", "orders/eu/retail", "orders/us/retail"), registry.getEcsServicePipelineMap().keySet());
+        assertSame(discovered, registry.getEcsServicePipelineMap().get("orders/us/retail"));
+        assertEquals(registry.getEcsServicePipelineMap().keySet(), monitor.getMonitoredQueueNames());
+
+        // Listed services are not retired by discovery, although orders/eu/retail is no longer on the broker
+        brokerQueues = new LinkedHashSet<>(List.of("orders/us/retail"));
+        registry.discoverAll();
+        assertEquals(Set.of("orders/apac/static", "orders/eu/retail", "orders/us/retail"), registry.getEcsServicePipelineMap().keySet());
+
+        // Rule removed: its services are stopped
+        reloaded = reloadedConfig();
+        reloaded.getDiscoveryRules().clear();
+        registry.reconfigure(reloaded);
+        assertEquals(Set.of("orders/eu/static"), registry.getEcsServicePipelineMap().keySet());
+        assertEquals(EcsServicePipeline.State.STOPPED, discovered.getState());
+    }
+
+    @Test
+    public void multiQueueServiceClaimsEveryQueue() throws Exception {
+        registry.discoverAll();
+        EcsServicePipeline discovered = registry.getEcsServicePipelineMap().get("orders/us/retail");
+
+        // Static service now scales on the discovered queue orders/us/retail too
+        ScalerConfig reloaded = reloadedConfig();
+        reloaded.getEcsServiceConfig().get(0).setQueues(List.of(
+                        new ScalerConfig.QueueConfig("orders/eu/static", 1.0), new ScalerConfig.QueueConfig("orders/us/retail", 1.0)));
+        registry.reconfigure(reloaded);
+
+        assertEquals(Set.of("orders/eu/static", "orders/eu/retail"), registry.getEcsServicePipelineMap().keySet());
+        assertEquals(EcsServicePipeline.State.STOPPED, discovered.getState());
+        assertEquals(Set.of("orders/eu/static", "orders/us/retail", "orders/eu/retail"), monitor.getMonitoredQueueNames());
+
+        // Not discovered again while the static service scales on it
+        registry.discoverAll();
+        assertEquals(Set.of("orders/eu/static", "orders/eu/retail"), registry.getEcsServicePipelineMap().keySet());
+    }
+
+    private ScalerConfig reloadedConfig() throws Exception {
+        return ScalerConfigParser.validateScalerConfig(ScalerConfigParser.parseScalerConfig("src/test/resources/configs/valid-discovery-config.yaml"));
+    }
+
+    private SolaceQueueCollectionMonitor stubMonitor() {
+        Map<String, ScalerConfig.SempConfig> sempConfigMap = new HashMap<>();
+        sempConfigMap.put(SolaceQueueMonitor.ACTIVE_SEMP_CONFIG, new ScalerConfig.SempConfig("http://localhost:8080", "user", "password"));
+        return new SolaceQueueCollectionMonitor(new MessageVpnStateTracker(sempConfigMap, "vpn", 0L), List.of(), (SempHttpTransport) null) {
+            @Override
+            public synchronized Optional<Set<String>> listQueueNames(String queueNamePattern) throws IOException {
+                return Optional.ofNullable(brokerQueues);
+            }
+        };
+    }
+}
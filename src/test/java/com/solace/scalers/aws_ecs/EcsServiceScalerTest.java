@@ -0,0 +1,93 @@
+package com.solace.scalers.aws_ecs;
+
+import com.solace.scalers.aws_ecs.model.ScalerConfig.EcsServiceConfig;
+import com.solace.scalers.aws_ecs.model.ScalerConfigParser;
+import com.solace.scalers.aws_ecs.model.semp_v2.SempQueueObservation;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.*;
+
+public class EcsServiceScalerTest {
+
+    ScheduledExecutorService executor;
+
+    EcsServiceActuatorTest.FakeEcs ecs;
+
+    EcsServiceScaler scaler;
+
+    @Before
+    public void setUp() throws Exception {
+        executor = Executors.newScheduledThreadPool(2);
+        ecs = new EcsServiceActuatorTest.FakeEcs();
+        EcsServiceConfig service = ScalerConfigParser.validateScalerConfig(ScalerConfigParser.parseScalerConfig("src/test/resources/configs/valid-config.yaml"))
+                .getEcsServiceConfig().get(0);
+        service.getScalerBehaviorConfig().setScaleOperationTimeout(1);
+        service.getScalerBehaviorConfig().getScaleOutConfig().setCooldownPeriod(0);
+        scaler = new EcsServiceScaler(service, 10, new EcsServiceActuator(ecs, executor));
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void noScaleOutAfterConvergenceTimeout() throws Exception {
+        long now = System.currentTimeMillis();
+        scaler.getMetricObservations().add(now - 3000L, 100L, 0L, 0L, 0L);
+        scaler.scalingOperation(1, 1);
+        waitFor(() -> !scaler.isUpdatePending() && ecs.requests.size() == 1);
+
+        // Second task never starts; the load keeps growing
+        scaler.getMetricObservations().add(now - 2000L, 200L, 0L, 50L, 0L);
+        scaler.learn(now - 2000L, new SempQueueObservation("service-queue-1", 200L, 0L, 50L, 0L), 2, 1);
+        scaler.scalingOperation(2, 1);
+        Thread.sleep(1100L);
+        long later = System.currentTimeMillis();
+        scaler.getMetricObservations().add(later, 300L, 0L, 50L, 0L);
+        scaler.learn(later, new SempQueueObservation("service-queue-1", 300L, 0L, 50L, 0L), 2, 1);
+        scaler.scalingOperation(2, 1);
+        scaler.scalingOperation(2, 1);
+
+        Thread.sleep(50L);
+        assertEquals(List.of(2), ecs.desiredCounts());
+        // Throughput is not learned from tasks that are not in steady state
+        assertNull(scaler.getConsumerThroughput().getPerTaskThroughput());
+    }
+
+    @Test
+    public void everyIngestedObservationIsLearned() throws Exception {
+        EcsServiceMetrics metrics = new EcsServiceMetrics(scaler.getEcsServiceConfig());
+        metrics.updateTaskCounts(2, 2);
+        EcsServicePipeline pipeline = new EcsServicePipeline(scaler, metrics, executor);
+
+        // Several observations arrive before any evaluation; each one updates the forecasts and throughput
+        pipeline.start();
+        pipeline.ingest(1000L, new SempQueueObservation("service-queue-1", 100L, 10L, 50L, 0L));
+        pipeline.ingest(2000L, new SempQueueObservation("service-queue-1", 200L, 10L, 50L, 0L));
+        pipeline.ingest(3000L, new SempQueueObservation("service-queue-1", 300L, 10L, 50L, 0L));
+        waitFor(() -> Double.valueOf(300.0).equals(scaler.getMessageCountForecaster().forecast(0.0)));
+        pipeline.stop();
+
+        assertEquals(3, scaler.getMetricObservations().size());
+
+        assertEquals(100.0, scaler.getMessageCountForecaster().getTrend(), 0.001);
+        assertEquals(0.0, scaler.getReceiveRateForecaster().getTrend(), 0.001);
+        assertEquals(25.0, scaler.getConsumerThroughput().getPerTaskThroughput(), 0.001);
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue("Timed out waiting for condition", System.currentTimeMillis() < deadline);
+            Thread.sleep(5L);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.solace.scalers.aws_ecs;
+
+import com.amazonaws.services.ecs.AbstractAmazonECS;
+import com.amazonaws.services.ecs.model.Deployment;
+import com.amazonaws.services.ecs.model.DescribeServicesRequest;
+import com.amazonaws.services.ecs.model.DescribeServicesResult;
+import com.amazonaws.services.ecs.model.Failure;
+import com.amazonaws.services.ecs.model.Service;
+import com.solace.scalers.aws_ecs.model.ScalerConfig;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class EcsServiceStateCollectorTest {
+
+    @Test
+    public void retrieveServiceState_batchesByCluster() {
+        List<EcsServiceMetrics> ecsServiceMetrics = new ArrayList<>();
+        for (int i = 0; i < 21; i++) {
+            ecsServiceMetrics.add(createServiceMetrics("clusterA", "service-" + i));
+        }
+        ecsServiceMetrics.add(createServiceMetrics("clusterB", "service-100"));
+        ecsServiceMetrics.add(createServiceMetrics("clusterB", "service-101"));
+        FakeEcs ecs = new FakeEcs(Set.of());
+        EcsServiceStateCollector collector = new EcsServiceStateCollector(ecsServiceMetrics, ecs);
+
+        collector.retrieveServiceState();
+
+        assertEquals(4, collector.getRequestCount());
+        assertEquals(4, ecs.requests.size());
+        for (DescribeServicesRequest request : ecs.requests) {
+            assertTrue(request.getServices().size() <= EcsServiceStateCollector.MAX_SERVICES_PER_REQUEST);
+        }
+        EcsServiceMetrics serviceMetrics = ecsServiceMetrics.get(7);
+        assertEquals(Integer.valueOf(8), serviceMetrics.getDesiredTaskCount());
+        assertEquals(Integer.valueOf(7), serviceMetrics.getRunningTaskCount());
+        assertEquals(Integer.valueOf(1), serviceMetrics.getPendingTaskCount());
+        assertEquals(2, serviceMetrics.getDeploymentCount());
+        assertEquals("IN_PROGRESS", serviceMetrics.getRolloutState());
+        assertEquals(Integer.valueOf(101), ecsServiceMetrics.get(22).getRunningTaskCount());
+    }
+
+    @Test
+    public void retrieveServiceState_missingServicePreventsScaling() {
+        List<EcsServiceMetrics> ecsServiceMetrics = List.of(createServiceMetrics("clusterA", "service-1"), createServiceMetrics("clusterA", "service-2"));
+        new EcsServiceStateCollector(ecsServiceMetrics, new FakeEcs(Set.of())).retrieveServiceState();
+        assertNotNull(ecsServiceMetrics.get(1).getDesiredTaskCount());
+
+        new EcsServiceStateCollector(ecsServiceMetrics, new FakeEcs(Set.of("service-2"))).retrieveServiceState();
+        assertNotNull(ecsServiceMetrics.get(0).getDesiredTaskCount());
+        assertNull(ecsServiceMetrics.get(1).getDesiredTaskCount());
+        assertNull(ecsServiceMetrics.get(1).getRunningTaskCount());
+    }
+
+    @Test
+    public void retrieveServiceState_serviceConfiguredByArn() {
+        String serviceArn = "arn:aws:ecs:us-east-2:123456789012:service/clusterA/service-3";
+        List<EcsServiceMetrics> ecsServiceMetrics = List.of(createServiceMetrics("clusterA", serviceArn), createServiceMetrics("clusterA", "service-4"));
+
+        new EcsServiceStateCollector(ecsServiceMetrics, new FakeEcs(Set.of())).retrieveServiceState();
+
+        assertEquals(Integer.valueOf(4), ecsServiceMetrics.get(0).getDesiredTaskCount());
+        assertEquals(Integer.valueOf(3), ecsServiceMetrics.get(0).getRunningTaskCount());
+        assertEquals(Integer.valueOf(4), ecsServiceMetrics.get(1).getRunningTaskCount());
+    }
+
+    private static EcsServiceMetrics createServiceMetrics(String cluster, String service) {
+        return new EcsServiceMetrics(ScalerConfig.EcsServiceConfig.builder()
+                .ecsCluster(cluster).ecsService(service).queueName("queue-" + service)
+                .scalerBehaviorConfig(new ScalerConfig.ScalerBehaviorConfig())
+                .taskCountSource(ScalerConfig.EcsServiceConfig.TASK_COUNT_SOURCE_ECS).build());
+    }
+
+    /**
+     * Reports service-n with desired = n + 1, running = n, pending = 1 and a deployment in progress;
+     * services in `missingServices` are reported as failures. Services may be requested by name or ARN
+     */
+    static class FakeEcs extends AbstractAmazonECS {
+
+        final List<DescribeServicesRequest> requests = new ArrayList<>();
+        final Set<String> missingServices;
+
+        FakeEcs(Set<String> missingServices) {
+            this.missingServices = missingServices;
+        }
+
+        @Override
+        public DescribeServicesResult describeServices(DescribeServicesRequest request) {
+            requests.add(request);
+            DescribeServicesResult result = new DescribeServicesResult();
+            for (String requestedService : request.getServices()) {
+                String serviceName = requestedService.substring(requestedService.lastIndexOf('/') + 1);
+                if (missingServices.contains(serviceName)) {
+                    result.withFailures(new Failure().withArn("arn:aws:ecs:us-east-2:123456789012:service/" + serviceName).withReason("MISSING"));
+                    continue;
+                }
+                int serviceNumber = Integer.parseInt(serviceName.substring(serviceName.indexOf('-') + 1));
+                result.withServices(new Service().withServiceName(serviceName)
+                        .withServiceArn("arn:aws:ecs:us-east-2:123456789012:service/" + request.getCluster() + "/" + serviceName)
+                        .withDesiredCount(serviceNumber + 1).withRunningCount(serviceNumber).withPendingCount(1)
+                        .withDeployments(new Deployment().withStatus("PRIMARY").withRolloutState("IN_PROGRESS"),
+                                new Deployment().withStatus("ACTIVE").withRolloutState("COMPLETED")));
+            }
+            return result;
+        }
+    }
+}
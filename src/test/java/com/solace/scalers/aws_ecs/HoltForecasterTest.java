@@ -0,0 +1,64 @@
+package com.solace.scalers.aws_ecs;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class HoltForecasterTest {
+
+    private static final double DELTA = 0.0001;
+
+    @Test
+    public void forecastsLinearTrend() {
+        HoltForecaster forecaster = new HoltForecaster();
+        assertNull(forecaster.forecast(30.0));
+        forecaster.update(0L, 100.0);
+        assertNull(forecaster.forecast(30.0));
+        assertNull(forecaster.getTrend());
+
+        // Grows by 10 per second, sampled every 5 seconds
+        for (long second = 5L; second <= 60L; second += 5L) {
+            forecaster.update(second * 1000L, 100.0 + 10.0 * second);
+        }
+        assertEquals(700.0, forecaster.forecast(0.0), DELTA);
+        assertEquals(1000.0, forecaster.forecast(30.0), DELTA);
+        assertEquals(10.0, forecaster.getTrend(), DELTA);
+    }
+
+    @Test
+    public void irregularIntervals() {
+        HoltForecaster forecaster = new HoltForecaster();
+        long[] seconds = {0L, 3L, 10L, 11L, 25L, 26L, 40L};
+        for (long second : seconds) {
+            forecaster.update(second * 1000L, 2.0 * second);
+        }
+        assertEquals(80.0 + 2.0 * 60.0, forecaster.forecast(60.0), DELTA);
+    }
+
+    @Test
+    public void trendDecaysWhenSeriesFlattens() {
+        HoltForecaster forecaster = new HoltForecaster();
+        for (long second = 0L; second <= 30L; second += 5L) {
+            forecaster.update(second * 1000L, 10.0 * second);
+        }
+        for (long second = 35L; second <= 300L; second += 5L) {
+            forecaster.update(second * 1000L, 300.0);
+        }
+        assertEquals(300.0, forecaster.forecast(60.0), 1.0);
+    }
+
+    @Test
+    public void repeatedObservationsIgnored() {
+        HoltForecaster forecaster = new HoltForecaster();
+        forecaster.update(0L, 0.0);
+        forecaster.update(1000L, 10.0);
+        forecaster.update(1000L, 500.0);
+        forecaster.update(500L, 500.0);
+        assertEquals(20.0, forecaster.forecast(1.0), DELTA);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidSmoothing() {
+        new HoltForecaster(0.5, 1.5);
+    }
+}
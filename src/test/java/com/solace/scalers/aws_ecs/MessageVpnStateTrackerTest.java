@@ -0,0 +1,118 @@
+package com.solace.scalers.aws_ecs;
+
+import com.solace.scalers.aws_ecs.model.ScalerConfig;
+import com.solace.scalers.aws_ecs.model.semp_v2.SempMessageVpnStateResponse;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.solace.scalers.aws_ecs.SolaceQueueMonitor.ACTIVE_SEMP_CONFIG;
+import static com.solace.scalers.aws_ecs.SolaceQueueMonitor.STANDBY_SEMP_CONFIG;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MessageVpnStateTrackerTest {
+
+    @Mock
+    SolaceQueueMonitor firstMonitor;
+    @Mock
+    SolaceQueueMonitor secondMonitor;
+
+    ScalerConfig.SempConfig activeSempConfig = new ScalerConfig.SempConfig("http://my.solace.broker.com:943", "user", "password");
+    ScalerConfig.SempConfig standbySempConfig = new ScalerConfig.SempConfig("http://standby.solace.broker.com:943", "user", "password");
+
+    Map<String, ScalerConfig.SempConfig> sempConfigMap = new ConcurrentHashMap<>();
+
+    @Before
+    public void setUp() {
+        sempConfigMap.put(ACTIVE_SEMP_CONFIG, activeSempConfig);
+        sempConfigMap.put(STANDBY_SEMP_CONFIG, standbySempConfig);
+    }
+
+    @Test
+    public void updateActiveVpn_cachedForAllMonitors() throws Exception {
+        when(firstMonitor.getVpnStateForSempConfig(activeSempConfig)).thenReturn(vpnState("up"));
+
+        MessageVpnStateTracker tracker = new MessageVpnStateTracker(sempConfigMap, "testVpn", 60000L);
+
+        assertFalse(tracker.updateActiveVpn(firstMonitor));
+        assertFalse(tracker.updateActiveVpn(secondMonitor));
+        assertFalse(tracker.updateActiveVpn(firstMonitor));
+
+        // Only one VPN state request within the TTL, regardless of the number of monitors
+        verify(firstMonitor, times(1)).getVpnStateForSempConfig(any());
+        verify(secondMonitor, never()).getVpnStateForSempConfig(any());
+        assertEquals(activeSempConfig, tracker.getActiveSempConfig());
+    }
+
+    @Test
+    public void updateActiveVpn_invalidateAndFailover() throws Exception {
+        when(firstMonitor.getVpnStateForSempConfig(activeSempConfig)).thenReturn(vpnState("up"));
+        when(secondMonitor.getVpnStateForSempConfig(activeSempConfig)).thenReturn(vpnState("down"));
+        when(secondMonitor.getVpnStateForSempConfig(standbySempConfig)).thenReturn(vpnState("up"));
+
+        MessageVpnStateTracker tracker = new MessageVpnStateTracker(sempConfigMap, "testVpn", 60000L);
+
+        assertFalse(tracker.updateActiveVpn(firstMonitor));
+        // Queue poll failure reported by a monitor forces an immediate check
+        tracker.invalidate();
+        assertTrue(tracker.updateActiveVpn(secondMonitor));
+
+        // Standby is now active for every monitor sharing the tracker
+        assertEquals(standbySempConfig, tracker.getActiveSempConfig());
+        assertEquals(activeSempConfig, tracker.getSempConfigMap().get(STANDBY_SEMP_CONFIG));
+    }
+
+    @Test
+    public void updateActiveVpn_unreachableActiveFailsOver() throws Exception {
+        when(firstMonitor.getVpnStateForSempConfig(activeSempConfig)).thenThrow(new IOException("Connection refused"));
+        when(firstMonitor.getVpnStateForSempConfig(standbySempConfig)).thenReturn(vpnState("up"));
+
+        MessageVpnStateTracker tracker = new MessageVpnStateTracker(sempConfigMap, "testVpn", 60000L);
+
+        assertTrue(tracker.updateActiveVpn(firstMonitor));
+        assertEquals(standbySempConfig, tracker.getActiveSempConfig());
+        assertFalse(tracker.isExpired(System.currentTimeMillis()));
+    }
+
+    @Test
+    public void updateActiveVpn_unreachableActiveAndStandbyNotCached() throws Exception {
+        when(firstMonitor.getVpnStateForSempConfig(activeSempConfig)).thenThrow(new IOException("Connection refused"));
+        when(firstMonitor.getVpnStateForSempConfig(standbySempConfig)).thenReturn(vpnState("down"));
+
+        MessageVpnStateTracker tracker = new MessageVpnStateTracker(sempConfigMap, "testVpn", 60000L);
+
+        assertThrows(IOException.class, () -> tracker.updateActiveVpn(firstMonitor));
+        assertEquals(activeSempConfig, tracker.getActiveSempConfig());
+        // Both brokers are checked again on the next request
+        assertTrue(tracker.isExpired(System.currentTimeMillis()));
+        assertThrows(IOException.class, () -> tracker.updateActiveVpn(firstMonitor));
+        verify(firstMonitor, times(2)).getVpnStateForSempConfig(standbySempConfig);
+    }
+
+    @Test
+    public void updateActiveVpn_zeroTtlChecksEveryTime() throws Exception {
+        when(firstMonitor.getVpnStateForSempConfig(activeSempConfig)).thenReturn(vpnState("up"));
+
+        MessageVpnStateTracker tracker = new MessageVpnStateTracker(sempConfigMap, "testVpn", 0L);
+
+        tracker.updateActiveVpn(firstMonitor);
+        tracker.updateActiveVpn(firstMonitor);
+
+        verify(firstMonitor, times(2)).getVpnStateForSempConfig(activeSempConfig);
+    }
+
+    private Optional<SempMessageVpnStateResponse> vpnState(String state) {
+        SempMessageVpnStateResponse.MessageVpnData messageVpnData = new SempMessageVpnStateResponse.MessageVpnData();
+        messageVpnData.setState(state);
+        return Optional.of(new SempMessageVpnStateResponse(messageVpnData));
+    }
+}
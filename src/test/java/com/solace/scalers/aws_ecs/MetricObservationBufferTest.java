@@ -0,0 +1,259 @@
+package com.solace.scalers.aws_ecs;
+
+import com.solace.scalers.aws_ecs.model.semp_v2.SempQueueObservation;
+import com.solace.scalers.aws_ecs.model.util.ecs.EcsServiceScalerObservations;
+import com.solace.scalers.aws_ecs.util.EcsServiceScalerUtils;
+import com.solace.scalers.aws_ecs.util.MetricMapUtils;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class MetricObservationBufferTest {
+
+    @Test
+    public void add_overwritesOldestWhenFull() {
+        MetricObservationBuffer buffer = new MetricObservationBuffer(MetricObservationBuffer.MIN_CAPACITY);
+        for (int i = 1; i <= 20; i++) {
+            buffer.add(i * 1000L, i, i * 10L, 0L, 0L);
+        }
+        assertEquals(MetricObservationBuffer.MIN_CAPACITY, buffer.size());
+
+        EcsServiceScalerObservations observations = new EcsServiceScalerObservations();
+        buffer.aggregate(0L, 0L, observations);
+        assertEquals(20000L, observations.getNewestObservationTime());
+        assertEquals(20L, observations.getMaxMessageCountObservationUp());
+        assertEquals(200L, observations.getMaxAverageMessageRateObservationDown());
+
+        // Observations 1..12 were overwritten; 13 is the oldest remaining
+        assertEquals(0, buffer.evictOlderThan(12999L));
+        assertEquals(1, buffer.evictOlderThan(13000L));
+    }
+
+    @Test
+    public void add_retainsObservationsWithSameTimestamp() {
+        MetricObservationBuffer buffer = new MetricObservationBuffer(16);
+        buffer.add(1000L, 50L, 5L, 0L, 0L);
+        buffer.add(1000L, 10L, 500L, 0L, 0L);
+
+        EcsServiceScalerObservations observations = new EcsServiceScalerObservations();
+        buffer.aggregate(0L, 0L, observations);
+        assertEquals(2, buffer.size());
+        assertEquals(50L, observations.getMaxMessageCountObservationUp());
+        assertEquals(500L, observations.getMaxAverageMessageRateObservationUp());
+    }
+
+    @Test
+    public void aggregate_stabilizationWindows() {
+        MetricObservationBuffer buffer = new MetricObservationBuffer(16);
+        buffer.add(1000L, 100L, 1000L, 0L, 0L);
+        buffer.add(2000L, 10L, 20L, 0L, 0L);
+        buffer.add(3000L, 5L, 30L, 0L, 0L);
+
+        EcsServiceScalerObservations observations = new EcsServiceScalerObservations();
+        buffer.aggregate(1500L, 500L, observations);
+
+        assertTrue(observations.isFoundNewObservation());
+        assertEquals(3000L, observations.getNewestObservationTime());
+        assertEquals(5L, observations.getNewestMessageCountObservation());
+        assertTrue(observations.isFoundWindowObservationUp());
+        assertEquals(10L, observations.getMaxMessageCountObservationUp());
+        assertEquals(30L, observations.getMaxAverageMessageRateObservationUp());
+        assertTrue(observations.isFoundWindowObservationDown());
+        assertEquals(100L, observations.getMaxMessageCountObservationDown());
+        assertEquals(1000L, observations.getMaxAverageMessageRateObservationDown());
+
+        buffer.aggregate(5000L, 5000L, observations);
+        assertFalse(observations.isFoundWindowObservationUp());
+        assertFalse(observations.isFoundWindowObservationDown());
+    }
+
+    @Test
+    public void aggregate_spoolUsage() {
+        MetricObservationBuffer buffer = new MetricObservationBuffer(16, Long.MAX_VALUE, 2000L, 10000L);
+        SempQueueObservation withQuota = new SempQueueObservation("q", 1L, 1L, 1L, 4096L);
+        withQuota.setMaxMsgSpoolUsage(1500L);
+        buffer.add(1000L, withQuota);
+        buffer.add(2000L, new SempQueueObservation("q", 1L, 1L, 1L, 1024L));
+        buffer.add(3000L, 1L, 1L, 1L, 2048L);
+
+        EcsServiceScalerObservations observations = new EcsServiceScalerObservations();
+        buffer.aggregate(1000L, 0L, observations);
+        assertEquals(2048L, observations.getNewestSpoolUsageObservation());
+        assertEquals(2048L, observations.getMaxSpoolUsageObservationUp());
+        assertEquals(4096L, observations.getMaxSpoolUsageObservationDown());
+        // Quota is kept from the last observation that reported it
+        assertEquals(1500L, observations.getSpoolQuota());
+    }
+
+    @Test
+    public void addAll_rebuildsWindowsForTarget() {
+        MetricObservationBuffer source = new MetricObservationBuffer(16, Long.MAX_VALUE, 1000L, 1000L);
+        SempQueueObservation withQuota = new SempQueueObservation("q", 100L, 1000L, 0L, 0L);
+        withQuota.setMaxMsgSpoolUsage(1500L);
+        source.add(1000L, withQuota);
+        for (int i = 2; i <= 6; i++) {
+            source.add(i * 1000L, i, i, 0L, 0L);
+        }
+
+        // Wider scale-out window than the source
+        MetricObservationBuffer target = new MetricObservationBuffer(32, Long.MAX_VALUE, 10000L, 10000L);
+        assertEquals(6, target.addAll(source));
+        assertEquals(6, target.size());
+
+        EcsServiceScalerObservations observations = new EcsServiceScalerObservations();
+        target.aggregate(-4000L, -4000L, observations);
+        assertEquals(100L, observations.getMaxMessageCountObservationUp());
+        assertEquals(6L, observations.getNewestMessageCountObservation());
+        assertEquals(1500L, observations.getSpoolQuota());
+    }
+
+    @Test
+    public void aggregate_windowMaxExpires() {
+        MetricObservationBuffer buffer = new MetricObservationBuffer(64, Long.MAX_VALUE, 3000L, 10000L);
+        buffer.add(1000L, 100L, 1000L, 0L, 0L);
+        for (int i = 2; i <= 6; i++) {
+            buffer.add(i * 1000L, i, i, 0L, 0L);
+        }
+
+        // Evaluated at 6000: the spike at 1000 has left the 3 s scale-out window but not the 10 s scale-in window
+        EcsServiceScalerObservations observations = new EcsServiceScalerObservations();
+        buffer.aggregate(3000L, -4000L, observations);
+        assertEquals(6L, observations.getMaxMessageCountObservationUp());
+        assertEquals(6L, observations.getMaxAverageMessageRateObservationUp());
+        assertEquals(100L, observations.getMaxMessageCountObservationDown());
+        assertEquals(1000L, observations.getMaxAverageMessageRateObservationDown());
+
+        // Evaluated later than the newest observation: the window narrows without new samples
+        buffer.aggregate(5500L, 5500L, observations);
+        assertEquals(6L, observations.getMaxMessageCountObservationUp());
+        assertTrue(observations.isFoundWindowObservationUp());
+        buffer.aggregate(6000L, 6000L, observations);
+        assertFalse(observations.isFoundWindowObservationUp());
+        assertFalse(observations.isFoundWindowObservationDown());
+    }
+
+    @Test
+    public void aggregate_windowNarrowsAfterPollsStop() {
+        // Decreasing values: every observation stays in the deques until it leaves the window
+        MetricObservationBuffer buffer = new MetricObservationBuffer(16, Long.MAX_VALUE, 10000L, 10000L);
+        for (int i = 1; i <= 10; i++) {
+            buffer.add(i * 1000L, 100L - i, 100L - i, 0L, 0L);
+        }
+
+        // No more observations; each evaluation moves the horizon past one more observation
+        EcsServiceScalerObservations observations = new EcsServiceScalerObservations();
+        for (int i = 1; i < 10; i++) {
+            buffer.aggregate(i * 1000L, i * 1000L, observations);
+            assertEquals(99L - i, observations.getMaxMessageCountObservationUp());
+            assertEquals(99L - i, observations.getMaxAverageMessageRateObservationDown());
+            assertEquals(10, buffer.size());
+        }
+        buffer.aggregate(10000L, 10000L, observations);
+        assertFalse(observations.isFoundWindowObservationUp());
+        assertFalse(observations.isFoundWindowObservationDown());
+
+        // Expired entries were dropped, not skipped: an earlier horizon does not bring them back
+        buffer.aggregate(0L, 0L, observations);
+        assertFalse(observations.isFoundWindowObservationUp());
+
+        // A new observation starts a new window maximum
+        buffer.add(11000L, 5L, 5L, 0L, 0L);
+        buffer.aggregate(10000L, 10000L, observations);
+        assertEquals(5L, observations.getMaxMessageCountObservationUp());
+    }
+
+    @Test
+    public void aggregate_matchesFullScan() {
+        final long scaleOutWindow = 7000L, scaleInWindow = 30000L;
+        Random random = new Random(42L);
+        MetricObservationBuffer buffer = new MetricObservationBuffer(MetricObservationBuffer.capacityFor(60000L, 1), 60000L, scaleOutWindow, scaleInWindow);
+        Map<Long, Map<String, Long>> metricObservations = new HashMap<>();
+
+        for (long time = 1000L; time <= 300000L; time += 1000L) {
+            long messageCount = random.nextInt(1000), averageRxRate = random.nextInt(1000);
+            buffer.add(time, messageCount, averageRxRate, 0L, 0L);
+            metricObservations.put(time, Map.of(EcsServiceScalerUtils.METRIC_MSG_COUNT, messageCount, EcsServiceScalerUtils.METRIC_AVG_RX_RATE, averageRxRate, EcsServiceScalerUtils.METRIC_AVG_TX_RATE, 0L));
+            // The buffer evicts on insert; the map is purged explicitly
+            final long retentionHorizon = time - 60000L;
+            metricObservations.keySet().removeIf(observationTime -> observationTime <= retentionHorizon);
+
+            long evaluationTime = time + random.nextInt(1000);
+            EcsServiceScalerObservations expected = MetricMapUtils.getEcsServiceScalerObservations(evaluationTime, metricObservations, evaluationTime - scaleOutWindow, evaluationTime - scaleInWindow);
+            EcsServiceScalerObservations actual = EcsServiceScalerUtils.getEcsServiceScalerObservations(evaluationTime, buffer, evaluationTime - scaleOutWindow, evaluationTime - scaleInWindow);
+            assertEquals("Evaluated at " + evaluationTime, expected, actual);
+        }
+    }
+
+    @Test
+    public void add_evictsObservationsOutsideRetention() {
+        MetricObservationBuffer buffer = new MetricObservationBuffer(64, 5000L, 5000L, 5000L);
+        for (int i = 1; i <= 10; i++) {
+            buffer.add(i * 1000L, i, i, 0L, 0L);
+        }
+        // Observations at 6000..10000 are within 5 s of the newest observation
+        assertEquals(5, buffer.size());
+
+        // A gap in polling evicts everything older than the retention period
+        buffer.add(60000L, 1L, 1L, 0L, 0L);
+        assertEquals(1, buffer.size());
+    }
+
+    @Test
+    public void evictOlderThan() {
+        MetricObservationBuffer buffer = new MetricObservationBuffer(16);
+        for (int i = 1; i <= 5; i++) {
+            buffer.add(i * 1000L, i, i, 0L, 0L);
+        }
+        assertEquals(3, buffer.evictOlderThan(3000L));
+        assertEquals(2, buffer.size());
+        assertEquals(0, buffer.evictOlderThan(3999L));
+        assertEquals(0, buffer.evictOlderThan(3000L));
+        assertEquals(2, buffer.evictOlderThan(Long.MAX_VALUE));
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    public void capacityFor() {
+        // 600 s retention polled every 5 s --> 120 observations plus headroom
+        assertEquals(122, MetricObservationBuffer.capacityFor(600_000L, 5));
+        assertEquals(MetricObservationBuffer.MIN_CAPACITY, MetricObservationBuffer.capacityFor(1_000L, 10));
+        assertEquals(MetricObservationBuffer.MIN_CAPACITY, new MetricObservationBuffer(1).getCapacity());
+        // 2 hour retention polled every second is limited to MAX_CAPACITY
+        assertEquals(MetricObservationBuffer.MAX_CAPACITY, MetricObservationBuffer.capacityFor(7_200_000L, 1));
+        assertTrue(MetricObservationBuffer.isCapacityLimited(7_200_000L, 1));
+        assertFalse(MetricObservationBuffer.isCapacityLimited(600_000L, 5));
+    }
+
+    @Test
+    public void aggregate_consistentWithConcurrentWriter() throws Exception {
+        // Each observation carries the same value in every field; a torn read would mix values
+        MetricObservationBuffer buffer = new MetricObservationBuffer(MetricObservationBuffer.MIN_CAPACITY);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<String> failure = new AtomicReference<>();
+
+        Thread reader = new Thread(() -> {
+            EcsServiceScalerObservations observations = new EcsServiceScalerObservations();
+            while (running.get()) {
+                buffer.aggregate(Long.MAX_VALUE, Long.MAX_VALUE, observations);
+                long newest = observations.getNewestObservationTime();
+                if (observations.getNewestMessageCountObservation() != newest || observations.getNewestAverageMessageRateObservation() != newest) {
+                    failure.compareAndSet(null, "Torn read at observation " + newest);
+                }
+            }
+        });
+        reader.start();
+        for (long i = 1; i <= 200_000L; i++) {
+            buffer.add(i, i, i, i, i);
+        }
+        running.set(false);
+        reader.join();
+
+        assertNull(failure.get());
+    }
+}
@@ -0,0 +1,94 @@
+package com.solace.scalers.aws_ecs;
+
+import com.solace.scalers.aws_ecs.http.SempHttpTransport;
+import com.solace.scalers.aws_ecs.model.ScalerConfig;
+import com.solace.scalers.aws_ecs.model.ScalerConfigParser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ScalerConfigReloaderTest {
+
+    Path configFile;
+
+    ScheduledExecutorService executor;
+
+    EcsServicePipelineScheduler scheduler;
+
+    EcsServiceRegistry registry;
+
+    ScalerConfigReloader reloader;
+
+    @Before
+    public void setUp() throws Exception {
+        configFile = Files.createTempFile("scaler-config", ".yaml");
+        Files.copy(Path.of("src/test/resources/configs/valid-config.yaml"), configFile, StandardCopyOption.REPLACE_EXISTING);
+        ScalerConfig scalerConfig = ScalerConfigParser.validateScalerConfig(ScalerConfigParser.parseScalerConfig(configFile.toString()));
+        executor = Executors.newSingleThreadScheduledExecutor();
+        scheduler = new EcsServicePipelineScheduler(1);
+        registry = new EcsServiceRegistry(scalerConfig, new EcsServiceActuator(null, executor), scheduler, null, () -> null,
+                        () -> fail(), brokerConfig -> stubMonitor());
+        reloader = new ScalerConfigReloader(configFile, registry);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        registry.stop();
+        scheduler.shutdown();
+        executor.shutdownNow();
+        Files.deleteIfExists(configFile);
+    }
+
+    @Test
+    public void unchangedFileIsNotReloaded() {
+        assertFalse(reloader.checkForChanges());
+    }
+
+    @Test
+    public void changedFileIsApplied() throws Exception {
+        EcsServiceScaler scaler = registry.getEcsServiceScalerMap().get("service-queue-1");
+        String content = Files.readString(configFile);
+        Files.writeString(configFile, content.replace("messageCountTarget: 50", "messageCountTarget: 75")
+                        .replace("queueName: service-queue-3", "queueName: service-queue-4"));
+
+        assertTrue(reloader.checkForChanges());
+        scheduler.drain().get(5, TimeUnit.SECONDS);
+
+        assertSame(scaler, registry.getEcsServiceScalerMap().get("service-queue-1"));
+        assertEquals(75, registry.getEcsServicePipelineMap().get("service-queue-1").getEcsServiceConfig().getScalerBehaviorConfig().getMessageCountTarget().intValue());
+        assertEquals(Set.of("service-queue-1", "service-queue-2", "service-queue-4"), registry.getEcsServiceScalerMap().keySet());
+        assertFalse(reloader.checkForChanges());
+    }
+
+    @Test
+    public void invalidFileIsRejected() throws Exception {
+        String content = Files.readString(configFile);
+        // Duplicate queue name
+        Files.writeString(configFile, content.replace("queueName: service-queue-3", "queueName: service-queue-1"));
+
+        assertFalse(reloader.checkForChanges());
+
+        assertEquals(Set.of("service-queue-1", "service-queue-2", "service-queue-3"), registry.getEcsServiceScalerMap().keySet());
+        // Not retried until the file changes again
+        assertFalse(reloader.checkForChanges());
+    }
+
+    private static SolaceQueueCollectionMonitor stubMonitor() {
+        Map<String, ScalerConfig.SempConfig> sempConfigMap = new HashMap<>();
+        sempConfigMap.put(SolaceQueueMonitor.ACTIVE_SEMP_CONFIG, new ScalerConfig.SempConfig("http://localhost:8080", "user", "password"));
+        return new SolaceQueueCollectionMonitor(new MessageVpnStateTracker(sempConfigMap, "vpn", 0L), List.of(), (SempHttpTransport) null);
+    }
+}
@@ -0,0 +1,137 @@
+package com.solace.scalers.aws_ecs;
+
+import com.solace.scalers.aws_ecs.model.ScalerConfig;
+import com.solace.scalers.aws_ecs.model.ScalerConfigParser;
+import com.solace.scalers.aws_ecs.model.util.ecs.EcsServiceScalerObservations;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ScalerStateSnapshotTest {
+
+    ScalerConfig scalerConfig;
+
+    Path snapshotFile;
+
+    @Before
+    public void setUp() throws Exception {
+        scalerConfig = ScalerConfigParser.validateScalerConfig(ScalerConfigParser.parseScalerConfig("src/test/resources/configs/valid-config.yaml"));
+        snapshotFile = Files.createTempFile("scaler-snapshot", ".bin");
+        Files.delete(snapshotFile);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(snapshotFile);
+    }
+
+    @Test
+    public void writeAndRestore() throws Exception {
+        Map<String, EcsServiceScaler> scalers = createScalers();
+        long now = System.currentTimeMillis();
+        EcsServiceScaler scaler = scalers.get("service-queue-1");
+        scaler.getMetricObservations().add(now - 2000L, 40L, 400L, 0L, 4096L);
+        scaler.getMetricObservations().add(now - 1000L, 30L, 300L, 0L, 2048L);
+        scaler.restoreScalingState(now - 5000L, now - 60000L, 7, true);
+
+        ScalerStateSnapshot snapshot = new ScalerStateSnapshot(snapshotFile, scalers);
+        snapshot.write();
+        // Rewritten in place
+        scaler.getMetricObservations().add(now, 20L, 200L, 0L, 1024L);
+        snapshot.write();
+
+        Map<String, EcsServiceScaler> restoredScalers = createScalers();
+        assertEquals(3, ScalerStateSnapshot.restore(snapshotFile, 60000L, restoredScalers));
+
+        EcsServiceScaler restored = restoredScalers.get("service-queue-1");
+        assertEquals(now - 5000L, restored.getLastScaleOutTime());
+        assertEquals(now - 60000L, restored.getLastScaleInTime());
+        assertEquals(7, restored.getLastScaledReplicaCount());
+        assertTrue(restored.isLastScaledReplicaCountInitialized());
+        assertEquals(3, restored.getMetricObservations().size());
+
+        EcsServiceScalerObservations observations = new EcsServiceScalerObservations();
+        restored.getMetricObservations().aggregate(now - 10000L, now - 10000L, observations);
+        assertEquals(now, observations.getNewestObservationTime());
+        assertEquals(20L, observations.getNewestMessageCountObservation());
+        assertEquals(40L, observations.getMaxMessageCountObservationUp());
+        assertEquals(400L, observations.getMaxAverageMessageRateObservationDown());
+        assertEquals(0, restoredScalers.get("service-queue-2").getMetricObservations().size());
+    }
+
+    @Test
+    public void restore_tornWriteIgnored() throws Exception {
+        Map<String, EcsServiceScaler> scalers = createScalers();
+        scalers.get("service-queue-2").getMetricObservations().add(System.currentTimeMillis(), 10L, 100L, 0L, 0L);
+        new ScalerStateSnapshot(snapshotFile, scalers).write();
+
+        // Flip one byte in the payload
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer oneByte = ByteBuffer.allocate(1);
+            channel.read(oneByte, 40L);
+            oneByte.put(0, (byte) (oneByte.get(0) ^ 0xFF)).rewind();
+            channel.write(oneByte, 40L);
+        }
+
+        Map<String, EcsServiceScaler> restoredScalers = createScalers();
+        assertEquals(0, ScalerStateSnapshot.restore(snapshotFile, 60000L, restoredScalers));
+        assertEquals(0, restoredScalers.get("service-queue-2").getMetricObservations().size());
+    }
+
+    @Test
+    public void restore_staleOrMissingSnapshotIgnored() throws Exception {
+        assertEquals(0, ScalerStateSnapshot.restore(snapshotFile, 60000L, createScalers()));
+
+        new ScalerStateSnapshot(snapshotFile, createScalers()).write();
+        Thread.sleep(20L);
+        assertEquals(0, ScalerStateSnapshot.restore(snapshotFile, 10L, createScalers()));
+    }
+
+    @Test
+    public void restore_reconfiguredServiceSkipped() throws Exception {
+        Map<String, EcsServiceScaler> scalers = createScalers();
+        scalers.get("service-queue-1").getMetricObservations().add(System.currentTimeMillis(), 10L, 100L, 0L, 0L);
+        new ScalerStateSnapshot(snapshotFile, scalers).write();
+
+        // service-queue-1 is now bound to a different ECS service
+        scalerConfig.getEcsServiceConfig().get(0).setEcsService("anotherService");
+        Map<String, EcsServiceScaler> restoredScalers = createScalers();
+        assertEquals(2, ScalerStateSnapshot.restore(snapshotFile, 60000L, restoredScalers));
+        assertEquals(0, restoredScalers.get("service-queue-1").getMetricObservations().size());
+    }
+
+    @Test
+    public void write_growsWhenServicesAreAdded() throws Exception {
+        Map<String, EcsServiceScaler> scalers = createScalers();
+        EcsServiceScaler added = scalers.remove("service-queue-3");
+        ScalerStateSnapshot snapshot = new ScalerStateSnapshot(snapshotFile, scalers);
+        snapshot.write();
+
+        // Service added while the scaler runs, e.g. by discovery
+        added.getMetricObservations().add(System.currentTimeMillis(), 10L, 100L, 0L, 0L);
+        scalers.put("service-queue-3", added);
+        snapshot.write();
+
+        Map<String, EcsServiceScaler> restoredScalers = createScalers();
+        assertEquals(3, ScalerStateSnapshot.restore(snapshotFile, 60000L, restoredScalers));
+        assertEquals(1, restoredScalers.get("service-queue-3").getMetricObservations().size());
+    }
+
+    private Map<String, EcsServiceScaler> createScalers() {
+        Map<String, EcsServiceScaler> scalers = new HashMap<>();
+        for (ScalerConfig.EcsServiceConfig ecsServiceConfig : scalerConfig.getEcsServiceConfig()) {
+            scalers.put(ecsServiceConfig.getQueueName(), new EcsServiceScaler(ecsServiceConfig, scalerConfig.getBrokerConfig().getPollingInterval()));
+        }
+        return scalers;
+    }
+}
@@ -0,0 +1,174 @@
+package com.solace.scalers.aws_ecs;
+
+import com.solace.scalers.aws_ecs.http.SempHttpTransport;
+import com.solace.scalers.aws_ecs.model.ScalerConfig;
+import com.solace.scalers.aws_ecs.model.ScalerConfig.EcsServiceConfig;
+import com.solace.scalers.aws_ecs.model.ScalerConfigParser;
+import com.solace.scalers.aws_ecs.model.util.ecs.EcsServiceScalerObservations;
+import com.solace.scalers.aws_ecs.model.semp_v2.SempQueueObservation;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.*;
+
+public class SolaceBrokerPollerTest {
+
+    ScalerConfig scalerConfig;
+
+    ScheduledExecutorService executor;
+
+    @Before
+    public void setUp() throws Exception {
+        scalerConfig = ScalerConfigParser.validateScalerConfig(ScalerConfigParser.parseScalerConfig("src/test/resources/configs/valid-multi-broker-config.yaml"));
+        executor = Executors.newScheduledThreadPool(2);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void pollFansOutToPipelinesOfBroker() throws Exception {
+        // Same queue name on two brokers; each poller feeds only its own service
+        List<MetricObservationBuffer> buffers = new ArrayList<>();
+        List<SolaceBrokerPoller> pollers = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            EcsServiceConfig serviceConfig = scalerConfig.getEcsServiceConfig().get(i);
+            MetricObservationBuffer buffer = new MetricObservationBuffer(16);
+            EcsServicePipeline pipeline = new EcsServicePipeline(serviceConfig, buffer, executor, () -> { });
+            pipeline.start();
+            buffers.add(buffer);
+
+            Map<String, SempQueueObservation> observations = new HashMap<>();
+            observations.put("service-queue-1", new SempQueueObservation("service-queue-1", 10L * (i + 1), 0L, 0L, 0L));
+            pollers.add(new SolaceBrokerPoller(scalerConfig.findBrokerConfig(serviceConfig), stubMonitor(observations, null), List.of(pipeline), () -> fail()));
+        }
+
+        pollers.get(1).poll();
+        waitFor(() -> buffers.get(1).size() == 1);
+        assertEquals(0, buffers.get(0).size());
+
+        pollers.get(0).poll();
+        waitFor(() -> buffers.get(0).size() == 1);
+        assertEquals(1, buffers.get(1).size());
+        assertEquals("broker1-vpnA", pollers.get(0).getBrokerDesignation());
+    }
+
+    @Test
+    public void monitorFailureDegradesServicesAndKeepsPolling() throws Exception {
+        EcsServiceConfig serviceConfig = scalerConfig.getEcsServiceConfig().get(0);
+        MetricObservationBuffer buffer = new MetricObservationBuffer(16);
+        EcsServicePipeline pipeline = new EcsServicePipeline(serviceConfig, buffer, executor, () -> { });
+        pipeline.start();
+        AtomicInteger failures = new AtomicInteger();
+
+        SolaceBrokerPoller poller = new SolaceBrokerPoller(scalerConfig.findBrokerConfig(serviceConfig),
+                        stubMonitor(new HashMap<>(), new IOException("broker unreachable")), List.of(pipeline), failures::incrementAndGet);
+        poller.poll();
+        poller.poll();
+        // Handler called once per outage; the poller is not stopped
+        assertEquals(1, failures.get());
+        assertEquals(0, buffer.size());
+        assertFalse(poller.isAvailable());
+        assertEquals(EcsServicePipeline.State.DEGRADED, pipeline.getState());
+    }
+
+    @Test
+    public void failedBrokerDoesNotAffectOtherBrokers() throws Exception {
+        List<MetricObservationBuffer> buffers = new ArrayList<>();
+        List<EcsServicePipeline> pipelines = new ArrayList<>();
+        List<SolaceBrokerPoller> pollers = new ArrayList<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (int i = 0; i < 2; i++) {
+            EcsServiceConfig serviceConfig = scalerConfig.getEcsServiceConfig().get(i);
+            MetricObservationBuffer buffer = new MetricObservationBuffer(16);
+            EcsServicePipeline pipeline = new EcsServicePipeline(serviceConfig, buffer, executor, () -> { });
+            pipeline.start();
+            buffers.add(buffer);
+            pipelines.add(pipeline);
+
+            Map<String, SempQueueObservation> observations = new HashMap<>();
+            observations.put("service-queue-1", new SempQueueObservation("service-queue-1", 10L, 0L, 0L, 0L));
+            // The first broker is unreachable
+            pollers.add(new SolaceBrokerPoller(scalerConfig.findBrokerConfig(serviceConfig),
+                            stubMonitor(observations, i == 0 ? new IOException("broker unreachable") : null),
+                            List.of(pipeline), failures::incrementAndGet));
+        }
+
+        for (int poll = 1; poll <= 3; poll++) {
+            pollers.forEach(SolaceBrokerPoller::poll);
+            final int expected = poll;
+            waitFor(() -> buffers.get(1).size() == expected);
+        }
+
+        assertEquals(0, buffers.get(0).size());
+        assertEquals(1, failures.get());
+        assertEquals(EcsServicePipeline.State.DEGRADED, pipelines.get(0).getState());
+        assertEquals(EcsServicePipeline.State.RUNNING, pipelines.get(1).getState());
+        assertTrue(pollers.get(1).isAvailable());
+    }
+
+    @Test
+    public void pollPassesEveryQueueOfAggregatedServiceTogether() throws Exception {
+        ScalerConfig multiQueueConfig = ScalerConfigParser.validateScalerConfig(ScalerConfigParser.parseScalerConfig("src/test/resources/configs/valid-multi-queue-config.yaml"));
+        EcsServiceConfig serviceConfig = multiQueueConfig.getEcsServiceConfig().get(0);
+        MetricObservationBuffer buffer = new MetricObservationBuffer(16);
+        EcsServicePipeline pipeline = new EcsServicePipeline(serviceConfig, buffer, executor, () -> { });
+        pipeline.start();
+
+        Map<String, SempQueueObservation> observations = new HashMap<>();
+        observations.put("orders/priority", new SempQueueObservation("orders/priority", 10L, 0L, 0L, 0L));
+        SolaceQueueCollectionMonitor monitor = stubMonitor(observations, null);
+        SolaceBrokerPoller poller = new SolaceBrokerPoller(multiQueueConfig.findBrokerConfig(serviceConfig), monitor, List.of(pipeline), () -> fail());
+        // Every queue of the service is retrieved by the same bulk request
+        assertEquals(Set.of("orders/priority", "orders/standard"), monitor.getMonitoredQueueNames());
+
+        // A queue is missing; nothing is stored this cycle
+        poller.poll();
+        Thread.sleep(50L);
+        assertEquals(0, buffer.size());
+
+        // Weighted: 2 * 10 + 1 * 5
+        observations.put("orders/standard", new SempQueueObservation("orders/standard", 5L, 0L, 0L, 0L));
+        poller.poll();
+        waitFor(() -> buffer.size() == 1);
+        EcsServiceScalerObservations aggregated = new EcsServiceScalerObservations();
+        buffer.aggregate(0L, 0L, aggregated);
+        assertEquals(25L, aggregated.getMaxMessageCountObservationUp());
+    }
+
+    private static SolaceQueueCollectionMonitor stubMonitor(Map<String, SempQueueObservation> observations, IOException failure) {
+        Map<String, ScalerConfig.SempConfig> sempConfigMap = new HashMap<>();
+        sempConfigMap.put(SolaceQueueMonitor.ACTIVE_SEMP_CONFIG, new ScalerConfig.SempConfig("http://localhost:8080", "user", "password"));
+        return new SolaceQueueCollectionMonitor(new MessageVpnStateTracker(sempConfigMap, "vpn", 0L), observations.keySet(), (SempHttpTransport) null) {
+            @Override
+            public synchronized Map<String, SempQueueObservation> getQueueObservations() throws IOException {
+                if (failure != null) {
+                    throw failure;
+                }
+                return observations;
+            }
+        };
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue("Timed out waiting for condition", System.currentTimeMillis() < deadline);
+            Thread.sleep(5L);
+        }
+    }
+}
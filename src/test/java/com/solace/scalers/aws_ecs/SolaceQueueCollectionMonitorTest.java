@@ -0,0 +1,109 @@
+package com.solace.scalers.aws_ecs;
+
+import com.solace.scalers.aws_ecs.http.URLConnectionFactory;
+import com.solace.scalers.aws_ecs.model.ScalerConfig;
+import com.solace.scalers.aws_ecs.model.ScalerConfigParser;
+import com.solace.scalers.aws_ecs.model.semp_v2.SempQueueObservation;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.ByteArrayInputStream;
+import java.net.HttpURLConnection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SolaceQueueCollectionMonitorTest {
+
+    public static final String VPN_STATE_RESPONSE = "{\"data\":{\"state\":\"up\"}}";
+    public static final String FIRST_PAGE_RESPONSE_TEMPLATE = "{\"data\":[{\"averageRxMsgRate\":10,\"averageTxMsgRate\":8,\"msgSpoolUsage\":100,\"queueName\":\"service-queue-1\"},{\"averageRxMsgRate\":20,\"averageTxMsgRate\":18,\"msgSpoolUsage\":200,\"queueName\":\"service-queue-2\"},{\"averageRxMsgRate\":99,\"averageTxMsgRate\":99,\"msgSpoolUsage\":999,\"queueName\":\"service-queue-unmonitored\"}],\"collections\":[{\"msgs\":{\"count\":5}},{\"msgs\":{\"count\":7}},{\"msgs\":{\"count\":999}}],\"links\":[],\"meta\":{\"paging\":{\"cursorQuery\":\"abc\",\"nextPageUri\":\"%s\"},\"responseCode\":200}}";
+    public static final String SECOND_PAGE_RESPONSE = "{\"data\":[{\"averageRxMsgRate\":30,\"averageTxMsgRate\":28,\"msgSpoolUsage\":300,\"queueName\":\"service-queue-3\"}],\"collections\":[{\"msgs\":{\"count\":9}}],\"links\":[],\"meta\":{\"responseCode\":200}}";
+
+    @Mock
+    URLConnectionFactory mockFactory;
+    @Mock
+    HttpURLConnection vpnStateConnection;
+    @Mock
+    HttpURLConnection firstPageConnection;
+    @Mock
+    HttpURLConnection secondPageConnection;
+
+    Map<String, ScalerConfig.SempConfig> sempConfigMap = new ConcurrentHashMap<>();
+
+    ScalerConfig scalerConfig;
+
+    List<String> queueNames;
+
+    @Before
+    public void setUp() throws Exception {
+        String configFile = "src/test/resources/configs/valid-standalone-config.yaml";
+        scalerConfig = ScalerConfigParser.validateScalerConfig(ScalerConfigParser.parseScalerConfig(configFile));
+        sempConfigMap.put("active", scalerConfig.getBrokerConfig().getActiveMsgVpnSempConfig());
+        queueNames = scalerConfig.getEcsServiceConfig().stream().map(ScalerConfig.EcsServiceConfig::getQueueName).toList();
+    }
+
+    @Test
+    public void getQueueObservations_followsPaging() throws Exception {
+        String brokerSempUrl = scalerConfig.getBrokerConfig().getActiveMsgVpnSempConfig().getBrokerSempUrl();
+        String msgVpnName = scalerConfig.getBrokerConfig().getMsgVpnName();
+        String nextPageUri = brokerSempUrl + "/SEMP/v2/monitor/msgVpns/" + msgVpnName + "/queues?count=100&cursor=abc";
+
+        when(mockFactory.createConnection(SolaceQueueMonitor.formatVpnStateUrl(brokerSempUrl, msgVpnName))).thenReturn(vpnStateConnection);
+        when(vpnStateConnection.getResponseCode()).thenReturn(200);
+        when(vpnStateConnection.getInputStream()).thenReturn(new ByteArrayInputStream(VPN_STATE_RESPONSE.getBytes()));
+
+        when(mockFactory.createConnection(SolaceQueueCollectionMonitor.formatQueueCollectionUrl(brokerSempUrl, msgVpnName, "service-queue-*"))).thenReturn(firstPageConnection);
+        when(firstPageConnection.getResponseCode()).thenReturn(200);
+        when(firstPageConnection.getInputStream()).thenReturn(new ByteArrayInputStream(FIRST_PAGE_RESPONSE_TEMPLATE.formatted(nextPageUri).getBytes()));
+
+        when(mockFactory.createConnection(nextPageUri)).thenReturn(secondPageConnection);
+        when(secondPageConnection.getResponseCode()).thenReturn(200);
+        when(secondPageConnection.getInputStream()).thenReturn(new ByteArrayInputStream(SECOND_PAGE_RESPONSE.getBytes()));
+
+        SolaceQueueCollectionMonitor monitor = new SolaceQueueCollectionMonitor(sempConfigMap, msgVpnName, queueNames, mockFactory);
+
+        Map<String, SempQueueObservation> queueObservations = monitor.getQueueObservations();
+
+        assertEquals(3, queueObservations.size());
+        assertFalse(queueObservations.containsKey("service-queue-unmonitored"));
+        assertEquals(5L, queueObservations.get("service-queue-1").getMsgCount());
+        assertEquals(20L, queueObservations.get("service-queue-2").getAverageRxMsgRate());
+        assertEquals(18L, queueObservations.get("service-queue-2").getAverageTxMsgRate());
+        assertEquals(9L, queueObservations.get("service-queue-3").getMsgCount());
+        assertEquals(300L, queueObservations.get("service-queue-3").getMsgSpoolUsage());
+        verify(mockFactory, times(3)).createConnection(anyString());
+    }
+
+    @Test
+    public void getQueueObservations_failedRequest() throws Exception {
+        String brokerSempUrl = scalerConfig.getBrokerConfig().getActiveMsgVpnSempConfig().getBrokerSempUrl();
+        String msgVpnName = scalerConfig.getBrokerConfig().getMsgVpnName();
+
+        when(mockFactory.createConnection(SolaceQueueMonitor.formatVpnStateUrl(brokerSempUrl, msgVpnName))).thenReturn(vpnStateConnection);
+        when(vpnStateConnection.getResponseCode()).thenReturn(200);
+        // VPN state is checked again immediately after the failed queue request
+        when(vpnStateConnection.getInputStream()).thenAnswer(invocation -> new ByteArrayInputStream(VPN_STATE_RESPONSE.getBytes()));
+
+        when(mockFactory.createConnection(SolaceQueueCollectionMonitor.formatQueueCollectionUrl(brokerSempUrl, msgVpnName, "service-queue-*"))).thenReturn(firstPageConnection);
+        when(firstPageConnection.getResponseCode()).thenReturn(503);
+
+        SolaceQueueCollectionMonitor monitor = new SolaceQueueCollectionMonitor(sempConfigMap, msgVpnName, queueNames, mockFactory);
+
+        assertTrue(monitor.getQueueObservations().isEmpty());
+        verify(mockFactory, times(2)).createConnection(SolaceQueueMonitor.formatVpnStateUrl(brokerSempUrl, msgVpnName));
+    }
+
+    @Test
+    public void formatQueueNameFilter() {
+        assertEquals("service-queue-*", SolaceQueueCollectionMonitor.formatQueueNameFilter(List.of("service-queue-1", "service-queue-2", "service-queue-3")));
+        assertEquals("service-queue-1", SolaceQueueCollectionMonitor.formatQueueNameFilter(List.of("service-queue-1")));
+        assertEquals("", SolaceQueueCollectionMonitor.formatQueueNameFilter(List.of("orders", "payments")));
+    }
+}
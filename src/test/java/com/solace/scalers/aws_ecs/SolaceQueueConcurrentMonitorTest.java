@@ -0,0 +1,141 @@
+package com.solace.scalers.aws_ecs;
+
+import com.solace.scalers.aws_ecs.http.SempHttpResponse;
+import com.solace.scalers.aws_ecs.http.SempHttpTransport;
+import com.solace.scalers.aws_ecs.model.ScalerConfig;
+import com.solace.scalers.aws_ecs.model.semp_v2.SempQueueObservation;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.solace.scalers.aws_ecs.SolaceQueueMonitor.ACTIVE_SEMP_CONFIG;
+import static org.junit.Assert.*;
+
+public class SolaceQueueConcurrentMonitorTest {
+
+    public static final String VPN_STATE_RESPONSE = "{\"data\":{\"state\":\"up\"}}";
+    public static final String QUEUE_RESPONSE_TEMPLATE = "{\"data\":{\"averageRxMsgRate\":10,\"msgSpoolUsage\":100,\"queueName\":\"%s\"},\"collections\":{\"msgs\":{\"count\":%d}}}";
+    public static final long RESPONSE_DELAY_MILLIS = 200L;
+
+    Map<String, ScalerConfig.SempConfig> sempConfigMap = new ConcurrentHashMap<>();
+
+    List<String> queueNames = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        sempConfigMap.put(ACTIVE_SEMP_CONFIG, new ScalerConfig.SempConfig("http://my.solace.broker.com:943", "user", "password"));
+        for (int i = 0; i < 20; i++) {
+            queueNames.add("service-queue-" + i);
+        }
+    }
+
+    @Test
+    public void getQueueObservations_requestsInParallel() throws Exception {
+        DelayedSempHttpTransport transport = new DelayedSempHttpTransport(Set.of());
+        SolaceQueueConcurrentMonitor monitor = createMonitor(transport, 20, Duration.ofSeconds(5L));
+
+        long startTime = System.currentTimeMillis();
+        Map<String, SempQueueObservation> queueObservations = monitor.getQueueObservations();
+        long elapsed = System.currentTimeMillis() - startTime;
+
+        assertEquals(20, queueObservations.size());
+        assertEquals(7L, queueObservations.get("service-queue-7").getMsgCount());
+        // 20 sequential requests would take 20 * RESPONSE_DELAY_MILLIS
+        assertTrue("Poll took " + elapsed + " ms", elapsed < RESPONSE_DELAY_MILLIS * 5);
+    }
+
+    @Test
+    public void getQueueObservations_concurrencyCap() throws Exception {
+        DelayedSempHttpTransport transport = new DelayedSempHttpTransport(Set.of());
+        SolaceQueueConcurrentMonitor monitor = createMonitor(transport, 4, Duration.ofSeconds(5L));
+
+        assertEquals(20, monitor.getQueueObservations().size());
+        assertTrue(transport.maxInFlight.get() <= 4);
+        assertEquals(4, transport.maxInFlight.get());
+    }
+
+    @Test
+    public void getQueueObservations_cycleDeadline() throws Exception {
+        DelayedSempHttpTransport transport = new DelayedSempHttpTransport(Set.of("service-queue-3"));
+        SolaceQueueConcurrentMonitor monitor = createMonitor(transport, 20, Duration.ofMillis(RESPONSE_DELAY_MILLIS * 3));
+
+        long startTime = System.currentTimeMillis();
+        Map<String, SempQueueObservation> queueObservations = monitor.getQueueObservations();
+        long elapsed = System.currentTimeMillis() - startTime;
+
+        // The queue that never responds is dropped from this cycle without delaying the others
+        assertEquals(19, queueObservations.size());
+        assertFalse(queueObservations.containsKey("service-queue-3"));
+        assertTrue("Poll took " + elapsed + " ms", elapsed < RESPONSE_DELAY_MILLIS * 6);
+    }
+
+    @Test
+    public void getQueueObservations_concurrencyCapIncludesAbandonedRequests() throws Exception {
+        DelayedSempHttpTransport transport = new DelayedSempHttpTransport(Set.of());
+        SolaceQueueConcurrentMonitor monitor = createMonitor(transport, 4, Duration.ofMillis(RESPONSE_DELAY_MILLIS / 4));
+
+        // The first cycle ends while its requests are still in flight; the next cycle cannot send more
+        assertTrue(monitor.getQueueObservations().isEmpty());
+        assertTrue(monitor.getQueueObservations().isEmpty());
+        assertEquals(4, transport.maxInFlight.get());
+
+        // Permits return as the exchanges complete
+        Thread.sleep(RESPONSE_DELAY_MILLIS * 2);
+        assertEquals(0, transport.inFlight.get());
+    }
+
+    private SolaceQueueConcurrentMonitor createMonitor(SempHttpTransport transport, int maxConcurrentRequests, Duration cycleDeadline) {
+        return new SolaceQueueConcurrentMonitor(
+                new MessageVpnStateTracker(sempConfigMap, "testVpn", 60000L),
+                queueNames, transport, maxConcurrentRequests, Duration.ofSeconds(5L), cycleDeadline);
+    }
+
+    /**
+     * Answers VPN state requests immediately and queue requests after RESPONSE_DELAY_MILLIS;
+     * queues in `unresponsiveQueues` never respond
+     */
+    static class DelayedSempHttpTransport implements SempHttpTransport {
+
+        final Set<String> unresponsiveQueues;
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+
+        DelayedSempHttpTransport(Set<String> unresponsiveQueues) {
+            this.unresponsiveQueues = unresponsiveQueues;
+        }
+
+        @Override
+        public SempHttpResponse get(String urlString, String authHeader) {
+            return response(VPN_STATE_RESPONSE);
+        }
+
+        @Override
+        public CompletableFuture<SempHttpResponse> getAsync(String urlString, String authHeader, Duration timeout) {
+            String queueName = urlString.substring(urlString.lastIndexOf('/') + 1, urlString.indexOf('?'));
+            if (unresponsiveQueues.contains(queueName)) {
+                return new CompletableFuture<>();
+            }
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            int queueNumber = Integer.parseInt(queueName.substring(queueName.lastIndexOf('-') + 1));
+            return CompletableFuture.supplyAsync(() -> {
+                        inFlight.decrementAndGet();
+                        return response(QUEUE_RESPONSE_TEMPLATE.formatted(queueName, queueNumber));
+                    }, CompletableFuture.delayedExecutor(RESPONSE_DELAY_MILLIS, TimeUnit.MILLISECONDS));
+        }
+
+        private static SempHttpResponse response(String body) {
+            return new SempHttpResponse(200, "OK", new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.solace.scalers.aws_ecs;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class StartupLatencyTrackerTest {
+
+    @Test
+    public void emptyTrackerHasNoPercentiles() {
+        StartupLatencyTracker tracker = new StartupLatencyTracker();
+        assertEquals(0, tracker.getSampleCount());
+        assertNull(tracker.getPercentile(50.0));
+    }
+
+    @Test
+    public void nearestRankPercentiles() {
+        StartupLatencyTracker tracker = new StartupLatencyTracker();
+        for (long latency = 10L; latency >= 1L; latency--) {
+            tracker.record(latency * 1000L);
+        }
+        assertEquals(10, tracker.getSampleCount());
+        assertEquals(Long.valueOf(1000L), tracker.getPercentile(0.0));
+        assertEquals(Long.valueOf(5000L), tracker.getPercentile(50.0));
+        assertEquals(Long.valueOf(9000L), tracker.getPercentile(90.0));
+        assertEquals(Long.valueOf(10000L), tracker.getPercentile(95.0));
+        assertEquals(Long.valueOf(10000L), tracker.getPercentile(100.0));
+    }
+
+    @Test
+    public void keepsMostRecentSamples() {
+        StartupLatencyTracker tracker = new StartupLatencyTracker(3);
+        tracker.record(100000L);
+        tracker.record(1000L);
+        tracker.record(2000L);
+        tracker.record(3000L);
+        assertEquals(3, tracker.getSampleCount());
+        assertEquals(Long.valueOf(3000L), tracker.getPercentile(100.0));
+        assertEquals(Long.valueOf(1000L), tracker.getPercentile(1.0));
+    }
+
+    @Test
+    public void negativeLatencyRecordedAsZero() {
+        StartupLatencyTracker tracker = new StartupLatencyTracker();
+        tracker.record(-5L);
+        assertEquals(Long.valueOf(0L), tracker.getPercentile(50.0));
+    }
+}
@@ -0,0 +1,114 @@
+package com.solace.scalers.aws_ecs.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyStore;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsServer;
+
+/**
+ * Local SEMPv2 stub server used by benchmarks and load tests.
+ * Responses are produced by a function of the request URI (path + query); a null response returns HTTP 404.
+ * The https variant uses the self-signed localhost certificate in src/test/resources/benchmark/localhost.p12
+ */
+public class LocalSempStubServer implements AutoCloseable {
+
+    private static final String KEYSTORE_RESOURCE = "/benchmark/localhost.p12";
+    private static final char[] KEYSTORE_PASSWORD = "changeit".toCharArray();
+
+    static {
+        // The JDK server writes headers and body separately; without TCP_NODELAY, kept-alive connections
+        // stall on delayed ACKs and the stub dominates the measured latency
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final SSLContext sslContext;
+    private final String baseUrl;
+
+    private LocalSempStubServer(HttpServer server, SSLContext sslContext, Function<String, String> responder, int threads) {
+        this.server = server;
+        this.sslContext = sslContext;
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.server.setExecutor(executor);
+        this.server.createContext("/", exchange -> respond(exchange, responder));
+        this.server.start();
+        this.baseUrl = (sslContext == null ? "http" : "https") + "://localhost:" + server.getAddress().getPort();
+    }
+
+    public static LocalSempStubServer startHttp(Function<String, String> responder, int threads) throws IOException {
+        return new LocalSempStubServer(HttpServer.create(new InetSocketAddress("localhost", 0), 0), null, responder, threads);
+    }
+
+    public static LocalSempStubServer startHttps(Function<String, String> responder, int threads) throws Exception {
+        SSLContext sslContext = createLocalhostSslContext();
+        HttpsServer httpsServer = HttpsServer.create(new InetSocketAddress("localhost", 0), 0);
+        httpsServer.setHttpsConfigurator(new HttpsConfigurator(sslContext));
+        return new LocalSempStubServer(httpsServer, sslContext, responder, threads);
+    }
+
+    /**
+     * SSLContext that presents and trusts the self-signed localhost certificate
+     * @return
+     * @throws Exception
+     */
+    public static SSLContext createLocalhostSslContext() throws Exception {
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream in = LocalSempStubServer.class.getResourceAsStream(KEYSTORE_RESOURCE)) {
+            keyStore.load(in, KEYSTORE_PASSWORD);
+        }
+        KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagerFactory.init(keyStore, KEYSTORE_PASSWORD);
+        TrustManagerFactory trustManagerFactory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trustManagerFactory.init(keyStore);
+
+        SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(keyManagerFactory.getKeyManagers(), trustManagerFactory.getTrustManagers(), null);
+        return sslContext;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public SSLContext getSslContext() {
+        return sslContext;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private static void respond(HttpExchange exchange, Function<String, String> responder) throws IOException {
+        try (exchange) {
+            exchange.getRequestBody().readAllBytes();
+            String response = responder.apply(exchange.getRequestURI().toString());
+            if (response == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            byte[] body = response.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.solace.scalers.aws_ecs.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.amazonaws.services.ecs.AbstractAmazonECS;
+import com.amazonaws.services.ecs.model.Deployment;
+import com.amazonaws.services.ecs.model.DescribeServicesRequest;
+import com.amazonaws.services.ecs.model.DescribeServicesResult;
+import com.amazonaws.services.ecs.model.Service;
+import com.amazonaws.services.ecs.model.UpdateServiceRequest;
+import com.amazonaws.services.ecs.model.UpdateServiceResult;
+import com.solace.scalers.aws_ecs.EcsServiceActuator;
+import com.solace.scalers.aws_ecs.EcsServiceMetrics;
+import com.solace.scalers.aws_ecs.EcsServicePipeline;
+import com.solace.scalers.aws_ecs.EcsServicePipelineScheduler;
+import com.solace.scalers.aws_ecs.EcsServiceScaler;
+import com.solace.scalers.aws_ecs.EcsServiceStateCollector;
+import com.solace.scalers.aws_ecs.SolaceQueueCollectionMonitor;
+import com.solace.scalers.aws_ecs.model.ScalerConfig;
+import com.solace.scalers.aws_ecs.model.ScalerConfig.BrokerConfig;
+import com.solace.scalers.aws_ecs.model.ScalerConfig.EcsServiceConfig;
+import com.solace.scalers.aws_ecs.model.ScalerConfigParser;
+import com.solace.scalers.aws_ecs.model.semp_v2.SempQueueObservation;
+import com.solace.scalers.aws_ecs.util.SolaceQueueMonitorUtils;
+
+/**
+ * Whole-scaler load test with thousands of services on one broker, against a local SEMP stub server and a fake ECS:
+ * - pollCycle: one polling interval -- retrieve every queue from SEMP, ingest into every pipeline, run the
+ *   evaluations the observations trigger
+ * - decisionCycle: one periodic evaluation of every service
+ * - ecsStateCycle: retrieve the task counts of every service with DescribeServices
+ * - validateConfig: parse and validate the configuration file
+ * Retained heap per service is printed once per trial, after the scaler is built.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ScalerLoadBenchmark {
+
+    private static final String VPN_NAME = "benchVpn";
+    private static final String QUEUE_PREFIX = "bench-queue-";
+    private static final String VPN_STATE_RESPONSE = "{\"data\":{\"state\":\"up\"}}";
+    private static final String QUEUE_RESPONSE_FORMAT = "{\"data\":{\"averageRxMsgRate\":%d,\"averageTxMsgRate\":%d,\"msgSpoolUsage\":%d,\"msgVpnName\":\"" + VPN_NAME + "\",\"queueName\":\"%s\"},\"collections\":{\"msgs\":{\"count\":%d}},\"meta\":{\"responseCode\":200}}";
+    private static final int POLLING_INTERVAL_SECONDS = 10;
+
+    @Param({"5000"})
+    public int services;
+
+    @Param({BrokerConfig.SEMP_POLLING_MODE_COLLECTION, BrokerConfig.SEMP_POLLING_MODE_QUEUE})
+    public String sempPollingMode;
+
+    private LocalSempStubServer server;
+    private Path configFile;
+    private ScheduledExecutorService actuatorThreads;
+    private EcsServicePipelineScheduler pipelineScheduler;
+    private SolaceQueueCollectionMonitor monitor;
+    private EcsServiceStateCollector ecsServiceStateCollector;
+    private final Map<String, EcsServicePipeline> pipelines = new HashMap<>();
+    private volatile int cycle;
+    private long observationTime;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = LocalSempStubServer.startHttp(this::respond, 8);
+        configFile = Files.createTempFile("scaler-load", ".yaml");
+        Files.writeString(configFile, formatConfig(server.getBaseUrl(), services, sempPollingMode), StandardCharsets.UTF_8);
+        ScalerConfig scalerConfig = ScalerConfigParser.validateScalerConfig(ScalerConfigParser.parseScalerConfig(configFile.toString()));
+        BrokerConfig brokerConfig = scalerConfig.getBrokerConfigs().get(0);
+
+        long heapBefore = usedHeap();
+        FakeEcs ecs = new FakeEcs();
+        actuatorThreads = Executors.newScheduledThreadPool(2);
+        EcsServiceActuator actuator = new EcsServiceActuator(ecs, actuatorThreads);
+        pipelineScheduler = new EcsServicePipelineScheduler(Runtime.getRuntime().availableProcessors());
+        List<EcsServiceMetrics> ecsServiceMetricsList = new ArrayList<>();
+        for (EcsServiceConfig ecsServiceConfig : scalerConfig.getEcsServiceConfig()) {
+            EcsServiceScaler scaler = new EcsServiceScaler(ecsServiceConfig, brokerConfig.getPollingInterval(), actuator);
+            EcsServiceMetrics ecsServiceMetrics = new EcsServiceMetrics(ecsServiceConfig);
+            ecsServiceMetrics.updateTaskCounts(1, 1);
+            ecsServiceMetricsList.add(ecsServiceMetrics);
+            EcsServicePipeline pipeline = pipelineScheduler.add(shard -> new EcsServicePipeline(scaler, ecsServiceMetrics, shard));
+            pipeline.start();
+            pipeline.startScaling();
+            pipelines.put(ecsServiceConfig.getQueueName(), pipeline);
+        }
+        monitor = SolaceQueueMonitorUtils.createSolaceQueuePollingMonitorWithBasicAuth(brokerConfig, scalerConfig.getEcsServiceConfig());
+        ecsServiceStateCollector = new EcsServiceStateCollector(ecsServiceMetricsList, ecs);
+
+        // Fill the stabilization windows before measuring, with one observation per polling interval
+        observationTime = System.currentTimeMillis() - 20 * POLLING_INTERVAL_SECONDS * 1000L;
+        for (int i = 0; i < 20; i++) {
+            poll(observationTime += POLLING_INTERVAL_SECONDS * 1000L);
+        }
+        long heapAfter = usedHeap();
+        System.out.printf("%n%d services (%s): %d bytes retained per service%n",
+                services, sempPollingMode, (heapAfter - heapBefore) / services);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        pipelineScheduler.shutdown();
+        actuatorThreads.shutdownNow();
+        server.close();
+        Files.deleteIfExists(configFile);
+    }
+
+    @Benchmark
+    public int pollCycle() throws Exception {
+        // Observations later than the evaluation time are not used
+        observationTime = Math.max(System.currentTimeMillis(), observationTime + 1L);
+        return poll(observationTime);
+    }
+
+    @Benchmark
+    public void decisionCycle() throws Exception {
+        pipelines.values().forEach(EcsServicePipeline::requestEvaluation);
+        pipelineScheduler.drain().get();
+    }
+
+    @Benchmark
+    public int ecsStateCycle() {
+        ecsServiceStateCollector.retrieveServiceState();
+        return ecsServiceStateCollector.getRequestCount();
+    }
+
+    @Benchmark
+    public ScalerConfig validateConfig() throws Exception {
+        return ScalerConfigParser.validateScalerConfig(ScalerConfigParser.parseScalerConfig(configFile.toString()));
+    }
+
+    private int poll(long observationTime) throws Exception {
+        cycle++;
+        Map<String, SempQueueObservation> observations = monitor.getQueueObservations();
+        for (Map.Entry<String, SempQueueObservation> entry : observations.entrySet()) {
+            pipelines.get(entry.getKey()).ingest(observationTime, entry.getValue());
+        }
+        // First drain runs the ingest stages, the second the evaluations they requested
+        pipelineScheduler.drain().get();
+        pipelineScheduler.drain().get();
+        return observations.size();
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100L);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static String queueName(int i) {
+        return String.format("%s%05d", QUEUE_PREFIX, i);
+    }
+
+    /**
+     * Backlog of each queue changes every cycle, so that some services scale on every poll
+     */
+    private long msgCount(int i) {
+        return (cycle * 37L + i * 13L) % 2000L;
+    }
+
+    private String formatQueue(int i) {
+        long msgCount = msgCount(i);
+        return String.format(QUEUE_RESPONSE_FORMAT, msgCount / 4, msgCount / 5, msgCount * 1024L, queueName(i), msgCount);
+    }
+
+    /**
+     * Stub responses: VPN state, queue collection pages of SEMP_PAGE_SIZE queues with a numeric cursor, single queues
+     */
+    private String respond(String uri) {
+        int queuesIndex = uri.indexOf("/queues");
+        if (queuesIndex < 0) {
+            return VPN_STATE_RESPONSE;
+        }
+        if (uri.startsWith("/queues/", queuesIndex)) {
+            int nameStart = queuesIndex + "/queues/".length();
+            int nameEnd = uri.indexOf('?', nameStart);
+            return formatQueue(Integer.parseInt(uri.substring(nameStart + QUEUE_PREFIX.length(), nameEnd < 0 ? uri.length() : nameEnd)));
+        }
+        int cursorIndex = uri.indexOf("cursor=");
+        int page = cursorIndex < 0 ? 0 : Integer.parseInt(uri.substring(cursorIndex + "cursor=".length()));
+        int first = page * SolaceQueueCollectionMonitor.SEMP_PAGE_SIZE;
+        int last = Math.min(first + SolaceQueueCollectionMonitor.SEMP_PAGE_SIZE, services);
+
+        StringBuilder data = new StringBuilder("{\"data\":[");
+        StringBuilder collections = new StringBuilder("],\"collections\":[");
+        for (int i = first; i < last; i++) {
+            long msgCount = msgCount(i);
+            if (i > first) {
+                data.append(',');
+                collections.append(',');
+            }
+            data.append("{\"averageRxMsgRate\":").append(msgCount / 4)
+                .append(",\"averageTxMsgRate\":").append(msgCount / 5)
+                .append(",\"msgSpoolUsage\":").append(msgCount * 1024L)
+                .append(",\"queueName\":\"").append(queueName(i)).append("\"}");
+            collections.append("{\"msgs\":{\"count\":").append(msgCount).append("}}");
+        }
+        data.append(collections).append("],\"links\":[],\"meta\":{");
+        if (last < services) {
+            data.append("\"paging\":{\"cursorQuery\":\"").append(page + 1).append("\",\"nextPageUri\":\"")
+                .append(server.getBaseUrl()).append("/SEMP/v2/monitor/msgVpns/").append(VPN_NAME)
+                .append("/queues?count=100&cursor=").append(page + 1).append("\"},");
+        }
+        return data.append("\"responseCode\":200}}").toString();
+    }
+
+    private static String formatConfig(String brokerSempUrl, int services, String sempPollingMode) {
+        StringBuilder config = new StringBuilder()
+            .append("---\n")
+            .append("brokerConfig:\n")
+            .append("  activeMsgVpnSempConfig:\n")
+            .append("    brokerSempUrl: ").append(brokerSempUrl).append('\n')
+            .append("    username: admin\n")
+            .append("    password: admin\n")
+            .append("  msgVpnName: ").append(VPN_NAME).append('\n')
+            .append("  pollingInterval: ").append(POLLING_INTERVAL_SECONDS).append('\n')
+            .append("  sempPollingMode: ").append(sempPollingMode).append('\n')
+            .append("ecsServiceConfig:\n");
+        for (int i = 0; i < services; i++) {
+            config.append("- ecsCluster: bench-cluster-").append(i % 10).append('\n')
+                .append("  ecsService: bench-service-").append(i).append('\n')
+                .append("  queueName: ").append(queueName(i)).append('\n')
+                .append("  taskCountSource: ").append(EcsServiceConfig.TASK_COUNT_SOURCE_ECS).append('\n')
+                .append("  scalerBehaviorConfig:\n")
+                .append("    minReplicaCount: 1\n")
+                .append("    maxReplicaCount: 20\n")
+                .append("    messageCountTarget: 100\n")
+                .append("    messageReceiveRateTarget: 50\n")
+                .append("    messageSpoolUsageTarget: 102400\n")
+                .append("    minEvaluationInterval: 0\n")
+                .append("    scaleOutConfig:\n")
+                .append("      maxScaleStep: 5\n")
+                .append("      cooldownPeriod: 0\n")
+                .append("      stabilizationWindow: 10\n")
+                .append("    scaleInConfig:\n")
+                .append("      maxScaleStep: 2\n")
+                .append("      cooldownPeriod: 0\n")
+                .append("      stabilizationWindow: 120\n");
+        }
+        return config.toString();
+    }
+
+    /**
+     * Accepts every update; reports each service as running its desired count
+     */
+    static class FakeEcs extends AbstractAmazonECS {
+
+        private final Map<String, Integer> desiredCounts = new ConcurrentHashMap<>();
+
+        @Override
+        public UpdateServiceResult updateService(UpdateServiceRequest request) {
+            desiredCounts.put(request.getService(), request.getDesiredCount());
+            return new UpdateServiceResult();
+        }
+
+        @Override
+        public DescribeServicesResult describeServices(DescribeServicesRequest request) {
+            DescribeServicesResult result = new DescribeServicesResult();
+            for (String serviceName : request.getServices()) {
+                int desiredCount = desiredCounts.getOrDefault(serviceName, 1);
+                result.withServices(new Service().withServiceName(serviceName)
+                        .withDesiredCount(desiredCount).withRunningCount(desiredCount).withPendingCount(0)
+                        .withDeployments(new Deployment().withStatus("PRIMARY").withRolloutState("COMPLETED")));
+            }
+            return result;
+        }
+    }
+}
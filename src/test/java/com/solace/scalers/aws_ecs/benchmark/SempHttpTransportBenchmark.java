@@ -0,0 +1,84 @@
+package com.solace.scalers.aws_ecs.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.HttpsURLConnection;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.solace.scalers.aws_ecs.http.HttpClientSempTransport;
+import com.solace.scalers.aws_ecs.http.SempHttpResponse;
+import com.solace.scalers.aws_ecs.http.SempHttpTransport;
+import com.solace.scalers.aws_ecs.http.URLConnectionSempHttpTransport;
+
+/**
+ * Per-request latency of a SEMP GET against a local HTTPS stub server:
+ * - urlConnectionPerRequest: new HttpsURLConnection + disconnect() per request (TCP + TLS handshake every time)
+ * - httpClientKeepAlive: shared java.net.http.HttpClient with pooled keep-alive connections
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SempHttpTransportBenchmark {
+
+    private static final String QUEUE_RESPONSE = "{\"data\":{\"averageRxMsgRate\":10,\"averageTxMsgRate\":8,\"msgSpoolUsage\":1024,\"msgVpnName\":\"benchVpn\",\"queueName\":\"bench-queue\"},\"collections\":{\"msgs\":{\"count\":42}},\"meta\":{\"responseCode\":200}}";
+    private static final String AUTH_HEADER = "Basic YWRtaW46YWRtaW4=";
+
+    private LocalSempStubServer server;
+    private SempHttpTransport urlConnectionTransport;
+    private SempHttpTransport httpClientTransport;
+    private String url;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = LocalSempStubServer.startHttps(uri -> QUEUE_RESPONSE, 4);
+        url = server.getBaseUrl() + "/SEMP/v2/monitor/msgVpns/benchVpn/queues/bench-queue";
+
+        urlConnectionTransport = new URLConnectionSempHttpTransport(urlString -> {
+            HttpsURLConnection connection = (HttpsURLConnection) new URI(urlString).toURL().openConnection();
+            connection.setSSLSocketFactory(server.getSslContext().getSocketFactory());
+            return connection;
+        });
+        httpClientTransport = new HttpClientSempTransport(server.getSslContext(), HttpClientSempTransport.DEFAULT_CONNECT_TIMEOUT, Duration.ofSeconds(5L));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public int urlConnectionPerRequest() throws IOException, URISyntaxException {
+        return execute(urlConnectionTransport);
+    }
+
+    @Benchmark
+    public int httpClientKeepAlive() throws IOException, URISyntaxException {
+        return execute(httpClientTransport);
+    }
+
+    private int execute(SempHttpTransport transport) throws IOException, URISyntaxException {
+        try (SempHttpResponse response = transport.get(url, AUTH_HEADER); InputStream body = response.getBody()) {
+            return body.readAllBytes().length;
+        }
+    }
+}
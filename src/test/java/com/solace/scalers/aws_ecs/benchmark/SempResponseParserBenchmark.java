@@ -0,0 +1,123 @@
+package com.solace.scalers.aws_ecs.benchmark;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.gson.Gson;
+import com.solace.scalers.aws_ecs.model.semp_v2.SempQueueObservation;
+import com.solace.scalers.aws_ecs.model.semp_v2.SempQueueResponse;
+import com.solace.scalers.aws_ecs.util.MetricMapUtils;
+import com.solace.scalers.aws_ecs.util.SempResponseParser;
+
+/**
+ * Parsing cost of SEMP queue responses:
+ * - gson*: previous path -- read body line by line into a StringBuffer, new Gson per response, full SempQueueResponse
+ *   object graph, then copy into a HashMap
+ * - streaming*: SempResponseParser reading the fields used by the scaler directly from the stream
+ * Run with `-prof gc` to compare allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SempResponseParserBenchmark {
+
+    private static final String QUEUE_RESPONSE = "{\"data\":{\"averageRxMsgRate\":12,\"averageTxMsgRate\":11,\"msgSpoolUsage\":2048,\"msgVpnName\":\"benchVpn\",\"queueName\":\"bench-queue-1\"},\"collections\":{\"msgs\":{\"count\":42}},\"links\":{\"uri\":\"https://localhost:943/SEMP/v2/monitor/msgVpns/benchVpn/queues/bench-queue-1\"},\"meta\":{\"request\":{\"method\":\"GET\",\"uri\":\"https://localhost:943/SEMP/v2/monitor/msgVpns/benchVpn/queues/bench-queue-1?select=msgs.count,msgVpnName,queueName,msgSpoolUsage,averageRxMsgRate,averageTxMsgRate\"},\"responseCode\":200}}";
+
+    private static final int COLLECTION_PAGE_SIZE = 100;
+
+    private byte[] queueResponse;
+    private byte[] collectionPageResponse;
+    private Set<String> monitoredQueueNames;
+    private final SempQueueObservation observation = new SempQueueObservation();
+
+    @Setup
+    public void setUp() {
+        queueResponse = QUEUE_RESPONSE.getBytes(StandardCharsets.UTF_8);
+
+        monitoredQueueNames = new HashSet<>();
+        StringBuilder collections = new StringBuilder();
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < COLLECTION_PAGE_SIZE; i++) {
+            String queueName = "bench-queue-" + i;
+            monitoredQueueNames.add(queueName);
+            collections.append(i == 0 ? "" : ",").append("{\"msgs\":{\"count\":").append(i * 10).append("}}");
+            data.append(i == 0 ? "" : ",").append("{\"averageRxMsgRate\":").append(i).append(",\"averageTxMsgRate\":").append(i)
+                .append(",\"msgSpoolUsage\":").append(i * 1024).append(",\"queueName\":\"").append(queueName).append("\"}");
+        }
+        collectionPageResponse = ("{\"collections\":[" + collections + "],\"data\":[" + data + "],\"links\":[],\"meta\":{\"count\":" + COLLECTION_PAGE_SIZE
+                + ",\"paging\":{\"cursorQuery\":\"abc\",\"nextPageUri\":\"https://localhost:943/SEMP/v2/monitor/msgVpns/benchVpn/queues?count=100&cursor=abc\"},\"responseCode\":200}}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Map<String, Long> gsonQueueResponse() throws IOException {
+        SempQueueResponse sempQueueResponse = new Gson().fromJson(readLines(queueResponse), SempQueueResponse.class);
+        return MetricMapUtils.getQueueMetricsFromQueueResponse(sempQueueResponse);
+    }
+
+    @Benchmark
+    public long streamingQueueResponse() throws IOException {
+        SempResponseParser.parseQueueResponse(new ByteArrayInputStream(queueResponse), observation);
+        return observation.getMsgCount() + observation.getAverageRxMsgRate() + observation.getMsgSpoolUsage();
+    }
+
+    @Benchmark
+    public void gsonCollectionPage(Blackhole blackhole) throws IOException {
+        GsonQueueCollectionPage page = new Gson().fromJson(readLines(collectionPageResponse), GsonQueueCollectionPage.class);
+        for (int i = 0; i < page.data.size(); i++) {
+            if (monitoredQueueNames.contains(page.data.get(i).getQueueName())) {
+                blackhole.consume(MetricMapUtils.getQueueMetricsFromQueueResponse(new SempQueueResponse(page.collections.get(i), page.data.get(i))));
+            }
+        }
+    }
+
+    @Benchmark
+    public Map<String, SempQueueObservation> streamingCollectionPage() throws IOException {
+        Map<String, SempQueueObservation> observations = new HashMap<>(COLLECTION_PAGE_SIZE * 2);
+        SempResponseParser.parseQueueCollectionPage(new ByteArrayInputStream(collectionPageResponse), monitoredQueueNames, observations);
+        return observations;
+    }
+
+    private static String readLines(byte[] body) throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body)));
+        String inputLine;
+        StringBuffer content = new StringBuffer();
+        while ((inputLine = in.readLine()) != null) {
+            content.append(inputLine);
+        }
+        in.close();
+        return content.toString();
+    }
+
+    /**
+     * Collection page shape as read by Gson in the previous implementation
+     */
+    static class GsonQueueCollectionPage {
+        List<SempQueueResponse.QueueCollections> collections;
+        List<SempQueueResponse.QueueData> data;
+    }
+}
@@ -0,0 +1,82 @@
+package com.solace.scalers.aws_ecs.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.solace.scalers.aws_ecs.MetricObservationBuffer;
+import com.solace.scalers.aws_ecs.model.util.ecs.EcsServiceScalerObservations;
+import com.solace.scalers.aws_ecs.util.EcsServiceScalerUtils;
+import com.solace.scalers.aws_ecs.util.MetricMapUtils;
+
+/**
+ * Cost of one stabilization-window evaluation for a service polled every second:
+ * - mapScan: previous path -- scan every retained observation in the Map<Long, Map<String, Long>>
+ * - windowMax: MetricObservationBuffer monotonic deques
+ * Each evaluation follows one new observation, as in the scaler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StabilizationWindowBenchmark {
+
+    @Param({"60", "600", "3600"})
+    public int scaleInWindowSeconds;
+
+    private static final int SCALE_OUT_WINDOW_SECONDS = 30;
+
+    private Map<Long, Map<String, Long>> metricObservations;
+    private MetricObservationBuffer metricObservationBuffer;
+    private long observationTime;
+
+    @Setup
+    public void setUp() {
+        long retentionMillis = scaleInWindowSeconds * 2L * 1000L;
+        metricObservations = new ConcurrentHashMap<>(250, 0.75F, 3);
+        // Sized for the full retention rather than capacityFor(), which is limited to MAX_CAPACITY, so both
+        // implementations hold the same observations
+        metricObservationBuffer = new MetricObservationBuffer((int) (retentionMillis / 1000L) + 2, retentionMillis,
+                SCALE_OUT_WINDOW_SECONDS * 1000L, scaleInWindowSeconds * 1000L);
+        observationTime = 0L;
+        while (observationTime < retentionMillis) {
+            addObservation();
+        }
+    }
+
+    @Benchmark
+    public EcsServiceScalerObservations mapScan() {
+        addObservation();
+        return MetricMapUtils.getEcsServiceScalerObservations(observationTime, metricObservations,
+                observationTime - SCALE_OUT_WINDOW_SECONDS * 1000L, observationTime - scaleInWindowSeconds * 1000L);
+    }
+
+    @Benchmark
+    public EcsServiceScalerObservations windowMax() {
+        addObservation();
+        return EcsServiceScalerUtils.getEcsServiceScalerObservations(observationTime, metricObservationBuffer,
+                observationTime - SCALE_OUT_WINDOW_SECONDS * 1000L, observationTime - scaleInWindowSeconds * 1000L);
+    }
+
+    private void addObservation() {
+        observationTime += 1000L;
+        long messageCount = (observationTime * 7919L) % 1000L;
+        metricObservations.remove(observationTime - scaleInWindowSeconds * 2L * 1000L);
+        metricObservations.put(observationTime, Map.of(EcsServiceScalerUtils.METRIC_MSG_COUNT, messageCount, EcsServiceScalerUtils.METRIC_AVG_RX_RATE, messageCount));
+        metricObservationBuffer.add(observationTime, messageCount, messageCount, 0L, 0L);
+    }
+}
@@ -0,0 +1,106 @@
+package com.solace.scalers.aws_ecs.http;
+
+import com.solace.scalers.aws_ecs.benchmark.LocalSempStubServer;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.*;
+
+public class HttpClientSempTransportTest {
+
+    public static final String QUEUE_RESPONSE = "{\"data\":{\"queueName\":\"testQueue\"}}";
+    public static final String AUTH_HEADER = "Basic dXNlcjpwYXNzd29yZA==";
+
+    HttpServer server;
+
+    String baseUrl;
+
+    List<String> authHeaders = new CopyOnWriteArrayList<>();
+    List<Integer> clientPorts = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            authHeaders.add(exchange.getRequestHeaders().getFirst("Authorization"));
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            if (exchange.getRequestURI().getPath().endsWith("/missing")) {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+            byte[] body = QUEUE_RESPONSE.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void get_returnsBodyAndSendsAuthHeader() throws Exception {
+        HttpClientSempTransport transport = new HttpClientSempTransport();
+
+        try (SempHttpResponse response = transport.get(baseUrl + "/SEMP/v2/monitor/msgVpns/testVpn/queues/testQueue", AUTH_HEADER)) {
+            assertTrue(response.isSuccess());
+            assertEquals(200, response.getStatusCode());
+            assertEquals(QUEUE_RESPONSE, new String(response.getBody().readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertEquals(List.of(AUTH_HEADER), authHeaders);
+    }
+
+    @Test
+    public void get_failedRequest() throws Exception {
+        HttpClientSempTransport transport = new HttpClientSempTransport();
+
+        try (SempHttpResponse response = transport.get(baseUrl + "/SEMP/v2/monitor/msgVpns/testVpn/queues/missing", AUTH_HEADER)) {
+            assertFalse(response.isSuccess());
+            assertEquals(404, response.getStatusCode());
+        }
+    }
+
+    @Test
+    public void get_reusesConnection() throws Exception {
+        HttpClientSempTransport transport = new HttpClientSempTransport();
+
+        for (int i = 0; i < 3; i++) {
+            try (SempHttpResponse response = transport.get(baseUrl + "/SEMP/v2/monitor/msgVpns/testVpn/queues/testQueue", AUTH_HEADER);
+                 InputStream body = response.getBody()) {
+                body.readAllBytes();
+            }
+        }
+        // All requests were sent over the same kept-alive connection
+        assertEquals(3, clientPorts.size());
+        assertEquals(1, clientPorts.stream().distinct().count());
+    }
+
+    @Test
+    public void get_https() throws Exception {
+        try (LocalSempStubServer httpsServer = LocalSempStubServer.startHttps(uri -> QUEUE_RESPONSE, 1)) {
+            HttpClientSempTransport transport = new HttpClientSempTransport(httpsServer.getSslContext(),
+                    HttpClientSempTransport.DEFAULT_CONNECT_TIMEOUT, Duration.ofSeconds(5L));
+
+            try (SempHttpResponse response = transport.get(httpsServer.getBaseUrl() + "/SEMP/v2/monitor/msgVpns/testVpn/queues/testQueue", AUTH_HEADER)) {
+                assertTrue(response.isSuccess());
+                assertEquals(QUEUE_RESPONSE, new String(response.getBody().readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+    }
+}
@@ -2,7 +2,15 @@ package com.solace.scalers.aws_ecs.model;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
 
 public class ScalerConfigParserTest {
 
@@ -18,6 +26,47 @@ public class ScalerConfigParserTest {
         assertEquals(scalerConfig.ecsServiceConfig.size(), 3);
         assertEquals(scalerConfig.ecsServiceConfig.get(0).ecsCluster, "ecsCluster1");
         assertEquals(scalerConfig.ecsServiceConfig.get(0).ecsService, "ecsService1");
+        // Single broker is listed in brokerConfigs
+        assertEquals(1, scalerConfig.brokerConfigs.size());
+        assertSame(scalerConfig.brokerConfig, scalerConfig.findBrokerConfig(scalerConfig.ecsServiceConfig.get(0)));
+    }
+
+    @Test
+    public void testParse_validMultiBroker() throws Exception {
+        String configFile = "src/test/resources/configs/valid-multi-broker-config.yaml";
+
+        ScalerConfig scalerConfig = ScalerConfigParser.validateScalerConfig(ScalerConfigParser.parseScalerConfig(configFile));
+
+        assertNull(scalerConfig.brokerConfig);
+        assertEquals(2, scalerConfig.brokerConfigs.size());
+        // Same queue name on different brokers is not a duplicate
+        assertEquals("vpnA", scalerConfig.findBrokerConfig(scalerConfig.ecsServiceConfig.get(0)).msgVpnName);
+        assertEquals("vpnB", scalerConfig.findBrokerConfig(scalerConfig.ecsServiceConfig.get(1)).msgVpnName);
+        assertEquals(ScalerConfig.BrokerConfig.SEMP_POLLING_MODE_QUEUE, scalerConfig.brokerConfigs.get(1).sempPollingMode);
+    }
+
+    @Test(expected = Exception.class)
+    public void testParse_unknownBrokerName() throws Exception {
+        ScalerConfig scalerConfig = ScalerConfigParser.parseScalerConfig("src/test/resources/configs/valid-multi-broker-config.yaml");
+        scalerConfig.ecsServiceConfig.get(0).brokerName = "broker2";
+
+        ScalerConfigParser.validateScalerConfig(scalerConfig);
+    }
+
+    @Test(expected = Exception.class)
+    public void testParse_missingBrokerNameWithMultipleBrokers() throws Exception {
+        ScalerConfig scalerConfig = ScalerConfigParser.parseScalerConfig("src/test/resources/configs/valid-multi-broker-config.yaml");
+        scalerConfig.ecsServiceConfig.get(0).brokerName = null;
+
+        ScalerConfigParser.validateScalerConfig(scalerConfig);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParse_duplicateBrokerName() throws Exception {
+        ScalerConfig scalerConfig = ScalerConfigParser.parseScalerConfig("src/test/resources/configs/valid-multi-broker-config.yaml");
+        scalerConfig.brokerConfigs.get(1).brokerName = "broker1-vpnA";
+
+        ScalerConfigParser.validateScalerConfig(scalerConfig);
     }
 
     @Test(expected = NullPointerException.class)
@@ -40,4 +89,115 @@ public class ScalerConfigParserTest {
 
         ScalerConfig scalerConfig = ScalerConfigParser.validateScalerConfig(ScalerConfigParser.parseScalerConfig(configFile));
     }
+
+    @Test
+    public void testParse_validDiscoveryRules() throws Exception {
+        String configFile = "src/test/resources/configs/valid-discovery-config.yaml";
+
+        ScalerConfig scalerConfig = ScalerConfigParser.validateScalerConfig(ScalerConfigParser.parseScalerConfig(configFile));
+
+        assertEquals(1, scalerConfig.ecsServiceConfig.size());
+        assertEquals(1, scalerConfig.discoveryRules.size());
+        assertEquals("orders/*/*", scalerConfig.discoveryRules.get(0).queueNamePattern);
+        assertEquals(60, scalerConfig.discoveryRules.get(0).discoveryInterval.intValue());
+        assertEquals(ScalerConfig.EcsServiceConfig.TASK_COUNT_SOURCE_CLOUDWATCH, scalerConfig.discoveryRules.get(0).taskCountSource);
+        // Scaler behavior defaults apply to discovery rules
+        assertEquals(0, scalerConfig.discoveryRules.get(0).scalerBehaviorConfig.scaleOutConfig.maxScaleStep.intValue());
+    }
+
+    @Test
+    public void testParse_discoveryRulesOnly() throws Exception {
+        ScalerConfig scalerConfig = ScalerConfigParser.parseScalerConfig("src/test/resources/configs/valid-discovery-config.yaml");
+        scalerConfig.ecsServiceConfig = null;
+
+        scalerConfig = ScalerConfigParser.validateScalerConfig(scalerConfig);
+
+        assertEquals(0, scalerConfig.ecsServiceConfig.size());
+        assertEquals(1, scalerConfig.discoveryRules.size());
+    }
+
+    @Test(expected = Exception.class)
+    public void testParse_invalidDiscoveryTemplate() throws Exception {
+        ScalerConfig scalerConfig = ScalerConfigParser.parseScalerConfig("src/test/resources/configs/valid-discovery-config.yaml");
+        scalerConfig.discoveryRules.get(0).ecsServiceTemplate = "orders-${3}";
+
+        ScalerConfigParser.validateScalerConfig(scalerConfig);
+    }
+
+    @Test
+    public void testParse_discoveryRuleMissingQueueNamePattern() throws Exception {
+        ScalerConfig scalerConfig = ScalerConfigParser.parseScalerConfig("src/test/resources/configs/valid-discovery-config.yaml");
+        scalerConfig.discoveryRules.get(0).queueNamePattern = null;
+
+        Exception exception = assertThrows(Exception.class, () -> ScalerConfigParser.validateScalerConfig(scalerConfig));
+        assertEquals("There were 1 validation errors detected in the discovery rules", exception.getMessage());
+    }
+
+    @Test
+    public void testParse_discoveryRuleMissingScalerBehaviorConfig() throws Exception {
+        ScalerConfig scalerConfig = ScalerConfigParser.parseScalerConfig("src/test/resources/configs/valid-discovery-config.yaml");
+        scalerConfig.discoveryRules.get(0).scalerBehaviorConfig = null;
+
+        Exception exception = assertThrows(Exception.class, () -> ScalerConfigParser.validateScalerConfig(scalerConfig));
+        assertEquals("There were 1 validation errors detected in the discovery rules", exception.getMessage());
+    }
+
+    @Test
+    public void testParse_validMultiQueueConfig() throws Exception {
+        String configFile = "src/test/resources/configs/valid-multi-queue-config.yaml";
+
+        ScalerConfig scalerConfig = ScalerConfigParser.validateScalerConfig(ScalerConfigParser.parseScalerConfig(configFile));
+
+        ScalerConfig.EcsServiceConfig aggregated = scalerConfig.ecsServiceConfig.get(0);
+        assertTrue(aggregated.isAggregated());
+        // queueName defaults to the first queue
+        assertEquals("orders/priority", aggregated.queueName);
+        assertEquals(List.of("orders/priority", "orders/standard"), aggregated.getQueueNames());
+        assertEquals(ScalerConfig.EcsServiceConfig.QUEUE_AGGREGATION_WEIGHTED, aggregated.queueAggregation);
+        assertEquals(1.0, aggregated.queues.get(1).weight, 0.0);
+
+        ScalerConfig.EcsServiceConfig single = scalerConfig.ecsServiceConfig.get(1);
+        assertFalse(single.isAggregated());
+        assertEquals(List.of("invoices"), single.getQueueNames());
+        assertEquals(ScalerConfig.EcsServiceConfig.QUEUE_AGGREGATION_SUM, single.queueAggregation);
+    }
+
+    @Test(expected = Exception.class)
+    public void testParse_multiQueueDuplicateQueue() throws Exception {
+        ScalerConfig scalerConfig = ScalerConfigParser.parseScalerConfig("src/test/resources/configs/valid-multi-queue-config.yaml");
+        // A queue can only be scaled by one service
+        scalerConfig.ecsServiceConfig.get(1).queueName = "orders/standard";
+
+        ScalerConfigParser.validateScalerConfig(scalerConfig);
+    }
+
+    @Test(expected = Exception.class)
+    public void testParse_invalidQueueAggregation() throws Exception {
+        ScalerConfig scalerConfig = ScalerConfigParser.parseScalerConfig("src/test/resources/configs/valid-multi-queue-config.yaml");
+        scalerConfig.ecsServiceConfig.get(0).queueAggregation = "average";
+
+        ScalerConfigParser.validateScalerConfig(scalerConfig);
+    }
+
+    @Test(expected = Exception.class)
+    public void testParse_queueNameNotInQueues() throws Exception {
+        ScalerConfig scalerConfig = ScalerConfigParser.parseScalerConfig("src/test/resources/configs/valid-multi-queue-config.yaml");
+        scalerConfig.ecsServiceConfig.get(0).queueName = "orders/other";
+
+        ScalerConfigParser.validateScalerConfig(scalerConfig);
+    }
+
+    @Test
+    public void testFindDuplicatesInList() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            names.add("service-queue-" + i);
+        }
+        assertEquals(List.of(), ScalerConfigParser.findDuplicatesInList(names));
+
+        names.add("service-queue-42");
+        names.add("service-queue-7");
+        names.add("service-queue-42");
+        assertEquals(List.of("service-queue-42", "service-queue-7"), ScalerConfigParser.findDuplicatesInList(names));
+    }
 }
@@ -0,0 +1,65 @@
+package com.solace.scalers.aws_ecs.util;
+
+import com.solace.scalers.aws_ecs.model.ScalerConfig.DiscoveryRuleConfig;
+import com.solace.scalers.aws_ecs.model.ScalerConfig.EcsServiceConfig;
+import com.solace.scalers.aws_ecs.model.ScalerConfig.ScalerBehaviorConfig;
+import org.junit.Test;
+
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+public class DiscoveryRuleUtilsTest {
+
+    @Test
+    public void compileQueueNamePattern() {
+        Pattern pattern = DiscoveryRuleUtils.compileQueueNamePattern("orders/*/v?.q");
+
+        assertTrue(pattern.matcher("orders/eu/v1.q").matches());
+        assertTrue(pattern.matcher("orders//v2.q").matches());
+        // Regular expression characters in the pattern are literals
+        assertFalse(pattern.matcher("orders/eu/v1xq").matches());
+        assertFalse(pattern.matcher("orders/eu/v10.q").matches());
+        assertEquals(2, DiscoveryRuleUtils.countWildcards("orders/*/v?.q"));
+    }
+
+    @Test
+    public void isValidTemplate() {
+        assertTrue(DiscoveryRuleUtils.isValidTemplate("svc-${1}-${2}", 2));
+        assertTrue(DiscoveryRuleUtils.isValidTemplate("svc-${queueName}", 0));
+        assertTrue(DiscoveryRuleUtils.isValidTemplate("fixed-cluster", 0));
+        assertFalse(DiscoveryRuleUtils.isValidTemplate("svc-${3}", 2));
+        assertFalse(DiscoveryRuleUtils.isValidTemplate("svc-${0}", 2));
+        assertFalse(DiscoveryRuleUtils.isValidTemplate("svc-${queue}", 2));
+    }
+
+    @Test
+    public void createEcsServiceConfig() {
+        DiscoveryRuleConfig rule = rule("orders/*/*", "cluster-${1}", "orders-${1}-${2}");
+        Pattern pattern = DiscoveryRuleUtils.compileQueueNamePattern(rule.getQueueNamePattern());
+
+        EcsServiceConfig serviceConfig = DiscoveryRuleUtils.createEcsServiceConfig(rule, pattern, "orders/eu/retail");
+        assertEquals("cluster-eu", serviceConfig.getEcsCluster());
+        assertEquals("orders-eu-retail", serviceConfig.getEcsService());
+        assertEquals("orders/eu/retail", serviceConfig.getQueueName());
+        assertSame(rule.getScalerBehaviorConfig(), serviceConfig.getScalerBehaviorConfig());
+
+        assertNull(DiscoveryRuleUtils.createEcsServiceConfig(rule, pattern, "payments/eu"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void createEcsServiceConfig_invalidEcsName() {
+        DiscoveryRuleConfig rule = rule("orders/*", "cluster", "${queueName}");
+
+        DiscoveryRuleUtils.createEcsServiceConfig(rule, DiscoveryRuleUtils.compileQueueNamePattern(rule.getQueueNamePattern()), "orders/eu");
+    }
+
+    private static DiscoveryRuleConfig rule(String queueNamePattern, String ecsClusterTemplate, String ecsServiceTemplate) {
+        return DiscoveryRuleConfig.builder()
+                .queueNamePattern(queueNamePattern)
+                .ecsClusterTemplate(ecsClusterTemplate)
+                .ecsServiceTemplate(ecsServiceTemplate)
+                .scalerBehaviorConfig(ScalerBehaviorConfig.builder().minReplicaCount(1).maxReplicaCount(10).build())
+                .build();
+    }
+}
@@ -34,7 +34,7 @@ public class EcsServiceScalerUtilsTest {
         metricObservations.put(evaluationTimeInstant - getMillisForNumberOfSeconds(60L), generateMetricsObservations(5, 20));
         metricObservations.put(evaluationTimeInstant - getMillisForNumberOfSeconds(120L), generateMetricsObservations(10, 1000));
 
-        EcsServiceScalerObservations observations = EcsServiceScalerUtils.getEcsServiceScalerObservations(evaluationTimeInstant, metricObservations, getMillisForNumberOfSeconds((long) ecsServiceConfig.getScalerBehaviorConfig().getScaleOutConfig().getStabilizationWindow()), getMillisForNumberOfSeconds((long) ecsServiceConfig.getScalerBehaviorConfig().getScaleInConfig().getStabilizationWindow()));
+        EcsServiceScalerObservations observations = MetricMapUtils.getEcsServiceScalerObservations(evaluationTimeInstant, metricObservations, getMillisForNumberOfSeconds((long) ecsServiceConfig.getScalerBehaviorConfig().getScaleOutConfig().getStabilizationWindow()), getMillisForNumberOfSeconds((long) ecsServiceConfig.getScalerBehaviorConfig().getScaleInConfig().getStabilizationWindow()));
 
         assertNotNull(observations);
         assertEquals(1000, observations.getMaxAverageMessageRateObservationUp());
@@ -63,7 +63,7 @@ public class EcsServiceScalerUtilsTest {
         metricObservations.put(evaluationTimeInstant - getMillisForNumberOfSeconds(60L), generateMetricsObservations(5, 20));
         metricObservations.put(evaluationTimeInstant - getMillisForNumberOfSeconds(45L), generateMetricsObservations(10, 50));
 
-        EcsServiceScalerObservations observations = EcsServiceScalerUtils.getEcsServiceScalerObservations(evaluationTimeInstant, metricObservations, evaluationTimeInstant - getMillisForNumberOfSeconds((long) ecsServiceConfig.getScalerBehaviorConfig().getScaleOutConfig().getStabilizationWindow()), evaluationTimeInstant - getMillisForNumberOfSeconds((long) ecsServiceConfig.getScalerBehaviorConfig().getScaleInConfig().getStabilizationWindow()));
+        EcsServiceScalerObservations observations = MetricMapUtils.getEcsServiceScalerObservations(evaluationTimeInstant, metricObservations, evaluationTimeInstant - getMillisForNumberOfSeconds((long) ecsServiceConfig.getScalerBehaviorConfig().getScaleOutConfig().getStabilizationWindow()), evaluationTimeInstant - getMillisForNumberOfSeconds((long) ecsServiceConfig.getScalerBehaviorConfig().getScaleInConfig().getStabilizationWindow()));
 
         assertNotNull(observations);
         assertEquals(50, observations.getMaxAverageMessageRateObservationUp());
@@ -92,7 +92,7 @@ public class EcsServiceScalerUtilsTest {
         metricObservations.put(evaluationTimeInstant - getMillisForNumberOfSeconds(60L), generateMetricsObservations(5, 20));
         metricObservations.put(evaluationTimeInstant - getMillisForNumberOfSeconds(45L), generateMetricsObservations(10, 50));
 
-        EcsServiceScalerObservations observations = EcsServiceScalerUtils.getEcsServiceScalerObservations(evaluationTimeInstant, metricObservations, evaluationTimeInstant - getMillisForNumberOfSeconds((long) ecsServiceConfig.getScalerBehaviorConfig().getScaleOutConfig().getStabilizationWindow()), evaluationTimeInstant - getMillisForNumberOfSeconds((long) ecsServiceConfig.getScalerBehaviorConfig().getScaleInConfig().getStabilizationWindow()));
+        EcsServiceScalerObservations observations = MetricMapUtils.getEcsServiceScalerObservations(evaluationTimeInstant, metricObservations, evaluationTimeInstant - getMillisForNumberOfSeconds((long) ecsServiceConfig.getScalerBehaviorConfig().getScaleOutConfig().getStabilizationWindow()), evaluationTimeInstant - getMillisForNumberOfSeconds((long) ecsServiceConfig.getScalerBehaviorConfig().getScaleInConfig().getStabilizationWindow()));
 
         assertNotNull(observations);
         assertEquals(50, observations.getMaxAverageMessageRateObservationUp());
@@ -121,7 +121,7 @@ public class EcsServiceScalerUtilsTest {
         metricObservations.put(evaluationTimeInstant - getMillisForNumberOfSeconds(60L), generateMetricsObservations(5, 20));
         metricObservations.put(evaluationTimeInstant - getMillisForNumberOfSeconds(120L), generateMetricsObservations(10, 1000));
 
-        EcsServiceScalerObservations observations = EcsServiceScalerUtils.getEcsServiceScalerObservations(evaluationTimeInstant, metricObservations, evaluationTimeInstant - getMillisForNumberOfSeconds((long) ecsServiceConfig.getScalerBehaviorConfig().getScaleOutConfig().getStabilizationWindow()), evaluationTimeInstant - getMillisForNumberOfSeconds((long) ecsServiceConfig.getScalerBehaviorConfig().getScaleInConfig().getStabilizationWindow()));
+        EcsServiceScalerObservations observations = MetricMapUtils.getEcsServiceScalerObservations(evaluationTimeInstant, metricObservations, evaluationTimeInstant - getMillisForNumberOfSeconds((long) ecsServiceConfig.getScalerBehaviorConfig().getScaleOutConfig().getStabilizationWindow()), evaluationTimeInstant - getMillisForNumberOfSeconds((long) ecsServiceConfig.getScalerBehaviorConfig().getScaleInConfig().getStabilizationWindow()));
 
         assertNotNull(observations);
         assertEquals(20, observations.getMaxAverageMessageRateObservationUp());
@@ -141,6 +141,145 @@ public class EcsServiceScalerUtilsTest {
         assertNull(ecsServiceScalerReplicaTarget.getReplicaTarget());
     }
 
+    @Test
+    public void computeDrainTimeReplicas() {
+        // 50 msg/s incoming, 6000 backlog to drain in 60s, 25 msg/s per task: (50 + 100) / 25 = 6
+        assertEquals(Integer.valueOf(6), EcsServiceScalerUtils.computeDrainTimeReplicas(60, 25.0, 6000L, 50L, 20, 0, true, 2));
+        // Step and max boundary
+        assertEquals(Integer.valueOf(4), EcsServiceScalerUtils.computeDrainTimeReplicas(60, 25.0, 6000L, 50L, 20, 2, true, 2));
+        assertEquals(Integer.valueOf(5), EcsServiceScalerUtils.computeDrainTimeReplicas(60, 25.0, 6000L, 50L, 5, 0, true, 2));
+        // Scale-in is moderated by the adjustment factor: 45 / (25 * 0.9) = 2, bounded by min replicas
+        assertEquals(Integer.valueOf(2), EcsServiceScalerUtils.computeDrainTimeReplicas(60, 25.0, 0L, 45L, 1, 0, false, 6));
+        assertEquals(Integer.valueOf(3), EcsServiceScalerUtils.computeDrainTimeReplicas(60, 25.0, 0L, 45L, 3, 0, false, 6));
+        // Idle queue scales to the minimum
+        assertEquals(Integer.valueOf(0), EcsServiceScalerUtils.computeDrainTimeReplicas(60, 25.0, 0L, 0L, 0, 0, false, 6));
+        // Throughput not learned: start one task if there is work and none are running, otherwise no target
+        assertEquals(Integer.valueOf(1), EcsServiceScalerUtils.computeDrainTimeReplicas(60, null, 10L, 0L, 20, 0, true, 0));
+        assertNull(EcsServiceScalerUtils.computeDrainTimeReplicas(60, null, 10L, 0L, 20, 0, true, 2));
+        assertNull(EcsServiceScalerUtils.computeDrainTimeReplicas(60, null, 10L, 0L, 0, 0, false, 2));
+    }
+
+    @Test
+    public void getReplicaTargets_drainTime() {
+        Integer currentDesiredReplicas = 2;
+        ScalerConfig.EcsServiceConfig ecsServiceConfig = scalerConfig.getEcsServiceConfig().get(0);
+        ecsServiceConfig.getScalerBehaviorConfig().setMessageCountTarget(0);
+        ecsServiceConfig.getScalerBehaviorConfig().setMessageReceiveRateTarget(0);
+        ecsServiceConfig.getScalerBehaviorConfig().setMessageSpoolUsageTarget(0);
+        ecsServiceConfig.getScalerBehaviorConfig().setMaxDrainSeconds(60);
+        EcsServiceScalerObservations observations = new EcsServiceScalerObservations();
+        observations.setMaxMessageCountObservationUp(6000L);
+        observations.setMaxAverageMessageRateObservationUp(50L);
+        observations.setMaxMessageCountObservationDown(6000L);
+        observations.setMaxAverageMessageRateObservationDown(50L);
+
+        EcsServiceScalerDesiredReplicaTargets desiredReplicaTargets = EcsServiceScalerUtils.getReplicaTargets(currentDesiredReplicas, observations, ecsServiceConfig, 25.0);
+        assertEquals(Integer.valueOf(Math.min(6, currentDesiredReplicas + ecsServiceConfig.getScalerBehaviorConfig().getScaleOutConfig().getMaxScaleStep())),
+                desiredReplicaTargets.getDesiredScaleOutTarget());
+
+        // Nothing learned yet and tasks are running: no drain-time target
+        desiredReplicaTargets = EcsServiceScalerUtils.getReplicaTargets(currentDesiredReplicas, observations, ecsServiceConfig, null);
+        assertNull(desiredReplicaTargets.getDesiredScaleOutTarget());
+        assertNull(desiredReplicaTargets.getDesiredScaleInTarget());
+    }
+
+    @Test
+    public void computeSpoolUsageReplicas() {
+        final long megabyte = 1024L * 1024L;
+        // 250MB spooled at 100MB per replica
+        assertEquals(Integer.valueOf(3), EcsServiceScalerUtils.computeSpoolUsageReplicas(100, 250L * megabyte, -1L, 80, 20, 0, true, 1));
+        // Below the escalation threshold the quota has no effect: 250MB of 1000MB
+        assertEquals(Integer.valueOf(3), EcsServiceScalerUtils.computeSpoolUsageReplicas(100, 250L * megabyte, 1000L, 80, 20, 0, true, 1));
+        // 900MB of 1000MB, escalating above 80%: target reduced to 100MB * 0.1 / 0.2 = 50MB per replica
+        assertEquals(Integer.valueOf(18), EcsServiceScalerUtils.computeSpoolUsageReplicas(100, 900L * megabyte, 1000L, 80, 20, 0, true, 1));
+        assertEquals(Integer.valueOf(9), EcsServiceScalerUtils.computeSpoolUsageReplicas(100, 900L * megabyte, 1000L, 0, 20, 0, true, 1));
+        // At the quota: scale out to the maximum, subject to step, and never scale in
+        assertEquals(Integer.valueOf(20), EcsServiceScalerUtils.computeSpoolUsageReplicas(100, 1000L * megabyte, 1000L, 80, 20, 0, true, 1));
+        assertEquals(Integer.valueOf(4), EcsServiceScalerUtils.computeSpoolUsageReplicas(100, 1000L * megabyte, 1000L, 80, 20, 3, true, 1));
+        assertEquals(Integer.valueOf(6), EcsServiceScalerUtils.computeSpoolUsageReplicas(100, 1000L * megabyte, 1000L, 80, 1, 0, false, 6));
+        // Scale-in is moderated by the adjustment factor: 180MB / (100MB * 0.9) = 2
+        assertEquals(Integer.valueOf(2), EcsServiceScalerUtils.computeSpoolUsageReplicas(100, 180L * megabyte, 1000L, 80, 1, 0, false, 6));
+        assertNull(EcsServiceScalerUtils.computeSpoolUsageReplicas(0, 180L * megabyte, 1000L, 80, 1, 0, false, 6));
+    }
+
+    @Test
+    public void getReplicaTargets_spoolUsage() {
+        Integer currentDesiredReplicas = 2;
+        ScalerConfig.EcsServiceConfig ecsServiceConfig = scalerConfig.getEcsServiceConfig().get(0);
+        ecsServiceConfig.getScalerBehaviorConfig().setMessageCountTarget(10);
+        ecsServiceConfig.getScalerBehaviorConfig().setMessageReceiveRateTarget(0);
+        ecsServiceConfig.getScalerBehaviorConfig().setMessageSpoolUsageTarget(1);
+        ecsServiceConfig.getScalerBehaviorConfig().getScaleOutConfig().setMaxScaleStep(0);
+        // Few, large messages: 20 messages using 8MB of spool
+        EcsServiceScalerObservations observations = new EcsServiceScalerObservations();
+        observations.setMaxMessageCountObservationUp(20L);
+        observations.setMaxSpoolUsageObservationUp(8L * 1024L * 1024L);
+        observations.setMaxMessageCountObservationDown(20L);
+        observations.setMaxSpoolUsageObservationDown(8L * 1024L * 1024L);
+
+        EcsServiceScalerDesiredReplicaTargets desiredReplicaTargets = EcsServiceScalerUtils.getReplicaTargets(currentDesiredReplicas, observations, ecsServiceConfig);
+        assertEquals(Integer.valueOf(Math.min(8, ecsServiceConfig.getScalerBehaviorConfig().getMaxReplicaCount())), desiredReplicaTargets.getDesiredScaleOutTarget());
+    }
+
+    @Test
+    public void getSurgeTrigger() {
+        assertNull(EcsServiceScalerUtils.getSurgeTrigger(new ScalerConfig.SurgeConfig(0, 0), 1000000L, 1000000.0));
+        ScalerConfig.SurgeConfig surgeConfig = new ScalerConfig.SurgeConfig(100, 5000);
+        assertNull(EcsServiceScalerUtils.getSurgeTrigger(surgeConfig, 4999L, 99.9));
+        assertNull(EcsServiceScalerUtils.getSurgeTrigger(surgeConfig, 4999L, null));
+        assertNotNull(EcsServiceScalerUtils.getSurgeTrigger(surgeConfig, 5000L, null));
+        assertNotNull(EcsServiceScalerUtils.getSurgeTrigger(surgeConfig, 10L, 100.0));
+    }
+
+    @Test
+    public void scaleEcsService_surge() {
+        long evaluationTimeInstant = System.currentTimeMillis();
+        Integer currentDesiredReplicas = 2;
+        ScalerConfig.EcsServiceConfig ecsServiceConfig = scalerConfig.getEcsServiceConfig().get(0);
+        EcsServiceScalerObservations observations = new EcsServiceScalerObservations();
+        observations.setMaxMessageCountObservationUp(1000L);
+        observations.setMaxMessageCountObservationDown(1000L);
+
+        // maxScaleStep=5 limits the normal target; the surge target is bounded only by maxReplicaCount=10
+        assertEquals(Integer.valueOf(7), EcsServiceScalerUtils.getReplicaTargets(currentDesiredReplicas, observations, ecsServiceConfig, null, false).getDesiredScaleOutTarget());
+        EcsServiceScalerDesiredReplicaTargets desiredReplicaTargets = EcsServiceScalerUtils.getReplicaTargets(currentDesiredReplicas, observations, ecsServiceConfig, null, true);
+        assertEquals(Integer.valueOf(10), desiredReplicaTargets.getDesiredScaleOutTarget());
+
+        // Scaled out 10 seconds ago, within the 30 second cooldown
+        long lastScaleOutTime = evaluationTimeInstant - getMillisForNumberOfSeconds(10L);
+        EcsServiceScalerReplicaTarget replicaTarget = EcsServiceScalerUtils.getReplicaTarget(desiredReplicaTargets.getDesiredScaleInTarget(), desiredReplicaTargets.getDesiredScaleOutTarget(), currentDesiredReplicas, evaluationTimeInstant, lastScaleOutTime, 0L, ecsServiceConfig, false);
+        assertFalse(replicaTarget.isScaleOutDecision());
+        replicaTarget = EcsServiceScalerUtils.getReplicaTarget(desiredReplicaTargets.getDesiredScaleInTarget(), desiredReplicaTargets.getDesiredScaleOutTarget(), currentDesiredReplicas, evaluationTimeInstant, lastScaleOutTime, 0L, ecsServiceConfig, true);
+        assertTrue(replicaTarget.isScaleOutDecision());
+        assertEquals(Integer.valueOf(10), replicaTarget.getReplicaTarget());
+    }
+
+    @Test
+    public void applyForecast() {
+        EcsServiceScalerObservations observations = new EcsServiceScalerObservations();
+        observations.setMaxMessageCountObservationUp(120L);
+        observations.setNewestMessageCountObservation(100L);
+        observations.setMaxAverageMessageRateObservationUp(50L);
+        observations.setNewestAverageMessageRateObservation(50L);
+        observations.setMaxMessageCountObservationDown(120L);
+
+        // Count projection capped at +50% of the newest observation; a lower rate projection is ignored
+        EcsServiceScalerUtils.applyForecast(observations, 400.0, 20.0, 50);
+        assertEquals(150L, observations.getMaxMessageCountObservationUp());
+        assertEquals(50L, observations.getMaxAverageMessageRateObservationUp());
+        // Scale-in is not affected
+        assertEquals(120L, observations.getMaxMessageCountObservationDown());
+
+        EcsServiceScalerUtils.applyForecast(observations, null, 60.5, 50);
+        assertEquals(150L, observations.getMaxMessageCountObservationUp());
+        assertEquals(61L, observations.getMaxAverageMessageRateObservationUp());
+
+        // No scale-out computation without recent observations
+        observations.setComputeScaleOut(false);
+        EcsServiceScalerUtils.applyForecast(observations, 1000.0, 1000.0, 100);
+        assertEquals(150L, observations.getMaxMessageCountObservationUp());
+    }
+
     private Long getMillisForNumberOfSeconds(Long numberOfSeconds) {
         return numberOfSeconds * 1000L;
     }
@@ -0,0 +1,77 @@
+package com.solace.scalers.aws_ecs.util;
+
+import com.solace.scalers.aws_ecs.model.semp_v2.SempQueueObservation;
+import com.solace.scalers.aws_ecs.model.semp_v2.SempQueueResponse;
+import com.solace.scalers.aws_ecs.model.util.ecs.EcsServiceScalerObservations;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.solace.scalers.aws_ecs.util.EcsServiceScalerUtils.METRIC_AVG_RX_RATE;
+import static com.solace.scalers.aws_ecs.util.EcsServiceScalerUtils.METRIC_AVG_TX_RATE;
+import static com.solace.scalers.aws_ecs.util.EcsServiceScalerUtils.METRIC_MSG_COUNT;
+import static com.solace.scalers.aws_ecs.util.EcsServiceScalerUtils.METRIC_SPOOL_USAGE;
+
+/**
+ * Map-based metric observations, as stored before MetricObservationBuffer and SempResponseParser.
+ * Kept for tests and benchmarks that compare against them; not used by the scaler.
+ */
+public class MetricMapUtils {
+
+    /**
+     * Full scan of every observation; reference for MetricObservationBuffer.aggregate
+     * @param evaluationTimeInstant
+     * @param metricObservations - observation time --> metric name --> value
+     * @param scaleOutMetricHorizon
+     * @param scaleInMetricHorizon
+     * @return
+     */
+    public static EcsServiceScalerObservations getEcsServiceScalerObservations(long evaluationTimeInstant, final Map<Long, Map<String, Long>> metricObservations, final long scaleOutMetricHorizon, final long scaleInMetricHorizon) {
+        EcsServiceScalerObservations ecsServiceScalerObservations = new EcsServiceScalerObservations();
+        for (Map.Entry<Long, Map<String, Long>> entry : metricObservations.entrySet()) {
+            if (entry.getKey() > ecsServiceScalerObservations.getNewestObservationTime()) {
+                ecsServiceScalerObservations.setNewestObservationTime(entry.getKey());
+                ecsServiceScalerObservations.setNewestMessageCountObservation(entry.getValue().get(METRIC_MSG_COUNT));
+                ecsServiceScalerObservations.setNewestAverageMessageRateObservation(entry.getValue().get(METRIC_AVG_RX_RATE));
+                ecsServiceScalerObservations.setNewestAverageTxRateObservation(entry.getValue().getOrDefault(METRIC_AVG_TX_RATE, SempQueueObservation.NOT_REPORTED));
+                ecsServiceScalerObservations.setNewestSpoolUsageObservation(getSpoolUsage(entry.getValue()));
+                ecsServiceScalerObservations.setFoundNewObservation(true);
+            }
+            if (entry.getKey() > scaleOutMetricHorizon) {
+                ecsServiceScalerObservations.setMaxMessageCountObservationUp(Math.max(ecsServiceScalerObservations.getMaxMessageCountObservationUp(), entry.getValue().get(METRIC_MSG_COUNT)));
+                ecsServiceScalerObservations.setMaxAverageMessageRateObservationUp(Math.max(ecsServiceScalerObservations.getMaxAverageMessageRateObservationUp(), entry.getValue().get(METRIC_AVG_RX_RATE)));
+                ecsServiceScalerObservations.setMaxSpoolUsageObservationUp(Math.max(ecsServiceScalerObservations.getMaxSpoolUsageObservationUp(), getSpoolUsage(entry.getValue())));
+                ecsServiceScalerObservations.setFoundWindowObservationUp(true);
+            }
+            if (entry.getKey() > scaleInMetricHorizon) {
+                ecsServiceScalerObservations.setMaxMessageCountObservationDown(Math.max(ecsServiceScalerObservations.getMaxMessageCountObservationDown(), entry.getValue().get(METRIC_MSG_COUNT)));
+                ecsServiceScalerObservations.setMaxAverageMessageRateObservationDown(Math.max(ecsServiceScalerObservations.getMaxAverageMessageRateObservationDown(), entry.getValue().get(METRIC_AVG_RX_RATE)));
+                ecsServiceScalerObservations.setMaxSpoolUsageObservationDown(Math.max(ecsServiceScalerObservations.getMaxSpoolUsageObservationDown(), getSpoolUsage(entry.getValue())));
+                ecsServiceScalerObservations.setFoundWindowObservationDown(true);
+            }
+        }
+
+        EcsServiceScalerUtils.applyNewestObservationFallback(evaluationTimeInstant, ecsServiceScalerObservations);
+
+        return ecsServiceScalerObservations;
+    }
+
+    /**
+     * Copy the metrics of a Gson-parsed SEMPv2 queue response into a Map; reference for SempResponseParser
+     * @param sempQueueResponse
+     * @return
+     */
+    public static Map<String, Long> getQueueMetricsFromQueueResponse(SempQueueResponse sempQueueResponse) {
+        Map<String, Long> metrics = new HashMap<>(3);
+        metrics.put(METRIC_MSG_COUNT, SolaceQueueMonitorUtils.getMessageCountFromQueueResponse(sempQueueResponse));
+        metrics.put(METRIC_AVG_RX_RATE, SolaceQueueMonitorUtils.getMessageReceiveRateFromQueueResponse(sempQueueResponse));
+        metrics.put(METRIC_SPOOL_USAGE, SolaceQueueMonitorUtils.getMessageSpoolUsageFromQueueResponse(sempQueueResponse));
+        return metrics;
+    }
+
+    // Spool usage may be absent from SEMP responses
+    private static long getSpoolUsage(Map<String, Long> metrics) {
+        Long spoolUsage = metrics.get(METRIC_SPOOL_USAGE);
+        return spoolUsage == null ? 0L : Math.max(spoolUsage, 0L);
+    }
+}
@@ -0,0 +1,85 @@
+package com.solace.scalers.aws_ecs.util;
+
+import com.solace.scalers.aws_ecs.model.ScalerConfig.EcsServiceConfig;
+import com.solace.scalers.aws_ecs.model.ScalerConfig.QueueConfig;
+import com.solace.scalers.aws_ecs.model.ScalerConfig.ScalerBehaviorConfig;
+import com.solace.scalers.aws_ecs.model.semp_v2.SempQueueObservation;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class QueueAggregationUtilsTest {
+
+    private static final List<SempQueueObservation> OBSERVATIONS = List.of(
+            new SempQueueObservation("q1", 100L, 10L, 8L, 2000L, 50L, 1000L, "http://broker"),
+            new SempQueueObservation("q2", 40L, 30L, 6L, 5000L, 20L, 500L, "http://broker"));
+
+    @Test
+    public void sumAddsEveryQueue() {
+        SempQueueObservation aggregated = QueueAggregationUtils.aggregate(serviceConfig(EcsServiceConfig.QUEUE_AGGREGATION_SUM), OBSERVATIONS);
+
+        assertEquals("q1", aggregated.getQueueName());
+        assertEquals(140L, aggregated.getMsgCount());
+        assertEquals(40L, aggregated.getAverageRxMsgRate());
+        assertEquals(14L, aggregated.getAverageTxMsgRate());
+        assertEquals(7000L, aggregated.getMsgSpoolUsage());
+        assertEquals(70L, aggregated.getMaxMsgSpoolUsage());
+        // Counters are not combined; rates from counters are computed per queue
+        assertFalse(SempQueueObservation.isReported(aggregated.getSpooledMsgCount()));
+        assertEquals("http://broker", aggregated.getBrokerSempUrl());
+    }
+
+    @Test
+    public void maxKeepsLargestValues() {
+        SempQueueObservation aggregated = QueueAggregationUtils.aggregate(serviceConfig(EcsServiceConfig.QUEUE_AGGREGATION_MAX), OBSERVATIONS);
+
+        assertEquals(100L, aggregated.getMsgCount());
+        assertEquals(30L, aggregated.getAverageRxMsgRate());
+        assertEquals(8L, aggregated.getAverageTxMsgRate());
+        assertEquals(5000L, aggregated.getMsgSpoolUsage());
+        // Quota of the queue with the largest spool usage
+        assertEquals(20L, aggregated.getMaxMsgSpoolUsage());
+    }
+
+    @Test
+    public void weightedMultipliesByWeight() {
+        SempQueueObservation aggregated = QueueAggregationUtils.aggregate(serviceConfig(EcsServiceConfig.QUEUE_AGGREGATION_WEIGHTED), OBSERVATIONS);
+
+        assertEquals(100L * 2 + 20L, aggregated.getMsgCount());
+        assertEquals(10L * 2 + 15L, aggregated.getAverageRxMsgRate());
+        assertEquals(8L * 2 + 3L, aggregated.getAverageTxMsgRate());
+    }
+
+    @Test
+    public void valueMissingFromAnyQueueIsNotReported() {
+        List<SempQueueObservation> observations = List.of(
+                new SempQueueObservation("q1", 100L, 10L, 8L, 2000L),
+                new SempQueueObservation("q2", 40L, SempQueueObservation.NOT_REPORTED, 6L, 5000L));
+
+        SempQueueObservation aggregated = QueueAggregationUtils.aggregate(serviceConfig(EcsServiceConfig.QUEUE_AGGREGATION_SUM), observations);
+
+        assertEquals(140L, aggregated.getMsgCount());
+        assertEquals(SempQueueObservation.NOT_REPORTED, aggregated.getAverageRxMsgRate());
+        assertEquals(SempQueueObservation.NOT_REPORTED, aggregated.getMaxMsgSpoolUsage());
+    }
+
+    @Test
+    public void singleObservationIsUnchanged() {
+        SempQueueObservation observation = OBSERVATIONS.get(0);
+
+        assertSame(observation, QueueAggregationUtils.aggregate(serviceConfig(EcsServiceConfig.QUEUE_AGGREGATION_WEIGHTED), List.of(observation)));
+    }
+
+    private static EcsServiceConfig serviceConfig(String queueAggregation) {
+        return EcsServiceConfig.builder()
+                .ecsCluster("cluster")
+                .ecsService("service")
+                .queueName("q1")
+                .queues(List.of(new QueueConfig("q1", 2.0), new QueueConfig("q2", 0.5)))
+                .queueAggregation(queueAggregation)
+                .scalerBehaviorConfig(ScalerBehaviorConfig.builder().minReplicaCount(1).maxReplicaCount(10).build())
+                .build();
+    }
+}
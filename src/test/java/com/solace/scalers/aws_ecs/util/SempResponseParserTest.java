@@ -0,0 +1,90 @@
+package com.solace.scalers.aws_ecs.util;
+
+import com.solace.scalers.aws_ecs.model.semp_v2.SempQueueObservation;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class SempResponseParserTest {
+
+    public static final String QUEUE_RESPONSE = "{\"data\":{\"averageRxMsgRate\":12,\"averageTxMsgRate\":11,\"maxMsgSpoolUsage\":5000,\"msgSpoolUsage\":2048,\"msgVpnName\":\"demo2\",\"queueName\":\"service-queue-1\",\"spooledMsgCount\":123456},\"collections\":{\"msgs\":{\"count\":42}},\"links\":{},\"meta\":{\"request\":{\"method\":\"GET\",\"uri\":\"http://localhost:8080/SEMP/v2/monitor/msgVpns/demo2/queues/service-queue-1\"},\"responseCode\":200}}";
+    public static final String QUEUE_RESPONSE_MISSING_FIELDS = "{\"data\":{\"averageRxMsgRate\":null,\"queueName\":\"service-queue-1\"},\"meta\":{\"responseCode\":200}}";
+    // SEMP returns collections before data; entry i of each array belongs to the same queue
+    public static final String COLLECTION_PAGE_RESPONSE = "{\"collections\":[{\"msgs\":{\"count\":5}},{\"msgs\":{\"count\":999}},{\"msgs\":{\"count\":7}}],\"data\":[{\"averageRxMsgRate\":10,\"averageTxMsgRate\":8,\"msgSpoolUsage\":100,\"queueName\":\"service-queue-1\"},{\"averageRxMsgRate\":99,\"averageTxMsgRate\":99,\"msgSpoolUsage\":999,\"queueName\":\"service-queue-unmonitored\"},{\"averageRxMsgRate\":20,\"averageTxMsgRate\":18,\"msgSpoolUsage\":200,\"queueName\":\"service-queue-2\"}],\"links\":[{\"uri\":\"x\"},{\"uri\":\"y\"},{\"uri\":\"z\"}],\"meta\":{\"count\":3,\"paging\":{\"cursorQuery\":\"abc\",\"nextPageUri\":\"http://localhost:8080/SEMP/v2/monitor/msgVpns/demo2/queues?count=100&cursor=abc\"},\"responseCode\":200}}";
+    public static final String LAST_COLLECTION_PAGE_RESPONSE = "{\"data\":[{\"averageRxMsgRate\":30,\"averageTxMsgRate\":28,\"msgSpoolUsage\":300,\"queueName\":\"service-queue-3\"}],\"collections\":[{\"msgs\":{\"count\":9}}],\"links\":[],\"meta\":{\"responseCode\":200}}";
+
+    @Test
+    public void parseQueueResponse() throws Exception {
+        SempQueueObservation observation = SempResponseParser.parseQueueResponse(stream(QUEUE_RESPONSE), new SempQueueObservation());
+
+        assertEquals("service-queue-1", observation.getQueueName());
+        assertEquals(42L, observation.getMsgCount());
+        assertEquals(12L, observation.getAverageRxMsgRate());
+        assertEquals(11L, observation.getAverageTxMsgRate());
+        assertEquals(2048L, observation.getMsgSpoolUsage());
+        assertEquals(5000L, observation.getMaxMsgSpoolUsage());
+        assertEquals(123456L, observation.getSpooledMsgCount());
+    }
+
+    @Test
+    public void parseQueueResponse_missingFields() throws Exception {
+        // Re-used observation is reset before parsing
+        SempQueueObservation observation = SempResponseParser.parseQueueResponse(stream(QUEUE_RESPONSE), new SempQueueObservation());
+        SempResponseParser.parseQueueResponse(stream(QUEUE_RESPONSE_MISSING_FIELDS), observation);
+
+        assertEquals("service-queue-1", observation.getQueueName());
+        assertFalse(SempQueueObservation.isReported(observation.getMsgCount()));
+        assertFalse(SempQueueObservation.isReported(observation.getAverageRxMsgRate()));
+        assertFalse(SempQueueObservation.isReported(observation.getMsgSpoolUsage()));
+        assertFalse(SempQueueObservation.isReported(observation.getMaxMsgSpoolUsage()));
+        assertFalse(SempQueueObservation.isReported(observation.getSpooledMsgCount()));
+        assertFalse(SempQueueObservation.isReported(observation.getAverageTxMsgRate()));
+    }
+
+    @Test
+    public void parseQueueCollectionPage() throws Exception {
+        Map<String, SempQueueObservation> observations = new HashMap<>();
+        Set<String> monitoredQueueNames = Set.of("service-queue-1", "service-queue-2", "service-queue-3");
+
+        String nextPageUri = SempResponseParser.parseQueueCollectionPage(stream(COLLECTION_PAGE_RESPONSE), monitoredQueueNames, observations);
+
+        assertEquals("http://localhost:8080/SEMP/v2/monitor/msgVpns/demo2/queues?count=100&cursor=abc", nextPageUri);
+        assertEquals(2, observations.size());
+        assertFalse(observations.containsKey("service-queue-unmonitored"));
+        assertEquals(5L, observations.get("service-queue-1").getMsgCount());
+        assertEquals(7L, observations.get("service-queue-2").getMsgCount());
+        assertEquals(18L, observations.get("service-queue-2").getAverageTxMsgRate());
+
+        assertNull(SempResponseParser.parseQueueCollectionPage(stream(LAST_COLLECTION_PAGE_RESPONSE), monitoredQueueNames, observations));
+        assertEquals(3, observations.size());
+        assertEquals(9L, observations.get("service-queue-3").getMsgCount());
+        assertEquals(300L, observations.get("service-queue-3").getMsgSpoolUsage());
+    }
+
+    @Test
+    public void parseQueueNamePage() throws Exception {
+        Set<String> queueNames = new LinkedHashSet<>();
+
+        String nextPageUri = SempResponseParser.parseQueueNamePage(stream(COLLECTION_PAGE_RESPONSE), queueNames);
+
+        assertEquals("http://localhost:8080/SEMP/v2/monitor/msgVpns/demo2/queues?count=100&cursor=abc", nextPageUri);
+        assertEquals(List.of("service-queue-1", "service-queue-unmonitored", "service-queue-2"), new ArrayList<>(queueNames));
+
+        assertNull(SempResponseParser.parseQueueNamePage(stream(LAST_COLLECTION_PAGE_RESPONSE), queueNames));
+        assertEquals(4, queueNames.size());
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
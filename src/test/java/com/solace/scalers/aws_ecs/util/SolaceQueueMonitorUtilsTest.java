@@ -1,5 +1,8 @@
 package com.solace.scalers.aws_ecs.util;
 
+import com.solace.scalers.aws_ecs.MessageVpnStateTracker;
+import com.solace.scalers.aws_ecs.SolaceQueueCollectionMonitor;
+import com.solace.scalers.aws_ecs.SolaceQueueConcurrentMonitor;
 import com.solace.scalers.aws_ecs.SolaceQueueMonitor;
 import com.solace.scalers.aws_ecs.model.ScalerConfig;
 import com.solace.scalers.aws_ecs.model.ScalerConfigParser;
@@ -8,7 +11,11 @@ import org.junit.Test;
 import static com.solace.scalers.aws_ecs.SolaceQueueMonitor.ACTIVE_SEMP_CONFIG;
 import static com.solace.scalers.aws_ecs.SolaceQueueMonitor.STANDBY_SEMP_CONFIG;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 public class SolaceQueueMonitorUtilsTest {
 
@@ -36,5 +43,53 @@ public class SolaceQueueMonitorUtilsTest {
         assertNull(solaceQueueMonitor.getSempConfigMap().get(STANDBY_SEMP_CONFIG));
     }
 
+    @Test
+    public void createSolaceQueueMonitorWithBasicAuth_SharedVpnStateTracker() throws Exception {
+        String configFile = "src/test/resources/configs/valid-config.yaml";
+        ScalerConfig scalerConfig = ScalerConfigParser.validateScalerConfig(ScalerConfigParser.parseScalerConfig(configFile));
+
+        MessageVpnStateTracker messageVpnStateTracker = SolaceQueueMonitorUtils.createMessageVpnStateTracker(scalerConfig.getBrokerConfig());
+        SolaceQueueMonitor firstMonitor = SolaceQueueMonitorUtils.createSolaceQueueMonitorWithBasicAuth(messageVpnStateTracker, scalerConfig.getEcsServiceConfig().get(0));
+        SolaceQueueMonitor secondMonitor = SolaceQueueMonitorUtils.createSolaceQueueMonitorWithBasicAuth(messageVpnStateTracker, scalerConfig.getEcsServiceConfig().get(1));
+
+        assertSame(firstMonitor.getMessageVpnStateTracker(), secondMonitor.getMessageVpnStateTracker());
+        assertEquals(30000L, firstMonitor.getMessageVpnStateTracker().getCacheTtlMillis());
+    }
+
+    @Test
+    public void createSolaceQueuePollingMonitorWithBasicAuth_TrackerPerBrokerConfig() throws Exception {
+        String configFile = "src/test/resources/configs/valid-config.yaml";
+        ScalerConfig firstConfig = ScalerConfigParser.validateScalerConfig(ScalerConfigParser.parseScalerConfig(configFile));
+        ScalerConfig secondConfig = ScalerConfigParser.validateScalerConfig(ScalerConfigParser.parseScalerConfig(configFile));
+        // Same broker URLs and VPN, different credentials and TTL
+        secondConfig.getBrokerConfig().getActiveMsgVpnSempConfig().setUsername("other-user");
+        secondConfig.getBrokerConfig().setVpnStateCacheTtl(5);
+
+        SolaceQueueCollectionMonitor firstMonitor = SolaceQueueMonitorUtils.createSolaceQueuePollingMonitorWithBasicAuth(firstConfig.getBrokerConfig(), firstConfig.getEcsServiceConfig());
+        SolaceQueueCollectionMonitor secondMonitor = SolaceQueueMonitorUtils.createSolaceQueuePollingMonitorWithBasicAuth(secondConfig.getBrokerConfig(), secondConfig.getEcsServiceConfig());
+
+        assertNotSame(firstMonitor.getMessageVpnStateTracker(), secondMonitor.getMessageVpnStateTracker());
+        assertEquals(30000L, firstMonitor.getMessageVpnStateTracker().getCacheTtlMillis());
+        assertEquals(5000L, secondMonitor.getMessageVpnStateTracker().getCacheTtlMillis());
+        assertEquals("other-user", secondMonitor.getMessageVpnStateTracker().getActiveSempConfig().getUsername());
+    }
+
+    @Test
+    public void createSolaceQueuePollingMonitorWithBasicAuth_QueueMode() throws Exception {
+        String configFile = "src/test/resources/configs/valid-config.yaml";
+        ScalerConfig scalerConfig = ScalerConfigParser.validateScalerConfig(ScalerConfigParser.parseScalerConfig(configFile));
+
+        assertFalse(SolaceQueueMonitorUtils.createSolaceQueuePollingMonitorWithBasicAuth(scalerConfig.getBrokerConfig(), scalerConfig.getEcsServiceConfig()) instanceof SolaceQueueConcurrentMonitor);
+
+        scalerConfig.getBrokerConfig().setSempPollingMode(ScalerConfig.BrokerConfig.SEMP_POLLING_MODE_QUEUE);
+        scalerConfig.getBrokerConfig().setSempMaxConcurrentRequests(8);
+        SolaceQueueCollectionMonitor monitor = SolaceQueueMonitorUtils.createSolaceQueuePollingMonitorWithBasicAuth(scalerConfig.getBrokerConfig(), scalerConfig.getEcsServiceConfig());
+
+        assertTrue(monitor instanceof SolaceQueueConcurrentMonitor);
+        assertEquals(8, ((SolaceQueueConcurrentMonitor) monitor).getMaxConcurrentRequests());
+        // Cycle deadline defaults to the polling interval
+        assertEquals((long) scalerConfig.getBrokerConfig().getPollingInterval(), ((SolaceQueueConcurrentMonitor) monitor).getCycleDeadline().getSeconds());
+    }
+
 
 }